@@ -1,21 +1,41 @@
 import dataProviders.ConfigFileReader;
+import enums.SimulatorMode;
+import executors.CachingJPacmanExecutor;
+import executors.CoverageMap;
+import executors.ExecutionResult;
+import executors.JPacmanExecutor;
+import executors.JPacmanSimulator;
+import executors.VirtualThreads;
 import managers.FileReaderManager;
+import organizers.ContentHash;
+import organizers.CorpusStore;
 import organizers.DirectoryHandler;
 import organizers.FileHandler;
+import organizers.ResultCache;
+import outputProviders.CrashMinimizer;
 import outputProviders.IterationResult;
+import outputProviders.IterationResultsAggregator;
 import outputProviders.LogFileHandler;
+import outputProviders.ResultPersistenceWriter;
+import outputProviders.StringDictionary;
+import randomGenerators.ActionSequence;
+import randomGenerators.CoverageCorpus;
 import randomGenerators.RandomActionSequenceGenerator;
+import randomGenerators.RandomSource;
 import randomGenerators.map.MapGenerator;
 import randomGenerators.map.RandomBinaryMapGenerator;
 import randomGenerators.map.RandomMapGenerator;
 import randomGenerators.map.RandomTextMapGenerator;
+import randomGenerators.map.ValidTextMapGenerator;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * ! Note:
@@ -56,6 +76,39 @@ public class Fuzzer {
      */
     private static final long TIME_BUDGET_MS = configFileReader.getMaxTime();
 
+    /**
+     * Number of iterations that are executed at the same time. Specified in configurations file.
+     */
+    private static final int PARALLELISM = configFileReader.getParallelism();
+
+    /**
+     * The root of all randomness of this run. Its seed is specified in configurations file, or drawn if not.
+     */
+    private static final RandomSource RANDOM_SOURCE = new RandomSource(configFileReader.getSeed());
+
+    /**
+     * The way the JPacmanSimulator is used as an oracle. Specified in configurations file.
+     */
+    private static final SimulatorMode SIMULATOR_MODE = configFileReader.getSimulatorMode();
+
+    /**
+     * In screen mode, one in this many iterations is executed even if the simulator is sure about it. Specified in
+     * configurations file.
+     */
+    private static final int SIMULATOR_CHECK_INTERVAL = configFileReader.getSimulatorCheckInterval();
+
+    /**
+     * The ids of the output messages. The iteration workers intern the message of their result, so the reporting
+     * thread counts results by id.
+     */
+    private static final StringDictionary OUTPUT_MESSAGES = new StringDictionary();
+
+    /**
+     * Number of inputs in a row that may be skipped because the persistent corpus has them, before the fuzzer decides
+     * the generators find no new inputs anymore.
+     */
+    private static final int MAX_DUPLICATES_IN_A_ROW = 10000;
+
     /**
      * The copies of the original maps and the mutated versions in one list. Only used in mutational testing.
      */
@@ -78,18 +131,53 @@ public class Fuzzer {
         /* * In case of random maps or sequences, we need a new file and sequence generator */
         RandomActionSequenceGenerator randomActionSequenceGenerator = new RandomActionSequenceGenerator();
         MapGenerator mapGenerator = new RandomMapGenerator();
+        // In stress mode, the random maps are large maps of the configured sizes, to chart the time of JPacman
+        RandomTextMapGenerator stressMapGenerator = null;
+        int[][] stressMapSizes = null;
+        if (configFileReader.getStressMode()) {
+            stressMapGenerator = new RandomTextMapGenerator(configFileReader.getMaxTextMapHeight() + 1,
+                    configFileReader.getMaxTextMapWidth() + 1);
+            stressMapSizes = configFileReader.getStressMapSizes();
+        }
+        // Log the seed, so that this run (or one iteration of it) can be generated again
+        System.out.println("Seed: " + RANDOM_SOURCE.getSeed());
 
         /* * New file handlers for the maps and logs, and then organizing result directory */
          // Create the needed directories and clean them up if that is needed
         FileHandler fileHandler = new FileHandler();
         fileHandler.initializeDirectories(); // Reads count as well
         LogFileHandler logFileHandler = new LogFileHandler();
-
-        /* * Initialization result variables */
-        // Store results of the process ran
-        List<IterationResult> iterationResults = new ArrayList<>();
-        Map<Integer, List<IterationResult>> iterationResultsByErrorCode = new HashMap<>();
-        Map<String, List<IterationResult>> iterationResultsByOutputMessage = new HashMap<>();
+        // Count results of the process ran, the results themselves are streamed to the logs by the persistence writer
+        IterationResultsAggregator iterationResultsAggregator = new IterationResultsAggregator(OUTPUT_MESSAGES);
+        // Moves maps and appends the log CSV rows in the background, while iterating
+        ResultPersistenceWriter persistenceWriter = new ResultPersistenceWriter(iterationResultsAggregator.getResultStore());
+        // Fork a JVM per iteration or run the jar inside this JVM, as specified in configs
+        // Look up results of earlier executions before running the jar, if the result cache is switched on in configs
+        JPacmanExecutor jarExecutor = JPacmanExecutor.create(configFileReader.getExecutionMode(), PARALLELISM);
+        CachingJPacmanExecutor cachingExecutor = null;
+        if (configFileReader.getResultCache()) {
+            cachingExecutor = new CachingJPacmanExecutor(jarExecutor,
+                    new ResultCache(FileHandler.resultCacheDirectoryPath, JPacmanExecutor.JPACMAN_JAR_PATH));
+        }
+        JPacmanExecutor executor = cachingExecutor != null ? cachingExecutor : jarExecutor;
+        // Workers execute and classify the iterations, while this thread generates the next maps and sequences.
+        // One virtual thread per iteration if switched on in configs, otherwise a pool of platform threads. Both run
+        // at most PARALLELISM executions at a time, the virtual threads only save platform threads.
+        ExecutorService iterationWorkers = VirtualThreads.newIterationExecutor(PARALLELISM);
+        Deque<Future<ExecutedIteration>> pendingIterations = new ArrayDeque<>();
+        // Inputs that reached new coverage and their mutations, if the fuzzer is guided by coverage
+        CoverageCorpus coverageCorpus = null;
+        if (CoverageMap.isEnabled()) {
+            coverageCorpus = new CoverageCorpus();
+        } else if (configFileReader.getCoverageGuided()) {
+            System.out.println("Coverage can only be collected in the inProcess execution mode. Fuzzing without coverage.");
+        }
+        // All inputs executed in earlier fuzz attempts, to skip them, if the persistent corpus is switched on in configs
+        CorpusStore corpusStore = configFileReader.getPersistentCorpus() ? new CorpusStore(FileHandler.corpusDirectoryPath) : null;
+        int skippedDuplicates = 0;
+        int duplicatesInARow = 0;
+        // Shrinks the first input of every crash bucket in the background, if crash minimization is switched on in configs
+        CrashMinimizer crashMinimizer = configFileReader.getCrashMinimization() ? new CrashMinimizer(startTime + TIME_BUDGET_MS) : null;
 
         /* * Get the maps, action sequences and output messages first from the custom and then if additional random is needed */
         // In case of custom maps or sequence, Add your custom map file paths to this list
@@ -97,85 +185,98 @@ public class Fuzzer {
         // Do this last -> otherwise not correct directories and handlers
         List<String> customMaps = getCustomMaps(configFileReader.getCustomMapsNr());
         List<String> customMapsAttributes = getCustomAttributesLog(configFileReader.getCustomMapsNr());
-        List<String> customSequences = getCustomSequences(configFileReader.getCustomSequenceNr());
+        CustomSequences customSequenceSource = getCustomSequences(configFileReader.getCustomSequenceNr());
         // If one want to mutate maps or action sequences, use the original other input. See combine method for more information.
         if (configFileReader.getCombinedCustomMapsAndSequences()) {
             if (configFileReader.getCustomMapsNr() == 8 && configFileReader.getCustomSequenceNr() == 10) {
-                combineMapsAndSequences(customMaps, customSequences);
+                combineMapsAndSequences(customMaps, customSequenceSource.toList()); // few sequences, only mutations
                 customMaps = combinedMaps;
-                customSequences = combinedSequences;
+                customSequenceSource = new CustomSequences();
+                customSequenceSource.add(combinedSequences);
             } else {
                 System.out.println("One cannot combine unmutated maps and action sequences in a meaningful way. " +
                         "Please put customMapsNr = 8 and customSequenceNr = 10.");
             }
         }
         if (configFileReader.getMaxCustomIterations()) { // Added this. In case max iterations = number of custom maps and sequences
-            MAX_ITERATIONS = Math.max(customMaps.size(), customSequences.size());
+            MAX_ITERATIONS = (int) Math.min(Integer.MAX_VALUE, Math.max(customMaps.size(), customSequenceSource.size()));
         }
+        // The custom sequences are made while the iterations use them, there can be too many to keep in memory
+        Iterator<String> customSequences = customSequenceSource.iterator();
 
         /* ! For each iteration with max_iterations */
+        int inputNumber = 0;
         for (int i = 0; i < MAX_ITERATIONS; i++) {    // How many times does a random file and sequence has to be created?
+            // * Give the generators the random generator of this input, split so the map does not change the sequence.
+            // Without skipped duplicates, the input number is the iteration number.
+            int iterationNumber = i + 1;
+            inputNumber++;
+            SplittableRandom iterationRandom = RANDOM_SOURCE.forIteration(inputNumber);
+            mapGenerator.setRandom(iterationRandom.split());
+            randomActionSequenceGenerator.setRandom(iterationRandom.split());
+            if (coverageCorpus != null) {
+                coverageCorpus.setRandom(iterationRandom.split());
+            }
+            if (stressMapGenerator != null) {
+                stressMapGenerator.setRandom(iterationRandom.split());
+            }
+
             // * Use custom sequences and maps if asked. Otherwise, generate randomly.
             String mapFilePath;
             String actionSequence;
-            if (customMaps.isEmpty()) {
-                mapFilePath = mapGenerator.generateRandomMap();
-            } // If no more, generate randomly with configs file type
-            else {
-                mapFilePath = customMaps.remove(0);
-            } // Use custom map file
-            if (!customSequences.isEmpty()) {
-                actionSequence = customSequences.remove(0);
+            int[] stressMapSize = null;
+            if (customMaps.isEmpty() && !customSequences.hasNext() && coverageCorpus != null && coverageCorpus.hasPendingInputs()) {
+                // Mutations of inputs that reached new coverage go before new random inputs
+                mapFilePath = coverageCorpus.pollMap();
+                actionSequence = coverageCorpus.pollSequence();
             } else {
-                actionSequence = randomActionSequenceGenerator.generateRandomActionSequence();
-            }
-
-            // * Check combo map and actions if needed
-            boolean isValidMove = true;
-            if (IntStream.of(7, 8, 9, 10).anyMatch(j -> configFileReader.getCustomSequenceNr() == j)) { // Checks for out of bounds and monster
-                isValidMove = IterationResult.isValidMove(mapFilePath, actionSequence);
-            }
-
-            /* * Try to execute pacman and retrieve exitcode and other results. Alter count of the correct exitcode.*/
-            try {
-                // Execute process fully or wait until timeout reached.
-                Process process = executeJPacman(mapFilePath, actionSequence);
-                ProcessTimeoutHandler timeoutHandler = new ProcessTimeoutHandler(process);
-                timeoutHandler.start();
-                // Retrieve output data process
-                int exitCode = process.waitFor(); // Wait for the process to complete or timeout
-                timeoutHandler.interrupt(); // Interrupt the timeout handler thread if it's still running (shorter execution)
-                String outputMessages = readOutputMessages(process);
-                if (timeoutHandler.isTimeoutReached()) { // Check if the timeout handler thread triggered the timeout (longer execution)
-                    exitCode = -1;
-                    outputMessages = "Time Limit of Iteration reached";
+                if (customMaps.isEmpty() && stressMapGenerator != null) {
+                    stressMapSize = stressMapSizes[(inputNumber - 1) % stressMapSizes.length];
+                    mapFilePath = stressMapGenerator.generateStressMap(stressMapSize[0], stressMapSize[1]);
+                } // Stress mode, a large map of the next size
+                else if (customMaps.isEmpty()) {
+                    mapFilePath = mapGenerator.generateRandomMap();
+                } // If no more, generate randomly with configs file type
+                else {
+                    mapFilePath = customMaps.remove(0);
+                } // Use custom map file
+                if (customSequences.hasNext()) {
+                    actionSequence = customSequences.next();
+                } else {
+                    actionSequence = randomActionSequenceGenerator.generateRandomActionSequence().toString();
                 }
-                if (!isValidMove) {
-                    exitCode = -1;
-                    outputMessages = "Invalid Move";
+            }
+
+            String customAttribute = "";
+            if (!customMapsAttributes.isEmpty()) {
+                customAttribute = customMapsAttributes.remove(0);
+            }
+
+            // * Skip an input that was executed before, in this or an earlier fuzz attempt. It does not use an iteration.
+            if (corpusStore != null && !corpusStore.add(mapFilePath, actionSequence)) {
+                DirectoryHandler.deleteMapFile(mapFilePath);
+                skippedDuplicates++;
+                i--;
+                if (++duplicatesInARow >= MAX_DUPLICATES_IN_A_ROW) {
+                    System.out.println("No new inputs found in the last " + MAX_DUPLICATES_IN_A_ROW + " inputs.");
+                    break;
                 }
-                String customAttribute = "";
-                if (!customMapsAttributes.isEmpty()) {
-                    customAttribute = customMapsAttributes.remove(0);
+                if (System.currentTimeMillis() - startTime >= TIME_BUDGET_MS) {
+                    System.out.println("Time limit reached.");
+                    break;
                 }
-                // Store output data process in iteration results list
-                IterationResult iterationResult = new IterationResult(i + 1, mapFilePath, actionSequence,
-                        exitCode, outputMessages, customAttribute);
-                iterationResults.add(iterationResult);
-                // Update iteration results by error code
-                List<IterationResult> errorCodeResults = iterationResultsByErrorCode.getOrDefault(iterationResult.getErrorCode(), new ArrayList<>());
-                errorCodeResults.add(iterationResult);
-                iterationResultsByErrorCode.put(iterationResult.getErrorCode(), errorCodeResults);
-                // Update iteration results by message output
-                List<IterationResult> outputMessageResults = iterationResultsByOutputMessage.getOrDefault(iterationResult.getOutputMessages(), new ArrayList<>());
-                outputMessageResults.add(iterationResult);
-                iterationResultsByOutputMessage.put(iterationResult.getOutputMessages(), outputMessageResults);
-                // Move map to correct permanent directory if needed.
-                // Do not use get path method cuz already changed
-                DirectoryHandler.moveMapFileToErrorDirectory(mapFilePath, iterationResult.getErrorCode());
-            } catch (IOException | InterruptedException e) {
-                System.out.println("Exception during process building.");
-                e.printStackTrace();
+                continue;
+            }
+            duplicatesInARow = 0;
+
+            /* * Execute and classify on a worker. Report the oldest iterations in order when too many are pending. */
+            String iterationCustomAttribute = customAttribute;
+            int[] iterationStressMapSize = stressMapSize;
+            pendingIterations.add(iterationWorkers.submit(() -> runIteration(executor, iterationNumber, mapFilePath,
+                    actionSequence, iterationCustomAttribute, iterationStressMapSize)));
+            while (pendingIterations.size() > 2 * PARALLELISM) {
+                reportIteration(pendingIterations.poll(), iterationResultsAggregator, persistenceWriter, coverageCorpus,
+                    crashMinimizer);
             }
 
             /* ! Check if the total time budget has been exhausted */
@@ -187,47 +288,162 @@ public class Fuzzer {
             }
         }
 
+        // Report the iterations that are still running, in order
+        while (!pendingIterations.isEmpty()) {
+            reportIteration(pendingIterations.poll(), iterationResultsAggregator, persistenceWriter, coverageCorpus,
+                    crashMinimizer);
+        }
+        elapsedTime = System.currentTimeMillis() - startTime;
+        iterationWorkers.shutdown();
+        if (crashMinimizer != null) {
+            crashMinimizer.close(); // Minimizes the inputs that are still queued, until the time budget is over
+            System.out.println("Minimizer: " + crashMinimizer.getMinimizedCount() + " inputs minimized with " +
+                    crashMinimizer.getExecutionCount() + " executions.");
+        }
+        executor.close();
+        persistenceWriter.close(); // Writes the last batch
+        if (corpusStore != null) {
+            corpusStore.close();
+            System.out.println("Corpus: " + corpusStore.size() + " inputs, " + skippedDuplicates + " inputs skipped because they were executed before.");
+        }
+        if (cachingExecutor != null) {
+            System.out.println("Result cache: " + cachingExecutor.getHits() + " results taken from the cache.");
+        }
+        if (SIMULATOR_MODE != SimulatorMode.OFF) {
+            System.out.println("Simulator: " + iterationResultsAggregator.getSimulatedIterations() +
+                    " iterations predicted without execution, " + iterationResultsAggregator.getAnomalies() +
+                    " anomalies (see log_anomalies.csv).");
+        }
+        if (coverageCorpus != null) {
+            System.out.println("Coverage: " + CoverageMap.getCoveredProbeCount() + " probes covered, " + coverageCorpus.size() +
+                    " inputs in the corpus, " + coverageCorpus.getPendingCount() + " mutants not executed.");
+        }
+
         /* * Generate logs and clean up directories if needed*/
-        logFileHandler.generateActualLogs(iterationResults, iterationResultsByErrorCode, iterationResultsByOutputMessage, elapsedTime);
+        logFileHandler.generateActualLogs(iterationResultsAggregator, RANDOM_SOURCE.getSeed(), elapsedTime);
         if (FileHandler.cleanDirectories) {
             DirectoryHandler.cleanDirectory(FileHandler.previousLogsDirectoryPath);
             DirectoryHandler.cleanDirectory(FileHandler.previousMapsDirectoryPath);
         }
         if (FileHandler.logHistory) {
-            logFileHandler.generateOverviewLogs(iterationResults, iterationResultsByErrorCode, iterationResultsByOutputMessage, elapsedTime);
+            logFileHandler.generateOverviewLogs(iterationResultsAggregator, persistenceWriter.getFullLogHistoryRowsPath(), elapsedTime);
         }
+        iterationResultsAggregator.close(); // Deletes the files of the result store
     }
 
     /**
-     * Executes JPacman with the given map file and action sequence.
+     * Executes JPacman for one iteration and classifies the result. Runs on one of the iteration workers.
      *
-     * @param mapFilePath    The file path of the map file.
-     * @param actionSequence The random action sequence.
-     * @return The process of the JPacman execution.
-     * @throws IOException If an I/O error occurs.
+     * @param executor        The executor that runs JPacman.
+     * @param iterationNumber The number of the iteration.
+     * @param mapFilePath     The file path of the map file.
+     * @param actionSequence  The action sequence.
+     * @param customAttribute The custom attribute of the map, or an empty string.
+     * @param stressMapSize   The height and width of the map in stress mode, or null if it is not a stress map.
+     * @return The result of the iteration with its measurements, or null if JPacman could not be executed.
      */
-    private static Process executeJPacman(String mapFilePath, String actionSequence) throws IOException {
-        ProcessBuilder processBuilder = new ProcessBuilder("java", "-jar", "jpacman-3.0.1.jar", mapFilePath, actionSequence);
-        return processBuilder.start();
+    private static ExecutedIteration runIteration(JPacmanExecutor executor, int iterationNumber, String mapFilePath,
+                                                  String actionSequence, String customAttribute, int[] stressMapSize) {
+        // * Check combo map and actions if needed
+        boolean isValidMove = true;
+        if (IntStream.of(7, 8, 9, 10).anyMatch(j -> configFileReader.getCustomSequenceNr() == j)) { // Checks for out of bounds and monster
+            isValidMove = IterationResult.isValidMove(mapFilePath, actionSequence);
+        }
+
+        // * Predict the result with the simulator, if it is used as oracle
+        JPacmanSimulator.Prediction prediction = null;
+        boolean simulated = false;
+        if (SIMULATOR_MODE != SimulatorMode.OFF) {
+            prediction = JPacmanSimulator.predict(mapFilePath, actionSequence);
+            // In screen mode, only a sample of the inputs the simulator is sure about is executed, to keep checking it
+            simulated = SIMULATOR_MODE == SimulatorMode.SCREEN && prediction.isRejected()
+                    && iterationNumber % SIMULATOR_CHECK_INTERVAL != 0;
+        }
+
+        /* * Try to execute pacman and retrieve exitcode and other results. */
+        try {
+            // Execute fully or wait until timeout reached.
+            long executionStart = System.nanoTime();
+            ExecutionResult executionResult = simulated ? prediction.toExecutionResult()
+                    : executor.execute(mapFilePath, actionSequence);
+            long executionTime = (System.nanoTime() - executionStart) / 1_000_000;
+            int exitCode = executionResult.getExitCode();
+            String outputMessages = executionResult.getOutputMessages();
+            String errorMessages = executionResult.getErrorMessages();
+            if (executionResult.isTimeoutReached()) { // Check if the execution was stopped by the timeout (longer execution)
+                exitCode = -1;
+                outputMessages = IterationResult.TIME_LIMIT_MESSAGE;
+            }
+            if (!isValidMove) {
+                exitCode = -1;
+                outputMessages = IterationResult.INVALID_MOVE_MESSAGE;
+            }
+            IterationResult iterationResult = new IterationResult(iterationNumber, mapFilePath, actionSequence,
+                    exitCode, outputMessages, errorMessages, customAttribute);
+            iterationResult.setOutputMessageId(OUTPUT_MESSAGES.intern(iterationResult.getOutputMessages()));
+            iterationResult.setCoverage(executionResult.getCoverage());
+            if (prediction != null) {
+                iterationResult.setAnomaly(!simulated && !prediction.matches(executionResult));
+            }
+            if (stressMapSize != null) {
+                // Large accepted and rejected maps are only worth their disk space in the stress log, or as anomaly
+                iterationResult.setDiscardMap((exitCode == 0 || exitCode == 10) && !iterationResult.isAnomaly());
+            }
+            return new ExecutedIteration(iterationResult, executionTime, stressMapSize, prediction, simulated);
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Exception during process building.");
+            e.printStackTrace();
+            return null;
+        }
     }
 
     /**
-     * Reads and returns the output messages from the process.
+     * Waits until an iteration is done and counts its result. Alters count of the correct exitcode and hands the
+     * result to the persistence writer, that moves the map and appends the log entries. Iterations are reported in the
+     * order they were started.
+     * <p>
+     * In the coverage-guided mode, the coverage of the iteration is merged here as well. Because this happens in
+     * iteration order, a run with the same seed finds new coverage in the same iterations. An input with new coverage
+     * is added to the corpus before its map is moved.
+     * </p>
      *
-     * @param process The process to read the output messages from.
-     * @return The output messages as a string.
-     * @throws IOException If an I/O error occurs.
+     * @param pendingIteration  The iteration to wait for.
+     * @param aggregator        The running counts of the results of all iterations.
+     * @param persistenceWriter The writer that persists the results in the background.
+     * @param coverageCorpus    The corpus of inputs with new coverage, or null if the fuzzer is not guided by coverage.
+     * @param crashMinimizer    The minimizer of crashing inputs, or null if crashes are not minimized.
      */
-    private static String readOutputMessages(Process process) throws IOException {
-        // Read and return the output messages from the process
-        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        StringBuilder output = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            line = line.replace("**** ", "");
-            output.append(line).append("\n");
-        }
-        return output.toString();
+    private static void reportIteration(Future<ExecutedIteration> pendingIteration, IterationResultsAggregator aggregator,
+                                        ResultPersistenceWriter persistenceWriter, CoverageCorpus coverageCorpus,
+                                        CrashMinimizer crashMinimizer) {
+        ExecutedIteration executedIteration;
+        try {
+            executedIteration = pendingIteration.get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Exception during iteration.");
+            e.printStackTrace();
+            return;
+        }
+        if (executedIteration == null) { // JPacman could not be executed
+            return;
+        }
+        IterationResult iterationResult = executedIteration.iterationResult;
+        if (coverageCorpus != null && iterationResult.getCoverage() != null) {
+            if (CoverageMap.merge(iterationResult.getCoverage()) > 0) {
+                iterationResult.setNewCoverage(true); // keeps its map, also when it is in memory
+                coverageCorpus.add(iterationResult.getExecutedMapFilePath(), iterationResult.getStringSequence());
+            }
+            iterationResult.setCoverage(null);
+        }
+        // Update counts by error code and by message output, and bucket crashes, the result itself is not kept
+        int row = aggregator.add(iterationResult, executedIteration.executionTime, executedIteration.mapHeight,
+                executedIteration.mapWidth, executedIteration.prediction, executedIteration.simulated);
+        // The first input of a new crash bucket is minimized in the background, its map is read before it is moved
+        if (crashMinimizer != null) {
+            crashMinimizer.submit(iterationResult);
+        }
+        // Move map to correct permanent directory and append log entries, without waiting on the disk
+        persistenceWriter.submit(iterationResult, row);
     }
 
     /**
@@ -244,9 +460,14 @@ public class Fuzzer {
      *     The files can be found in fuzz4_validCharacterMaps/custom_maps.</li>
      *     <li>Case 7: Write text files with only valid characters in it (P, M, O, W, F). The map is squared.</li>
      *     The map holds exactly one player. The map holds at least one food. The map does not contain one or more empty lines.
-     *     These maps should all be accepted.</li>
+     *     With reachableFood, the player can reach food. These maps should all be accepted.</li>
      *     <li>Case 8: Takes the first map that is stored in the directory fuzzresults_lessons/fuzz7_mutationalFuzzing/custom_maps_inputCopy.
-     *     Will mutate each character of this map with each valid character of the pacman game.</li>
+     *     Will mutate each character of this map with each valid character of the pacman game. With reachableFood, only
+     *     the mutated maps where the player can still reach food are kept.</li>
+     *     <li>Case 9: Takes the maps of the persistent corpus (see CorpusStore), each distinct map once, in the order they were
+     *     first executed. So the maps of earlier fuzz attempts are fuzzed again with other action sequences.</li>
+     *     <li>Case 10: Same kind of maps as case 7, made by the ValidTextMapGenerator in one pass, with the wall, monster
+     *     and food densities of the configuration.</li>
      * </ul>
      *
      * @param customNr
@@ -256,6 +477,7 @@ public class Fuzzer {
      */
     private static List<String> getCustomMaps(int customNr) {
         List<String> customMaps = new ArrayList<>();
+        SplittableRandom customRandom = RANDOM_SOURCE.forCustomInputs();
         switch (customNr) {
             case 1 -> { // Write text file with some specified one line of the map.
                 RandomTextMapGenerator randomTextMapGenerator = new RandomTextMapGenerator(
@@ -283,6 +505,7 @@ public class Fuzzer {
                 RandomTextMapGenerator randomTextMapGenerator = new RandomTextMapGenerator(
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapHeight() + 1,
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapWidth() + 1);
+                randomTextMapGenerator.setRandom(customRandom);
                 int i;
                 for (i = 0; i < MAX_ITERATIONS; i++) {
                     customMaps.add(randomTextMapGenerator.generateRandomValidCharRandomSizeTextMap());
@@ -292,6 +515,7 @@ public class Fuzzer {
                 RandomTextMapGenerator randomTextMapGenerator = new RandomTextMapGenerator(
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapHeight() + 1,
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapWidth() + 1);
+                randomTextMapGenerator.setRandom(customRandom);
                 int i;
                 for (i = 0; i < MAX_ITERATIONS; i++) {
                     customMaps.add(
@@ -307,6 +531,8 @@ public class Fuzzer {
                 RandomTextMapGenerator randomTextMapGenerator = new RandomTextMapGenerator(
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapHeight() + 1,
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapWidth() + 1);
+                randomTextMapGenerator.setRandom(customRandom);
+                randomTextMapGenerator.setReachableFood(FileReaderManager.getInstance().getConfigReader().getReachableFood());
                 int i;
                 for (i = 0; i < MAX_ITERATIONS; i++) {
                     customMaps.add(
@@ -324,10 +550,39 @@ public class Fuzzer {
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapHeight(),
                         FileReaderManager.getInstance().getConfigReader().getMaxTextMapWidth()
                 );
+                randomTextMapGenerator.setReachableFood(FileReaderManager.getInstance().getConfigReader().getReachableFood());
                 String firstFilePath = FileHandler.normalizeFilePath(filePaths.get(0), true, true);
                 List<String> mutatedMapFilePaths = randomTextMapGenerator.mutateMap(firstFilePath);
                 customMaps.addAll(mutatedMapFilePaths);
             }
+            case 9 -> { // Write the distinct maps of the persistent corpus away, as many as specified max in configs
+                Set<ContentHash> distinctMaps = new HashSet<>();
+                try (CorpusStore corpusStore = new CorpusStore(FileHandler.corpusDirectoryPath)) {
+                    corpusStore.forEachEntry(entry -> {
+                        if (customMaps.size() < MAX_ITERATIONS && distinctMaps.add(ContentHash.of(entry.getMapContent(), ""))) {
+                            customMaps.add(MapGenerator.storeMap(MapGenerator.generateRandomMapCopyFileName(entry.getExtension()),
+                                    entry.getMapContent()));
+                        }
+                    });
+                }
+                if (customMaps.isEmpty()) {
+                    System.out.println("The corpus in " + FileHandler.corpusDirectoryPath + " has no maps yet.");
+                }
+            }
+            case 10 -> { // Same maps as case 7, generated in one pass with the densities of the configuration
+                ValidTextMapGenerator validTextMapGenerator = new ValidTextMapGenerator(
+                        FileReaderManager.getInstance().getConfigReader().getMaxTextMapHeight(),
+                        FileReaderManager.getInstance().getConfigReader().getMaxTextMapWidth(),
+                        FileReaderManager.getInstance().getConfigReader().getWallDensity(),
+                        FileReaderManager.getInstance().getConfigReader().getMonsterDensity(),
+                        FileReaderManager.getInstance().getConfigReader().getFoodDensity(),
+                        FileReaderManager.getInstance().getConfigReader().getReachableFood());
+                validTextMapGenerator.setRandom(customRandom);
+                int i;
+                for (i = 0; i < MAX_ITERATIONS; i++) {
+                    customMaps.add(validTextMapGenerator.generateRandomMap());
+                }
+            }
             default -> { // Nothing to add
             }
         }
@@ -446,54 +701,48 @@ public class Fuzzer {
      * @param customNr
      *         The number specified in the configuration file.
      *
-     * @return List of strings that are the custom action sequences.
+     * @return The custom action sequences.
      */
-    private static List<String> getCustomSequences(int customNr){
-        List<String> customSequences = new ArrayList<>();
+    private static CustomSequences getCustomSequences(int customNr){
+        CustomSequences customSequences = new CustomSequences();
+        SplittableRandom customRandom = RANDOM_SOURCE.forCustomInputs().split(); // not the same values as the custom maps
+        int maxActionSequenceLength = FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength();
         switch (customNr) {
             case 1: { //A ... times correct string that starts, wait, exit.
-                int i;
-                for (i = 0; i < MAX_ITERATIONS; i++) {
-                    customSequences.add("SWE");
-                }
+                customSequences.add(Collections.nCopies(MAX_ITERATIONS, "SWE"));
             }
             case 2: {
                 int i;
+                List<String> randomSequences = new ArrayList<>();
                 for (i = 0; i < MAX_ITERATIONS; i++) {
-                    customSequences.add(RandomActionSequenceGenerator.generateRandomActionSequenceValidCharRandomLength());
+                    randomSequences.add(RandomActionSequenceGenerator
+                            .generateRandomActionSequenceValidCharRandomLength(customRandom).toString());
                 }
+                customSequences.add(randomSequences);
             }
             case 3: {
-                customSequences = RandomActionSequenceGenerator.generateAllPossibleCombinations(
-                        FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength(),
-                        false, false);
+                customSequences = new CustomSequences();
+                addAllPossibleCombinations(customSequences, maxActionSequenceLength, false, false, "", "");
             }
             case 4: {
-                customSequences = RandomActionSequenceGenerator.generateAllPossibleCombinations(
-                        FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength(),
-                        true, false);
+                customSequences = new CustomSequences();
+                addAllPossibleCombinations(customSequences, maxActionSequenceLength, true, false, "", "");
             }
             case 5, 8: {
-                customSequences = RandomActionSequenceGenerator.generateAllPossibleCombinations(
-                        FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength(),
-                        true, true);
+                customSequences = new CustomSequences();
+                addAllPossibleCombinations(customSequences, maxActionSequenceLength, true, true, "", "");
             }
             case 6, 7: {
-                List<String> actionSequences = RandomActionSequenceGenerator.generateAllPossibleCombinations(
-                        FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength() - 2,
-                        false, true);
-                for (String actionSequence : actionSequences) {
-                    String customSequence = "S" + actionSequence + "E";
-                    customSequences.add(customSequence);
-                }
+                addAllPossibleCombinations(customSequences, maxActionSequenceLength - 2, false, true, "S", "E");
             }
             case 9: {
-                while (customSequences.size() < MAX_ITERATIONS) {
-                    String randomCombination = RandomActionSequenceGenerator.generateRandomCombination(
-                            FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength(),
-                            true, true);
-                    customSequences.add(randomCombination);
+                List<String> randomCombinations = new ArrayList<>();
+                while (customSequences.size() + randomCombinations.size() < MAX_ITERATIONS) {
+                    ActionSequence randomCombination = RandomActionSequenceGenerator.generateRandomCombination(
+                            maxActionSequenceLength, true, true, customRandom);
+                    randomCombinations.add(randomCombination.toString());
                 }
+                customSequences.add(randomCombinations);
             }
             case 10: {
                 //! Hardcoded filepath here
@@ -511,7 +760,7 @@ public class Fuzzer {
                     actionSequence = lines[0];
                 }
                 List<String> mutatedActionSequences = RandomActionSequenceGenerator.mutateActionSequence(actionSequence);
-                customSequences.addAll(mutatedActionSequences);
+                customSequences.add(mutatedActionSequences);
             }
             default: { // Nothing to add
                 break;
@@ -520,6 +769,28 @@ public class Fuzzer {
         return customSequences;
     }
 
+    /**
+     * Adds the possible combinations of the valid action sequence characters to the custom action sequences. The
+     * combinations are not made here, but while the iterations use them: there can be about a billion of them. The
+     * total number of combinations is printed, to size the time budget.
+     *
+     * @param customSequences    The custom action sequences to add to.
+     * @param length             The length of the combinations.
+     * @param atLeastOneExit     If true, only combinations with at least one exit action.
+     * @param startWithExitCheck If true, only combinations where every S is followed by an E.
+     * @param prefix             Text put before every combination.
+     * @param suffix             Text put after every combination.
+     */
+    private static void addAllPossibleCombinations(CustomSequences customSequences, int length, boolean atLeastOneExit,
+                                                   boolean startWithExitCheck, String prefix, String suffix) {
+        long count = RandomActionSequenceGenerator.countAllPossibleCombinations(length, atLeastOneExit, startWithExitCheck);
+        System.out.println(count + " possible action sequences of length " + length + ".");
+        Stream<String> combinations = RandomActionSequenceGenerator
+                .streamAllPossibleCombinations(length, atLeastOneExit, startWithExitCheck)
+                .map(combination -> prefix + combination + suffix);
+        customSequences.add(combinations, count);
+    }
+
     /**
      * Firstly, the original map and action sequences gets paired.
      * All mutated versions of the map first gets paired with the original action sequence.
@@ -563,9 +834,125 @@ public class Fuzzer {
         }
     }
 
-}
+    /**
+     * The result of an iteration together with the measurements of its execution that only the logs need. The
+     * measurements go to the columns of the IterationResultStore when the iteration is reported.
+     */
+    private static final class ExecutedIteration {
+
+        /**
+         * The result of the iteration.
+         */
+        private final IterationResult iterationResult;
+
+        /**
+         * The wall-clock time of JPacman in milliseconds.
+         */
+        private final long executionTime;
+
+        /**
+         * The height of the map if it is a stress map, 0 otherwise.
+         */
+        private final int mapHeight;
+
+        /**
+         * The width of the map if it is a stress map, 0 otherwise.
+         */
+        private final int mapWidth;
+
+        /**
+         * The prediction of the JPacmanSimulator, or null if the simulator is not used.
+         */
+        private final JPacmanSimulator.Prediction prediction;
+
+        /**
+         * True if the result is the prediction instead of an execution.
+         */
+        private final boolean simulated;
+
+        /**
+         * Constructs an ExecutedIteration.
+         *
+         * @param iterationResult The result of the iteration.
+         * @param executionTime   The wall-clock time of JPacman in milliseconds.
+         * @param stressMapSize   The height and width of the map in stress mode, or null if it is not a stress map.
+         * @param prediction      The prediction of the JPacmanSimulator, or null if the simulator is not used.
+         * @param simulated       True if the result is the prediction instead of an execution.
+         */
+        private ExecutedIteration(IterationResult iterationResult, long executionTime, int[] stressMapSize,
+                                  JPacmanSimulator.Prediction prediction, boolean simulated) {
+            this.iterationResult = iterationResult;
+            this.executionTime = executionTime;
+            this.mapHeight = stressMapSize == null ? 0 : stressMapSize[0];
+            this.mapWidth = stressMapSize == null ? 0 : stressMapSize[1];
+            this.prediction = prediction;
+            this.simulated = simulated;
+        }
+    }
 
+    /**
+     * The custom action sequences: lists and lazy streams after each other, with their total number. The streams of
+     * combinations are only traversed while the iterations take the sequences, so they are never all in memory.
+     */
+    private static final class CustomSequences {
+
+        /**
+         * The parts of the sequences, in order.
+         */
+        private final List<Stream<String>> parts = new ArrayList<>();
+
+        /**
+         * Total number of sequences in the parts.
+         */
+        private long size;
+
+        /**
+         * Adds a list of sequences after the others.
+         *
+         * @param sequences The sequences.
+         */
+        void add(List<String> sequences) {
+            add(sequences.stream(), sequences.size());
+        }
 
+        /**
+         * Adds a stream of sequences after the others.
+         *
+         * @param sequences The sequences, not traversed yet.
+         * @param count     The number of sequences in the stream.
+         */
+        void add(Stream<String> sequences, long count) {
+            parts.add(sequences);
+            size += count;
+        }
 
+        /**
+         * Gives the number of sequences.
+         *
+         * @return The total number of sequences.
+         */
+        long size() {
+            return size;
+        }
 
+        /**
+         * Gives the sequences one by one, made while they are taken. Can be called once.
+         *
+         * @return Iterator over all sequences, in order.
+         */
+        Iterator<String> iterator() {
+            return parts.stream().reduce(Stream.empty(), Stream::concat).iterator();
+        }
 
+        /**
+         * Gives all sequences in a list. Only for few sequences.
+         *
+         * @return The sequences, in order.
+         */
+        List<String> toList() {
+            List<String> sequences = new ArrayList<>();
+            iterator().forEachRemaining(sequences::add);
+            return sequences;
+        }
+    }
+}
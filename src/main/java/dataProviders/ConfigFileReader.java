@@ -1,6 +1,8 @@
 package dataProviders;
 
+import enums.ExecutionMode;
 import enums.MapFileType;
+import enums.SimulatorMode;
 
 import java.io.*;
 import java.util.Objects;
@@ -81,6 +83,9 @@ public class ConfigFileReader {
         if (Objects.equals(fileType, "all")){
             return MapFileType.ALL;
         }
+        if (Objects.equals(fileType, "valid")) {
+            return MapFileType.VALID_TEXT;
+        }
         return MapFileType.ALL;
     }
 
@@ -329,7 +334,315 @@ public class ConfigFileReader {
     public long getIterationTimeout() {
         return Long.parseLong(properties.getProperty("maxTimeIteration", "60000"));
     }
-}
 
+    /**
+     * Retrieves the way the JPacman application is executed, as specified in the configuration file.
+     * If the execution mode property is not found or not recognized, it returns PROCESS.
+     *
+     * @return The execution mode (PROCESS, IN_PROCESS or WORKER).
+     */
+    public ExecutionMode getExecutionMode() {
+        String executionMode = properties.getProperty("executionMode");
+        if (Objects.equals(executionMode, "inProcess")) {
+            return ExecutionMode.IN_PROCESS;
+        }
+        if (Objects.equals(executionMode, "worker")) {
+            return ExecutionMode.WORKER;
+        }
+        return ExecutionMode.PROCESS;
+    }
+
+    /**
+     * Retrieves the number of iterations that are executed at the same time, as specified in the configuration file.
+     * If the parallelism property is not found, it returns a default value of 1 (one iteration after the other).
+     *
+     * @return The number of iterations that are executed at the same time.
+     */
+    public int getParallelism() {
+        return Math.max(1, Integer.parseInt(properties.getProperty("parallelism", "1")));
+    }
+
+    /**
+     * Retrieves the max number of bytes that is kept of the output messages and of the error messages of one
+     * iteration, as specified in the configuration file. Bytes beyond the cap are dropped.
+     * If the max output bytes property is not found, it returns a default value of 65536 (64 KiB).
+     *
+     * @return The max number of bytes kept per stream and iteration.
+     */
+    public int getMaxOutputBytes() {
+        return Integer.parseInt(properties.getProperty("maxOutputBytes", "65536"));
+    }
+
+    /**
+     * Retrieves the flag indicating whether the iterations and stream readers should run on virtual threads.
+     * Virtual threads need Java 21 or later, on older JDKs platform threads are used anyway.
+     * If the virtual threads property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if virtual threads should be used, false otherwise.
+     */
+    public boolean getVirtualThreads() {
+        String virtualThreads = properties.getProperty("virtualThreads");
+        if (virtualThreads != null) return Boolean.parseBoolean(virtualThreads);
+        return false;
+    }
+
+    /**
+     * Retrieves the flag indicating whether generated maps should be kept in memory instead of written to disk first.
+     * Only maps of interesting iterations (crashes and unknown exit codes) are written to disk afterwards. Has no
+     * effect in the process execution mode, because a forked JPacman can only read files.
+     * If the in memory maps property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if generated maps should be kept in memory, false otherwise.
+     */
+    public boolean getInMemoryMaps() {
+        String inMemoryMaps = properties.getProperty("inMemoryMaps");
+        if (inMemoryMaps != null) return Boolean.parseBoolean(inMemoryMaps);
+        return false;
+    }
+
+    /**
+     * Retrieves the number of iteration results that are persisted together (map moves and log rows).
+     * If the persistence batch size property is not found, it returns a default value of 64.
+     *
+     * @return The max number of results in one batch.
+     */
+    public int getPersistenceBatchSize() {
+        return Math.max(1, Integer.parseInt(properties.getProperty("persistenceBatchSize", "64")));
+    }
+
+    /**
+     * Retrieves the max time in milliseconds an iteration result waits before it is persisted.
+     * If the persistence flush interval property is not found, it returns a default value of 1000 (1 second).
+     *
+     * @return The max time in milliseconds between two writes.
+     */
+    public long getPersistenceFlushInterval() {
+        return Long.parseLong(properties.getProperty("persistenceFlushInterval", "1000"));
+    }
+
+    /**
+     * Retrieves the seed of the random generators specified in the configuration file.
+     * If the seed property is not found or empty, it returns null and a new seed is drawn for the run.
+     *
+     * @return The seed, or null if the run should draw its own seed.
+     */
+    public Long getSeed() {
+        String seed = properties.getProperty("seed", "").trim();
+        return seed.isEmpty() ? null : Long.parseLong(seed);
+    }
+
+    /**
+     * Retrieves the flag indicating whether the fuzzer should be guided by the coverage of the JPacman code. Inputs that
+     * reach code no earlier iteration reached are mutated and executed before new random inputs. Only works in the
+     * in-process execution mode, that loads the JPacman classes itself.
+     * If the coverage guided property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if the fuzzer should be guided by coverage, false otherwise.
+     */
+    public boolean getCoverageGuided() {
+        String coverageGuided = properties.getProperty("coverageGuided");
+        if (coverageGuided != null) return Boolean.parseBoolean(coverageGuided);
+        return false;
+    }
+
+    /**
+     * Retrieves the flag indicating whether every executed input (map and action sequence) is kept in the persistent
+     * corpus of the result directory. Inputs that are in the corpus already, from this or an earlier fuzz attempt, are
+     * skipped instead of executed again.
+     * If the persistent corpus property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if the persistent corpus should be used, false otherwise.
+     */
+    public boolean getPersistentCorpus() {
+        String persistentCorpus = properties.getProperty("persistentCorpus");
+        if (persistentCorpus != null) return Boolean.parseBoolean(persistentCorpus);
+        return false;
+    }
+
+    /**
+     * Retrieves the flag indicating whether the results of JPacman are looked up in and stored to the persistent result
+     * cache of the result directory. The cache is emptied automatically when the JPacman jar changes.
+     * If the result cache property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if the result cache should be used, false to always execute JPacman.
+     */
+    public boolean getResultCache() {
+        String resultCache = properties.getProperty("resultCache");
+        if (resultCache != null) return Boolean.parseBoolean(resultCache);
+        return false;
+    }
+
+    /**
+     * Retrieves the number of frames within the jpacman packages that make up the stack signature of a crash. Crashes
+     * with the same signature are put in the same crash bucket.
+     * If the crash signature frames property is not found, it returns a default value of 5.
+     *
+     * @return The max number of jpacman frames in a crash signature, at least 1.
+     */
+    public int getCrashSignatureFrames() {
+        return Math.max(1, Integer.parseInt(properties.getProperty("crashSignatureFrames", "5")));
+    }
+
+    /**
+     * Retrieves the flag indicating whether only the map of the smallest reproducer of each crash bucket is kept. The
+     * maps of the other crashes with the same stack signature are deleted.
+     * If the crash deduplication property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if only the smallest reproducer of each crash bucket is kept, false to keep all crash maps.
+     */
+    public boolean getCrashDeduplication() {
+        String crashDeduplication = properties.getProperty("crashDeduplication");
+        if (crashDeduplication != null) return Boolean.parseBoolean(crashDeduplication);
+        return false;
+    }
+
+    /**
+     * Retrieves the flag indicating whether the first input of every crash bucket, and of every output message of exit
+     * code -1, is minimized in the background with delta debugging. The minimized map and action sequence are written
+     * next to the original map.
+     * If the crash minimization property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if crashing inputs should be minimized, false otherwise.
+     */
+    public boolean getCrashMinimization() {
+        String crashMinimization = properties.getProperty("crashMinimization");
+        if (crashMinimization != null) return Boolean.parseBoolean(crashMinimization);
+        return false;
+    }
+
+    /**
+     * Retrieves the max number of executions of JPacman to minimize one crashing input.
+     * If the minimization max executions property is not found, it returns a default value of 200.
+     *
+     * @return The max number of executions per minimized input.
+     */
+    public int getMinimizationMaxExecutions() {
+        return Math.max(0, Integer.parseInt(properties.getProperty("minimizationMaxExecutions", "200")));
+    }
+
+    /**
+     * Retrieves the number of havoc mutants that are made of every input of the coverage-guided corpus.
+     * If the havoc mutants per input property is not found, it returns a default value of 64.
+     *
+     * @return The number of mutants per corpus input.
+     */
+    public int getHavocMutantsPerInput() {
+        return Math.max(0, Integer.parseInt(properties.getProperty("havocMutantsPerInput", "64")));
+    }
+
+    /**
+     * Retrieves the max number of mutations that are applied after each other to make one havoc mutant.
+     * If the havoc stacked mutations property is not found, it returns a default value of 8.
+     *
+     * @return The max number of stacked mutations.
+     */
+    public int getHavocStackedMutations() {
+        return Math.max(1, Integer.parseInt(properties.getProperty("havocStackedMutations", "8")));
+    }
+
+    /**
+     * Retrieves the fraction of the cells of a valid map (fileType=valid or customMapsNr=10) that is a wall.
+     * If the wall density property is not found, it returns a default value of 0.2.
+     *
+     * @return The wall density, between 0 and 1.
+     */
+    public double getWallDensity() {
+        return Math.min(1, Math.max(0, Double.parseDouble(properties.getProperty("wallDensity", "0.2"))));
+    }
+
+    /**
+     * Retrieves the fraction of the cells of a valid map (fileType=valid) that is a monster.
+     * If the monster density property is not found, it returns a default value of 0.05.
+     *
+     * @return The monster density, between 0 and 1.
+     */
+    public double getMonsterDensity() {
+        return Math.min(1, Math.max(0, Double.parseDouble(properties.getProperty("monsterDensity", "0.05"))));
+    }
+
+    /**
+     * Retrieves the fraction of the cells of a valid map (fileType=valid) that is food. At least one cell is food.
+     * If the food density property is not found, it returns a default value of 0.2.
+     *
+     * @return The food density, between 0 and 1.
+     */
+    public double getFoodDensity() {
+        return Math.min(1, Math.max(0, Double.parseDouble(properties.getProperty("foodDensity", "0.2"))));
+    }
+
+    /**
+     * Retrieves the flag indicating whether the player of a valid map (fileType=valid, and customMapsNr 7, 8 and 10) always
+     * has a path to food, without walls and monsters.
+     * If the reachable food property is not found or cannot be parsed as a boolean, it returns true.
+     *
+     * @return true if the player must have a path to food, false otherwise.
+     */
+    public boolean getReachableFood() {
+        String reachableFood = properties.getProperty("reachableFood");
+        if (reachableFood != null) return Boolean.parseBoolean(reachableFood);
+        return true;
+    }
 
+    /**
+     * Retrieves the flag indicating whether the fuzzer runs in stress mode: the random maps are large text maps with
+     * the sizes of the stress map sizes property, and the size and JPacman time of every iteration go to log_stress.csv.
+     * If the stress mode property is not found or cannot be parsed as a boolean, it returns false.
+     *
+     * @return true if the fuzzer runs in stress mode, false otherwise.
+     */
+    public boolean getStressMode() {
+        String stressMode = properties.getProperty("stressMode");
+        if (stressMode != null) return Boolean.parseBoolean(stressMode);
+        return false;
+    }
 
+    /**
+     * Retrieves the sizes of the maps of the stress mode, as a comma separated list of heightxwidth. The iterations go
+     * through the sizes in order, and start again after the last size.
+     * If the stress map sizes property is not found, it returns a default value of 100x100,1000x1000,10000x10000.
+     *
+     * @return The sizes, each as {height, width}.
+     */
+    public int[][] getStressMapSizes() {
+        String[] sizes = properties.getProperty("stressMapSizes", "100x100,1000x1000,10000x10000").split(",");
+        int[][] stressMapSizes = new int[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            String[] dimensions = sizes[i].strip().toLowerCase().split("x");
+            if (dimensions.length != 2) {
+                throw new RuntimeException("Stress map size " + sizes[i] + " is not of the form heightxwidth.");
+            }
+            stressMapSizes[i] = new int[]{Integer.parseInt(dimensions[0].strip()), Integer.parseInt(dimensions[1].strip())};
+        }
+        return stressMapSizes;
+    }
+
+    /**
+     * Retrieves the way the fuzzer uses the JPacmanSimulator as an oracle, as specified in the configuration file:
+     * off, flag (execute every input and flag the results that disagree with the prediction) or screen (do not execute
+     * the inputs that are predicted to be rejected, except one in every simulator check interval).
+     * If the simulator oracle property is not found or not known, it returns OFF.
+     *
+     * @return The simulator mode.
+     */
+    public SimulatorMode getSimulatorMode() {
+        String simulatorOracle = properties.getProperty("simulatorOracle");
+        if (Objects.equals(simulatorOracle, "flag")) {
+            return SimulatorMode.FLAG;
+        }
+        if (Objects.equals(simulatorOracle, "screen")) {
+            return SimulatorMode.SCREEN;
+        }
+        return SimulatorMode.OFF;
+    }
+
+    /**
+     * Retrieves how often an input that the JPacmanSimulator screens out is executed anyway, to keep checking the
+     * simulator: every iteration whose number is a multiple of this interval.
+     * If the simulator check interval property is not found, it returns a default value of 100.
+     *
+     * @return The simulator check interval, at least 1.
+     */
+    public int getSimulatorCheckInterval() {
+        return Math.max(1, Integer.parseInt(properties.getProperty("simulatorCheckInterval", "100")));
+    }
+}
@@ -0,0 +1,27 @@
+package enums;
+
+/**
+ * The ExecutionMode enum represents the ways the fuzzer can execute the JPacman application.
+ * It defines three options: PROCESS, IN_PROCESS and WORKER.
+ * - PROCESS starts a new JVM with the JPacman jar for every iteration.
+ * - IN_PROCESS loads the JPacman jar once in an isolated class loader and runs it inside the fuzzer JVM.
+ * - WORKER runs the JPacman jar in long-lived helper JVMs that are started once and restarted when they crash or hang.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Represents forking a new java -jar process for every iteration.
+     */
+    PROCESS,
+
+    /**
+     * Represents running the JPacman classes inside the fuzzer JVM.
+     */
+    IN_PROCESS,
+
+    /**
+     * Represents sending every iteration to a warm helper JVM.
+     */
+    WORKER
+
+}
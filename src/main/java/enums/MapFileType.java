@@ -2,10 +2,11 @@ package enums;
 
 /**
  * The MapFileType enum represents the types of map files that can be used in the Pacman project.
- * It defines three options: TEXT, BINARY, and ALL.
+ * It defines four options: TEXT, BINARY, ALL and VALID_TEXT.
  * - TEXT represents a text-based map file.
  * - BINARY represents a binary map file.
  * - ALL represents both text-based and binary map files.
+ * - VALID_TEXT represents a text-based map file that is a valid board.
  */
 public enum MapFileType {
 
@@ -22,6 +23,11 @@ public enum MapFileType {
     /**
      * Represents both text-based and binary map files.
      */
-    ALL
+    ALL,
+
+    /**
+     * Represents a text-based map file that is a valid board: rectangular, one player and food.
+     */
+    VALID_TEXT
 
 }
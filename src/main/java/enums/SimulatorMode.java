@@ -0,0 +1,28 @@
+package enums;
+
+/**
+ * The SimulatorMode enum represents the ways the fuzzer can use the JPacmanSimulator as an oracle.
+ * It defines three options: OFF, FLAG and SCREEN.
+ * - OFF does not simulate the inputs.
+ * - FLAG executes every input and flags the inputs where the real result disagrees with the prediction as anomalies.
+ * - SCREEN does not execute the inputs the simulator is sure about, except a sample of them to keep checking it, and
+ *   flags the anomalies of the inputs that are executed.
+ */
+public enum SimulatorMode {
+
+    /**
+     * Represents fuzzing without the simulator.
+     */
+    OFF,
+
+    /**
+     * Represents comparing the prediction with every execution.
+     */
+    FLAG,
+
+    /**
+     * Represents executing only the inputs the simulator is not sure about, and a sample of the others.
+     */
+    SCREEN
+
+}
@@ -1,6 +1,6 @@
 /**
  * The enums package contains enumerations used in the Pacman project.
  * These enums define different types, states, or options within the project.
- * Currently, one the type of map files that is used to fuzz is being specified.
+ * Currently, the type of map files that is used to fuzz and the way the JPacman application is executed are specified.
  */
 package enums;
@@ -0,0 +1,83 @@
+package executors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output stream that keeps at most a fixed number of bytes in memory. Bytes beyond the cap are counted but dropped,
+ * so a chatty JPacman cannot fill the memory of the fuzzer, while writing never blocks.
+ */
+class BoundedOutputStream extends OutputStream {
+
+    /**
+     * Line that is added to the captured text when bytes were dropped.
+     */
+    private static final String TRUNCATED_MESSAGE = "... output truncated";
+
+    /**
+     * The bytes that are kept.
+     */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    /**
+     * Max number of bytes that is kept.
+     */
+    private final int maxBytes;
+
+    /**
+     * Number of bytes that were dropped because the cap was reached.
+     */
+    private long droppedBytes;
+
+    /**
+     * Constructs a BoundedOutputStream with the given cap.
+     *
+     * @param maxBytes Max number of bytes that is kept.
+     */
+    BoundedOutputStream(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Writes one byte, or drops it if the cap is reached.
+     *
+     * @param b The byte to write.
+     */
+    @Override
+    public synchronized void write(int b) {
+        if (buffer.size() < maxBytes) {
+            buffer.write(b);
+        } else {
+            droppedBytes++;
+        }
+    }
+
+    /**
+     * Writes the bytes that still fit under the cap and drops the rest.
+     *
+     * @param bytes  The bytes to write.
+     * @param offset The start offset in the bytes.
+     * @param length The number of bytes to write.
+     */
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        int kept = Math.max(0, Math.min(length, maxBytes - buffer.size()));
+        buffer.write(bytes, offset, kept);
+        droppedBytes += length - kept;
+    }
+
+    /**
+     * Returns the kept bytes as UTF-8 text, followed by a truncation line if bytes were dropped.
+     *
+     * @return The captured text.
+     */
+    @Override
+    public synchronized String toString() {
+        String text = buffer.toString(StandardCharsets.UTF_8);
+        if (droppedBytes > 0) {
+            text += (text.endsWith("\n") ? "" : "\n") + TRUNCATED_MESSAGE + "\n";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,95 @@
+package executors;
+
+import organizers.ContentHash;
+import organizers.InMemoryMapStore;
+import organizers.ResultCache;
+import randomGenerators.ActionSequence;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that looks up the result of an input in the persistent ResultCache before it lets another executor run
+ * JPacman. An input that was executed before, in this or an earlier fuzz attempt, gets its exit code and output
+ * messages from the cache in microseconds, instead of from a new execution.
+ * <p>
+ * Only accepted (exit code 0) and rejected (exit code 10) results are cached. Crashes and reached time limits are
+ * always executed again, so their stack traces are in the logs and a slow machine does not make a result stick.
+ * </p>
+ */
+public class CachingJPacmanExecutor extends JPacmanExecutor {
+
+    /**
+     * The executor that runs the inputs that are not in the cache.
+     */
+    private final JPacmanExecutor executor;
+
+    /**
+     * The cache of the results.
+     */
+    private final ResultCache resultCache;
+
+    /**
+     * Number of executions that were answered by the cache.
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Constructs a CachingJPacmanExecutor.
+     *
+     * @param executor    The executor that runs the inputs that are not in the cache.
+     * @param resultCache The cache of the results.
+     */
+    public CachingJPacmanExecutor(JPacmanExecutor executor, ResultCache resultCache) {
+        this.executor = executor;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Gives the cached result of the map and action sequence, or executes them and caches the result.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code and output messages, from the cache or from the execution.
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on the execution.
+     */
+    @Override
+    public ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException {
+        byte[] mapContent = InMemoryMapStore.readAllBytes(mapFilePath);
+        if (mapContent == null) { // JPacman reports the missing map itself
+            return executor.execute(mapFilePath, actionSequence);
+        }
+        // JPacman ignores characters that are not actions, so inputs that only differ in those share their result
+        ContentHash hash = ContentHash.of(mapContent, ActionSequence.of(actionSequence));
+        ResultCache.CachedResult cachedResult = resultCache.get(hash);
+        if (cachedResult != null) {
+            hits.incrementAndGet();
+            return new ExecutionResult(cachedResult.getExitCode(), cachedResult.getOutputMessages(), "", false);
+        }
+        ExecutionResult executionResult = executor.execute(mapFilePath, actionSequence);
+        int exitCode = executionResult.getExitCode();
+        if (!executionResult.isTimeoutReached() && (exitCode == 0 || exitCode == 10)) {
+            resultCache.put(hash, exitCode, executionResult.getOutputMessages());
+        }
+        return executionResult;
+    }
+
+    /**
+     * Gives the number of executions that were answered by the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Closes the executor and writes the cache to disk.
+     */
+    @Override
+    public void close() {
+        executor.close();
+        resultCache.close();
+    }
+}
@@ -0,0 +1,195 @@
+package executors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites the constant pool of a compiled class, so that calls to some static methods and reads of some static
+ * fields go to another class with the same members. The code of the methods itself is not touched: only the owner
+ * class of the referenced member changes.
+ * <p>
+ * Used by the IsolatedJarClassLoader to let the JPacman classes call the SystemInterceptor instead of
+ * System.exit, System.out and System.err, so that the application can run inside the fuzzer JVM.
+ * </p>
+ */
+class ClassFileRedirector {
+
+    /**
+     * Constant pool tags of the class file format, see chapter 4.4 of the JVM specification.
+     */
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    /**
+     * Internal name (with slashes) of the class that receives the redirected references.
+     */
+    private final String targetClassName;
+
+    /**
+     * The members that should be redirected, each as {owner, name, descriptor} in internal form.
+     */
+    private final List<String[]> redirectedMembers = new ArrayList<>();
+
+    /**
+     * Constructs a ClassFileRedirector that redirects references to the given class.
+     *
+     * @param targetClassName Binary name (with dots) of the class that receives the redirected references.
+     */
+    ClassFileRedirector(String targetClassName) {
+        this.targetClassName = targetClassName.replace('.', '/');
+    }
+
+    /**
+     * Adds a static method or field that should be redirected. The target class must declare a public static
+     * member with the same name and descriptor.
+     *
+     * @param owner      Internal name of the class that declares the member now, e.g. java/lang/System.
+     * @param name       Name of the member, e.g. exit.
+     * @param descriptor Descriptor of the member, e.g. (I)V.
+     * @return This redirector, to chain calls.
+     */
+    ClassFileRedirector redirect(String owner, String name, String descriptor) {
+        redirectedMembers.add(new String[]{owner, name, descriptor});
+        return this;
+    }
+
+    /**
+     * Rewrites the class file. Two entries are appended to the constant pool (the name of the target class and the
+     * class entry itself) and the owner of every matching field or method reference is changed to that new entry.
+     * If nothing matches, the original bytes are returned.
+     *
+     * @param classFile The bytes of the original class file.
+     * @return The bytes of the rewritten class file.
+     * @throws IOException If the bytes are not a valid class file.
+     */
+    byte[] rewrite(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file.");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        int constantPoolCount = in.readUnsignedShort();
+        int poolStart = 10;
+
+        // * Read the constant pool, remember where each entry starts and what it refers to
+        int[] tags = new int[constantPoolCount];
+        int[] offsets = new int[constantPoolCount];
+        int[] firstIndex = new int[constantPoolCount];
+        int[] secondIndex = new int[constantPoolCount];
+        String[] utf8 = new String[constantPoolCount];
+        int position = poolStart;
+        for (int index = 1; index < constantPoolCount; index++) {
+            int tag = in.readUnsignedByte();
+            tags[index] = tag;
+            offsets[index] = position;
+            position++;
+            switch (tag) {
+                case CONSTANT_UTF8 -> {
+                    utf8[index] = in.readUTF();
+                    position += 2 + utf8Length(classFile, offsets[index] + 1);
+                }
+                case CONSTANT_CLASS, CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE -> {
+                    firstIndex[index] = in.readUnsignedShort();
+                    position += 2;
+                }
+                case CONSTANT_FIELDREF, CONSTANT_METHODREF, CONSTANT_INTERFACE_METHODREF, CONSTANT_NAME_AND_TYPE,
+                        CONSTANT_DYNAMIC, CONSTANT_INVOKE_DYNAMIC -> {
+                    firstIndex[index] = in.readUnsignedShort();
+                    secondIndex[index] = in.readUnsignedShort();
+                    position += 4;
+                }
+                case CONSTANT_INTEGER, CONSTANT_FLOAT -> {
+                    in.readInt();
+                    position += 4;
+                }
+                case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    in.readLong();
+                    position += 8;
+                    index++; // takes two entries in the pool
+                }
+                case CONSTANT_METHOD_HANDLE -> {
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    position += 3;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag + ".");
+            }
+        }
+        int poolEnd = position;
+
+        // * Find the references to redirect
+        List<Integer> matches = new ArrayList<>();
+        for (int index = 1; index < constantPoolCount; index++) {
+            if (tags[index] == CONSTANT_FIELDREF || tags[index] == CONSTANT_METHODREF) {
+                String owner = utf8[firstIndex[firstIndex[index]]];
+                int nameAndType = secondIndex[index];
+                String name = utf8[firstIndex[nameAndType]];
+                String descriptor = utf8[secondIndex[nameAndType]];
+                for (String[] member : redirectedMembers) {
+                    if (member[0].equals(owner) && member[1].equals(name) && member[2].equals(descriptor)) {
+                        matches.add(index);
+                        break;
+                    }
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            return classFile;
+        }
+
+        // * Write the class again, with two extra entries at the end of the pool
+        int targetNameIndex = constantPoolCount;
+        int targetClassIndex = constantPoolCount + 1;
+        byte[] pool = new byte[poolEnd - poolStart];
+        System.arraycopy(classFile, poolStart, pool, 0, pool.length);
+        for (int index : matches) {
+            int classIndexOffset = offsets[index] + 1 - poolStart; // skip tag
+            pool[classIndexOffset] = (byte) (targetClassIndex >> 8);
+            pool[classIndexOffset + 1] = (byte) targetClassIndex;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length + targetClassName.length() + 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(classFile, 0, 8); // magic and version
+        out.writeShort(constantPoolCount + 2);
+        out.write(pool);
+        out.writeByte(CONSTANT_UTF8);
+        out.writeUTF(targetClassName);
+        out.writeByte(CONSTANT_CLASS);
+        out.writeShort(targetNameIndex);
+        out.write(classFile, poolEnd, classFile.length - poolEnd); // access flags, fields, methods, attributes
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the length in bytes of a UTF8 constant.
+     *
+     * @param classFile The bytes of the class file.
+     * @param offset    Offset of the two length bytes.
+     * @return The number of bytes of the string.
+     */
+    private static int utf8Length(byte[] classFile, int offset) {
+        return ((classFile[offset] & 0xFF) << 8) | (classFile[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,87 @@
+package executors;
+
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.runtime.RuntimeData;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds JaCoCo probes to the JPacman classes of one IsolatedJarClassLoader and collects which probes were hit.
+ * The probes sit on the edges of the control flow of every method, so the hit probes of an execution are its edge
+ * coverage.
+ * <p>
+ * Every loader gets its own instrumentation, so the probes of executions that run at the same time on different
+ * executors of a pool are never mixed. The instrumented classes find their probe arrays through java.util.logging,
+ * which the loader shares with the fuzzer through the platform classes.
+ * </p>
+ */
+class CoverageInstrumentation {
+
+    /**
+     * The runtime the instrumented classes ask for their probe arrays.
+     */
+    private final IRuntime runtime = new LoggerRuntime();
+
+    /**
+     * The probe arrays of all instrumented classes that were initialized.
+     */
+    private final RuntimeData data = new RuntimeData();
+
+    /**
+     * Adds the probes to the class files.
+     */
+    private final Instrumenter instrumenter = new Instrumenter(runtime);
+
+    /**
+     * Constructs a CoverageInstrumentation and starts its runtime.
+     *
+     * @throws IOException If the runtime cannot be started.
+     */
+    CoverageInstrumentation() throws IOException {
+        try {
+            runtime.startup(data);
+        } catch (Exception e) {
+            throw new IOException("Could not start the coverage runtime.", e);
+        }
+    }
+
+    /**
+     * Adds the probes to a class file.
+     *
+     * @param classFile The class file, already rewritten by the ClassFileRedirector.
+     * @param className The binary name of the class, used in error messages.
+     * @return The instrumented class file.
+     * @throws IOException If the class file cannot be instrumented.
+     */
+    byte[] instrument(byte[] classFile, String className) throws IOException {
+        return instrumenter.instrument(classFile, className);
+    }
+
+    /**
+     * Gives the probes that were hit since the last call and resets them for the next execution.
+     *
+     * @return The coverage of the last execution.
+     */
+    IterationCoverage collect() {
+        Map<Long, boolean[]> hitProbes = new HashMap<>();
+        // The visited probe arrays are reset after the visit, so the hit ones are copied
+        data.collect(executionData -> {
+            if (executionData.hasHits()) {
+                hitProbes.put(executionData.getId(), executionData.getProbes().clone());
+            }
+        }, sessionInfo -> {
+        }, true);
+        return new IterationCoverage(hitProbes);
+    }
+
+    /**
+     * Stops the runtime, the instrumented classes of the loader can no longer report their probes.
+     */
+    void shutdown() {
+        runtime.shutdown();
+    }
+}
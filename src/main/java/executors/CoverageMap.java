@@ -0,0 +1,91 @@
+package executors;
+
+import dataProviders.ConfigFileReader;
+import enums.ExecutionMode;
+import managers.FileReaderManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the JaCoCo probes (the edges of the JPacman code) that were hit by any iteration of this run, for the
+ * coverage-guided mode. An iteration whose coverage adds a probe to this map reached new coverage, and its input goes
+ * into the CoverageCorpus.
+ * <p>
+ * Only used when coverageGuided is switched on and JPacman runs in the in-process mode, because only there the fuzzer
+ * loads the JPacman classes itself and can add the probes.
+ * </p>
+ */
+public final class CoverageMap {
+
+    /**
+     * True if the iterations should collect their coverage. Specified in configurations file.
+     */
+    private static final boolean enabled = isEnabledInConfig();
+
+    /**
+     * The probes that were hit by any iteration, by JaCoCo class id.
+     */
+    private static final Map<Long, boolean[]> coveredProbes = new HashMap<>();
+
+    /**
+     * Number of true values in coveredProbes.
+     */
+    private static int coveredProbeCount;
+
+    /**
+     * Private constructor, only the static methods are used.
+     */
+    private CoverageMap() {
+    }
+
+    /**
+     * Monitors if the iterations collect their coverage.
+     *
+     * @return true if the coverage-guided mode is on, false otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds the probes of one iteration to the covered probes.
+     *
+     * @param iterationCoverage The coverage of the iteration.
+     * @return The number of probes that no iteration hit before, 0 if the iteration did not reach new coverage.
+     */
+    public static synchronized int merge(IterationCoverage iterationCoverage) {
+        int newProbes = 0;
+        for (Map.Entry<Long, boolean[]> entry : iterationCoverage.getHitProbes().entrySet()) {
+            boolean[] hit = entry.getValue();
+            boolean[] covered = coveredProbes.computeIfAbsent(entry.getKey(), id -> new boolean[hit.length]);
+            for (int probe = 0; probe < hit.length; probe++) {
+                if (hit[probe] && !covered[probe]) {
+                    covered[probe] = true;
+                    newProbes++;
+                }
+            }
+        }
+        coveredProbeCount += newProbes;
+        return newProbes;
+    }
+
+    /**
+     * Gives the number of probes that were hit by any iteration.
+     *
+     * @return The number of covered probes.
+     */
+    public static synchronized int getCoveredProbeCount() {
+        return coveredProbeCount;
+    }
+
+    /**
+     * Reads in the configuration file if the coverage should be collected. Only the in-process mode loads the classes.
+     *
+     * @return true if coverageGuided is switched on and the execution mode is in-process.
+     */
+    private static boolean isEnabledInConfig() {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        return configFileReader.getCoverageGuided() && configFileReader.getExecutionMode() == ExecutionMode.IN_PROCESS;
+    }
+}
@@ -0,0 +1,109 @@
+package executors;
+
+/**
+ * Represents the raw outcome of one execution of the JPacman application, before it is turned into an
+ * IterationResult. Contains the exit code, the output and error messages and whether the time limit of the iteration
+ * was reached.
+ */
+public class ExecutionResult {
+
+    /**
+     * The exit code the JPacman application ended with.
+     */
+    private final int exitCode;
+
+    /**
+     * The output messages the JPacman application printed, with the "**** " prefixes already removed.
+     */
+    private final String outputMessages;
+
+    /**
+     * The error messages the JPacman application printed, such as the stack trace of a crash.
+     */
+    private final String errorMessages;
+
+    /**
+     * True if the execution was stopped because the maximum time of an iteration was reached.
+     */
+    private final boolean timeoutReached;
+
+    /**
+     * The coverage probes the execution hit, or null if the coverage was not collected.
+     */
+    private final IterationCoverage coverage;
+
+    /**
+     * Constructs an ExecutionResult object with the specified parameters.
+     *
+     * @param exitCode       The exit code the JPacman application ended with.
+     * @param outputMessages The output messages the JPacman application printed.
+     * @param errorMessages  The error messages the JPacman application printed.
+     * @param timeoutReached True if the execution was stopped because the time limit of the iteration was reached.
+     */
+    public ExecutionResult(int exitCode, String outputMessages, String errorMessages, boolean timeoutReached) {
+        this(exitCode, outputMessages, errorMessages, timeoutReached, null);
+    }
+
+    /**
+     * Constructs an ExecutionResult object with the coverage of the execution.
+     *
+     * @param exitCode       The exit code the JPacman application ended with.
+     * @param outputMessages The output messages the JPacman application printed.
+     * @param errorMessages  The error messages the JPacman application printed.
+     * @param timeoutReached True if the execution was stopped because the time limit of the iteration was reached.
+     * @param coverage       The coverage probes the execution hit, or null if the coverage was not collected.
+     */
+    public ExecutionResult(int exitCode, String outputMessages, String errorMessages, boolean timeoutReached,
+                           IterationCoverage coverage) {
+        this.exitCode = exitCode;
+        this.outputMessages = outputMessages;
+        this.errorMessages = errorMessages;
+        this.timeoutReached = timeoutReached;
+        this.coverage = coverage;
+    }
+
+    /**
+     * Returns the exit code the JPacman application ended with.
+     *
+     * @return The exit code.
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Returns the output messages the JPacman application printed.
+     *
+     * @return The output messages.
+     */
+    public String getOutputMessages() {
+        return outputMessages;
+    }
+
+    /**
+     * Returns the error messages the JPacman application printed.
+     *
+     * @return The error messages.
+     */
+    public String getErrorMessages() {
+        return errorMessages;
+    }
+
+    /**
+     * Monitors if the time limit of the iteration was reached.
+     *
+     * @return true if timeout is reached, false otherwise
+     */
+    public boolean isTimeoutReached() {
+        return timeoutReached;
+    }
+
+    /**
+     * Returns the coverage probes the execution hit.
+     *
+     * @return The coverage, or null if the coverage was not collected.
+     */
+    public IterationCoverage getCoverage() {
+        return coverage;
+    }
+}
@@ -0,0 +1,38 @@
+package executors;
+
+/**
+ * Thrown instead of ending the JVM when JPacman calls System.exit while it runs inside the fuzzer JVM.
+ * Extends Error on purpose: the catch blocks of JPacman only catch exceptions, so the exit ends the game like the real
+ * System.exit would.
+ */
+public class ExitTrappedException extends Error {
+
+    /**
+     * Version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The status JPacman wanted to exit with.
+     */
+    private final int status;
+
+    /**
+     * Constructs an ExitTrappedException for the given exit status.
+     *
+     * @param status The status JPacman wanted to exit with.
+     */
+    public ExitTrappedException(int status) {
+        super("System.exit(" + status + ") trapped", null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * Returns the status JPacman wanted to exit with.
+     *
+     * @return The exit status.
+     */
+    public int getStatus() {
+        return status;
+    }
+}
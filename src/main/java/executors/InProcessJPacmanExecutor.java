@@ -0,0 +1,296 @@
+package executors;
+
+import managers.FileReaderManager;
+import organizers.InMemoryMapStore;
+
+import java.awt.Frame;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Executes JPacman inside the JVM of the fuzzer, by calling jpacman.controller.Pacman.mainFuzzing directly.
+ * The jar is loaded once by an IsolatedJarClassLoader, so the JIT-compiled classes are reused by every iteration
+ * and no new JVM has to start.
+ * <p>
+ * System.exit calls of JPacman are trapped and become the exit code, System.out and System.err are captured and become
+ * the output and error messages. Stack traces that JPacman prints with printStackTrace() are captured by the
+ * ThreadErrorStream of the game thread. A game window that is still open after the action sequence is handled as a
+ * reached time limit, because the forked JVM would never end in that case. If the time limit of the iteration is
+ * really reached, the game thread and the class loader are thrown away and loaded again for the next iteration.
+ * </p>
+ * <p>
+ * In the coverage-guided mode, the loaded classes carry JaCoCo probes, and the probes each execution hit are given back
+ * with its result.
+ * </p>
+ * <p>
+ * Exceptions on the AWT event thread are not seen by this executor, because that thread is shared with the fuzzer.
+ * Use the process execution mode if those crashes matter.
+ * </p>
+ */
+public class InProcessJPacmanExecutor extends JPacmanExecutor {
+
+    /**
+     * Exit code JPacman uses when it fails, used when the failure could not be passed to JPacman's own handler.
+     */
+    private static final int EXIT_FAIL = 1;
+
+    /**
+     * Max time in milliseconds that is allowed for one execution.
+     */
+    private final long timeout = FileReaderManager.getInstance().getConfigReader().getIterationTimeout();
+
+    /**
+     * Max number of bytes that is kept of the output and of the error messages of one execution.
+     */
+    private final int maxOutputBytes = FileReaderManager.getInstance().getConfigReader().getMaxOutputBytes();
+
+    /**
+     * Makes sure only one thread at a time uses this executor.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The loader of the JPacman classes, or null if the jar is not loaded (yet or anymore).
+     */
+    private IsolatedJarClassLoader classLoader;
+
+    /**
+     * The coverage probes of the loaded classes, or null if the coverage is not collected or the jar is not loaded.
+     */
+    private CoverageInstrumentation coverage;
+
+    /**
+     * Handle to jpacman.controller.Pacman.mainFuzzing(String, String) of the loaded jar.
+     */
+    private MethodHandle mainFuzzing;
+
+    /**
+     * The fields out, err, exitStatus and uncaughtExceptionHandler of the SystemInterceptor copy of the loader.
+     */
+    private Field outField;
+    private Field errField;
+    private Field exitStatusField;
+    private Field uncaughtExceptionHandlerField;
+
+    /**
+     * The thread JPacman runs on. The same thread is used for every execution until a time limit is reached.
+     */
+    private ExecutorService gameThread;
+
+    /**
+     * Executes JPacman in the fuzzer JVM with the given map file and action sequence.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code, output messages and error messages of the execution.
+     * @throws IOException          If the jar cannot be loaded.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on the execution. The game is stopped
+     *                              like at the time limit.
+     */
+    @Override
+    public ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException {
+        lock.lock(); // not synchronized, to not pin a virtual thread while waiting
+        try {
+            load();
+            BoundedOutputStream output = new BoundedOutputStream(maxOutputBytes);
+            BoundedOutputStream errors = new BoundedOutputStream(maxOutputBytes);
+            PrintStream errorStream = new PrintStream(errors, true, StandardCharsets.UTF_8);
+            try {
+                outField.set(null, new PrintStream(output, true, StandardCharsets.UTF_8));
+                errField.set(null, errorStream);
+                exitStatusField.set(null, null);
+                uncaughtExceptionHandlerField.set(null, null);
+            } catch (IllegalAccessException e) {
+                throw new IOException("Could not prepare the loaded JPacman.", e);
+            }
+
+            // Execute fully or wait until timeout reached
+            Future<Integer> execution = gameThread.submit(() -> run(mapFilePath, actionSequence, errorStream));
+            int exitCode;
+            boolean timeoutReached = false;
+            IterationCoverage iterationCoverage = null;
+            try {
+                Integer status = execution.get(timeout, TimeUnit.MILLISECONDS);
+                if (status == null) { // window still open, the forked JVM would hang until the time limit
+                    exitCode = EXIT_FAIL;
+                    timeoutReached = true;
+                } else {
+                    exitCode = status;
+                }
+            } catch (TimeoutException e) {
+                execution.cancel(true);
+                iterationCoverage = collectCoverage(); // before the probes are thrown away with the loader
+                unload();
+                exitCode = EXIT_FAIL;
+                timeoutReached = true;
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace(errorStream);
+                exitCode = EXIT_FAIL;
+            } catch (InterruptedException e) {
+                execution.cancel(true); // Nobody waits on the result anymore, like at the time limit
+                unload();
+                throw e;
+            }
+            disposeWindows();
+            if (iterationCoverage == null) {
+                iterationCoverage = collectCoverage();
+            }
+            return new ExecutionResult(exitCode, formatOutputMessages(output.toString()), errors.toString(),
+                    timeoutReached, iterationCoverage);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs mainFuzzing on the game thread and translates the way it ended into an exit code.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @param errorStream    The stream that replaces System.err during this execution.
+     * @return The exit code, or null if JPacman did not exit and left its window open.
+     * @throws IllegalAccessException If the fields of the SystemInterceptor copy cannot be read.
+     */
+    private Integer run(String mapFilePath, String actionSequence, PrintStream errorStream) throws IllegalAccessException {
+        Thread.currentThread().setContextClassLoader(classLoader);
+        ThreadErrorStream.setTarget(errorStream); // printStackTrace() of JPacman writes to the System.err of the JVM
+        try {
+            try {
+                mainFuzzing.invokeExact(mapFilePath, actionSequence);
+            } catch (ExitTrappedException e) {
+                return e.getStatus();
+            } catch (Throwable t) { // what the JVM would pass to the default uncaught exception handler
+                Thread.UncaughtExceptionHandler handler = (Thread.UncaughtExceptionHandler) uncaughtExceptionHandlerField.get(null);
+                if (handler == null) {
+                    t.printStackTrace(errorStream);
+                    return EXIT_FAIL;
+                }
+                try {
+                    handler.uncaughtException(Thread.currentThread(), t);
+                } catch (ExitTrappedException e) {
+                    return e.getStatus();
+                }
+            }
+            Integer exitStatus = (Integer) exitStatusField.get(null); // an exit on another thread
+            if (exitStatus != null) {
+                return exitStatus;
+            }
+            return hasOpenWindow() ? null : 0;
+        } finally {
+            ThreadErrorStream.clearTarget();
+        }
+    }
+
+    /**
+     * Loads the jar and looks up the members that are needed to run it, if that was not done yet.
+     *
+     * @throws IOException If the jar cannot be loaded.
+     */
+    private void load() throws IOException {
+        if (classLoader != null) {
+            return;
+        }
+        ThreadErrorStream.install(); // once for the JVM, also captures printStackTrace() on the game thread
+        try {
+            if (CoverageMap.isEnabled()) {
+                coverage = new CoverageInstrumentation();
+            }
+            IsolatedJarClassLoader loader = new IsolatedJarClassLoader(JPACMAN_JAR_PATH, coverage);
+            Class<?> pacmanClass = loader.loadClass("jpacman.controller.Pacman");
+            mainFuzzing = MethodHandles.publicLookup().findStatic(pacmanClass, "mainFuzzing",
+                    MethodType.methodType(void.class, String.class, String.class));
+            Class<?> interceptorClass = loader.loadClass(SystemInterceptor.class.getName());
+            outField = interceptorClass.getField("out");
+            errField = interceptorClass.getField("err");
+            exitStatusField = interceptorClass.getField("exitStatus");
+            uncaughtExceptionHandlerField = interceptorClass.getField("uncaughtExceptionHandler");
+            Function<Path, byte[]> mapContents = InMemoryMapStore::getContent;
+            interceptorClass.getField("mapContents").set(null, mapContents); // maps that were never written to disk
+            gameThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jpacman-in-process");
+                thread.setDaemon(true); // a hanging game may not keep the fuzzer alive
+                return thread;
+            });
+            classLoader = loader;
+        } catch (ClassNotFoundException | NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+            throw new IOException("Could not load " + JPACMAN_JAR_PATH + " in process.", e);
+        }
+    }
+
+    /**
+     * Throws away the game thread and the loaded jar, so that a hanging game cannot influence the next execution.
+     */
+    private void unload() {
+        disposeWindows();
+        gameThread.shutdownNow();
+        gameThread = null;
+        classLoader = null;
+        if (coverage != null) {
+            coverage.shutdown();
+            coverage = null;
+        }
+    }
+
+    /**
+     * Gives the probes the last execution hit and resets them.
+     *
+     * @return The coverage of the last execution, or null if the coverage is not collected.
+     */
+    private IterationCoverage collectCoverage() {
+        return coverage == null ? null : coverage.collect();
+    }
+
+    /**
+     * Checks if a window of the loaded JPacman is still open.
+     *
+     * @return true if a window of this loader is still displayable, false otherwise.
+     */
+    private boolean hasOpenWindow() {
+        for (Frame frame : Frame.getFrames()) {
+            if (frame.getClass().getClassLoader() == classLoader && frame.isDisplayable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes all windows the loaded JPacman left open.
+     */
+    private void disposeWindows() {
+        for (Frame frame : Frame.getFrames()) {
+            if (frame.getClass().getClassLoader() == classLoader) {
+                frame.dispose();
+            }
+        }
+    }
+
+    /**
+     * Stops the game thread.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (classLoader != null) {
+                unload();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
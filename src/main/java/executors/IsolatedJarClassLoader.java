@@ -0,0 +1,183 @@
+package executors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Class loader that loads the classes of the JPacman jar apart from the classes of the fuzzer. Only the platform
+ * classes of the JDK are shared with the fuzzer.
+ * <p>
+ * While loading, the JPacman classes are rewritten so that System.exit, System.out, System.err,
+ * Thread.setDefaultUncaughtExceptionHandler and Files.readAllLines go to this loader's own copy of the SystemInterceptor class. Because
+ * each loader has its own copy, two loaded JPacman applications never share their static state.
+ * </p>
+ * <p>
+ * In the coverage-guided mode, the rewritten classes also get the JaCoCo probes of the loader's CoverageInstrumentation.
+ * </p>
+ */
+class IsolatedJarClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * The class files of the jar, by binary class name.
+     */
+    private final Map<String, byte[]> classFiles = new HashMap<>();
+
+    /**
+     * Names of all entries in the jar, to know which resources this loader can give.
+     */
+    private final Set<String> entryNames = new HashSet<>();
+
+    /**
+     * URL of the jar file, used to give access to the images and other resources in the jar.
+     */
+    private final URL jarUrl;
+
+    /**
+     * Rewrites the references to System and Thread in the JPacman classes.
+     */
+    private final ClassFileRedirector redirector = new ClassFileRedirector(SystemInterceptor.class.getName())
+            .redirect("java/lang/System", "exit", "(I)V")
+            .redirect("java/lang/System", "out", "Ljava/io/PrintStream;")
+            .redirect("java/lang/System", "err", "Ljava/io/PrintStream;")
+            .redirect("java/lang/Thread", "setDefaultUncaughtExceptionHandler",
+                    "(Ljava/lang/Thread$UncaughtExceptionHandler;)V")
+            .redirect("java/nio/file/Files", "readAllLines", "(Ljava/nio/file/Path;)Ljava/util/List;");
+
+    /**
+     * Adds the coverage probes to the JPacman classes, or null if the coverage is not collected.
+     */
+    private final CoverageInstrumentation coverage;
+
+    /**
+     * Constructs an IsolatedJarClassLoader and reads all classes of the jar in memory.
+     *
+     * @param jarPath Path to the jar file.
+     * @throws IOException If the jar cannot be read.
+     */
+    IsolatedJarClassLoader(String jarPath) throws IOException {
+        this(jarPath, null);
+    }
+
+    /**
+     * Constructs an IsolatedJarClassLoader that adds coverage probes to the JPacman classes, and reads all classes of
+     * the jar in memory.
+     *
+     * @param jarPath  Path to the jar file.
+     * @param coverage The instrumentation that adds the probes, or null to load the classes without probes.
+     * @throws IOException If the jar cannot be read.
+     */
+    IsolatedJarClassLoader(String jarPath, CoverageInstrumentation coverage) throws IOException {
+        super("jpacman", ClassLoader.getPlatformClassLoader());
+        this.coverage = coverage;
+        Path path = Paths.get(jarPath).toAbsolutePath();
+        this.jarUrl = path.toUri().toURL();
+        try (JarFile jarFile = new JarFile(path.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                entryNames.add(entryName);
+                if (entryName.endsWith(".class")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        String className = entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+                        classFiles.put(className, in.readAllBytes());
+                    }
+                }
+            }
+        }
+        setDefaultAssertionStatus(false); // java -jar runs without -ea as well
+    }
+
+    /**
+     * Loads the class with the given name. JPacman classes and the SystemInterceptor are defined by this loader,
+     * the ExitTrappedException is shared with the fuzzer, and all other classes come from the platform.
+     *
+     * @param name    The binary name of the class.
+     * @param resolve If true, the class is resolved.
+     * @return The class.
+     * @throws ClassNotFoundException If the class cannot be found.
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                if (name.equals(ExitTrappedException.class.getName())) {
+                    loadedClass = ExitTrappedException.class; // shared, so the executor can catch it
+                } else if (name.equals(SystemInterceptor.class.getName())) {
+                    loadedClass = defineOwnCopy(name);
+                } else if (classFiles.containsKey(name)) {
+                    try {
+                        byte[] rewritten = redirector.rewrite(classFiles.get(name));
+                        if (coverage != null) {
+                            rewritten = coverage.instrument(rewritten, name);
+                        }
+                        loadedClass = defineClass(name, rewritten, 0, rewritten.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException("Could not rewrite " + name, e);
+                    }
+                } else {
+                    return super.loadClass(name, resolve);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    /**
+     * Defines a copy of a class of the fuzzer in this loader, so that its static fields belong to this loader only.
+     *
+     * @param name The binary name of the fuzzer class.
+     * @return The copy of the class.
+     * @throws ClassNotFoundException If the class file cannot be read.
+     */
+    private Class<?> defineOwnCopy(String name) throws ClassNotFoundException {
+        String resourceName = name.replace('.', '/') + ".class";
+        try (InputStream in = IsolatedJarClassLoader.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] bytes = in.readAllBytes();
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+
+    /**
+     * Finds a resource (such as the images of the game) in the jar.
+     *
+     * @param name The name of the resource.
+     * @return The URL of the resource in the jar, or null if the jar does not contain it.
+     */
+    @Override
+    protected URL findResource(String name) {
+        if (!entryNames.contains(name)) {
+            return null;
+        }
+        try {
+            return new URL("jar:" + jarUrl + "!/" + name);
+        } catch (MalformedURLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package executors;
+
+import java.util.Map;
+
+/**
+ * The probes one execution of JPacman hit, by JaCoCo class id. Only classes with at least one hit probe are kept.
+ * Merged into the CoverageMap of the run to see if the execution reached new coverage.
+ */
+public class IterationCoverage {
+
+    /**
+     * The probe arrays of the classes with hits, by class id. true means the probe was hit.
+     */
+    private final Map<Long, boolean[]> hitProbes;
+
+    /**
+     * Constructs an IterationCoverage with the given probe arrays.
+     *
+     * @param hitProbes The probe arrays of the classes with hits, by class id.
+     */
+    IterationCoverage(Map<Long, boolean[]> hitProbes) {
+        this.hitProbes = hitProbes;
+    }
+
+    /**
+     * Gives the probe arrays of the classes with hits.
+     *
+     * @return The probe arrays by class id.
+     */
+    Map<Long, boolean[]> getHitProbes() {
+        return hitProbes;
+    }
+
+    /**
+     * Counts the hit probes.
+     *
+     * @return The number of probes that were hit in the execution.
+     */
+    public int getHitProbeCount() {
+        int count = 0;
+        for (boolean[] probes : hitProbes.values()) {
+            for (boolean probe : probes) {
+                if (probe) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
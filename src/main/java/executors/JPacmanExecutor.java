@@ -0,0 +1,88 @@
+package executors;
+
+import enums.ExecutionMode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * This abstract class serves as the base class for the ways to execute the JPacman application.
+ * Every executor runs the jar for one map file and action sequence and gives back the exit code and the output
+ * messages, so that the fuzzer does not need to know how the application was run.
+ */
+public abstract class JPacmanExecutor {
+
+    /**
+     * Path of the JPacman jar, relative to the project directory.
+     */
+    public static final String JPACMAN_JAR_PATH = "jpacman-3.0.1.jar";
+
+    /**
+     * Executes JPacman with the given map file and action sequence, and waits until it ended or until the time limit
+     * of the iteration is reached.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code, output messages and error messages of the execution.
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on the execution.
+     */
+    public abstract ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException;
+
+    /**
+     * Releases the resources that are held by this executor. Does nothing by default.
+     */
+    public void close() {
+    }
+
+    /**
+     * Creates the executor that belongs to the execution mode specified in the configuration file.
+     *
+     * @param executionMode The execution mode.
+     * @return A new executor for that mode.
+     */
+    public static JPacmanExecutor create(ExecutionMode executionMode) {
+        return switch (executionMode) {
+            case IN_PROCESS -> new InProcessJPacmanExecutor();
+            case WORKER -> new WorkerJPacmanExecutor();
+            case PROCESS -> new ProcessJPacmanExecutor();
+        };
+    }
+
+    /**
+     * Creates the executor for the given execution mode that can run the given number of executions at the same time.
+     *
+     * @param executionMode The execution mode.
+     * @param parallelism   The number of executions that may run at the same time.
+     * @return A single executor if the parallelism is one, a pool of executors otherwise.
+     */
+    public static JPacmanExecutor create(ExecutionMode executionMode, int parallelism) {
+        if (parallelism <= 1) {
+            return create(executionMode);
+        }
+        return new JPacmanExecutorPool(executionMode, parallelism);
+    }
+
+    /**
+     * Formats the raw standard output of JPacman as the fuzzer reports it: the "**** " prefixes are removed and
+     * each line ends with a new line.
+     *
+     * @param rawOutput The output as JPacman printed it.
+     * @return The output messages as a string.
+     */
+    static String formatOutputMessages(String rawOutput) {
+        BufferedReader reader = new BufferedReader(new StringReader(rawOutput));
+        StringBuilder output = new StringBuilder();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.replace("**** ", "");
+                output.append(line).append("\n");
+            }
+        } catch (IOException e) { // cannot happen when reading from a string
+            e.printStackTrace();
+        }
+        return output.toString();
+    }
+}
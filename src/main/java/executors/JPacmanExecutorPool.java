@@ -0,0 +1,71 @@
+package executors;
+
+import enums.ExecutionMode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Executor that holds a fixed number of executors of one execution mode and lends one of them to every execution.
+ * This way, as many iterations as there are executors can run at the same time, each on an executor that is used by
+ * only one thread at a time. For the in-process mode, every executor has its own loaded JPacman.
+ */
+public class JPacmanExecutorPool extends JPacmanExecutor {
+
+    /**
+     * All executors of the pool, to close them at the end.
+     */
+    private final List<JPacmanExecutor> executors = new ArrayList<>();
+
+    /**
+     * The executors that are not executing at the moment.
+     */
+    private final BlockingQueue<JPacmanExecutor> idleExecutors;
+
+    /**
+     * Constructs a JPacmanExecutorPool with the given number of executors.
+     *
+     * @param executionMode The execution mode of the executors.
+     * @param size          The number of executors, so the number of executions that can run at the same time.
+     */
+    public JPacmanExecutorPool(ExecutionMode executionMode, int size) {
+        idleExecutors = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            JPacmanExecutor executor = JPacmanExecutor.create(executionMode);
+            executors.add(executor);
+            idleExecutors.add(executor);
+        }
+    }
+
+    /**
+     * Executes JPacman on the first idle executor of the pool. Waits until one is idle if all are executing.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code and output messages of the execution.
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on an executor or the execution.
+     */
+    @Override
+    public ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException {
+        JPacmanExecutor executor = idleExecutors.take();
+        try {
+            return executor.execute(mapFilePath, actionSequence);
+        } finally {
+            idleExecutors.add(executor);
+        }
+    }
+
+    /**
+     * Closes all executors of the pool.
+     */
+    @Override
+    public void close() {
+        for (JPacmanExecutor executor : executors) {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package executors;
+
+import organizers.InMemoryMapStore;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure Java model of the JPacman application, that predicts the result of a map and action sequence in nanoseconds
+ * instead of executing the jar. Used as a differential oracle: an input where the real result disagrees with the
+ * prediction is an anomaly, and an input the model is sure about does not need to be executed.
+ * <p>
+ * The map is read and checked the way the Engine of JPacman does: the bytes are decoded as strict UTF-8 and split into
+ * lines like Files.readAllLines, and the lines are checked in the same order, so a rejected map gets exit code 10 and
+ * exactly the output message of the jar. An accepted map is played with the lifecycle of the Engine (starting, playing,
+ * halted, died and won, where S starts, resumes or restarts the game and Q and E halt it) and the moves of
+ * IterationResult.isValidMove: the player does not move into walls or out of the map, eats food, wins when all food is
+ * eaten and dies when it meets a monster. Monsters move on a timer thread of JPacman, so the model keeps them on their
+ * cells.
+ * </p>
+ * <p>
+ * The exit code of an accepted map depends on the user interface: without a display the jar always crashes with a
+ * HeadlessException (exit code 1) before the first action. With a display the game runs until the time limit or the
+ * threads of the user interface end, so the exit code is unknown; the prediction then only tells the state the game
+ * ends in.
+ * </p>
+ */
+public final class JPacmanSimulator {
+
+    /**
+     * The exit code of a prediction that the model cannot make.
+     */
+    public static final int UNKNOWN_EXIT_CODE = Integer.MIN_VALUE;
+
+    /**
+     * The message of JPacman for a map that cannot be read, also when the file does not exist or is not UTF-8.
+     */
+    private static final String READ_ERROR_MESSAGE = "Error reading file by readAllLines";
+
+    /**
+     * The characters a cell of a valid map can be.
+     */
+    private static final String VALID_CHARACTERS = "PMFW0";
+
+    /**
+     * True if there is no display, so JPacman crashes on every accepted map when it opens its window.
+     */
+    private static final boolean HEADLESS = GraphicsEnvironment.isHeadless();
+
+    /**
+     * The simulator has only static methods.
+     */
+    private JPacmanSimulator() {
+    }
+
+    /**
+     * Predicts the result of JPacman for a map file and action sequence. The map is read from memory if it is stored
+     * there, and from disk otherwise.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The predicted result.
+     */
+    public static Prediction predict(String mapFilePath, String actionSequence) {
+        return predict(InMemoryMapStore.readAllBytes(mapFilePath), actionSequence);
+    }
+
+    /**
+     * Predicts the result of JPacman for the content of a map file and an action sequence.
+     *
+     * @param mapContent     The bytes of the map file, or null if the file cannot be read.
+     * @param actionSequence The action sequence.
+     * @return The predicted result.
+     */
+    public static Prediction predict(byte[] mapContent, String actionSequence) {
+        List<String> lines = mapContent == null ? null : readAllLines(mapContent);
+        if (lines == null) {
+            return Prediction.rejected(READ_ERROR_MESSAGE);
+        }
+        String rejection = validateBoard(lines);
+        if (rejection != null) {
+            return Prediction.rejected(rejection);
+        }
+        Game game = new Game(lines);
+        game.play(actionSequence);
+        return new Prediction(HEADLESS ? 1 : UNKNOWN_EXIT_CODE, "", game.getState(), game.foodEaten);
+    }
+
+    /**
+     * Reads the lines of a map like Files.readAllLines: strict UTF-8, and a line ends at \n, \r or \r\n.
+     *
+     * @param mapContent The bytes of the map file.
+     * @return The lines, or null if the bytes are not valid UTF-8.
+     */
+    private static List<String> readAllLines(byte[] mapContent) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(mapContent))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(text));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) { // cannot happen when reading from a string
+            e.printStackTrace();
+        }
+        return lines;
+    }
+
+    /**
+     * Checks the lines of a map in the order of Engine.validBoardFile: the first problem gives the message.
+     *
+     * @param lines The lines of the map.
+     * @return The message JPacman rejects the map with, or null if the map is accepted.
+     */
+    private static String validateBoard(List<String> lines) {
+        if (lines.isEmpty()) {
+            return "No lines";
+        }
+        int width = lines.get(0).length();
+        if (width == 0) {
+            return "No columns";
+        }
+        boolean playerSet = false;
+        boolean foodSet = false;
+        for (String line : lines) {
+            if (line.length() != width) {
+                return "Widths mismatch";
+            }
+            for (int column = 0; column < width; column++) {
+                char cell = line.charAt(column);
+                if (VALID_CHARACTERS.indexOf(cell) < 0) {
+                    return "Unknown character";
+                }
+                if (cell == 'P') {
+                    if (playerSet) {
+                        return "More than one player";
+                    }
+                    playerSet = true;
+                } else if (cell == 'F') {
+                    foodSet = true;
+                }
+            }
+        }
+        if (!playerSet) {
+            return "No player is set";
+        }
+        if (!foodSet) {
+            return "No food";
+        }
+        return null;
+    }
+
+    /**
+     * The predicted result of an input: the exit code and output messages of JPacman, and for an accepted map the
+     * state the game ends in.
+     */
+    public static final class Prediction {
+
+        /**
+         * The predicted exit code, or UNKNOWN_EXIT_CODE.
+         */
+        private final int exitCode;
+
+        /**
+         * The predicted output messages, with the "**** " prefixes already removed.
+         */
+        private final String outputMessages;
+
+        /**
+         * The state the game ends in, or null if the map is rejected.
+         */
+        private final String gameState;
+
+        /**
+         * The number of food cells the player ate.
+         */
+        private final int foodEaten;
+
+        /**
+         * Constructs a Prediction.
+         *
+         * @param exitCode       The predicted exit code, or UNKNOWN_EXIT_CODE.
+         * @param outputMessages The predicted output messages.
+         * @param gameState      The state the game ends in, or null if the map is rejected.
+         * @param foodEaten      The number of food cells the player ate.
+         */
+        private Prediction(int exitCode, String outputMessages, String gameState, int foodEaten) {
+            this.exitCode = exitCode;
+            this.outputMessages = outputMessages;
+            this.gameState = gameState;
+            this.foodEaten = foodEaten;
+        }
+
+        /**
+         * Constructs the Prediction of a rejected map.
+         *
+         * @param message The message JPacman rejects the map with.
+         * @return The prediction, with exit code 10.
+         */
+        private static Prediction rejected(String message) {
+            // JPacman prints "**** " and the message, the executors remove the prefix
+            return new Prediction(10, message + "\n", null, 0);
+        }
+
+        /**
+         * Returns the predicted exit code.
+         *
+         * @return The exit code, or UNKNOWN_EXIT_CODE if the model cannot predict it.
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Returns the predicted output messages.
+         *
+         * @return The output messages.
+         */
+        public String getOutputMessages() {
+            return outputMessages;
+        }
+
+        /**
+         * Returns the state the game ends in: starting, playing, halted, died or won.
+         *
+         * @return The state, or null if the map is rejected.
+         */
+        public String getGameState() {
+            return gameState;
+        }
+
+        /**
+         * Returns the number of food cells the player ate.
+         *
+         * @return The food eaten.
+         */
+        public int getFoodEaten() {
+            return foodEaten;
+        }
+
+        /**
+         * Monitors if the model could predict the exit code.
+         *
+         * @return true if the exit code is known, false otherwise
+         */
+        public boolean isKnown() {
+            return exitCode != UNKNOWN_EXIT_CODE;
+        }
+
+        /**
+         * Monitors if the model is sure enough to replace an execution: only rejected maps, because a crash needs the
+         * stack trace of a real execution for its bucket.
+         *
+         * @return true if the map is predicted to be rejected, false otherwise
+         */
+        public boolean isRejected() {
+            return exitCode == 10;
+        }
+
+        /**
+         * Checks the prediction against the result of a real execution. An unknown prediction matches every result.
+         * The output messages are only compared for rejected maps, the output of a crash is not predicted.
+         *
+         * @param executionResult The result of the execution.
+         * @return true if the execution agrees with the prediction, false if it is an anomaly.
+         */
+        public boolean matches(ExecutionResult executionResult) {
+            if (!isKnown()) {
+                return true;
+            }
+            if (executionResult.isTimeoutReached() || executionResult.getExitCode() != exitCode) {
+                return false;
+            }
+            return exitCode != 10 || outputMessages.equals(executionResult.getOutputMessages());
+        }
+
+        /**
+         * Gives the prediction as the result of an execution, for an input that is not executed.
+         *
+         * @return The exit code and output messages, without error messages.
+         */
+        public ExecutionResult toExecutionResult() {
+            return new ExecutionResult(exitCode, outputMessages, "", false);
+        }
+    }
+
+    /**
+     * The game of an accepted map, with the state flags of the Engine of JPacman.
+     */
+    private static final class Game {
+
+        /**
+         * The cells of the map as it was read, to restart the game.
+         */
+        private final char[][] initialCells;
+
+        /**
+         * The cells of the game. The cell of the player is empty, its position is kept apart.
+         */
+        private char[][] cells;
+
+        /**
+         * The row of the player.
+         */
+        private int playerRow;
+
+        /**
+         * The column of the player.
+         */
+        private int playerColumn;
+
+        /**
+         * The number of food cells that are not eaten yet.
+         */
+        private int foodLeft;
+
+        /**
+         * The number of food cells the player ate in this game.
+         */
+        private int foodEaten;
+
+        /**
+         * True before the game is started, like Engine.starting.
+         */
+        private boolean starting = true;
+
+        /**
+         * True while the game is halted, like Engine.halted.
+         */
+        private boolean halted;
+
+        /**
+         * True if the player met a monster.
+         */
+        private boolean died;
+
+        /**
+         * Constructs the Game of the lines of an accepted map, in the starting state.
+         *
+         * @param lines The lines of the map.
+         */
+        private Game(List<String> lines) {
+            this.initialCells = new char[lines.size()][];
+            for (int row = 0; row < initialCells.length; row++) {
+                initialCells[row] = lines.get(row).toCharArray();
+            }
+            initialize();
+        }
+
+        /**
+         * Sets the board back to the map, like Game.initialize. The state flags are left to the caller.
+         */
+        private void initialize() {
+            cells = new char[initialCells.length][];
+            foodLeft = 0;
+            foodEaten = 0;
+            died = false;
+            for (int row = 0; row < cells.length; row++) {
+                cells[row] = initialCells[row].clone();
+                for (int column = 0; column < cells[row].length; column++) {
+                    if (cells[row][column] == 'P') {
+                        playerRow = row;
+                        playerColumn = column;
+                        cells[row][column] = '0';
+                    } else if (cells[row][column] == 'F') {
+                        foodLeft++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Plays the actions of an action sequence the way Pacman.mainFuzzing maps them. Unknown actions are ignored.
+         *
+         * @param actionSequence The action sequence.
+         */
+        private void play(String actionSequence) {
+            for (int i = 0; i < actionSequence.length(); i++) {
+                switch (actionSequence.charAt(i)) {
+                    case 'S' -> start();
+                    case 'Q', 'E' -> quit(); // exit also closes the window, the game itself is only halted
+                    case 'U' -> movePlayer(-1, 0);
+                    case 'D' -> movePlayer(1, 0);
+                    case 'L' -> movePlayer(0, -1);
+                    case 'R' -> movePlayer(0, 1);
+                    default -> { // W only waits for the monsters, that the model does not move
+                    }
+                }
+            }
+        }
+
+        /**
+         * Starts the game, like Engine.start: resumes a halted game, starts a starting game and sets a game that is
+         * over back to the starting state.
+         */
+        private void start() {
+            if (halted) {
+                halted = false;
+            } else if (inStartingState()) {
+                starting = false;
+            } else if (inGameOverState()) {
+                initialize();
+                starting = true;
+            }
+        }
+
+        /**
+         * Halts the game, like Engine.quit, if it is playing.
+         */
+        private void quit() {
+            if (inPlayingState()) {
+                halted = true;
+            }
+        }
+
+        /**
+         * Moves the player, like Engine.movePlayer, if the game is playing. A move out of the map or into a wall does
+         * nothing.
+         *
+         * @param rowOffset    The rows to move.
+         * @param columnOffset The columns to move.
+         */
+        private void movePlayer(int rowOffset, int columnOffset) {
+            if (!inPlayingState()) {
+                return;
+            }
+            int row = playerRow + rowOffset;
+            int column = playerColumn + columnOffset;
+            if (row < 0 || row >= cells.length || column < 0 || column >= cells[row].length) {
+                return;
+            }
+            switch (cells[row][column]) {
+                case 'W' -> {
+                }
+                case 'M' -> died = true;
+                case 'F' -> {
+                    cells[row][column] = '0';
+                    foodLeft--;
+                    foodEaten++;
+                    playerRow = row;
+                    playerColumn = column;
+                }
+                default -> {
+                    playerRow = row;
+                    playerColumn = column;
+                }
+            }
+        }
+
+        /**
+         * Monitors if the player ate all food.
+         *
+         * @return true if the player won, false otherwise
+         */
+        private boolean won() {
+            return foodLeft == 0;
+        }
+
+        /**
+         * Monitors if the game is in the starting state, like Engine.inStartingState.
+         *
+         * @return true if the game is starting, false otherwise
+         */
+        private boolean inStartingState() {
+            return starting && !died && !won();
+        }
+
+        /**
+         * Monitors if the game is in the playing state, like Engine.inPlayingState.
+         *
+         * @return true if the game is playing, false otherwise
+         */
+        private boolean inPlayingState() {
+            return !starting && !halted && !died && !won();
+        }
+
+        /**
+         * Monitors if the game is over, like Engine.inGameOverState.
+         *
+         * @return true if the player died or won, false otherwise
+         */
+        private boolean inGameOverState() {
+            return !starting && (died || won());
+        }
+
+        /**
+         * Gives the state the game is in.
+         *
+         * @return starting, playing, halted, died or won.
+         */
+        private String getState() {
+            if (halted) {
+                return "halted";
+            }
+            if (inStartingState()) {
+                return "starting";
+            }
+            if (inPlayingState()) {
+                return "playing";
+            }
+            return died ? "died" : "won";
+        }
+    }
+}
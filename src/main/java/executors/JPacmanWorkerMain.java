@@ -0,0 +1,105 @@
+package executors;
+
+import organizers.InMemoryMapStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Main class of a helper JVM of the worker execution mode. The helper loads the JPacman jar once and then executes
+ * requests it reads from its standard input, until the input is closed.
+ * <p>
+ * Protocol, in the format of DataInputStream and DataOutputStream:
+ * <ul>
+ *     <li>Request: map file path (string), map content (int length and bytes, length -1 if the map is a file on
+ *     disk), action sequence (string).</li>
+ *     <li>Reply: exit code (int), time limit reached (boolean), output messages (string), error messages (string).</li>
+ * </ul>
+ * A string is written as its length in bytes (int) followed by its UTF-8 bytes.
+ * </p>
+ */
+public class JPacmanWorkerMain {
+
+    /**
+     * Private constructor, only the main method is used.
+     */
+    private JPacmanWorkerMain() {
+    }
+
+    /**
+     * Executes the requests on the standard input and replies on the standard output.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        // Keep the real standard output for the replies, anything else that gets printed must not mix with them
+        DataOutputStream replies = new DataOutputStream(new BufferedOutputStream(System.out));
+        System.setOut(new PrintStream(System.err, true, StandardCharsets.UTF_8));
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(System.in));
+        InProcessJPacmanExecutor executor = new InProcessJPacmanExecutor();
+        try {
+            while (true) {
+                String mapFilePath;
+                byte[] mapContent = null;
+                String actionSequence;
+                try {
+                    mapFilePath = readString(requests);
+                    int mapLength = requests.readInt();
+                    if (mapLength >= 0) {
+                        mapContent = new byte[mapLength];
+                        requests.readFully(mapContent);
+                    }
+                    actionSequence = readString(requests);
+                } catch (EOFException e) { // the fuzzer closed the worker
+                    break;
+                }
+                if (mapContent != null) {
+                    InMemoryMapStore.put(mapFilePath, mapContent);
+                }
+                ExecutionResult executionResult = executor.execute(mapFilePath, actionSequence);
+                InMemoryMapStore.remove(mapFilePath);
+                replies.writeInt(executionResult.getExitCode());
+                replies.writeBoolean(executionResult.isTimeoutReached());
+                writeString(replies, executionResult.getOutputMessages());
+                writeString(replies, executionResult.getErrorMessages());
+                replies.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+        executor.close();
+        System.exit(0); // threads JPacman left behind may not keep the helper alive
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes.
+     *
+     * @param out   The stream to write to.
+     * @param value The string to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string that was written by writeString.
+     *
+     * @param in The stream to read from.
+     * @return The string.
+     * @throws IOException If an I/O error occurs, or EOFException if the stream ended.
+     */
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package executors;
+
+import managers.FileReaderManager;
+
+import java.io.IOException;
+
+/**
+ * Executes JPacman by starting a new java -jar process for every iteration. This is the slowest way to execute the
+ * application, because every iteration pays the start-up of a new JVM, but a crashing or hanging JPacman can never
+ * influence the fuzzer itself.
+ */
+public class ProcessJPacmanExecutor extends JPacmanExecutor {
+
+    /**
+     * Max number of bytes that is kept of the standard output and of the standard error of one process.
+     */
+    private final int maxOutputBytes = FileReaderManager.getInstance().getConfigReader().getMaxOutputBytes();
+
+    /**
+     * Executes JPacman in a new process with the given map file and action sequence. The process is destroyed if
+     * it takes longer than the maximum time of an iteration, together with the processes it started.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code, output messages and error messages of the process.
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on the process. The process is destroyed.
+     */
+    @Override
+    public ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException {
+        // Execute process fully or wait until timeout reached.
+        Process process = startJPacman(mapFilePath, actionSequence);
+        TimeoutScheduler.Deadline deadline = TimeoutScheduler.watch(process);
+        // Empty both pipes while the process runs, so it never blocks on a full pipe
+        StreamDrainer output = new StreamDrainer(process.getInputStream(), maxOutputBytes, "jpacman-stdout");
+        StreamDrainer errors = new StreamDrainer(process.getErrorStream(), maxOutputBytes, "jpacman-stderr");
+        // Retrieve output data process
+        int exitCode;
+        try {
+            exitCode = process.waitFor(); // Wait for the process to complete or timeout
+        } catch (InterruptedException e) {
+            process.destroyForcibly(); // Nobody waits on the result anymore
+            throw e;
+        } finally {
+            deadline.cancel(); // Stop watching the process if it ended in time (shorter execution)
+        }
+        String outputMessages = formatOutputMessages(output.await());
+        return new ExecutionResult(exitCode, outputMessages, errors.await(), deadline.isTimeoutReached());
+    }
+
+    /**
+     * Starts JPacman with the given map file and action sequence.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The random action sequence.
+     * @return The process of the JPacman execution.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static Process startJPacman(String mapFilePath, String actionSequence) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder("java", "-jar", JPACMAN_JAR_PATH, mapFilePath, actionSequence);
+        return processBuilder.start();
+    }
+}
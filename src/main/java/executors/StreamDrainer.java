@@ -0,0 +1,68 @@
+package executors;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a stream of a process on its own (virtual, if switched on) thread from the moment the process starts, into a BoundedOutputStream.
+ * Because the pipe is emptied while the process runs, a process that prints a lot never blocks on a full pipe, and
+ * the output can be read after the process ended.
+ */
+class StreamDrainer {
+
+    /**
+     * Size of the chunks that are read from the stream.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The captured bytes.
+     */
+    private final BoundedOutputStream captured;
+
+    /**
+     * The thread that reads the stream.
+     */
+    private final Thread thread;
+
+    /**
+     * Starts draining the given stream.
+     *
+     * @param stream   The stream to read, e.g. the standard output of a process.
+     * @param maxBytes Max number of bytes that is kept.
+     * @param name     Name of the reading thread.
+     */
+    StreamDrainer(InputStream stream, int maxBytes, String name) {
+        this.captured = new BoundedOutputStream(maxBytes);
+        this.thread = VirtualThreads.daemonThreadFactory(name).newThread(() -> drain(stream));
+        this.thread.start();
+    }
+
+    /**
+     * Reads the stream until it ends, and closes it.
+     *
+     * @param stream The stream to read.
+     */
+    private void drain(InputStream stream) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try (stream) {
+            int read;
+            while ((read = stream.read(chunk)) != -1) {
+                captured.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            // Stream closed because the process was killed, keep what was read
+        }
+    }
+
+    /**
+     * Waits until the stream ended and returns what was captured. Call this after the process ended.
+     *
+     * @return The captured text.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting.
+     */
+    String await() throws InterruptedException {
+        thread.join();
+        return captured.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package executors;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Replacement for the members of System and Thread that JPacman uses and that would influence the whole JVM, and
+ * for Files.readAllLines, so that JPacman can read maps that only exist in memory.
+ * The IsolatedJarClassLoader rewrites the JPacman classes so that they use the members of this class instead.
+ * <p>
+ * Every IsolatedJarClassLoader defines its own copy of this class, so every loaded JPacman has its own streams and
+ * exit status. The InProcessJPacmanExecutor sets and reads the fields of that copy through reflection.
+ * </p>
+ */
+public final class SystemInterceptor {
+
+    /**
+     * Stream that replaces System.out. Set before each execution to capture the output messages.
+     */
+    public static PrintStream out = System.out;
+
+    /**
+     * Stream that replaces System.err. Set before each execution to capture the error messages.
+     */
+    public static PrintStream err = System.err;
+
+    /**
+     * The status of the first System.exit call of the current execution, or null if JPacman did not exit yet.
+     */
+    public static volatile Integer exitStatus;
+
+    /**
+     * The handler JPacman registered as default uncaught exception handler during the current execution.
+     */
+    public static volatile Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+
+    /**
+     * Gives the content of a map that is kept in memory, or null if the map is a real file. Set by the executor.
+     */
+    public static volatile Function<Path, byte[]> mapContents;
+
+    /**
+     * Private constructor, only the static members are used.
+     */
+    private SystemInterceptor() {
+    }
+
+    /**
+     * Replaces System.exit. Records the status and stops the calling thread by throwing an ExitTrappedException.
+     *
+     * @param status The status JPacman wanted to exit with.
+     */
+    public static void exit(int status) {
+        synchronized (SystemInterceptor.class) {
+            if (exitStatus == null) {
+                exitStatus = status;
+            }
+        }
+        throw new ExitTrappedException(status);
+    }
+
+    /**
+     * Replaces Thread.setDefaultUncaughtExceptionHandler, so that JPacman does not replace the handler of the fuzzer.
+     *
+     * @param handler The handler JPacman wants to use.
+     */
+    public static void setDefaultUncaughtExceptionHandler(Thread.UncaughtExceptionHandler handler) {
+        uncaughtExceptionHandler = handler;
+    }
+
+    /**
+     * Replaces Files.readAllLines. Reads a map from memory if the executor has it, with the same decoding and line
+     * splitting as Files.readAllLines (so invalid UTF-8 still gives a MalformedInputException), and from disk otherwise.
+     *
+     * @param path The path of the map file.
+     * @return The lines of the map.
+     * @throws IOException If the file cannot be read or is not valid UTF-8.
+     */
+    public static List<String> readAllLines(Path path) throws IOException {
+        Function<Path, byte[]> contents = mapContents;
+        byte[] content = contents == null ? null : contents.apply(path);
+        if (content == null) {
+            return Files.readAllLines(path);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content),
+                StandardCharsets.UTF_8.newDecoder()))) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+}
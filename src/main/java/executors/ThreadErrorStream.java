@@ -0,0 +1,95 @@
+package executors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Standard error of the fuzzer JVM that sends the bytes a thread writes to the stream that is set for that thread, and
+ * the bytes of all other threads to the original standard error.
+ * <p>
+ * The IsolatedJarClassLoader only rewrites the references of JPacman to System.err. JPacman also calls the
+ * printStackTrace() of exceptions, which writes to System.err of the JVM itself. With this stream installed as
+ * System.err, the game thread sets the error stream of its execution, so those stack traces become error messages of
+ * the iteration like in the process execution mode, instead of ending up on the console of the fuzzer.
+ * </p>
+ */
+final class ThreadErrorStream extends OutputStream {
+
+    /**
+     * The stream of every thread that has one set.
+     */
+    private static final ThreadLocal<OutputStream> targets = new ThreadLocal<>();
+
+    /**
+     * The installed System.err, or null if it is not installed yet.
+     */
+    private static PrintStream installed;
+
+    /**
+     * The standard error before this stream was installed.
+     */
+    private final OutputStream original;
+
+    /**
+     * Constructs a ThreadErrorStream. Use install.
+     *
+     * @param original The standard error for the threads without their own stream.
+     */
+    private ThreadErrorStream(OutputStream original) {
+        this.original = original;
+    }
+
+    /**
+     * Installs this stream as System.err, if that was not done yet.
+     */
+    static synchronized void install() {
+        if (installed == null) {
+            // UTF-8 like the error streams of the executions, that decode the bytes as UTF-8
+            installed = new PrintStream(new ThreadErrorStream(System.err), true, StandardCharsets.UTF_8);
+            System.setErr(installed);
+        }
+    }
+
+    /**
+     * Sets the stream the current thread writes System.err to, until it is cleared.
+     *
+     * @param target The stream, e.g. the error messages of the current execution.
+     */
+    static void setTarget(OutputStream target) {
+        targets.set(target);
+    }
+
+    /**
+     * Sends what the current thread writes to System.err to the original standard error again.
+     */
+    static void clearTarget() {
+        targets.remove();
+    }
+
+    /**
+     * Gives the stream of the current thread.
+     *
+     * @return The stream set for the thread, or the original standard error.
+     */
+    private OutputStream current() {
+        OutputStream target = targets.get();
+        return target != null ? target : original;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        current().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        current().write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        current().flush();
+    }
+}
@@ -0,0 +1,120 @@
+package executors;
+
+import managers.FileReaderManager;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One scheduler that watches the deadlines of all processes that are executing at the moment. A single daemon thread
+ * keeps the deadlines, so parallel executions do not need a sleeping thread each. If a deadline is reached while the
+ * process is still alive, the process and all its descendants are killed and the timeout is marked as reached.
+ */
+final class TimeoutScheduler {
+
+    /**
+     * The one scheduler that is used in the whole fuzzer.
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jpacman-timeouts");
+        thread.setDaemon(true); // may not keep the fuzzer alive
+        return thread;
+    });
+
+    /**
+     * Max time in milliseconds that is allowed for one jpacman process to run.
+     */
+    private static final long ITERATION_TIMEOUT = FileReaderManager.getInstance().getConfigReader().getIterationTimeout();
+
+    /**
+     * Private constructor, only the static methods are used.
+     */
+    private TimeoutScheduler() {
+    }
+
+    /**
+     * Starts watching a process for the max time of an iteration.
+     *
+     * @param process The process to be monitored.
+     * @return The deadline, to cancel it when the process ended in time.
+     */
+    static Deadline watch(Process process) {
+        return watch(process, 0);
+    }
+
+    /**
+     * Starts watching a process that gets more time than one iteration.
+     *
+     * @param process   The process to be monitored.
+     * @param extraTime Time in milliseconds the process gets on top of the max time of an iteration.
+     * @return The deadline, to cancel it when the process ended in time.
+     */
+    static Deadline watch(Process process, long extraTime) {
+        Deadline deadline = new Deadline(process);
+        deadline.expiry = scheduler.schedule(deadline::expire, ITERATION_TIMEOUT + extraTime, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    /**
+     * Deadline of one process.
+     */
+    static final class Deadline {
+
+        /**
+         * Process to be monitored.
+         */
+        private final Process process;
+
+        /**
+         * Shall be true if time out of process is reached. Set by the scheduler thread, read by the executing thread.
+         */
+        private final AtomicBoolean timeoutReached = new AtomicBoolean(false);
+
+        /**
+         * The scheduled expiry, to cancel it.
+         */
+        private volatile ScheduledFuture<?> expiry;
+
+        /**
+         * Constructor of Deadline class.
+         *
+         * @param process Process to be monitored
+         */
+        private Deadline(Process process) {
+            this.process = process;
+        }
+
+        /**
+         * Called by the scheduler when the deadline is reached. Kills the process tree if it is still alive.
+         */
+        private void expire() {
+            if (process.isAlive()) {
+                timeoutReached.set(true); // before killing, so the waiting thread always sees it
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * Stops watching the process, because it ended in time.
+         */
+        void cancel() {
+            ScheduledFuture<?> scheduledExpiry = expiry;
+            if (scheduledExpiry != null) {
+                scheduledExpiry.cancel(false);
+            }
+        }
+
+        /**
+         * Monitors if timeout is reached.
+         *
+         * @return true if timeout is reached, false otherwise
+         */
+        boolean isTimeoutReached() {
+            return timeoutReached.get();
+        }
+    }
+}
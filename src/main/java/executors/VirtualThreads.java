@@ -0,0 +1,109 @@
+package executors;
+
+import managers.FileReaderManager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the fuzzer that mostly wait: the iteration workers and the stream drainers. If virtual
+ * threads are switched on in the configuration file and the JDK has them (Java 21 or later), virtual threads are
+ * used instead of platform threads. Otherwise, platform threads are used.
+ * <p>
+ * Virtual threads do not make more iterations overlap: the main thread still generates and writes the maps one after
+ * the other, at most twice the parallelism of iterations are pending, and every execution waits for one of the
+ * parallelism executors of the pool. The switch only saves the platform threads of the iteration workers and of the
+ * stream drainers of the processes.
+ * </p>
+ * <p>
+ * The project is compiled for Java 17, so the virtual thread API is looked up through reflection.
+ * </p>
+ */
+public final class VirtualThreads {
+
+    /**
+     * Thread.ofVirtual(), or null if virtual threads are not used.
+     */
+    private static final Method OF_VIRTUAL = lookUpOfVirtual();
+
+    /**
+     * Private constructor, only the static methods are used.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * Monitors if virtual threads are used.
+     *
+     * @return true if virtual threads are switched on and available, false otherwise
+     */
+    public static boolean isUsed() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates the executor that runs the iterations. With virtual threads, every iteration gets its own virtual
+     * thread. Otherwise, a fixed pool of platform threads runs them. Either way, the executions are limited by the
+     * parallelism of the executor pool.
+     *
+     * @param parallelism The number of platform threads, if those are used.
+     * @return The executor for the iterations.
+     */
+    public static ExecutorService newIterationExecutor(int parallelism) {
+        if (isUsed()) {
+            try {
+                Method perTask = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) perTask.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+            }
+        }
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Creates a factory for threads that may not keep the fuzzer alive: a virtual thread factory, or a factory of
+     * daemon platform threads.
+     *
+     * @param name The name of the threads.
+     * @return The thread factory.
+     */
+    static ThreadFactory daemonThreadFactory(String name) {
+        if (isUsed()) {
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class).invoke(builder, name);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+            }
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Looks up Thread.ofVirtual() if virtual threads are switched on in the configuration file.
+     *
+     * @return The method, or null if virtual threads are switched off or the JDK does not have them.
+     */
+    private static Method lookUpOfVirtual() {
+        if (!FileReaderManager.getInstance().getConfigReader().getVirtualThreads()) {
+            return null;
+        }
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            ofVirtual.invoke(null); // throws on Java 19 and 20 without preview features
+            return ofVirtual;
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads need Java 21 or later. Platform threads are used instead.");
+            return null;
+        }
+    }
+}
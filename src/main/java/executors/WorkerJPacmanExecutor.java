@@ -0,0 +1,171 @@
+package executors;
+
+import managers.FileReaderManager;
+import organizers.InMemoryMapStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executes JPacman in a long-lived helper JVM that runs JPacmanWorkerMain. The helper is started once and keeps the
+ * loaded jar between iterations, so an iteration does not pay the start-up of a JVM, while a JPacman that crashes
+ * the JVM or hangs still cannot influence the fuzzer.
+ * <p>
+ * If the helper dies, does not reply within the time limit of the iteration, or replies that JPacman reached the time
+ * limit, it is destroyed and a new helper is started for the next iteration. A game that hangs is only interrupted
+ * inside the helper and may keep running there, so the helper is not used for more iterations. Combined with the
+ * parallelism of the fuzzer, this gives a pool of warm helpers. The death of a helper is not a crash of JPacman: the iteration gets the unknown exit code -1 with the
+ * WORKER_DIED_MESSAGE, and the standard error of the helper as error messages.
+ * </p>
+ */
+public class WorkerJPacmanExecutor extends JPacmanExecutor {
+
+    /**
+     * Extra time the helper gets on top of the time limit of the iteration, because the helper enforces that limit
+     * itself and still has to reply.
+     */
+    private static final long REPLY_GRACE_TIME = 5000;
+
+    /**
+     * Exit code that is reported when the helper died during an execution, the unknown exit code.
+     */
+    private static final int EXIT_UNKNOWN = -1;
+
+    /**
+     * Output message of an iteration during which the helper died, e.g. because it ran out of memory or was killed.
+     */
+    public static final String WORKER_DIED_MESSAGE = "Worker JVM died";
+
+    /**
+     * Max number of bytes that is kept of the standard error of one helper.
+     */
+    private final int maxOutputBytes = FileReaderManager.getInstance().getConfigReader().getMaxOutputBytes();
+
+    /**
+     * Makes sure only one thread at a time uses this executor.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The helper process, or null if no helper is running.
+     */
+    private Process worker;
+
+    /**
+     * Stream to send requests to the helper.
+     */
+    private DataOutputStream requests;
+
+    /**
+     * Stream to read the replies of the helper.
+     */
+    private DataInputStream replies;
+
+    /**
+     * Reads the standard error of the helper, so it can be reported when the helper dies.
+     */
+    private StreamDrainer workerErrors;
+
+    /**
+     * Sends the map file and action sequence to the helper and waits for its reply.
+     *
+     * @param mapFilePath    The file path of the map file.
+     * @param actionSequence The action sequence.
+     * @return The exit code and output messages of the execution.
+     * @throws IOException          If the helper cannot be started.
+     * @throws InterruptedException If the fuzzer got interrupted while waiting on the helper.
+     */
+    @Override
+    public ExecutionResult execute(String mapFilePath, String actionSequence) throws IOException, InterruptedException {
+        lock.lock(); // not synchronized, to not pin a virtual thread while waiting
+        try {
+            if (worker == null || !worker.isAlive()) {
+                startWorker();
+            }
+            TimeoutScheduler.Deadline deadline = TimeoutScheduler.watch(worker, REPLY_GRACE_TIME);
+            try {
+                JPacmanWorkerMain.writeString(requests, mapFilePath);
+                byte[] mapContent = InMemoryMapStore.get(mapFilePath); // the helper cannot see the memory of the fuzzer
+                if (mapContent == null) {
+                    requests.writeInt(-1);
+                } else {
+                    requests.writeInt(mapContent.length);
+                    requests.write(mapContent);
+                }
+                JPacmanWorkerMain.writeString(requests, actionSequence);
+                requests.flush();
+                int exitCode = replies.readInt();
+                boolean timeoutReached = replies.readBoolean();
+                String outputMessages = JPacmanWorkerMain.readString(replies);
+                String errorMessages = JPacmanWorkerMain.readString(replies);
+                if (timeoutReached) {
+                    stopWorker(); // the hanging game thread may still run in the helper
+                }
+                return new ExecutionResult(exitCode, outputMessages, errorMessages, timeoutReached);
+            } catch (IOException e) { // helper died, or destroyed because it hung
+                StreamDrainer errors = workerErrors;
+                stopWorker();
+                return new ExecutionResult(EXIT_UNKNOWN, WORKER_DIED_MESSAGE, errors.await(), deadline.isTimeoutReached());
+            } finally {
+                deadline.cancel();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new helper JVM with the classes of the fuzzer.
+     *
+     * @throws IOException If the helper cannot be started.
+     */
+    private void startWorker() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                JPacmanWorkerMain.class.getName());
+        worker = processBuilder.start();
+        // The helper prints stray output of JPacman on its standard error, only the first bytes are kept
+        workerErrors = new StreamDrainer(worker.getErrorStream(), maxOutputBytes, "jpacman-worker-stderr");
+        requests = new DataOutputStream(new BufferedOutputStream(worker.getOutputStream()));
+        replies = new DataInputStream(new BufferedInputStream(worker.getInputStream()));
+    }
+
+    /**
+     * Destroys the helper, so that a new one is started for the next execution.
+     */
+    private void stopWorker() {
+        worker.destroyForcibly();
+        worker = null;
+        requests = null;
+        replies = null;
+        workerErrors = null;
+    }
+
+    /**
+     * Closes the input of the helper, so that it stops, and destroys it if it does not stop in time.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (worker == null) {
+                return;
+            }
+            try {
+                requests.close();
+                worker.waitFor(REPLY_GRACE_TIME, TimeUnit.MILLISECONDS);
+            } catch (IOException | InterruptedException e) {
+                e.printStackTrace();
+            }
+            stopWorker();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The executors package contains the different ways the fuzzer can run the JPacman application for one map and
+ * action sequence. Each executor returns the exit code and output messages in the same form, so that the iteration
+ * results do not depend on the chosen execution mode.
+ */
+package executors;
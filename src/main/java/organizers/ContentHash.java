@@ -0,0 +1,148 @@
+package organizers;
+
+import randomGenerators.ActionSequence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Identifies a fuzz input by its content: the bytes of the map and the action sequence. Two inputs with the same map
+ * content and the same action sequence have the same hash, whatever the names of their map files are.
+ * <p>
+ * The hash is the first 128 bits of the SHA-256 of the map length, the map bytes and the action sequence, so the map
+ * and the sequence cannot run into each other. It is kept as two longs, to compare and store it without objects.
+ * </p>
+ */
+public final class ContentHash {
+
+    /**
+     * Number of bytes of a hash, as it is written to disk.
+     */
+    public static final int BYTES = 16;
+
+    /**
+     * The first 64 bits of the hash.
+     */
+    private final long high;
+
+    /**
+     * The second 64 bits of the hash.
+     */
+    private final long low;
+
+    /**
+     * Constructs a ContentHash from its two halves.
+     *
+     * @param high The first 64 bits of the hash.
+     * @param low  The second 64 bits of the hash.
+     */
+    public ContentHash(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Computes the hash of a fuzz input.
+     *
+     * @param mapContent     The bytes of the map file.
+     * @param actionSequence The action sequence.
+     * @return The content hash of the input.
+     */
+    public static ContentHash of(byte[] mapContent, String actionSequence) {
+        return of(mapContent, actionSequence.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the hash of a fuzz input with a packed action sequence. For a sequence of only actions it is the same
+     * hash as the one of its String.
+     *
+     * @param mapContent     The bytes of the map file.
+     * @param actionSequence The action sequence.
+     * @return The content hash of the input.
+     */
+    public static ContentHash of(byte[] mapContent, ActionSequence actionSequence) {
+        return of(mapContent, actionSequence.toBytes());
+    }
+
+    /**
+     * Computes the hash of the map bytes and the bytes of the action sequence.
+     *
+     * @param mapContent     The bytes of the map file.
+     * @param actionSequence The UTF-8 bytes of the action sequence.
+     * @return The content hash of the input.
+     */
+    private static ContentHash of(byte[] mapContent, byte[] actionSequence) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available.", e); // every JDK has it
+        }
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(mapContent.length).array());
+        digest.update(mapContent);
+        digest.update(actionSequence);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new ContentHash(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Reads a hash that was written with writeTo.
+     *
+     * @param buffer The buffer, positioned at the hash.
+     * @return The hash.
+     */
+    public static ContentHash readFrom(ByteBuffer buffer) {
+        return new ContentHash(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Writes the hash as BYTES bytes.
+     *
+     * @param buffer The buffer to write to.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(high).putLong(low);
+    }
+
+    /**
+     * Gives the first 64 bits of the hash.
+     *
+     * @return The first 64 bits.
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * Gives the second 64 bits of the hash.
+     *
+     * @return The second 64 bits.
+     */
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ContentHash)) {
+            return false;
+        }
+        ContentHash hash = (ContentHash) other;
+        return high == hash.high && low == hash.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32)); // the bits are already uniform
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -0,0 +1,366 @@
+package organizers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Persistent corpus of all inputs (map and action sequence) that were executed, over all fuzz attempts. An input is
+ * identified by the ContentHash of its map bytes and action sequence, so the same input is found again even when its
+ * map file has another name or was moved to another run directory.
+ * <p>
+ * The corpus consists of two append-only files in the corpus directory:
+ * <ul>
+ *     <li>corpus.pack: one record per input: the hash, the extension of the map file, the map bytes and the action
+ *     sequence.</li>
+ *     <li>corpus.idx: one record of fixed length per input: the hash and the position of its record in the pack.</li>
+ * </ul>
+ * Only the index is read when the store is opened, and kept in a hash map, so checking if an input was executed before
+ * is one lookup. The map bytes are only read from the pack by forEachEntry. If the index is missing, it is rebuilt from
+ * the pack. A record that was only partly written (because a fuzzer was killed) is ignored.
+ * </p>
+ */
+public class CorpusStore implements Closeable {
+
+    /**
+     * File name of the pack with the inputs.
+     */
+    private static final String PACK_FILE_NAME = "corpus.pack";
+
+    /**
+     * File name of the index of the pack.
+     */
+    private static final String INDEX_FILE_NAME = "corpus.idx";
+
+    /**
+     * Length of one index record: the hash and the position in the pack.
+     */
+    private static final int INDEX_RECORD_BYTES = ContentHash.BYTES + Long.BYTES;
+
+    /**
+     * Path of the pack file.
+     */
+    private final Path packPath;
+
+    /**
+     * Path of the index file.
+     */
+    private final Path indexPath;
+
+    /**
+     * Position of the record in the pack of every input, in the order they were added.
+     */
+    private final Map<ContentHash, Long> positions = new LinkedHashMap<>();
+
+    /**
+     * Length of the pack, the position of the next record.
+     */
+    private long packLength;
+
+    /**
+     * Appends to the pack, opened when the first input is added.
+     */
+    private DataOutputStream packOutput;
+
+    /**
+     * Appends to the index, opened when the first input is added.
+     */
+    private DataOutputStream indexOutput;
+
+    /**
+     * Opens the corpus in the given directory, and creates the directory if it does not exist yet.
+     *
+     * @param directoryPath The path of the corpus directory.
+     */
+    public CorpusStore(String directoryPath) {
+        Path directory = Paths.get(directoryPath);
+        this.packPath = directory.resolve(PACK_FILE_NAME);
+        this.indexPath = directory.resolve(INDEX_FILE_NAME);
+        try {
+            Files.createDirectories(directory);
+            packLength = Files.exists(packPath) ? Files.size(packPath) : 0;
+            if (Files.exists(indexPath)) {
+                readIndex();
+            } else if (packLength > 0) {
+                System.out.println("Rebuilding the corpus index from " + packPath + ".");
+                rebuildIndex();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the corpus in " + directoryPath, e);
+        }
+    }
+
+    /**
+     * Checks if an input is in the corpus.
+     *
+     * @param hash The content hash of the input.
+     * @return true if the input was added before, in this or an earlier fuzz attempt.
+     */
+    public boolean contains(ContentHash hash) {
+        return positions.containsKey(hash);
+    }
+
+    /**
+     * Adds the input of a map file and an action sequence, if it is not in the corpus yet.
+     *
+     * @param mapFilePath    The file path of the map, on disk or in memory.
+     * @param actionSequence The action sequence.
+     * @return true if the input is new (also if its map cannot be read), false if it is in the corpus already.
+     */
+    public boolean add(String mapFilePath, String actionSequence) {
+        byte[] mapContent = InMemoryMapStore.readAllBytes(mapFilePath);
+        if (mapContent == null) {
+            return true; // cannot be compared, so it is not a known input
+        }
+        int extensionStart = mapFilePath.lastIndexOf('.');
+        String extension = extensionStart < 0 ? "" : mapFilePath.substring(extensionStart);
+        return add(ContentHash.of(mapContent, actionSequence), extension, mapContent, actionSequence);
+    }
+
+    /**
+     * Adds an input, if it is not in the corpus yet.
+     *
+     * @param hash           The content hash of the input.
+     * @param extension      The extension of the map file, with the dot.
+     * @param mapContent     The bytes of the map file.
+     * @param actionSequence The action sequence.
+     * @return true if the input is new, false if it is in the corpus already.
+     */
+    public boolean add(ContentHash hash, String extension, byte[] mapContent, String actionSequence) {
+        if (positions.containsKey(hash)) {
+            return false;
+        }
+        try {
+            if (packOutput == null) {
+                packOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(packPath.toFile(), true)));
+                indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexPath.toFile(), true)));
+            }
+            ByteArrayOutputStream record = new ByteArrayOutputStream(mapContent.length + 64);
+            DataOutputStream recordOutput = new DataOutputStream(record);
+            recordOutput.writeLong(hash.getHigh());
+            recordOutput.writeLong(hash.getLow());
+            recordOutput.writeUTF(extension);
+            recordOutput.writeInt(mapContent.length);
+            recordOutput.write(mapContent);
+            recordOutput.writeUTF(actionSequence);
+            long position = packLength;
+            record.writeTo(packOutput);
+            packLength += record.size();
+            indexOutput.writeLong(hash.getHigh());
+            indexOutput.writeLong(hash.getLow());
+            indexOutput.writeLong(position);
+            positions.put(hash, position);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    /**
+     * Gives the number of inputs in the corpus.
+     *
+     * @return The number of inputs.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Reads every input of the corpus from the pack, in the order they were added.
+     *
+     * @param consumer Gets every input.
+     */
+    public void forEachEntry(Consumer<Entry> consumer) {
+        flush();
+        if (positions.isEmpty()) {
+            return;
+        }
+        try (RandomAccessFile pack = new RandomAccessFile(packPath.toFile(), "r")) {
+            for (long position : positions.values()) {
+                pack.seek(position);
+                consumer.accept(readEntry(pack));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the buffered records to disk, the pack before the index, so an index record never points past the pack.
+     */
+    public void flush() {
+        if (packOutput == null) {
+            return;
+        }
+        try {
+            packOutput.flush();
+            indexOutput.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the buffered records and closes the files.
+     */
+    @Override
+    public void close() {
+        if (packOutput == null) {
+            return;
+        }
+        try {
+            packOutput.close();
+            indexOutput.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        packOutput = null;
+        indexOutput = null;
+    }
+
+    /**
+     * Reads the index file. Records at the end that are incomplete, or that point past the end of the pack, are
+     * ignored; they belong to a fuzzer that was killed before it could write them.
+     *
+     * @throws IOException If the index cannot be read.
+     */
+    private void readIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        while (index.remaining() >= INDEX_RECORD_BYTES) {
+            ContentHash hash = ContentHash.readFrom(index);
+            long position = index.getLong();
+            if (position < packLength) {
+                positions.put(hash, position);
+            }
+        }
+    }
+
+    /**
+     * Builds the index from the records in the pack, and writes it to the index file.
+     *
+     * @throws IOException If the pack cannot be read or the index cannot be written.
+     */
+    private void rebuildIndex() throws IOException {
+        try (RandomAccessFile pack = new RandomAccessFile(packPath.toFile(), "r");
+             DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexPath.toFile())))) {
+            while (pack.getFilePointer() < packLength) {
+                long position = pack.getFilePointer();
+                Entry entry;
+                try {
+                    entry = readEntry(pack);
+                } catch (EOFException e) { // the last record was not written completely
+                    break;
+                }
+                positions.put(entry.getHash(), position);
+                index.writeLong(entry.getHash().getHigh());
+                index.writeLong(entry.getHash().getLow());
+                index.writeLong(position);
+            }
+        }
+    }
+
+    /**
+     * Reads one record of the pack.
+     *
+     * @param pack The pack, positioned at the record.
+     * @return The input of the record.
+     * @throws IOException If the record cannot be read.
+     */
+    private static Entry readEntry(RandomAccessFile pack) throws IOException {
+        ContentHash hash = new ContentHash(pack.readLong(), pack.readLong());
+        String extension = pack.readUTF();
+        byte[] mapContent = new byte[pack.readInt()];
+        pack.readFully(mapContent);
+        String actionSequence = pack.readUTF();
+        return new Entry(hash, extension, mapContent, actionSequence);
+    }
+
+    /**
+     * One input of the corpus.
+     */
+    public static class Entry {
+
+        /**
+         * The content hash of the input.
+         */
+        private final ContentHash hash;
+
+        /**
+         * The extension of the map file, with the dot.
+         */
+        private final String extension;
+
+        /**
+         * The bytes of the map file.
+         */
+        private final byte[] mapContent;
+
+        /**
+         * The action sequence.
+         */
+        private final String actionSequence;
+
+        /**
+         * Constructs an Entry with the given parts.
+         *
+         * @param hash           The content hash of the input.
+         * @param extension      The extension of the map file, with the dot.
+         * @param mapContent     The bytes of the map file.
+         * @param actionSequence The action sequence.
+         */
+        private Entry(ContentHash hash, String extension, byte[] mapContent, String actionSequence) {
+            this.hash = hash;
+            this.extension = extension;
+            this.mapContent = mapContent;
+            this.actionSequence = actionSequence;
+        }
+
+        /**
+         * Gives the content hash of the input.
+         *
+         * @return The hash.
+         */
+        public ContentHash getHash() {
+            return hash;
+        }
+
+        /**
+         * Gives the extension of the map file.
+         *
+         * @return The extension, with the dot, or an empty string.
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Gives the bytes of the map file.
+         *
+         * @return The map content.
+         */
+        public byte[] getMapContent() {
+            return mapContent;
+        }
+
+        /**
+         * Gives the action sequence.
+         *
+         * @return The action sequence.
+         */
+        public String getActionSequence() {
+            return actionSequence;
+        }
+    }
+}
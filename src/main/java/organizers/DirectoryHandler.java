@@ -210,38 +210,91 @@ public class DirectoryHandler {
     /**
      * Moves a map file from the overall actual directory (or other place) to an error directory based on its exit code.
      * See also method getMapFilePath in FileHandler class.
+     * <p>
+     * A map that is kept in memory is written directly to the error directory, but only if the iteration is
+     * interesting (a crash or an unknown exit code). Accepted and rejected maps in memory are dropped.
+     * </p>
      *
      * @param mapFilePath The path of the map file to move.
      * @param exitCode    The exit code associated with the map file.
      */
     public static void moveMapFileToErrorDirectory(String mapFilePath, int exitCode) {
+        moveMapFileToErrorDirectory(mapFilePath, exitCode, false);
+    }
+
+    /**
+     * Moves a map file to an error directory based on its exit code, like moveMapFileToErrorDirectory(String, int).
+     * A map in memory that is marked to keep (for instance because it reached new coverage) is written to disk even if
+     * it was accepted or rejected.
+     *
+     * @param mapFilePath The path of the map file to move.
+     * @param exitCode    The exit code associated with the map file.
+     * @param keep        If true, a map in memory is always written to disk.
+     */
+    public static void moveMapFileToErrorDirectory(String mapFilePath, int exitCode, boolean keep) {
         try {
-            // Determine the path the file is on now
-            Path sourcePath = Paths.get(mapFilePath);
-            String mapFileName = sourcePath.getFileName().toString();
-            // Determine the path that the file should ultimately have, based on its exit code
-            String exitDirectoryName;
-            switch (exitCode) {
-                case 0 -> exitDirectoryName = "exitcode0_accepted";
-                case 1 -> exitDirectoryName = "exitcode1_crash";
-                case 10 -> exitDirectoryName = "exitcode10_rejected";
-                default -> exitDirectoryName = "exitcodeX_unknown";
+            // Maps in memory that are accepted or rejected are not interesting enough to write to disk
+            byte[] inMemoryMap = InMemoryMapStore.remove(mapFilePath);
+            if (inMemoryMap != null && !keep && (exitCode == 0 || exitCode == 10)) {
+                return;
             }
-            String destinationPathText = actualMapsDirectoryPath + "/" + exitDirectoryName + "/" + mapFileName;
-            Path destinationPath = Paths.get(destinationPathText);
+            // Determine the path the file is on now, and the path that the file should ultimately have
+            Path sourcePath = Paths.get(mapFilePath);
+            Path destinationPath = Paths.get(getErrorDirectoryMapFilePath(mapFilePath, exitCode));
             Path destinationDirectory = destinationPath.getParent();
             // If we haven't made that parent directory exitcodex_x yet, make one
             if (!Files.exists(destinationDirectory)) {
-                Files.createDirectory(destinationDirectory);
+                Files.createDirectories(destinationDirectory); // other iterations may create it at the same time
+            }
+            // Move files to correct folder, or write the map from memory if it never was a file
+            if (inMemoryMap == null) {
+                Files.move(sourcePath, destinationPath);
+            } else {
+                Files.write(destinationPath, inMemoryMap);
             }
-            // Move files to correct folder
-            Files.move(sourcePath, destinationPath);
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Gives the path a map file gets in the error directory of its exit code, exactly as moveMapFileToErrorDirectory
+     * moves it there.
+     *
+     * @param mapFilePath The path of the map file before it is moved.
+     * @param exitCode    The exit code associated with the map file.
+     * @return The path of the map file in the error directory.
+     */
+    public static String getErrorDirectoryMapFilePath(String mapFilePath, int exitCode) {
+        String mapFileName = Paths.get(mapFilePath).getFileName().toString();
+        // Determine the path that the file should ultimately have, based on its exit code
+        String exitDirectoryName;
+        switch (exitCode) {
+            case 0 -> exitDirectoryName = "exitcode0_accepted";
+            case 1 -> exitDirectoryName = "exitcode1_crash";
+            case 10 -> exitDirectoryName = "exitcode10_rejected";
+            default -> exitDirectoryName = "exitcodeX_unknown";
+        }
+        return actualMapsDirectoryPath + "/" + exitDirectoryName + "/" + mapFileName;
+    }
+
+    /**
+     * Deletes a map that will not be executed, from memory or from disk.
+     *
+     * @param mapFilePath The path of the map file.
+     */
+    public static void deleteMapFile(String mapFilePath) {
+        if (InMemoryMapStore.remove(mapFilePath) != null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(mapFilePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Cleans the specified directory by deleting its files and subdirectories recursively.
      *
@@ -77,6 +77,20 @@ public class FileHandler {
      */
     public static final String previousMapsDirectoryPath = mapsDirectoryPath + "/previous_maps/";
 
+    /**
+     * The path to the directory of the persistent corpus with the inputs of all fuzz attempts. Not moved or cleaned
+     * between runs, see CorpusStore.
+     * Default: ${project.root}/fuzzresults/corpus/
+     */
+    public static final String corpusDirectoryPath = resultDirectoryPath + "/corpus/";
+
+    /**
+     * The path to the directory of the persistent result cache of all fuzz attempts. Not moved or cleaned between
+     * runs, see ResultCache.
+     * Default: ${project.root}/fuzzresults/cache/
+     */
+    public static final String resultCacheDirectoryPath = resultDirectoryPath + "/cache/";
+
     // Variables: Log subdirectories paths (logs, overview_logs, actual_logs and previous_logs)
     /**
      * The path to the overall directory where the log files are located.
@@ -137,6 +151,18 @@ public class FileHandler {
      */
     public static final String csvFilePath = actualLogsDirectoryPath + "log_overview.csv";
 
+    /**
+     * The path to the log_stress.csv file, with the map size and JPacman time of each iteration in stress mode.
+     * Default: ${project.root}/fuzzresults/logs/actual_logs/log_stress.csv
+     */
+    public static final String logStressCSVPath = actualLogsDirectoryPath + "log_stress.csv";
+
+    /**
+     * The path to the log_anomalies.csv file, with the iterations whose result disagrees with the JPacmanSimulator.
+     * Default: ${project.root}/fuzzresults/logs/actual_logs/log_anomalies.csv
+     */
+    public static final String logAnomaliesCSVPath = actualLogsDirectoryPath + "log_anomalies.csv";
+
     // Variables: Paths of files in overview_logs subdirectory
     // In overview_logs, always: fuzzCount.txt
     // In overview_logs, logHistory=true: log_errorHistory.csv, log_fullHistory.csv, log_history.csv and log_fullHistory_html/...
@@ -350,6 +376,10 @@ public class FileHandler {
      * @return String full text of file
      */
     public static String getFileText(String filePath) {
+        byte[] inMemoryMap = InMemoryMapStore.get(filePath); // a generated map that was never written to disk
+        if (inMemoryMap != null) {
+            return new String(inMemoryMap);
+        }
         String projectDir = System.getProperty("user.dir");
         Path fullFilePath = Paths.get(projectDir, filePath); // From relative to full path
 
@@ -0,0 +1,167 @@
+package organizers;
+
+import dataProviders.ConfigFileReader;
+import enums.ExecutionMode;
+import managers.FileReaderManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the content of generated maps in memory instead of on disk. The maps keep the file path they would have had
+ * in the actual maps directory, so the rest of the fuzzer still identifies a map by its path.
+ * <p>
+ * Only used when inMemoryMaps is switched on and JPacman does not run in a forked process (which can only read real
+ * files). The map is written to disk when the iteration turns out to be interesting, see
+ * DirectoryHandler.moveMapFileToErrorDirectory.
+ * </p>
+ */
+public final class InMemoryMapStore {
+
+    /**
+     * True if the generators should keep their maps in memory. Specified in configurations file.
+     */
+    private static final boolean enabled = isEnabledInConfig();
+
+    /**
+     * The content of the maps in memory, by normalized absolute file path.
+     */
+    private static final Map<String, byte[]> maps = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor, only the static methods are used.
+     */
+    private InMemoryMapStore() {
+    }
+
+    /**
+     * Monitors if generated maps are kept in memory.
+     *
+     * @return true if maps are kept in memory, false if they are written to disk
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the content of a map in memory.
+     *
+     * @param mapFilePath The file path the map would have had.
+     * @param content     The bytes of the map file.
+     */
+    public static void put(String mapFilePath, byte[] content) {
+        maps.put(key(mapFilePath), content);
+    }
+
+    /**
+     * Gives the content of a map in memory.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The bytes of the map file, or null if the map is not in memory.
+     */
+    public static byte[] get(String mapFilePath) {
+        return maps.get(key(mapFilePath));
+    }
+
+    /**
+     * Gives the content of a map in memory. Same as get, for JPacman, that reads its map by Path.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The bytes of the map file, or null if the map is not in memory.
+     */
+    public static byte[] getContent(Path mapFilePath) {
+        return get(mapFilePath.toString());
+    }
+
+    /**
+     * Removes a map from memory.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The bytes of the map file, or null if the map was not in memory.
+     */
+    public static byte[] remove(String mapFilePath) {
+        return maps.remove(key(mapFilePath));
+    }
+
+    /**
+     * Opens a reader on a map, from memory if it is stored there and from disk otherwise.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return A reader of the map text, in the default charset like a FileReader.
+     * @throws IOException If the map is not in memory and the file cannot be opened.
+     */
+    public static BufferedReader newReader(String mapFilePath) throws IOException {
+        byte[] content = get(mapFilePath);
+        if (content == null) {
+            return new BufferedReader(new FileReader(mapFilePath));
+        }
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
+    }
+
+    /**
+     * Reads all bytes of a map, from memory if it is stored there and from disk otherwise.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The bytes of the map file, or null if the map is not in memory and the file cannot be read.
+     */
+    public static byte[] readAllBytes(String mapFilePath) {
+        byte[] content = get(mapFilePath);
+        if (content != null) {
+            return content;
+        }
+        try {
+            return Files.readAllBytes(Paths.get(mapFilePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Gives the number of bytes of a map, from memory if it is stored there and from the file size otherwise, without
+     * reading the map.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The number of bytes of the map file, or 0 if the map is not in memory and the file cannot be read.
+     */
+    public static long size(String mapFilePath) {
+        byte[] content = get(mapFilePath);
+        if (content != null) {
+            return content.length;
+        }
+        try {
+            return Files.size(Paths.get(mapFilePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Makes one key for all ways to write the same path.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The normalized absolute path.
+     */
+    private static String key(String mapFilePath) {
+        return Paths.get(mapFilePath).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Reads in the configuration file if maps should be kept in memory. A forked JPacman cannot read them.
+     *
+     * @return true if inMemoryMaps is switched on and the execution mode is not process.
+     */
+    private static boolean isEnabledInConfig() {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        return configFileReader.getInMemoryMaps() && configFileReader.getExecutionMode() != ExecutionMode.PROCESS;
+    }
+}
@@ -0,0 +1,460 @@
+package organizers;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent cache of the results of JPacman, from the ContentHash of an input (map bytes and action sequence) to the
+ * exit code and output messages it gave. Kept over all fuzz attempts, so an input that was executed before does not
+ * have to be executed again.
+ * <p>
+ * The cache consists of two files in the cache directory:
+ * <ul>
+ *     <li>results.cache: a hash table with open addressing in a memory-mapped file. After a header (magic number,
+ *     checksum of the jar, capacity and size) come the slots, each with the hash, the exit code and the number of the
+ *     output messages. A lookup reads a few slots in memory, without any object or system call.</li>
+ *     <li>messages.dat: the distinct output messages, appended in the order they were first seen. Loaded in memory when
+ *     the cache is opened, because there are only few distinct messages.</li>
+ * </ul>
+ * The checksum of the JPacman jar is kept in the header. When the jar changed, the cache is emptied, because the old
+ * results may not hold anymore. The table is doubled when it gets more than half full.
+ * </p>
+ */
+public class ResultCache implements Closeable {
+
+    /**
+     * File name of the hash table.
+     */
+    private static final String TABLE_FILE_NAME = "results.cache";
+
+    /**
+     * File name of the output messages.
+     */
+    private static final String MESSAGES_FILE_NAME = "messages.dat";
+
+    /**
+     * First int of the table file, to recognize it.
+     */
+    private static final int MAGIC = 0x4a50_4643; // "JPFC"
+
+    /**
+     * Length of the header: magic, jar checksum, capacity and size.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Position of the size in the header.
+     */
+    private static final int SIZE_POSITION = HEADER_BYTES - Integer.BYTES;
+
+    /**
+     * Length of one slot: the hash, the exit code and the message number plus one (0 marks an empty slot).
+     */
+    private static final int SLOT_BYTES = ContentHash.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Number of slots of a new table.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    /**
+     * Path of the table file.
+     */
+    private final Path tablePath;
+
+    /**
+     * Path of the messages file.
+     */
+    private final Path messagesPath;
+
+    /**
+     * Checksum of the JPacman jar the results belong to.
+     */
+    private final long jarChecksum;
+
+    /**
+     * The mapped table file.
+     */
+    private MappedByteBuffer table;
+
+    /**
+     * Number of slots of the table, a power of two.
+     */
+    private int capacity;
+
+    /**
+     * Number of used slots.
+     */
+    private int size;
+
+    /**
+     * The output messages by number.
+     */
+    private final List<String> messages = new ArrayList<>();
+
+    /**
+     * The numbers of the output messages.
+     */
+    private final Map<String, Integer> messageNumbers = new HashMap<>();
+
+    /**
+     * Appends to the messages file.
+     */
+    private DataOutputStream messagesOutput;
+
+    /**
+     * Opens the cache in the given directory for the given jar. Creates the directory and the files if they do not
+     * exist yet, and empties the cache if it belongs to another version of the jar.
+     *
+     * @param directoryPath The path of the cache directory.
+     * @param jarPath       The path of the JPacman jar.
+     */
+    public ResultCache(String directoryPath, String jarPath) {
+        Path directory = Paths.get(directoryPath);
+        this.tablePath = directory.resolve(TABLE_FILE_NAME);
+        this.messagesPath = directory.resolve(MESSAGES_FILE_NAME);
+        try {
+            this.jarChecksum = checksum(Paths.get(jarPath));
+            Files.createDirectories(directory);
+            if (!open()) {
+                clear();
+            }
+            messagesOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(messagesPath.toFile(), true)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the result cache in " + directoryPath, e);
+        }
+    }
+
+    /**
+     * Looks up the result of an input.
+     *
+     * @param hash The content hash of the input.
+     * @return The exit code and output messages, or null if the input is not in the cache.
+     */
+    public synchronized CachedResult get(ContentHash hash) {
+        int slot = findSlot(hash);
+        int messageNumber = table.getInt(slotPosition(slot) + ContentHash.BYTES + Integer.BYTES);
+        if (messageNumber == 0) {
+            return null;
+        }
+        int exitCode = table.getInt(slotPosition(slot) + ContentHash.BYTES);
+        return new CachedResult(exitCode, messages.get(messageNumber - 1));
+    }
+
+    /**
+     * Stores the result of an input. An input that is in the cache already keeps its first result.
+     *
+     * @param hash           The content hash of the input.
+     * @param exitCode       The exit code JPacman ended with.
+     * @param outputMessages The output messages JPacman printed.
+     */
+    public synchronized void put(ContentHash hash, int exitCode, String outputMessages) {
+        int slot = findSlot(hash);
+        int position = slotPosition(slot);
+        if (table.getInt(position + ContentHash.BYTES + Integer.BYTES) != 0) {
+            return;
+        }
+        try {
+            int messageNumber = getMessageNumber(outputMessages);
+            table.putLong(position, hash.getHigh());
+            table.putLong(position + Long.BYTES, hash.getLow());
+            table.putInt(position + ContentHash.BYTES, exitCode);
+            table.putInt(position + ContentHash.BYTES + Integer.BYTES, messageNumber + 1);
+            size++;
+            table.putInt(SIZE_POSITION, size);
+            if (size * 2 > capacity) {
+                grow();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gives the number of cached results.
+     *
+     * @return The number of inputs in the cache.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Writes the messages and the table to disk.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            messagesOutput.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        table.force();
+    }
+
+    /**
+     * Opens the existing files of the cache.
+     *
+     * @return true if the cache could be opened, false if there is no cache or it belongs to another jar.
+     * @throws IOException If the files cannot be read.
+     */
+    private boolean open() throws IOException {
+        if (!Files.exists(tablePath) || Files.size(tablePath) < HEADER_BYTES) {
+            return false;
+        }
+        MappedByteBuffer existingTable = map(tablePath, Files.size(tablePath));
+        if (existingTable.getInt(0) != MAGIC) {
+            return false;
+        }
+        if (existingTable.getLong(Integer.BYTES) != jarChecksum) {
+            System.out.println("The JPacman jar changed, the result cache is emptied.");
+            return false;
+        }
+        int existingCapacity = existingTable.getInt(Integer.BYTES + Long.BYTES);
+        if (Files.size(tablePath) != HEADER_BYTES + (long) existingCapacity * SLOT_BYTES || !readMessages()) {
+            return false;
+        }
+        table = existingTable;
+        capacity = existingCapacity;
+        size = existingTable.getInt(SIZE_POSITION);
+        return true;
+    }
+
+    /**
+     * Reads the messages file. A message at the end that was only partly written is dropped.
+     *
+     * @return true if the messages could be read.
+     * @throws IOException If the file cannot be read.
+     */
+    private boolean readMessages() throws IOException {
+        if (!Files.exists(messagesPath)) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(messagesPath));
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length > buffer.remaining()) {
+                break;
+            }
+            byte[] message = new byte[length];
+            buffer.get(message);
+            addMessage(new String(message, StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    /**
+     * Makes a new empty cache for the jar, replacing the old files.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    private void clear() throws IOException {
+        messages.clear();
+        messageNumbers.clear();
+        Files.deleteIfExists(messagesPath);
+        Files.createFile(messagesPath);
+        table = createTable(tablePath, INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        size = 0;
+    }
+
+    /**
+     * Creates a table file with empty slots.
+     *
+     * @param path          The path of the file, replaced if it exists.
+     * @param tableCapacity The number of slots.
+     * @return The mapped file, with its header filled in.
+     * @throws IOException If the file cannot be written.
+     */
+    private MappedByteBuffer createTable(Path path, int tableCapacity) throws IOException {
+        Files.deleteIfExists(path);
+        MappedByteBuffer newTable = map(path, HEADER_BYTES + (long) tableCapacity * SLOT_BYTES); // filled with zeros
+        newTable.putInt(0, MAGIC);
+        newTable.putLong(Integer.BYTES, jarChecksum);
+        newTable.putInt(Integer.BYTES + Long.BYTES, tableCapacity);
+        newTable.putInt(SIZE_POSITION, 0);
+        return newTable;
+    }
+
+    /**
+     * Doubles the number of slots: the slots are put in a new file, that replaces the old one.
+     *
+     * @throws IOException If the new file cannot be written.
+     */
+    private void grow() throws IOException {
+        Path grownPath = tablePath.resolveSibling(TABLE_FILE_NAME + ".grow");
+        MappedByteBuffer oldTable = table;
+        int oldCapacity = capacity;
+        table = createTable(grownPath, oldCapacity * 2);
+        capacity = oldCapacity * 2;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int oldPosition = HEADER_BYTES + slot * SLOT_BYTES;
+            if (oldTable.getInt(oldPosition + ContentHash.BYTES + Integer.BYTES) != 0) {
+                ContentHash hash = new ContentHash(oldTable.getLong(oldPosition), oldTable.getLong(oldPosition + Long.BYTES));
+                int position = slotPosition(findSlot(hash));
+                for (int offset = 0; offset < SLOT_BYTES; offset += Integer.BYTES) {
+                    table.putInt(position + offset, oldTable.getInt(oldPosition + offset));
+                }
+            }
+        }
+        table.putInt(SIZE_POSITION, size);
+        table.force();
+        Files.move(grownPath, tablePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Finds the slot of a hash with linear probing: the slot that holds the hash, or the empty slot where it belongs.
+     *
+     * @param hash The content hash.
+     * @return The number of the slot.
+     */
+    private int findSlot(ContentHash hash) {
+        int mask = capacity - 1;
+        int slot = (int) hash.getLow() & mask;
+        while (true) {
+            int position = slotPosition(slot);
+            if (table.getInt(position + ContentHash.BYTES + Integer.BYTES) == 0
+                    || (table.getLong(position) == hash.getHigh() && table.getLong(position + Long.BYTES) == hash.getLow())) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Gives the position of a slot in the table file.
+     *
+     * @param slot The number of the slot.
+     * @return The position of its first byte.
+     */
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /**
+     * Gives the number of an output message, and appends the message to the messages file if it is new.
+     *
+     * @param outputMessages The output messages.
+     * @return The number of the message.
+     * @throws IOException If a new message cannot be written.
+     */
+    private int getMessageNumber(String outputMessages) throws IOException {
+        Integer messageNumber = messageNumbers.get(outputMessages);
+        if (messageNumber != null) {
+            return messageNumber;
+        }
+        byte[] message = outputMessages.getBytes(StandardCharsets.UTF_8);
+        messagesOutput.writeInt(message.length);
+        messagesOutput.write(message);
+        messagesOutput.flush(); // before the table, that is written through the mapping, points to it
+        return addMessage(outputMessages);
+    }
+
+    /**
+     * Adds a message to the messages in memory.
+     *
+     * @param outputMessages The output messages.
+     * @return The number of the message.
+     */
+    private int addMessage(String outputMessages) {
+        messages.add(outputMessages);
+        messageNumbers.put(outputMessages, messages.size() - 1);
+        return messages.size() - 1;
+    }
+
+    /**
+     * Maps a file in memory for reading and writing, and makes it the given length.
+     *
+     * @param path   The path of the file.
+     * @param length The length of the file.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private static MappedByteBuffer map(Path path, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length); // the mapping stays valid after closing
+        }
+    }
+
+    /**
+     * Computes the checksum of a file.
+     *
+     * @param path The path of the file.
+     * @return The CRC32C of its bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long checksum(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The exit code and output messages of a cached result.
+     */
+    public static class CachedResult {
+
+        /**
+         * The exit code JPacman ended with.
+         */
+        private final int exitCode;
+
+        /**
+         * The output messages JPacman printed.
+         */
+        private final String outputMessages;
+
+        /**
+         * Constructs a CachedResult with the given exit code and output messages.
+         *
+         * @param exitCode       The exit code.
+         * @param outputMessages The output messages.
+         */
+        private CachedResult(int exitCode, String outputMessages) {
+            this.exitCode = exitCode;
+            this.outputMessages = outputMessages;
+        }
+
+        /**
+         * Gives the exit code JPacman ended with.
+         *
+         * @return The exit code.
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Gives the output messages JPacman printed.
+         *
+         * @return The output messages.
+         */
+        public String getOutputMessages() {
+            return outputMessages;
+        }
+    }
+}
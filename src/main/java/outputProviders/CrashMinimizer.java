@@ -0,0 +1,534 @@
+package outputProviders;
+
+import dataProviders.ConfigFileReader;
+import executors.ExecutionResult;
+import executors.JPacmanExecutor;
+import managers.FileReaderManager;
+import organizers.DirectoryHandler;
+import organizers.InMemoryMapStore;
+import randomGenerators.map.MapGenerator;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Background stage that minimizes the inputs of crashes (exit code 1) and of reached time limits or unknown exit codes
+ * (exit code -1), while the fuzzer keeps running. The first input of every crash bucket (see CrashTriage), and of
+ * every output message of exit code -1, is shrunk with delta debugging: parts of the input are left out, and a smaller
+ * input is only kept if executing it gives the same result again, so the same stack signature or the same output
+ * message. In this order, the minimizer shrinks:
+ * <ol>
+ *     <li>the action sequence, by leaving out actions;</li>
+ *     <li>the rows of a text map;</li>
+ *     <li>the columns of a text map;</li>
+ *     <li>the cells of a text map, by replacing them with an empty cell '0'.</li>
+ * </ol>
+ * Every step removes large chunks first and smaller chunks when no chunk can be removed, until single elements are
+ * tried. The number of executions per input is limited by the configuration, the smallest input found until then is
+ * kept.
+ * <p>
+ * The minimizer has its own executor, so it does not take executions from the fuzz loop, and the time budget of the
+ * fuzzer as deadline: after the deadline no new input is minimized, and the input that is minimized then is abandoned.
+ * </p>
+ * <p>
+ * The minimized map is written next to the original map in the directory of its exit code, as
+ * {@code <map name>_minimized<extension>}, with its action sequence in {@code <map name>_minimized.sequence}. It is
+ * written again for every smaller input that gives the same result, so an abandoned input keeps the smallest input
+ * found until then.
+ * </p>
+ */
+public class CrashMinimizer {
+
+    /**
+     * Extension of the file with the minimized action sequence.
+     */
+    private static final String SEQUENCE_EXTENSION = ".sequence";
+
+    /**
+     * Time to wait on the thread after it is interrupted at the deadline, in milliseconds.
+     */
+    private static final long ABANDON_WAIT_TIME = 1000;
+
+    /**
+     * The executor that runs the smaller inputs, only used by the minimizer.
+     */
+    private final JPacmanExecutor executor;
+
+    /**
+     * The time in milliseconds since the epoch after which no executions are started anymore.
+     */
+    private final long deadline;
+
+    /**
+     * Max number of executions to minimize one input.
+     */
+    private final int maxExecutions;
+
+    /**
+     * Number of jpacman frames in a crash signature.
+     */
+    private final int signatureFrameCount;
+
+    /**
+     * The inputs that are not minimized yet, in iteration order.
+     */
+    private final BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The crash buckets and exit code -1 output messages that got an input to minimize. Only used by the fuzz loop.
+     */
+    private final Set<String> submittedBuckets = new HashSet<>();
+
+    /**
+     * The thread that minimizes the inputs.
+     */
+    private final Thread thread;
+
+    /**
+     * True when no more inputs will be submitted.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Number of inputs that were minimized, completely or until the deadline.
+     */
+    private volatile int minimizedCount;
+
+    /**
+     * Number of executions of all minimizations.
+     */
+    private volatile int executionCount;
+
+    /**
+     * Number of executions left for the input that is minimized now.
+     */
+    private int executionsLeft;
+
+    /**
+     * Number of map files the minimizer made, for unique file names.
+     */
+    private int variantCount;
+
+    /**
+     * Constructs a CrashMinimizer with its own executor of the configured execution mode, and starts its thread.
+     *
+     * @param deadline The time in milliseconds since the epoch at which the time budget of the fuzzer is over.
+     */
+    public CrashMinimizer(long deadline) {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        this.executor = JPacmanExecutor.create(configFileReader.getExecutionMode());
+        this.deadline = deadline;
+        this.maxExecutions = configFileReader.getMinimizationMaxExecutions();
+        this.signatureFrameCount = configFileReader.getCrashSignatureFrames();
+        this.thread = new Thread(this::run, "crash-minimizer");
+        this.thread.setDaemon(true); // an abandoned execution does not keep the fuzzer alive
+        this.thread.start();
+    }
+
+    /**
+     * Hands the input of an iteration to the minimizer, if it is the first of its crash bucket or exit code -1 output
+     * message. Never blocks. Must be called after the CrashTriage set the signature, and before the map is moved to
+     * the directory of its exit code.
+     *
+     * @param iterationResult The result of the iteration.
+     */
+    public void submit(IterationResult iterationResult) {
+        int exitCode = iterationResult.getErrorCode();
+        String bucket;
+        if (exitCode == 1) {
+            bucket = "1 " + iterationResult.getCrashSignature();
+        } else if (exitCode == -1 && !iterationResult.getOutputMessages().equals(IterationResult.INVALID_MOVE_MESSAGE)) {
+            bucket = "-1 " + iterationResult.getOutputMessages(); // an invalid move is found without executing
+        } else {
+            return;
+        }
+        if (!submittedBuckets.add(bucket)) {
+            return;
+        }
+        byte[] mapContent = InMemoryMapStore.readAllBytes(iterationResult.getExecutedMapFilePath());
+        if (mapContent == null) {
+            return;
+        }
+        queue.add(new Job(iterationResult, mapContent));
+    }
+
+    /**
+     * Minimizes the inputs that are still in the queue until the deadline, and stops the thread. At the deadline, the
+     * input that is minimized is abandoned: the thread is interrupted, and is waited on for a short time only.
+     */
+    public void close() {
+        closed = true;
+        try {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            if (thread.isAlive()) {
+                thread.interrupt();
+                thread.join(ABANDON_WAIT_TIME);
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Checks if the time budget of the fuzzer is over.
+     *
+     * @return true if no executions may be started anymore.
+     */
+    private boolean isDeadlineReached() {
+        return System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Gives the number of inputs that were minimized, completely or until the deadline.
+     *
+     * @return The number of minimized inputs.
+     */
+    public int getMinimizedCount() {
+        return minimizedCount;
+    }
+
+    /**
+     * Gives the number of executions of all minimizations.
+     *
+     * @return The number of executions.
+     */
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * Takes the inputs from the queue and minimizes them, until the minimizer is closed and the queue is empty, or the
+     * deadline is reached. Closes the executor of the minimizer at the end.
+     */
+    private void run() {
+        try {
+            while (!(closed && queue.isEmpty()) && !isDeadlineReached()) {
+                Job job = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (job != null) {
+                    minimize(job);
+                }
+            }
+        } catch (InterruptedException e) {
+            // abandoned at the deadline
+        } finally {
+            executor.close();
+        }
+    }
+
+    /**
+     * Minimizes one input and writes the result next to its original map.
+     *
+     * @param job The input to minimize.
+     */
+    private void minimize(Job job) {
+        executionsLeft = maxExecutions;
+        String actionSequence = job.actionSequence;
+        byte[] mapContent = job.mapContent;
+        writeReproducer(job, mapContent, actionSequence); // the original input, until a smaller one reproduces
+
+        // * Step 1: Leave out actions
+        String mapText = new String(mapContent, StandardCharsets.ISO_8859_1);
+        List<Character> actions = new ArrayList<>();
+        for (char action : actionSequence.toCharArray()) {
+            actions.add(action);
+        }
+        actions = reduce(actions, kept -> reproduces(job, mapContent, toSequence(kept)));
+        actionSequence = toSequence(actions);
+
+        // * Step 2 to 4: Leave out rows and columns, and empty cells, of a text map
+        if (job.extension.equals(".txt")) {
+            String lineSeparator = mapText.contains("\r\n") ? "\r\n" : "\n";
+            boolean trailingSeparator = mapText.endsWith(lineSeparator);
+            List<String> rows = new ArrayList<>(Arrays.asList(mapText.split("\r?\n")));
+            String sequence = actionSequence;
+            Predicate<List<String>> rowsReproduce = kept ->
+                    reproduces(job, toMap(kept, lineSeparator, trailingSeparator), sequence);
+
+            rows = reduce(rows, rowsReproduce);
+
+            int width = rows.stream().mapToInt(String::length).max().orElse(0);
+            List<Integer> columns = new ArrayList<>();
+            for (int column = 0; column < width; column++) {
+                columns.add(column);
+            }
+            List<String> currentRows = rows;
+            columns = reduce(columns, kept -> rowsReproduce.test(keepColumns(currentRows, kept)));
+            rows = keepColumns(rows, columns);
+
+            List<int[]> cells = new ArrayList<>();
+            for (int row = 0; row < rows.size(); row++) {
+                for (int column = 0; column < rows.get(row).length(); column++) {
+                    if (rows.get(row).charAt(column) != '0') {
+                        cells.add(new int[]{row, column});
+                    }
+                }
+            }
+            List<String> columnRows = rows;
+            reduce(cells, kept -> rowsReproduce.test(keepCells(columnRows, kept)));
+        }
+        minimizedCount++;
+    }
+
+    /**
+     * Writes an input next to the original map, as the smallest input found until now that gives the same result.
+     * The files are written with streams that are not interruptible, so the interrupt at the deadline cannot leave
+     * them half written.
+     *
+     * @param job            The original input.
+     * @param mapContent     The bytes of the map.
+     * @param actionSequence The action sequence.
+     */
+    private static void writeReproducer(Job job, byte[] mapContent, String actionSequence) {
+        String mapFilePath = job.errorDirectoryMapFilePath;
+        String minimizedPath = mapFilePath.substring(0, mapFilePath.length() - job.extension.length()) + "_minimized";
+        try {
+            Path minimizedMapPath = Paths.get(minimizedPath + job.extension);
+            Files.createDirectories(minimizedMapPath.getParent());
+            try (OutputStream mapOutput = new FileOutputStream(minimizedMapPath.toFile());
+                 OutputStream sequenceOutput = new FileOutputStream(minimizedPath + SEQUENCE_EXTENSION)) {
+                mapOutput.write(mapContent);
+                sequenceOutput.write(actionSequence.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Delta debugging: leaves out chunks of the elements as long as the rest still reproduces the result. Starts with
+     * two chunks, and doubles the number of chunks when no chunk can be left out, until the chunks are single elements.
+     *
+     * @param elements   The elements of the input.
+     * @param reproduces Tests if an input with only the given elements gives the same result.
+     * @param <T>        The type of the elements.
+     * @return The elements of the smallest input that was found.
+     */
+    private <T> List<T> reduce(List<T> elements, Predicate<List<T>> reproduces) {
+        int chunkCount = 2;
+        while (!elements.isEmpty() && executionsLeft > 0) {
+            chunkCount = Math.min(chunkCount, elements.size());
+            int chunkSize = (elements.size() + chunkCount - 1) / chunkCount;
+            boolean reduced = false;
+            for (int start = 0; start < elements.size() && !reduced; start += chunkSize) {
+                List<T> rest = new ArrayList<>(elements.subList(0, start));
+                rest.addAll(elements.subList(Math.min(start + chunkSize, elements.size()), elements.size()));
+                if (reproduces.test(rest)) {
+                    elements = rest;
+                    chunkCount = Math.max(chunkCount - 1, 2);
+                    reduced = true;
+                }
+            }
+            if (!reduced) {
+                if (chunkCount == elements.size()) {
+                    break; // no single element can be left out
+                }
+                chunkCount = Math.min(chunkCount * 2, elements.size());
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Executes a smaller input and checks if it gives the same result as the original input: for a crash the same
+     * stack signature, for exit code -1 the same output message.
+     *
+     * @param job            The original input.
+     * @param mapContent     The bytes of the smaller map.
+     * @param actionSequence The smaller action sequence.
+     * @return true if the result is the same, false if it is not, or if no executions are left or the deadline is
+     * reached.
+     */
+    private boolean reproduces(Job job, byte[] mapContent, String actionSequence) {
+        if (executionsLeft <= 0 || isDeadlineReached() || Thread.currentThread().isInterrupted()) {
+            executionsLeft = 0;
+            return false;
+        }
+        executionsLeft--;
+        executionCount++;
+        String mapFilePath = MapGenerator.storeMap("minimizing_" + (++variantCount) + job.extension, mapContent);
+        try {
+            ExecutionResult executionResult = executor.execute(mapFilePath, actionSequence);
+            if (!isSameResult(job, executionResult)) {
+                return false;
+            }
+            writeReproducer(job, mapContent, actionSequence); // reduce keeps every smaller input that reproduces
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // abandoned at the deadline, run stops after this input
+            executionsLeft = 0;
+            return false;
+        } finally {
+            DirectoryHandler.deleteMapFile(mapFilePath);
+        }
+    }
+
+    /**
+     * Checks if the execution of a smaller input gives the same result as the original input: for a crash the same
+     * stack signature, for exit code -1 the same output message.
+     *
+     * @param job             The original input.
+     * @param executionResult The result of the smaller input.
+     * @return true if the result is the same.
+     */
+    private boolean isSameResult(Job job, ExecutionResult executionResult) {
+        int exitCode = executionResult.getExitCode();
+        if (job.exitCode == 1) {
+            return exitCode == 1 && !executionResult.isTimeoutReached() && job.crashSignature.equals(
+                    CrashTriage.getSignature(executionResult.getErrorMessages(), signatureFrameCount));
+        }
+        if (executionResult.isTimeoutReached()) {
+            return job.outputMessages.equals(IterationResult.TIME_LIMIT_MESSAGE);
+        }
+        String outputMessages = executionResult.getOutputMessages().isEmpty() ? "None" : executionResult.getOutputMessages();
+        return exitCode != 0 && exitCode != 1 && exitCode != 10 && job.outputMessages.equals(outputMessages);
+    }
+
+    /**
+     * Makes an action sequence of actions.
+     *
+     * @param actions The actions.
+     * @return The action sequence.
+     */
+    private static String toSequence(List<Character> actions) {
+        StringBuilder actionSequence = new StringBuilder(actions.size());
+        for (char action : actions) {
+            actionSequence.append(action);
+        }
+        return actionSequence.toString();
+    }
+
+    /**
+     * Makes the bytes of a text map of its rows.
+     *
+     * @param rows              The rows of the map.
+     * @param lineSeparator     The line separator of the original map.
+     * @param trailingSeparator True if the original map ended with a line separator.
+     * @return The bytes of the map.
+     */
+    private static byte[] toMap(List<String> rows, String lineSeparator, boolean trailingSeparator) {
+        String map = String.join(lineSeparator, rows);
+        if (trailingSeparator && !rows.isEmpty()) {
+            map += lineSeparator;
+        }
+        return map.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Leaves out the columns of the rows that are not kept. Rows shorter than a column keep their length.
+     *
+     * @param rows    The rows of the map.
+     * @param columns The indexes of the columns to keep, ascending.
+     * @return The rows with only the kept columns.
+     */
+    private static List<String> keepColumns(List<String> rows, List<Integer> columns) {
+        List<String> keptRows = new ArrayList<>(rows.size());
+        for (String row : rows) {
+            StringBuilder keptRow = new StringBuilder(columns.size());
+            for (int column : columns) {
+                if (column < row.length()) {
+                    keptRow.append(row.charAt(column));
+                }
+            }
+            keptRows.add(keptRow.toString());
+        }
+        return keptRows;
+    }
+
+    /**
+     * Replaces the cells that are not kept, and are not empty, by an empty cell '0'.
+     *
+     * @param rows  The rows of the map.
+     * @param cells The row and column of every non empty cell to keep.
+     * @return The rows with only the kept non empty cells.
+     */
+    private static List<String> keepCells(List<String> rows, List<int[]> cells) {
+        char[][] keptRows = new char[rows.size()][];
+        for (int row = 0; row < rows.size(); row++) {
+            keptRows[row] = rows.get(row).replaceAll("[^0]", "0").toCharArray();
+        }
+        for (int[] cell : cells) {
+            keptRows[cell[0]][cell[1]] = rows.get(cell[0]).charAt(cell[1]);
+        }
+        List<String> result = new ArrayList<>(rows.size());
+        for (char[] row : keptRows) {
+            result.add(new String(row));
+        }
+        return result;
+    }
+
+    /**
+     * An input to minimize, with the result it has to reproduce.
+     */
+    private static class Job {
+
+        /**
+         * The exit code of the original input, 1 or -1.
+         */
+        private final int exitCode;
+
+        /**
+         * The stack signature of the crash.
+         */
+        private final String crashSignature;
+
+        /**
+         * The output messages of the original input.
+         */
+        private final String outputMessages;
+
+        /**
+         * The bytes of the original map.
+         */
+        private final byte[] mapContent;
+
+        /**
+         * The original action sequence.
+         */
+        private final String actionSequence;
+
+        /**
+         * The extension of the map file, with the dot.
+         */
+        private final String extension;
+
+        /**
+         * The path of the original map in the directory of its exit code.
+         */
+        private final String errorDirectoryMapFilePath;
+
+        /**
+         * Constructs a Job for the input of an iteration.
+         *
+         * @param iterationResult The result of the iteration.
+         * @param mapContent      The bytes of the map of the iteration.
+         */
+        private Job(IterationResult iterationResult, byte[] mapContent) {
+            String mapFilePath = iterationResult.getExecutedMapFilePath();
+            this.exitCode = iterationResult.getErrorCode();
+            this.crashSignature = iterationResult.getCrashSignature();
+            this.outputMessages = iterationResult.getOutputMessages();
+            this.mapContent = mapContent;
+            this.actionSequence = iterationResult.getStringSequence();
+            int extensionStart = mapFilePath.lastIndexOf('.');
+            this.extension = extensionStart < 0 ? "" : mapFilePath.substring(extensionStart);
+            this.errorDirectoryMapFilePath = DirectoryHandler.getErrorDirectoryMapFilePath(mapFilePath, exitCode);
+        }
+    }
+}
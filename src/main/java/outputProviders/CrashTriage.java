@@ -0,0 +1,290 @@
+package outputProviders;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import organizers.DirectoryHandler;
+import organizers.InMemoryMapStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Triage of the crashes (exit code 1) of this run. The output messages of a crash say little, the stack trace JPacman
+ * printed on its error stream says where it went wrong. But the raw stack trace differs between executions of the same
+ * bug: the execution mode adds its own frames and class loader names, the message of the exception can hold details of
+ * the input, and constructor chains and recursion add frames with other line numbers. So every crash is reduced to a
+ * stack signature first: the class of the (root cause) exception and the top frames within the jpacman packages,
+ * without line numbers and with repeated frames collapsed. Crashes with the same signature are the same bug, and are
+ * put in the same CrashBucket.
+ * <p>
+ * Per bucket the smallest reproducer is tracked: the input with the fewest bytes of map and action sequence. With
+ * crash deduplication enabled, only the map of that reproducer is kept in the exit code directory; the maps of the
+ * other crashes of the bucket are deleted by the ResultPersistenceWriter, when they are persisted or when a smaller
+ * reproducer replaces them.
+ * </p>
+ */
+public class CrashTriage {
+
+    /**
+     * Signature of a crash without a stack trace on the error stream.
+     */
+    public static final String NO_SIGNATURE = "None";
+
+    /**
+     * Max number of jpacman frames in a signature.
+     */
+    private final int frameCount;
+
+    /**
+     * True if only the map of the smallest reproducer of each bucket is kept.
+     */
+    private final boolean deduplicate;
+
+    /**
+     * The buckets per signature, in the order their first crash was added.
+     */
+    private final Map<String, CrashBucket> buckets = new LinkedHashMap<>();
+
+    /**
+     * Constructs a CrashTriage with the number of frames and the deduplication of the configuration.
+     */
+    public CrashTriage() {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        this.frameCount = configFileReader.getCrashSignatureFrames();
+        this.deduplicate = configFileReader.getCrashDeduplication();
+    }
+
+    /**
+     * Adds a crash to its bucket, and sets its signature. With crash deduplication enabled, the result is also marked to
+     * delete its map, or to delete the map of the reproducer it replaces. Must be called in iteration order, before the
+     * result is submitted to the ResultPersistenceWriter.
+     *
+     * @param iterationResult The result of an iteration with exit code 1.
+     */
+    public void add(IterationResult iterationResult) {
+        String signature = getSignature(iterationResult.getErrorMessages(), frameCount);
+        iterationResult.setCrashSignature(signature);
+        CrashBucket bucket = buckets.computeIfAbsent(signature,
+                key -> new CrashBucket(key, iterationResult.getOutputMessages()));
+        bucket.iterationNumbers.add(iterationResult.getIterationNumber());
+
+        // A crash with an action sequence as long as the reproducer cannot be smaller, so its map is not looked at
+        long size = iterationResult.getStringSequence().length();
+        if (bucket.reproducerMapFilePath == null || size < bucket.reproducerSize) {
+            size += InMemoryMapStore.size(iterationResult.getExecutedMapFilePath());
+        }
+        if (bucket.reproducerMapFilePath == null || size < bucket.reproducerSize) {
+            if (deduplicate && bucket.reproducerMapFilePath != null) {
+                iterationResult.setReplacedReproducerMapFilePath(bucket.reproducerMapFilePath);
+            }
+            bucket.reproducerMapFilePath = DirectoryHandler.getErrorDirectoryMapFilePath(
+                    iterationResult.getExecutedMapFilePath(), iterationResult.getErrorCode());
+            bucket.reproducerActionSequence = iterationResult.getStringSequence();
+            bucket.reproducerIterationNumber = iterationResult.getIterationNumber();
+            bucket.reproducerSize = size;
+        } else if (deduplicate) {
+            iterationResult.setDiscardMap(true);
+        }
+    }
+
+    /**
+     * Gives the buckets of the crashes of this run.
+     *
+     * @return The buckets, in the order their first crash was added.
+     */
+    public Collection<CrashBucket> getBuckets() {
+        return buckets.values();
+    }
+
+    /**
+     * Reduces the error messages of a crash to its stack signature. The signature is the class of the exception,
+     * followed by at most frameCount frames within the jpacman packages, from the top of the stack. Of an exception
+     * with causes, the root cause is used. Module and class loader prefixes and line numbers are left out of the
+     * frames, and a frame that repeats the previous one (constructor chains, recursion) is only taken once.
+     *
+     * @param errorMessages The error messages JPacman printed.
+     * @param frameCount    The max number of jpacman frames.
+     * @return The signature, or NO_SIGNATURE if the error messages hold no stack trace.
+     */
+    public static String getSignature(String errorMessages, int frameCount) {
+        List<String> lines = errorMessages.lines().map(String::strip).toList();
+        int start = 0; // the root cause is in the last "Caused by" block
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).startsWith("Caused by: ")) {
+                start = i;
+            }
+        }
+        int firstFrame = start;
+        while (firstFrame < lines.size() && !lines.get(firstFrame).startsWith("at ")) {
+            firstFrame++;
+        }
+        if (firstFrame == lines.size()) {
+            return NO_SIGNATURE;
+        }
+        // The exception is the last line before the frames that starts with a class name, the message can span lines
+        String exception = null;
+        for (int i = firstFrame - 1; i >= start && exception == null; i--) {
+            exception = getExceptionClassName(lines.get(i));
+        }
+        List<String> frames = new ArrayList<>();
+        for (int i = firstFrame; i < lines.size() && lines.get(i).startsWith("at ") && frames.size() < frameCount; i++) {
+            String frame = lines.get(i).substring(3);
+            int argumentsStart = frame.indexOf('(');
+            if (argumentsStart >= 0) {
+                frame = frame.substring(0, argumentsStart);
+            }
+            frame = frame.substring(frame.lastIndexOf('/') + 1); // module or class loader name
+            if (frame.startsWith("jpacman.") && (frames.isEmpty() || !frames.get(frames.size() - 1).equals(frame))) {
+                frames.add(frame);
+            }
+        }
+        String signature = exception == null ? "Unknown exception" : exception;
+        if (!frames.isEmpty()) {
+            signature += " in " + String.join("; ", frames);
+        }
+        return signature;
+    }
+
+    /**
+     * Gives the class name of the exception a line of a stack trace starts with.
+     *
+     * @param line The line, without leading white space.
+     * @return The class name, or null if the line does not start with a class name.
+     */
+    private static String getExceptionClassName(String line) {
+        if (line.startsWith("Caused by: ")) {
+            line = line.substring("Caused by: ".length());
+        } else if (line.startsWith("Exception in thread \"")) {
+            line = line.substring(line.indexOf('"', "Exception in thread \"".length()) + 1).strip();
+        }
+        int end = 0;
+        while (end < line.length() && (Character.isJavaIdentifierPart(line.charAt(end)) || line.charAt(end) == '.')) {
+            end++;
+        }
+        String className = line.substring(0, end);
+        boolean endsClassName = end == line.length() || line.charAt(end) == ':';
+        if (!endsClassName || className.indexOf('.') <= 0 || className.endsWith(".")) {
+            return null;
+        }
+        return className;
+    }
+
+    /**
+     * The crashes of this run with the same stack signature.
+     */
+    public static class CrashBucket {
+
+        /**
+         * The stack signature of the crashes.
+         */
+        private final String signature;
+
+        /**
+         * The output messages of the first crash.
+         */
+        private final String outputMessages;
+
+        /**
+         * The iteration numbers of the crashes.
+         */
+        private final IterationResultsAggregator.IterationNumbers iterationNumbers =
+                new IterationResultsAggregator.IterationNumbers();
+
+        /**
+         * The file path of the map of the smallest reproducer, in the exit code directory.
+         */
+        private String reproducerMapFilePath;
+
+        /**
+         * The action sequence of the smallest reproducer.
+         */
+        private String reproducerActionSequence;
+
+        /**
+         * The iteration number of the smallest reproducer.
+         */
+        private int reproducerIterationNumber;
+
+        /**
+         * The number of bytes of the map and the action sequence of the smallest reproducer.
+         */
+        private long reproducerSize;
+
+        /**
+         * Constructs an empty CrashBucket.
+         *
+         * @param signature      The stack signature of the crashes.
+         * @param outputMessages The output messages of the first crash.
+         */
+        private CrashBucket(String signature, String outputMessages) {
+            this.signature = signature;
+            this.outputMessages = outputMessages;
+        }
+
+        /**
+         * Gives the stack signature of the crashes.
+         *
+         * @return The signature.
+         */
+        public String getSignature() {
+            return signature;
+        }
+
+        /**
+         * Gives the output messages of the first crash of the bucket.
+         *
+         * @return The output messages.
+         */
+        public String getOutputMessages() {
+            return outputMessages;
+        }
+
+        /**
+         * Gives the number of crashes in the bucket.
+         *
+         * @return The count.
+         */
+        public int getCount() {
+            return iterationNumbers.size();
+        }
+
+        /**
+         * Gives the iteration numbers of the crashes in the bucket.
+         *
+         * @return The iteration numbers, in the order they were added.
+         */
+        public int[] getIterationNumbers() {
+            return iterationNumbers.toArray();
+        }
+
+        /**
+         * Gives the file path of the map of the smallest reproducer.
+         *
+         * @return The map file path, in the exit code directory.
+         */
+        public String getReproducerMapFilePath() {
+            return reproducerMapFilePath;
+        }
+
+        /**
+         * Gives the action sequence of the smallest reproducer.
+         *
+         * @return The action sequence.
+         */
+        public String getReproducerActionSequence() {
+            return reproducerActionSequence;
+        }
+
+        /**
+         * Gives the iteration number of the smallest reproducer.
+         *
+         * @return The iteration number.
+         */
+        public int getReproducerIterationNumber() {
+            return reproducerIterationNumber;
+        }
+    }
+}
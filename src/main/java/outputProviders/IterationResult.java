@@ -1,11 +1,10 @@
 package outputProviders;
 
+import executors.IterationCoverage;
 import managers.FileReaderManager;
 import organizers.FileHandler;
+import randomGenerators.map.BoardModel;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -16,11 +15,21 @@ import static organizers.FileHandler.actualMapsDirectoryPath;
 /**
  * Represents the result of an iteration in the application.
  * Contains information such as iteration number, map file type, map file path,
- * string sequence, error code, and output messages. Also check if the combination
+ * string sequence, error code, output messages and error messages. Also check if the combination
  * of the map and the actions is valid.
  */
 public class IterationResult {
 
+    /**
+     * Output message of an iteration that was stopped because it reached the time limit of an iteration.
+     */
+    public static final String TIME_LIMIT_MESSAGE = "Time Limit of Iteration reached";
+
+    /**
+     * Output message of an iteration whose action sequence makes an impossible move on its map.
+     */
+    public static final String INVALID_MOVE_MESSAGE = "Invalid Move";
+
 
     /**
      * The number of the iteration.
@@ -52,24 +61,64 @@ public class IterationResult {
      */
     private final String outputMessages;
 
+    /**
+     * The error messages (standard error, e.g. the stack trace of a crash) produced during the iteration.
+     */
+    private final String errorMessages;
+
     /**
      * The custom attribute of the map file (often some extra information) associated with the iteration.
      */
     private final String customAttribute;
 
+    /**
+     * The coverage probes the iteration hit, or null if the coverage is not collected or was merged already.
+     */
+    private IterationCoverage coverage;
+
+    /**
+     * True if the iteration hit coverage probes that no earlier iteration hit.
+     */
+    private boolean newCoverage;
+
+    /**
+     * The stack signature of the crash (see CrashTriage), "None" if the iteration did not crash.
+     */
+    private String crashSignature = CrashTriage.NO_SIGNATURE;
+
+    /**
+     * True if the map is deleted instead of moved, because its crash has a smaller reproducer.
+     */
+    private boolean discardMap;
+
+    /**
+     * The map file path of the reproducer this iteration replaces as smallest reproducer, whose map is deleted, or null.
+     */
+    private String replacedReproducerMapFilePath;
+
+    /**
+     * True if the executed result disagrees with the prediction of the JPacmanSimulator.
+     */
+    private boolean anomaly;
+
+    /**
+     * The id of the output messages in the StringDictionary of the aggregator, -1 if it is not interned yet.
+     */
+    private int outputMessageId = -1;
 
     /**
-     * Constructs an IterationResult object with the specified parameters. Replaces unknown exit codes with -1, and empty output-messages
-     * and custom attributes with "None".
+     * Constructs an IterationResult object with the specified parameters. Replaces unknown exit codes with -1, and empty output-messages,
+     * error messages and custom attributes with "None".
      *
      * @param iterationNumber The number of the iteration.
      * @param mapFilePath     The file path of the map.
      * @param stringSequence  The string sequence associated with the iteration.
      * @param exitCode       The error code associated with the iteration.
      * @param outputMessages  The output messages produced during the iteration.
+     * @param errorMessages   The error messages produced during the iteration.
      * @param customAttribute The custom attribute of the map file (often some extra information) associated with the iteration.
      */
-    public IterationResult(int iterationNumber, String mapFilePath, String stringSequence, int exitCode, String outputMessages, String customAttribute) {
+    public IterationResult(int iterationNumber, String mapFilePath, String stringSequence, int exitCode, String outputMessages, String errorMessages, String customAttribute) {
         this.iterationNumber = iterationNumber;
         this.mapFileType = mapFilePath.substring(mapFilePath.lastIndexOf('.') + 1).toUpperCase();
         this.mapFilePath = mapFilePath;
@@ -82,10 +131,27 @@ public class IterationResult {
         if (outputMessages.isEmpty()){outputMessages = "None";}
         this.outputMessages = outputMessages;
 
+        if (errorMessages.isEmpty()){errorMessages = "None";}
+        this.errorMessages = errorMessages;
+
         if (customAttribute.isEmpty()){customAttribute = "None";}
         this.customAttribute = customAttribute;
     }
 
+    /**
+     * Constructs an IterationResult object without error messages.
+     *
+     * @param iterationNumber The number of the iteration.
+     * @param mapFilePath     The file path of the map.
+     * @param stringSequence  The string sequence associated with the iteration.
+     * @param exitCode       The error code associated with the iteration.
+     * @param outputMessages  The output messages produced during the iteration.
+     * @param customAttribute The custom attribute of the map file (often some extra information) associated with the iteration.
+     */
+    public IterationResult(int iterationNumber, String mapFilePath, String stringSequence, int exitCode, String outputMessages, String customAttribute) {
+        this(iterationNumber, mapFilePath, stringSequence, exitCode, outputMessages, "", customAttribute);
+    }
+
     /**
      * Returns the number of the iteration.
      *
@@ -93,6 +159,16 @@ public class IterationResult {
      */
     public int getIterationNumber() {return iterationNumber;}
 
+    /**
+     * Returns the file path the map had when the iteration was executed, before it was moved to the directory of its
+     * exit code.
+     *
+     * @return The map file path as it was given to JPacman.
+     */
+    public String getExecutedMapFilePath() {
+        return mapFilePath;
+    }
+
     /**
      * Returns the file path of the map. Note that map files get moved to a particular subdirectory of actual_ after making them.
      * This method returns the path of the map file in the correct actual maps subdirectory.
@@ -164,6 +240,15 @@ public class IterationResult {
         return outputMessages;
     }
 
+    /**
+     * Returns the error messages produced during the iteration.
+     *
+     * @return The error messages.
+     */
+    public String getErrorMessages() {
+        return errorMessages;
+    }
+
     /**
      * Get the note of the program with this particular map file if applicable.
      *
@@ -173,10 +258,139 @@ public class IterationResult {
         return customAttribute;
     }
 
+    /**
+     * Returns the coverage probes the iteration hit.
+     *
+     * @return The coverage, or null if the coverage is not collected or was merged already.
+     */
+    public IterationCoverage getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * Sets the coverage probes the iteration hit. Set to null once merged, so the probes are not kept with the result.
+     *
+     * @param coverage The coverage, or null.
+     */
+    public void setCoverage(IterationCoverage coverage) {
+        this.coverage = coverage;
+    }
+
+    /**
+     * Monitors if the iteration reached coverage no earlier iteration reached.
+     *
+     * @return true if the iteration reached new coverage, false otherwise
+     */
+    public boolean isNewCoverage() {
+        return newCoverage;
+    }
+
+    /**
+     * Marks that the iteration reached coverage no earlier iteration reached, so its map is kept.
+     *
+     * @param newCoverage true if the iteration reached new coverage.
+     */
+    public void setNewCoverage(boolean newCoverage) {
+        this.newCoverage = newCoverage;
+    }
+
+    /**
+     * Returns the stack signature of the crash.
+     *
+     * @return The signature, or "None" if the iteration did not crash or left no stack trace.
+     */
+    public String getCrashSignature() {
+        return crashSignature;
+    }
+
+    /**
+     * Sets the stack signature of the crash.
+     *
+     * @param crashSignature The signature.
+     */
+    public void setCrashSignature(String crashSignature) {
+        this.crashSignature = crashSignature;
+    }
+
+    /**
+     * Monitors if the map of the iteration is deleted instead of moved to the directory of its exit code.
+     *
+     * @return true if the map is deleted, false otherwise
+     */
+    public boolean isDiscardMap() {
+        return discardMap;
+    }
+
+    /**
+     * Marks that the map of the iteration is deleted instead of moved, because a smaller input gives the same crash.
+     *
+     * @param discardMap true if the map is deleted.
+     */
+    public void setDiscardMap(boolean discardMap) {
+        this.discardMap = discardMap;
+    }
+
+    /**
+     * Returns the map file path of the reproducer this iteration replaces as smallest reproducer of its crash.
+     *
+     * @return The map file path in the exit code directory, or null if no map has to be deleted.
+     */
+    public String getReplacedReproducerMapFilePath() {
+        return replacedReproducerMapFilePath;
+    }
+
+    /**
+     * Sets the map file path of the reproducer this iteration replaces, so that map is deleted once this iteration is
+     * persisted.
+     *
+     * @param replacedReproducerMapFilePath The map file path in the exit code directory.
+     */
+    public void setReplacedReproducerMapFilePath(String replacedReproducerMapFilePath) {
+        this.replacedReproducerMapFilePath = replacedReproducerMapFilePath;
+    }
+
+    /**
+     * Monitors if the executed result disagrees with the prediction of the JPacmanSimulator.
+     *
+     * @return true if the iteration is an anomaly, false otherwise
+     */
+    public boolean isAnomaly() {
+        return anomaly;
+    }
+
+    /**
+     * Sets if the executed result disagrees with the prediction of the JPacmanSimulator. The map of an anomaly is
+     * always kept.
+     *
+     * @param anomaly true if the iteration is an anomaly.
+     */
+    public void setAnomaly(boolean anomaly) {
+        this.anomaly = anomaly;
+    }
+
+    /**
+     * Returns the id of the output messages in the StringDictionary of the aggregator.
+     *
+     * @return The id, or -1 if the output messages are not interned yet.
+     */
+    public int getOutputMessageId() {
+        return outputMessageId;
+    }
+
+    /**
+     * Sets the id of the output messages in the StringDictionary of the aggregator. Done by the iteration worker, so
+     * the aggregator does not have to hash the message.
+     *
+     * @param outputMessageId The id.
+     */
+    public void setOutputMessageId(int outputMessageId) {
+        this.outputMessageId = outputMessageId;
+    }
+
     /**
      * Checks for each the action sequence if this is a possible move within the map: when the game has already
      * started, and has not ended yet, the player does not move to a wall cell or outside the bounds of the
-     * map.
+     * map. The map is parsed once into a BoardModel, so every action is a lookup of the blocked moves of its cell.
      *
      * @param mapFilePath
      *         The file path of the .txt map file
@@ -186,32 +400,8 @@ public class IterationResult {
      * @return True if the actionSequence is true, false otherwise.
      */
     public static boolean isValidMove(String mapFilePath, String actionSequence) {
-        boolean isValidMove = true;
-        List<String> executedStrings = extractSubstrings(actionSequence);
-        char[][] map = getMap(mapFilePath);
-        int[] playerCoordinates = getPlayerLocation(map);
-        for (String s : executedStrings) {
-            char[] actions = s.toCharArray();
-            for (char c : actions) {
-                switch (c) {
-                    case 'U' -> playerCoordinates[0]--;
-                    case 'D' -> playerCoordinates[0]++;
-                    case 'L' -> playerCoordinates[1]--;
-                    case 'R' -> playerCoordinates[1]++;
-                }
-                // if player moves out of bounds of map
-                if (playerCoordinates[0] < 0 || playerCoordinates[0] >= map.length || playerCoordinates[1] < 0 || playerCoordinates[1] >= map[0].length) {
-                    isValidMove = false;
-                    break;
-                }
-                // if player moves to wall cell
-                if (map[playerCoordinates[0]][playerCoordinates[1]] == 'W') {
-                    isValidMove = false;
-                    break;
-                }
-            }
-        }
-        return isValidMove;
+        boolean canEndWithQuit = FileReaderManager.getInstance().getConfigReader().getCustomSequenceNr() == 10;
+        return BoardModel.of(mapFilePath).isValidMove(actionSequence, canEndWithQuit);
     }
 
     /**
@@ -267,79 +457,4 @@ public class IterationResult {
 
         return executedActionSequences;
     }
-
-
-    /**
-     * Makes a map that stores each char at its x and y coordinate, from a .txt file that
-     * represents the map.
-     *
-     * @param mapFilePath
-     *         The path to the .txt file that represents the map.
-     *
-     * @return A 2D array of chars that represents the map.
-     */
-    public static char[][] getMap(String mapFilePath) {
-        List<String> lines = new ArrayList<>();
-        // Get lines of file
-        try (BufferedReader reader = new BufferedReader(new FileReader(mapFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Store height and width map
-        int height = lines.size();
-        int width = 0;
-        for (String line : lines) {
-            width = Math.max(width, line.length());
-        }
-
-        // Make map that stores each char at its x and y coordinate
-        char[][] map = new char[height][width];
-        for (int i = 0; i < height; i++) {
-            String line = lines.get(i);
-            for (int j = 0; j < width; j++) {
-                if (j < line.length()) {
-                    map[i][j] = line.charAt(j);
-                } else {
-                    map[i][j] = ' '; // Assuming empty space if line is shorter
-                }
-            }
-        }
-        return map;
-    }
-
-    /**
-     * Returns the coordinates of the player within the map.
-     *
-     * @param map
-     *         The map that stores each character and its x and y coordinates.
-     *
-     * @return An int array of length 2, where the first element is the x coordinate, and the second element is the y coordinate.
-     */
-    public static int[] getPlayerLocation(char[][] map) {
-        int playerRow = -1;
-        int playerCol = -1;
-
-        int height = map.length;
-        int width = (height > 0) ? map[0].length : 0;
-
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (map[i][j] == 'P') {
-                    playerRow = i;
-                    playerCol = j;
-                    break;
-                }
-            }
-            if (playerRow != -1) {
-                break;
-            }
-        }
-        return new int[]{playerRow, playerCol};
-    }
-
 }
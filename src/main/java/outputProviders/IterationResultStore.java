@@ -0,0 +1,707 @@
+package outputProviders;
+
+import executors.JPacmanSimulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * Column store of the iteration results of this run, in memory-mapped files instead of the Java heap. Every iteration
+ * is one row, and every field is a column of fixed width:
+ * <ul>
+ *     <li>the iteration number, an int;</li>
+ *     <li>the exit code, a byte, since IterationResult keeps only 0, 1, 10 and -1;</li>
+ *     <li>the output messages, the int id of the message in a StringDictionary;</li>
+ *     <li>the map file type, the byte id of the type in a StringDictionary;</li>
+ *     <li>the action sequence, the long end offset of its bytes in the sequence arena, a column of bytes shared by all
+ *     rows. The sequence of a row starts at the end offset of the row before it;</li>
+ *     <li>the wall-clock time of JPacman in milliseconds, a long;</li>
+ *     <li>the flags of the row, a byte: simulated and predicted;</li>
+ *     <li>only for stress maps, the height and width of the map, two ints;</li>
+ *     <li>only for predicted rows, the exit code the JPacmanSimulator predicted, an int, and the ids of its output
+ *     messages and game state in a StringDictionary, two ints.</li>
+ * </ul>
+ * A million iterations take about 27 MB plus the bytes of the sequences, and the operating system pages them out when
+ * memory is needed. The columns that are only written for some rows stay empty, sparse files, in a run without stress
+ * maps or simulator. The columns are read by row number, with rows() and rows(exitCode, outputMessageId) to go over all
+ * rows or the rows of one combination, so the log writers can read the results without an object per row.
+ * <p>
+ * Rows are appended by one thread, the one that reports the iterations in order. Other threads can read a row once the
+ * row is handed to them through a thread-safe queue, like the ResultPersistenceWriter does. The files are in a
+ * temporary directory and are deleted by close.
+ * </p>
+ */
+public class IterationResultStore implements Closeable {
+
+    /**
+     * Highest number of distinct map file types, the largest id that fits in a byte plus one.
+     */
+    private static final int MAX_MAP_FILE_TYPES = Byte.MAX_VALUE + 1;
+
+    /**
+     * Flag of a row: the result was predicted by the JPacmanSimulator instead of executed.
+     */
+    private static final byte SIMULATED = 1;
+
+    /**
+     * Flag of a row: the JPacmanSimulator made a prediction for the input.
+     */
+    private static final byte PREDICTED = 2;
+
+    /**
+     * The directory of the column files.
+     */
+    private final Path directory;
+
+    /**
+     * The iteration numbers.
+     */
+    private final MappedColumn iterationNumbers;
+
+    /**
+     * The exit codes.
+     */
+    private final MappedColumn exitCodes;
+
+    /**
+     * The ids of the output messages.
+     */
+    private final MappedColumn outputMessageIds;
+
+    /**
+     * The ids of the map file types.
+     */
+    private final MappedColumn mapFileTypeIds;
+
+    /**
+     * The end offsets of the action sequences in the sequence arena.
+     */
+    private final MappedColumn sequenceEnds;
+
+    /**
+     * The bytes of all action sequences, after each other.
+     */
+    private final MappedColumn sequenceArena;
+
+    /**
+     * The execution times in milliseconds.
+     */
+    private final MappedColumn executionTimes;
+
+    /**
+     * The flags of the rows.
+     */
+    private final MappedColumn flags;
+
+    /**
+     * The heights of the stress maps.
+     */
+    private final MappedColumn mapHeights;
+
+    /**
+     * The widths of the stress maps.
+     */
+    private final MappedColumn mapWidths;
+
+    /**
+     * The predicted exit codes.
+     */
+    private final MappedColumn predictedExitCodes;
+
+    /**
+     * The ids of the predicted output messages.
+     */
+    private final MappedColumn predictedOutputMessageIds;
+
+    /**
+     * The ids of the predicted game states.
+     */
+    private final MappedColumn predictedGameStateIds;
+
+    /**
+     * The distinct output messages.
+     */
+    private final StringDictionary outputMessages;
+
+    /**
+     * The distinct map file types.
+     */
+    private final StringDictionary mapFileTypes = new StringDictionary();
+
+    /**
+     * The distinct predicted output messages and game states.
+     */
+    private final StringDictionary predictionTexts = new StringDictionary();
+
+    /**
+     * Number of rows. Volatile, so a thread that reads the rows sees them all.
+     */
+    private volatile int size;
+
+    /**
+     * Number of bytes in the sequence arena.
+     */
+    private long arenaSize;
+
+    /**
+     * Constructs an empty store, with the column files in a new temporary directory.
+     *
+     * @param outputMessages The dictionary of the output messages. Can be shared with others, like the aggregator.
+     */
+    public IterationResultStore(StringDictionary outputMessages) {
+        this.outputMessages = outputMessages;
+        try {
+            this.directory = Files.createTempDirectory("iterationResults");
+            directory.toFile().deleteOnExit(); // in case the store is not closed, the files are deleted first
+            this.iterationNumbers = new MappedColumn(directory.resolve("iterationNumbers.col"));
+            this.exitCodes = new MappedColumn(directory.resolve("exitCodes.col"));
+            this.outputMessageIds = new MappedColumn(directory.resolve("outputMessageIds.col"));
+            this.mapFileTypeIds = new MappedColumn(directory.resolve("mapFileTypeIds.col"));
+            this.sequenceEnds = new MappedColumn(directory.resolve("sequenceEnds.col"));
+            this.sequenceArena = new MappedColumn(directory.resolve("sequenceArena.col"));
+            this.executionTimes = new MappedColumn(directory.resolve("executionTimes.col"));
+            this.flags = new MappedColumn(directory.resolve("flags.col"));
+            this.mapHeights = new MappedColumn(directory.resolve("mapHeights.col"));
+            this.mapWidths = new MappedColumn(directory.resolve("mapWidths.col"));
+            this.predictedExitCodes = new MappedColumn(directory.resolve("predictedExitCodes.col"));
+            this.predictedOutputMessageIds = new MappedColumn(directory.resolve("predictedOutputMessageIds.col"));
+            this.predictedGameStateIds = new MappedColumn(directory.resolve("predictedGameStateIds.col"));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends the fields of an iteration result as a new row, with the measurements of its iteration that are only
+     * needed for the logs.
+     *
+     * @param iterationResult The result.
+     * @param outputMessageId The id of the output messages of the result in the dictionary.
+     * @param executionTime   The wall-clock time of JPacman in milliseconds.
+     * @param mapHeight       The height of the map if it is a stress map, 0 otherwise.
+     * @param mapWidth        The width of the map if it is a stress map, 0 otherwise.
+     * @param prediction      The prediction of the JPacmanSimulator, or null if the input was not predicted.
+     * @param simulated       True if the result is the prediction instead of an execution.
+     * @return The row number of the result.
+     */
+    public int append(IterationResult iterationResult, int outputMessageId, long executionTime, int mapHeight,
+                      int mapWidth, JPacmanSimulator.Prediction prediction, boolean simulated) {
+        int mapFileTypeId = mapFileTypes.intern(iterationResult.getMapFileType());
+        if (mapFileTypeId >= MAX_MAP_FILE_TYPES) {
+            throw new IllegalStateException("More than " + MAX_MAP_FILE_TYPES + " map file types");
+        }
+        byte[] sequence = iterationResult.getStringSequence().getBytes(StandardCharsets.UTF_8);
+        sequenceArena.putBytes(arenaSize, sequence);
+        arenaSize += sequence.length;
+
+        int row = size;
+        iterationNumbers.putInt((long) row * Integer.BYTES, iterationResult.getIterationNumber());
+        exitCodes.putByte(row, (byte) iterationResult.getErrorCode());
+        outputMessageIds.putInt((long) row * Integer.BYTES, outputMessageId);
+        mapFileTypeIds.putByte(row, (byte) mapFileTypeId);
+        sequenceEnds.putLong((long) row * Long.BYTES, arenaSize);
+        executionTimes.putLong((long) row * Long.BYTES, executionTime);
+        byte rowFlags = simulated ? SIMULATED : 0;
+        if (mapHeight > 0) { // the size columns are only written for stress maps
+            mapHeights.putInt((long) row * Integer.BYTES, mapHeight);
+            mapWidths.putInt((long) row * Integer.BYTES, mapWidth);
+        }
+        if (prediction != null) { // the prediction columns are only written when the simulator is used
+            rowFlags |= PREDICTED;
+            predictedExitCodes.putInt((long) row * Integer.BYTES, prediction.getExitCode());
+            predictedOutputMessageIds.putInt((long) row * Integer.BYTES,
+                    predictionTexts.intern(prediction.getOutputMessages()));
+            predictedGameStateIds.putInt((long) row * Integer.BYTES,
+                    prediction.getGameState() == null ? -1 : predictionTexts.intern(prediction.getGameState()));
+        }
+        flags.putByte(row, rowFlags);
+        size++;
+        return row;
+    }
+
+    /**
+     * Gives the number of rows.
+     *
+     * @return The number of results that were appended.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the row numbers of all rows.
+     *
+     * @return The row numbers, in the order the rows were appended.
+     */
+    public IntStream rows() {
+        return IntStream.range(0, size);
+    }
+
+    /**
+     * Gives the row numbers of the rows with an exit code and output message. Only the two id columns are read.
+     *
+     * @param exitCode        The exit code.
+     * @param outputMessageId The id of the output message in the dictionary.
+     * @return The row numbers, in the order the rows were appended.
+     */
+    public IntStream rows(int exitCode, int outputMessageId) {
+        return rows().filter(row -> getExitCode(row) == exitCode && getOutputMessageId(row) == outputMessageId);
+    }
+
+    /**
+     * Gives the iteration numbers of the rows with an exit code and output message.
+     *
+     * @param exitCode       The exit code.
+     * @param outputMessages The output message.
+     * @return The iteration numbers in the order the rows were appended, empty if the combination did not occur.
+     */
+    public int[] getIterationNumbers(int exitCode, String outputMessages) {
+        int outputMessageId = this.outputMessages.idOf(outputMessages);
+        if (outputMessageId < 0) {
+            return new int[0];
+        }
+        return rows(exitCode, outputMessageId).map(this::getIterationNumber).toArray();
+    }
+
+    /**
+     * Gives the iteration number of a row.
+     *
+     * @param row The row number.
+     * @return The iteration number.
+     */
+    public int getIterationNumber(int row) {
+        checkRow(row);
+        return iterationNumbers.getInt((long) row * Integer.BYTES);
+    }
+
+    /**
+     * Gives the exit code of a row.
+     *
+     * @param row The row number.
+     * @return The exit code.
+     */
+    public int getExitCode(int row) {
+        checkRow(row);
+        return exitCodes.getByte(row);
+    }
+
+    /**
+     * Gives the id of the output messages of a row.
+     *
+     * @param row The row number.
+     * @return The id in the dictionary of the output messages.
+     */
+    public int getOutputMessageId(int row) {
+        checkRow(row);
+        return outputMessageIds.getInt((long) row * Integer.BYTES);
+    }
+
+    /**
+     * Gives the output messages of a row, the String in the dictionary.
+     *
+     * @param row The row number.
+     * @return The output messages.
+     */
+    public String getOutputMessages(int row) {
+        return outputMessages.get(getOutputMessageId(row));
+    }
+
+    /**
+     * Gives the id of the map file type of a row.
+     *
+     * @param row The row number.
+     * @return The id in the dictionary of the map file types.
+     */
+    public int getMapFileTypeId(int row) {
+        checkRow(row);
+        return mapFileTypeIds.getByte(row);
+    }
+
+    /**
+     * Gives the map file type of a row, the String in the dictionary.
+     *
+     * @param row The row number.
+     * @return The map file type.
+     */
+    public String getMapFileType(int row) {
+        return mapFileTypes.get(getMapFileTypeId(row));
+    }
+
+    /**
+     * Gives the number of bytes of the action sequence of a row, without reading the sequence.
+     *
+     * @param row The row number.
+     * @return The length of the sequence in bytes, the number of actions if it only has actions.
+     */
+    public int getSequenceLength(int row) {
+        checkRow(row);
+        return (int) (sequenceEnds.getLong((long) row * Long.BYTES) - getSequenceStart(row));
+    }
+
+    /**
+     * Gives the action sequence of a row. Makes a String, so only for the rows it is needed for.
+     *
+     * @param row The row number.
+     * @return The action sequence.
+     */
+    public String getStringSequence(int row) {
+        byte[] sequence = new byte[getSequenceLength(row)];
+        sequenceArena.getBytes(getSequenceStart(row), sequence);
+        return new String(sequence, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gives the wall-clock time of JPacman of a row.
+     *
+     * @param row The row number.
+     * @return The execution time in milliseconds.
+     */
+    public long getExecutionTime(int row) {
+        checkRow(row);
+        return executionTimes.getLong((long) row * Long.BYTES);
+    }
+
+    /**
+     * Gives the height of the map of a row.
+     *
+     * @param row The row number.
+     * @return The height, 0 if the map is no stress map.
+     */
+    public int getMapHeight(int row) {
+        checkRow(row);
+        return mapHeights.getInt((long) row * Integer.BYTES);
+    }
+
+    /**
+     * Gives the width of the map of a row.
+     *
+     * @param row The row number.
+     * @return The width, 0 if the map is no stress map.
+     */
+    public int getMapWidth(int row) {
+        checkRow(row);
+        return mapWidths.getInt((long) row * Integer.BYTES);
+    }
+
+    /**
+     * Monitors if the result of a row was predicted by the JPacmanSimulator instead of executed.
+     *
+     * @param row The row number.
+     * @return true if the result is simulated, false otherwise
+     */
+    public boolean isSimulated(int row) {
+        checkRow(row);
+        return (flags.getByte(row) & SIMULATED) != 0;
+    }
+
+    /**
+     * Monitors if the JPacmanSimulator made a prediction for the input of a row.
+     *
+     * @param row The row number.
+     * @return true if the row has a prediction, false otherwise
+     */
+    public boolean hasPrediction(int row) {
+        checkRow(row);
+        return (flags.getByte(row) & PREDICTED) != 0;
+    }
+
+    /**
+     * Gives the exit code the JPacmanSimulator predicted for a row with a prediction.
+     *
+     * @param row The row number.
+     * @return The predicted exit code, JPacmanSimulator.UNKNOWN_EXIT_CODE if the model could not predict it.
+     */
+    public int getPredictedExitCode(int row) {
+        checkPrediction(row);
+        return predictedExitCodes.getInt((long) row * Integer.BYTES);
+    }
+
+    /**
+     * Gives the output messages the JPacmanSimulator predicted for a row with a prediction.
+     *
+     * @param row The row number.
+     * @return The predicted output messages.
+     */
+    public String getPredictedOutputMessages(int row) {
+        checkPrediction(row);
+        return predictionTexts.get(predictedOutputMessageIds.getInt((long) row * Integer.BYTES));
+    }
+
+    /**
+     * Gives the game state the JPacmanSimulator predicted for a row with a prediction.
+     *
+     * @param row The row number.
+     * @return The state the game ends in, or null if the map is predicted to be rejected.
+     */
+    public String getPredictedGameState(int row) {
+        checkPrediction(row);
+        int gameStateId = predictedGameStateIds.getInt((long) row * Integer.BYTES);
+        return gameStateId < 0 ? null : predictionTexts.get(gameStateId);
+    }
+
+    /**
+     * Gives the offset of the action sequence of a row in the sequence arena.
+     *
+     * @param row The row number.
+     * @return The offset, the end offset of the row before it.
+     */
+    private long getSequenceStart(int row) {
+        return row == 0 ? 0 : sequenceEnds.getLong((long) (row - 1) * Long.BYTES);
+    }
+
+    /**
+     * Gives the dictionary of the output messages.
+     *
+     * @return The dictionary.
+     */
+    public StringDictionary getOutputMessageDictionary() {
+        return outputMessages;
+    }
+
+    /**
+     * Gives the dictionary of the map file types.
+     *
+     * @return The dictionary.
+     */
+    public StringDictionary getMapFileTypeDictionary() {
+        return mapFileTypes;
+    }
+
+    /**
+     * Checks that a row exists.
+     *
+     * @param row The row number.
+     */
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * Checks that a row exists and has a prediction.
+     *
+     * @param row The row number.
+     */
+    private void checkPrediction(int row) {
+        if (!hasPrediction(row)) {
+            throw new IllegalStateException("Row " + row + " has no prediction");
+        }
+    }
+
+    /**
+     * Closes the column files and deletes them.
+     */
+    @Override
+    public void close() {
+        try {
+            for (MappedColumn column : List.of(iterationNumbers, exitCodes, outputMessageIds, mapFileTypeIds,
+                    sequenceEnds, sequenceArena, executionTimes, flags, mapHeights, mapWidths,
+                    predictedExitCodes, predictedOutputMessageIds, predictedGameStateIds)) {
+                column.close();
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A column in a file that is mapped in chunks of CHUNK_SIZE bytes, the next chunk when the column grows into it.
+     * Values are read and written at a byte position; since the chunk size is a multiple of 8, an int or long at a
+     * multiple of its width never spans two chunks. The list of chunks can be read while a chunk is added. Adding chunks
+     * is synchronized, because a reader can be the first to reach a chunk of a column that is not written for every row.
+     */
+    static class MappedColumn implements Closeable {
+
+        /**
+         * Number of bits of the position within a chunk.
+         */
+        private static final int CHUNK_SHIFT = 22;
+
+        /**
+         * Number of bytes of a chunk, 4 MB.
+         */
+        static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+        /**
+         * Path of the file.
+         */
+        private final Path path;
+
+        /**
+         * The open file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The mapped chunks, in order.
+         */
+        private final List<MappedByteBuffer> chunks = new CopyOnWriteArrayList<>();
+
+        /**
+         * Creates the file of a column.
+         *
+         * @param path The path of the file, that does not exist yet.
+         * @throws IOException If the file cannot be created.
+         */
+        MappedColumn(Path path) throws IOException {
+            this.path = path;
+            path.toFile().deleteOnExit();
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Gives the chunk of a position, and maps the chunks up to it if they are not mapped yet.
+         *
+         * @param position The byte position in the column.
+         * @return The chunk.
+         */
+        private MappedByteBuffer chunk(long position) {
+            int index = (int) (position >>> CHUNK_SHIFT);
+            if (index >= chunks.size()) {
+                grow(index);
+            }
+            return chunks.get(index);
+        }
+
+        /**
+         * Maps the chunks up to a chunk, growing the file. Synchronized, so two threads never map the same chunk twice.
+         *
+         * @param index The index of the last chunk to map.
+         */
+        private synchronized void grow(int index) {
+            try {
+                while (chunks.size() <= index) {
+                    chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_SIZE, CHUNK_SIZE));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Gives the position within its chunk of a position.
+         *
+         * @param position The byte position in the column.
+         * @return The position in the chunk.
+         */
+        private static int offset(long position) {
+            return (int) (position & (CHUNK_SIZE - 1));
+        }
+
+        /**
+         * Writes a byte.
+         *
+         * @param position The byte position.
+         * @param value    The byte.
+         */
+        void putByte(long position, byte value) {
+            chunk(position).put(offset(position), value);
+        }
+
+        /**
+         * Reads a byte.
+         *
+         * @param position The byte position.
+         * @return The byte.
+         */
+        byte getByte(long position) {
+            return chunk(position).get(offset(position));
+        }
+
+        /**
+         * Writes an int.
+         *
+         * @param position The byte position, a multiple of 4.
+         * @param value    The int.
+         */
+        void putInt(long position, int value) {
+            chunk(position).putInt(offset(position), value);
+        }
+
+        /**
+         * Reads an int.
+         *
+         * @param position The byte position, a multiple of 4.
+         * @return The int.
+         */
+        int getInt(long position) {
+            return chunk(position).getInt(offset(position));
+        }
+
+        /**
+         * Writes a long.
+         *
+         * @param position The byte position, a multiple of 8.
+         * @param value    The long.
+         */
+        void putLong(long position, long value) {
+            chunk(position).putLong(offset(position), value);
+        }
+
+        /**
+         * Reads a long.
+         *
+         * @param position The byte position, a multiple of 8.
+         * @return The long.
+         */
+        long getLong(long position) {
+            return chunk(position).getLong(offset(position));
+        }
+
+        /**
+         * Writes bytes from a position on, over the end of a chunk if needed.
+         *
+         * @param position The byte position of the first byte.
+         * @param bytes    The bytes.
+         */
+        void putBytes(long position, byte[] bytes) {
+            int done = 0;
+            while (done < bytes.length) {
+                long current = position + done;
+                int length = Math.min(bytes.length - done, CHUNK_SIZE - offset(current));
+                chunk(current).put(offset(current), bytes, done, length);
+                done += length;
+            }
+        }
+
+        /**
+         * Reads bytes from a position on, over the end of a chunk if needed.
+         *
+         * @param position The byte position of the first byte.
+         * @param bytes    The array to fill.
+         */
+        void getBytes(long position, byte[] bytes) {
+            int done = 0;
+            while (done < bytes.length) {
+                long current = position + done;
+                int length = Math.min(bytes.length - done, CHUNK_SIZE - offset(current));
+                chunk(current).get(offset(current), bytes, done, length);
+                done += length;
+            }
+        }
+
+        /**
+         * Closes the file and deletes it. The mapped chunks are released by the garbage collector.
+         *
+         * @throws IOException If the file cannot be closed or deleted.
+         */
+        @Override
+        public void close() throws IOException {
+            chunks.clear();
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package outputProviders;
+
+import executors.JPacmanSimulator;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Keeps running counts of the iteration results of this run, so the summary and overview logs can be written without
+ * keeping every iteration result in memory. Results are added one by one as they are reported.
+ * <p>
+ * The output messages are interned in a StringDictionary, that gives every distinct message a small int id. The
+ * iteration workers intern the message of their result already (see IterationResult.getOutputMessageId), so adding a
+ * result only increments a cell of the ResultCountMatrix, without hashing the message. The fields of every result,
+ * like the iteration numbers for the log overview, are appended to an IterationResultStore, that keeps them in
+ * memory-mapped files.
+ * </p>
+ * <p>
+ * Crashes (exit code 1) are also handed to the CrashTriage, that buckets them by their stack signature.
+ * </p>
+ */
+public class IterationResultsAggregator implements Closeable {
+
+    /**
+     * The ids of the output messages.
+     */
+    private final StringDictionary outputMessages;
+
+    /**
+     * Number of iterations per exit code and output message id.
+     */
+    private final ResultCountMatrix countMatrix = new ResultCountMatrix();
+
+    /**
+     * The fields of every result, in columns off the heap.
+     */
+    private final IterationResultStore resultStore;
+
+    /**
+     * The buckets of the crashes.
+     */
+    private final CrashTriage crashTriage = new CrashTriage();
+
+    /**
+     * Number of iterations that were predicted by the JPacmanSimulator instead of executed.
+     */
+    private int simulatedIterations;
+
+    /**
+     * Number of executed iterations that disagree with the prediction of the JPacmanSimulator.
+     */
+    private int anomalies;
+
+    /**
+     * Constructs an aggregator without results.
+     *
+     * @param outputMessages The dictionary the output messages of the results are interned in.
+     */
+    public IterationResultsAggregator(StringDictionary outputMessages) {
+        this.outputMessages = outputMessages;
+        this.resultStore = new IterationResultStore(outputMessages);
+    }
+
+    /**
+     * Adds one iteration result to the counts, and appends it to the result store with the measurements of its
+     * iteration.
+     *
+     * @param iterationResult The result to add.
+     * @param executionTime   The wall-clock time of JPacman in milliseconds.
+     * @param mapHeight       The height of the map if it is a stress map, 0 otherwise.
+     * @param mapWidth        The width of the map if it is a stress map, 0 otherwise.
+     * @param prediction      The prediction of the JPacmanSimulator, or null if the input was not predicted.
+     * @param simulated       True if the result is the prediction instead of an execution.
+     * @return The row of the result in the result store.
+     */
+    public int add(IterationResult iterationResult, long executionTime, int mapHeight, int mapWidth,
+                   JPacmanSimulator.Prediction prediction, boolean simulated) {
+        int errorCode = iterationResult.getErrorCode();
+        int outputMessageId = iterationResult.getOutputMessageId();
+        if (outputMessageId < 0) { // not interned by the worker
+            outputMessageId = outputMessages.intern(iterationResult.getOutputMessages());
+        }
+        countMatrix.increment(errorCode, outputMessageId);
+        int row = resultStore.append(iterationResult, outputMessageId, executionTime, mapHeight, mapWidth, prediction,
+                simulated);
+        if (errorCode == 1) {
+            crashTriage.add(iterationResult);
+        }
+        if (simulated) {
+            simulatedIterations++;
+        }
+        if (iterationResult.isAnomaly()) {
+            anomalies++;
+        }
+        return row;
+    }
+
+    /**
+     * Gives the total number of iterations.
+     *
+     * @return The number of iterations that were added.
+     */
+    public int getTotalIterations() {
+        return countMatrix.getTotal();
+    }
+
+    /**
+     * Gives the number of iterations with the given exit code. Like LogFileCalculator.getExitCodeCount, -1 counts all
+     * exit codes other than 0, 1 and 10.
+     *
+     * @param exitCode The exit code to count. Can be 0 1 10 or -1.
+     * @return The number of iterations with the exit code.
+     */
+    public int getExitCodeCount(int exitCode) {
+        return countMatrix.getExitCodeCount(exitCode);
+    }
+
+    /**
+     * Gives the number of iterations per exit code and output message id.
+     *
+     * @return The count matrix.
+     */
+    public ResultCountMatrix getCountMatrix() {
+        return countMatrix;
+    }
+
+    /**
+     * Gives the dictionary of the output messages, to find the message of an id of the count matrix.
+     *
+     * @return The dictionary.
+     */
+    public StringDictionary getOutputMessageDictionary() {
+        return outputMessages;
+    }
+
+    /**
+     * Gives the iteration numbers of every cell of the count matrix, by going over the result store once.
+     *
+     * @return The iteration numbers per cell, each in the order they were added.
+     */
+    public int[][] getIterationNumbersByCell() {
+        int[][] iterationNumbers = new int[countMatrix.getCellCount()][];
+        for (int cell = 0; cell < iterationNumbers.length; cell++) {
+            iterationNumbers[cell] = new int[countMatrix.getCountOfCell(cell)];
+        }
+        int[] filled = new int[iterationNumbers.length];
+        for (int row = 0; row < resultStore.size(); row++) {
+            int cell = countMatrix.cell(resultStore.getExitCode(row), resultStore.getOutputMessageId(row));
+            iterationNumbers[cell][filled[cell]++] = resultStore.getIterationNumber(row);
+        }
+        return iterationNumbers;
+    }
+
+    /**
+     * Gives the store with the fields of every result, to go over the results without an object per result.
+     *
+     * @return The result store.
+     */
+    public IterationResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Gives the buckets of the crashes, by stack signature.
+     *
+     * @return The buckets, in the order their first crash was added.
+     */
+    public Collection<CrashTriage.CrashBucket> getCrashBuckets() {
+        return crashTriage.getBuckets();
+    }
+
+    /**
+     * Gives the number of iterations that were predicted by the JPacmanSimulator instead of executed.
+     *
+     * @return The number of simulated iterations.
+     */
+    public int getSimulatedIterations() {
+        return simulatedIterations;
+    }
+
+    /**
+     * Gives the number of executed iterations that disagree with the prediction of the JPacmanSimulator.
+     *
+     * @return The number of anomalies.
+     */
+    public int getAnomalies() {
+        return anomalies;
+    }
+
+    /**
+     * Deletes the files of the result store. The counts can still be read.
+     */
+    @Override
+    public void close() {
+        resultStore.close();
+    }
+
+    /**
+     * Growing array of iteration numbers, without boxing every number.
+     */
+    static class IterationNumbers {
+
+        /**
+         * The iteration numbers, only the first size values are used.
+         */
+        private int[] values = new int[4];
+
+        /**
+         * Number of iteration numbers.
+         */
+        private int size;
+
+        /**
+         * Adds an iteration number.
+         *
+         * @param iterationNumber The iteration number.
+         */
+        void add(int iterationNumber) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = iterationNumber;
+        }
+
+        /**
+         * Gives the number of iteration numbers.
+         *
+         * @return The number of iteration numbers that were added.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Gives the iteration numbers.
+         *
+         * @return The iteration numbers in the order they were added.
+         */
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package outputProviders;
 
+import executors.JPacmanSimulator;
 import managers.FileReaderManager;
 import organizers.FileHandler;
 import outputProviders.logGenerator.LogCSVFileHandler;
@@ -7,7 +8,9 @@ import outputProviders.logGenerator.LogHTMLFileHandler;
 import outputProviders.logInputter.IterationResultFormatter;
 import outputProviders.logInputter.IterationResultsFormatter;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
@@ -24,53 +27,42 @@ import static outputProviders.logInputter.LogFileCalculator.getFullVariableName;
 public class LogFileHandler {
 
     /**
-     * All the results that we need to  write the log file about.
+     * Running counts of all the results that we need to write the log files about.
      */
-    private List<IterationResult> results;
-    /**
-     * Formatter to use for all the iteration results together.
-     */
-    private IterationResultsFormatter forms;
-    /**
-     * Map that has a list of iterations results for each error code, sorted by occurrence.
-     */
-    private Map<Integer, List<IterationResult>> iterationResultsByErrorCode;
-    /**
-     * Map that has a list of iterations results for each output message, sorted by occurrence.
-     */
-    private Map<String, List<IterationResult>> iterationResultsByOutputMessage;
+    private IterationResultsAggregator aggregator;
     /**
      * Elapsed time of the simulation.
      */
     private int elapsedTime;
+    /**
+     * Seed of the random generators of the simulation.
+     */
+    private long seed;
 
     /**
-     * Generates all logs in the actual_logs subdirectory, that are only about this stimulation.
+     * Finishes all logs in the actual_logs subdirectory, that are only about this stimulation.
      * This subdirectory contains three files:
      * <ul>
-     *     <li>log.txt - A text file that contains all the iteration results.</li>
-     *     <li>log.csv - A CSV file that contains all the iteration results.</li>
+     *     <li>log.txt - A text file that contains all the iteration results. The iterations are appended during the
+     *     run by the ResultPersistenceWriter, here only the summary is appended.</li>
+     *     <li>log.csv - A CSV file that contains all the iteration results. Written during the run by the
+     *     ResultPersistenceWriter, so not written here.</li>
      *     <li>log_overview.csv - A CSV file that contains all possible combinations of unique error codes and output messages,
      *     and the number of times, as well as which iteration numbers, they occur.</li>
      * </ul>
      *
-     * @param results
-     *         All the results that we need to write the log file about.
-     * @param iterationResultsByErrorCode
-     *         Map that has a list of iterations results for each error code, sorted by occurrence.
-     * @param iterationResultsByOutputMessage
-     *         Map that has a list of iterations results for each output message, sorted by occurrence.
+     * @param aggregator
+     *         Running counts of all the results that we need to write the log file about.
+     * @param seed
+     *         Seed of the random generators of the simulation.
      * @param elaspedTime
      *         Elapsed time of the simulation.
      */
-    public void generateActualLogs(List<IterationResult> results, Map<Integer, List<IterationResult>> iterationResultsByErrorCode, Map<String, List<IterationResult>> iterationResultsByOutputMessage, long elaspedTime) {
-        this.results = results;
-        this.iterationResultsByErrorCode = iterationResultsByErrorCode;
-        this.iterationResultsByOutputMessage = iterationResultsByOutputMessage;
+    public void generateActualLogs(IterationResultsAggregator aggregator, long seed, long elaspedTime) {
+        this.aggregator = aggregator;
+        this.seed = seed;
         this.elapsedTime = (int) elaspedTime;
-        this.forms = new IterationResultsFormatter(results);
-        generateLogTXTFile(); // Write the text logfile.
-        generateLogCSVFile(); // Write the CSV logfile.
+        generateLogTXTSummary(); // Append the summary to the text logfile.
         generateLogOverview();  // Write the CSV overview logfile.
     }
 
@@ -88,25 +80,20 @@ public class LogFileHandler {
      *     the LogHTMLFileHandler class.</li>
      * </ul>
      *
-     * @param iterationResults
-     *         All the results that we want to append to the historical log files.
-     * @param iterationResultsByErrorCode
-     *         Map that has a list of iterations results for each error code, sorted by occurrence.
-     * @param iterationResultsByOutputMessage
-     *         Map that has a list of iterations results for each output message, sorted by occurrence.
+     * @param aggregator
+     *         Running counts of all the results that we want to append to the historical log files.
+     * @param fullLogHistoryRowsPath
+     *         File with the rows of this run for the full log history, without fuzz attempt number and timestamp.
+     *         Written during the run by the ResultPersistenceWriter.
      * @param elapsedTime
      *         Elapsed time of the simulation.
      */
-    public void generateOverviewLogs(List<IterationResult> iterationResults, Map<Integer, List<IterationResult>> iterationResultsByErrorCode,
-                                     Map<String, List<IterationResult>> iterationResultsByOutputMessage, long elapsedTime) {
-        this.results = iterationResults;
-        this.iterationResultsByErrorCode = iterationResultsByErrorCode;
-        this.iterationResultsByOutputMessage = iterationResultsByOutputMessage;
+    public void generateOverviewLogs(IterationResultsAggregator aggregator, String fullLogHistoryRowsPath, long elapsedTime) {
+        this.aggregator = aggregator;
         this.elapsedTime = (int) elapsedTime;
-        this.forms = new IterationResultsFormatter(results);
         generateLogHistory();
         generateLogErrorHistory();
-        generateFullLogHistory();
+        generateFullLogHistory(fullLogHistoryRowsPath);
         FileReaderManager.getInstance().getConfigReader().writeConfigFile(); // Write the configurations js file of the website
         generateFullLogHistoryHTMLReport();
     }
@@ -128,45 +115,50 @@ public class LogFileHandler {
     }
 
     /**
-     * Writes the iteration results to the log file.
+     * Gives the text of one iteration in the log text file.
      * The following things are provided in log.txt for each iteration:
      * <p>
      * Iteration number - Map file Type (Extension of the file path) - Absolute full path of the map file -
      * String action sequence - Error code of the process (0, 10, 1 or -1 (= others) ). -
-     * Output messages of the process
+     * Output messages of the process - Stack signature, only for crashes
      * </p>
+     *
+     * @param iterationResult The result of the iteration.
+     * @return The text of the iteration, with an empty line at the end.
      */
-    private void generateLogTXTFile() {
-        //     * Opens the log text file for writing.
-        //     * If the log file cannot be opened, a RuntimeException is thrown.
-        // Writes the iteration results
-        openWriterCheck(logFilePath);
-        try {
-            FileWriter writer = new FileWriter(logFilePath);
-            for (IterationResult iterationResult : results) {
-                IterationResultFormatter form = new IterationResultFormatter(iterationResult);
-                writer.write(form.getFormattedIterationNumber(true, false, true));
-                writer.write(form.getFormattedErrorCode(true, true, false, false, true));
-                writer.write(form.getFormattedOutputMessages(true, true, true, false, true));
-                writer.write(form.getFormattedStringSequence(false, false, false, true, false, false, true));
-                writer.write(form.getFormattedMapFileName(true, false, true, false, false, true));
-                writer.write(form.getFormattedMapFileType(true, false, true, true, true, true, true, false, true));
-                writer.write(form.getFormattedMapFileCustomAttribute(true, true, true, true, false, false, true));
-                writer.write(form.getFormattedMapFilePath(false, false, true, false, false, true));
-                writer.append("\n");
-            }
+    public static String getLogTXTEntry(IterationResult iterationResult) {
+        IterationResultFormatter form = new IterationResultFormatter(iterationResult);
+        String crashSignature = iterationResult.getCrashSignature().equals(CrashTriage.NO_SIGNATURE) ? ""
+                : form.getFormattedCrashSignature(true, false, false, true);
+        return form.getFormattedIterationNumber(true, false, true)
+                + form.getFormattedErrorCode(true, true, false, false, true)
+                + form.getFormattedOutputMessages(true, true, true, false, true)
+                + crashSignature
+                + form.getFormattedStringSequence(false, false, false, true, false, false, true)
+                + form.getFormattedMapFileName(true, false, true, false, false, true)
+                + form.getFormattedMapFileType(true, false, true, true, true, true, true, false, true)
+                + form.getFormattedMapFileCustomAttribute(true, true, true, true, false, false, true)
+                + form.getFormattedMapFilePath(false, false, true, false, false, true)
+                + "\n";
+    }
 
-            // Write summary
+    /**
+     * Appends the summary of this run to the log text file, after the iterations.
+     */
+    private void generateLogTXTSummary() {
+        try {
+            FileWriter writer = new FileWriter(logFilePath, true); // Iterations are already written
             writer.write("SUMMARY");
             writer.append("\n");
             writer.write(getFormattedFuzzAttemptNr(true, false, false, true));
             writer.write(getFormattedTimeStamp(true, false, false, true));
+            writer.write(getFormattedSeed(seed, true, false, false, true));
             writer.write(getFormattedExecutionTime(elapsedTime, true, false, false, true));
-            writer.write(forms.getFormattedTotalIterations(true, false, false, true));
-            writer.write(forms.getFormattedExitCount(0, true, true, false, false, true));
-            writer.write(forms.getFormattedExitCount(1, true, true, false, false, true));
-            writer.write(forms.getFormattedExitCount(10, true, true, false, false, true));
-            writer.write(forms.getFormattedExitCount(-1, true, true, false, false, true));
+            writer.write(getFormattedTotalIterations(aggregator.getTotalIterations(), true, false, false, true));
+            for (int exitCode : new int[]{0, 1, 10, -1}) {
+                writer.write(getFormattedExitCount(exitCode, aggregator.getExitCodeCount(exitCode),
+                        true, true, false, false, true));
+            }
 
             writer.flush();
             writer.close();
@@ -176,50 +168,155 @@ public class LogFileHandler {
     }
 
     /**
-     * Writes the log CSV file.
-     * For each iteration of this run, one row.
+     * Gives the header of the log CSV file.
      *
-     * <p>
-     *     Same information as log text file.
-     * </p>
+     * @return The header row, with a new line at the end.
+     */
+    public static String getLogCSVHeader() {
+        List<String> header = new ArrayList<>();
+        header.add(getFullVariableName("iterationNumber", false));
+        header.add(getFullVariableName("errorCode", false));
+        header.add(getFullVariableName("outputMessages", false));
+        header.add(getFullVariableName("stringSequence", false));
+        header.add(getFullVariableName("mapFileType", false));
+        header.add(getFullVariableName("customAttribute", false));
+        header.add(getFullVariableName("mapFilePath", false));
+        header.add(getFullVariableName("crashSignature", false));
+        return String.join(",", header) + "\n";
+    }
+
+    /**
+     * Gives the row of one iteration in the log CSV file.
      *
+     * @param iterationResult The result of the iteration.
+     * @return The row, with a new line at the end.
      */
-    public void generateLogCSVFile() {
-        openWriterCheck(logFileCSVPath);
-        try {
-            FileWriter csvWriter = new FileWriter(logFileCSVPath);
+    public static String getLogCSVRow(IterationResult iterationResult) {
+        IterationResultFormatter form = new IterationResultFormatter(iterationResult);
+        return form.getFormattedIterationNumber() // Iteration number
+                + form.getFormattedErrorCode() // Error code
+                + form.getFormattedOutputMessages() // Output messages
+                + form.getFormattedStringSequence() // String action sequence
+                + form.getFormattedMapFileType() // Map file type
+                + form.getFormattedMapFileCustomAttribute() // Map file custom attribute
+                + form.getFormattedMapFilePath() // Map file path
+                + form.getFormattedCrashSignature(); // Stack signature of a crash
+    }
 
-            /* Write header */
-            List<String> header = new ArrayList<>();
-            header.add(getFullVariableName("iterationNumber", false));
-            header.add(getFullVariableName("errorCode", false));
-            header.add(getFullVariableName("outputMessages", false));
-            header.add(getFullVariableName("stringSequence", false));
-            header.add(getFullVariableName("mapFileType", false));
-            header.add(getFullVariableName("customAttribute", false));
-            header.add(getFullVariableName("mapFilePath", false));
-            csvWriter.append(String.join(",", header)).append("\n");
-            for (IterationResult iterationResult : results) {
-                IterationResultFormatter form = new IterationResultFormatter(iterationResult);
-                csvWriter.append(form.getFormattedIterationNumber()); // Iteration number
-                csvWriter.append(form.getFormattedErrorCode()); // Error code
-                csvWriter.append(form.getFormattedOutputMessages()); // Output messages
-                csvWriter.append(form.getFormattedStringSequence()); // String action sequence
-                csvWriter.append(form.getFormattedMapFileType()); // Map file type
-                csvWriter.append(form.getFormattedMapFileCustomAttribute()); // Map file custom attribute
-                csvWriter.append(form.getFormattedMapFilePath(false, false, false, true, false, true)); // Map file path
-            }
-            csvWriter.flush();
-            csvWriter.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Gives the header of the stress log CSV file.
+     *
+     * @return The header row, with a new line at the end.
+     */
+    public static String getStressCSVHeader() {
+        List<String> header = new ArrayList<>();
+        header.add(getFullVariableName("iterationNumber", false));
+        header.add(getFullVariableName("mapHeight", false));
+        header.add(getFullVariableName("mapWidth", false));
+        header.add(getFullVariableName("mapBytes", false));
+        header.add(getFullVariableName("errorCode", false));
+        header.add(getFullVariableName("jpacmanTime", false));
+        return String.join(",", header) + "\n";
+    }
+
+    /**
+     * Gives the row of one stress iteration in the stress log CSV file: the size of the map and the wall-clock time of
+     * JPacman, to chart the time of JPacman against the size of the board.
+     *
+     * @param resultStore The store with the results.
+     * @param row         The row of a result of an iteration with a stress map.
+     * @return The row, with a new line at the end.
+     */
+    public static String getStressCSVRow(IterationResultStore resultStore, int row) {
+        int mapHeight = resultStore.getMapHeight(row);
+        int mapWidth = resultStore.getMapWidth(row);
+        // Every row of a stress map ends with the line separator of the system
+        long mapBytes = (long) mapHeight * (mapWidth + System.lineSeparator().length());
+        return IterationResultFormatter.getFormattedIterationNumber(resultStore.getIterationNumber(row))
+                + mapHeight + ","
+                + mapWidth + ","
+                + mapBytes + ","
+                + IterationResultFormatter.getFormattedErrorCode(resultStore.getExitCode(row)) // Error code
+                + resultStore.getExecutionTime(row) + "\n";
+    }
+
+    /**
+     * Gives the header of the anomalies log CSV file.
+     *
+     * @return The header row, with a new line at the end.
+     */
+    public static String getAnomaliesCSVHeader() {
+        List<String> header = new ArrayList<>();
+        header.add(getFullVariableName("iterationNumber", false));
+        header.add(getFullVariableName("predictedErrorCode", false));
+        header.add(getFullVariableName("errorCode", false));
+        header.add(getFullVariableName("predictedOutputMessages", false));
+        header.add(getFullVariableName("outputMessages", false));
+        header.add(getFullVariableName("predictedGameState", false));
+        header.add(getFullVariableName("stringSequence", false));
+        header.add(getFullVariableName("mapFilePath", false));
+        return String.join(",", header) + "\n";
+    }
+
+    /**
+     * Gives the row of one anomaly in the anomalies log CSV file: the result the JPacmanSimulator predicted next to
+     * the result of the execution.
+     *
+     * @param iterationResult The result of an iteration that disagrees with its prediction.
+     * @param resultStore     The store with the prediction of the result.
+     * @param row             The row of the result in the store.
+     * @return The row, with a new line at the end.
+     */
+    public static String getAnomaliesCSVRow(IterationResult iterationResult, IterationResultStore resultStore, int row) {
+        IterationResultFormatter form = new IterationResultFormatter(iterationResult);
+        int predictedErrorCode = resultStore.getPredictedExitCode(row);
+        if (predictedErrorCode == JPacmanSimulator.UNKNOWN_EXIT_CODE) {
+            predictedErrorCode = -1; // -1 is unknown, as in the logs
+        }
+        String gameState = resultStore.getPredictedGameState(row);
+        if (gameState == null) {
+            gameState = "None";
         }
+        return form.getFormattedIterationNumber() // Iteration number
+                + IterationResultFormatter.getFormattedErrorCode(predictedErrorCode) // Predicted error code
+                + form.getFormattedErrorCode() // Error code
+                + IterationResultFormatter.getFormattedOutputMessages(
+                        resultStore.getPredictedOutputMessages(row)) // Predicted output
+                + form.getFormattedOutputMessages() // Output messages
+                + gameState + ","
+                + form.getFormattedStringSequence() // Action sequence
+                + form.getFormattedMapFilePath(false, false, false,
+                true, false, true); // Absolute file path
+    }
+
+    /**
+     * Gives the row of one iteration in the full log history CSV file, without the fuzz attempt number and
+     * timestamp columns that are the same for the whole run.
+     *
+     * @param iterationResult The result of the iteration.
+     * @return The row without its first two columns, with a new line at the end.
+     */
+    public static String getFullLogHistoryRow(IterationResult iterationResult) {
+        IterationResultFormatter format = new IterationResultFormatter(iterationResult);
+        return format.getFormattedIterationNumber()
+                + format.getFormattedErrorCode()
+                + format.getFormattedOutputMessages()
+                + format.getFormattedStringSequence()
+                + format.getFormattedMapFileName()
+                + format.getFormattedMapFileType()
+                + format.getFormattedMapFileCustomAttribute()
+                + format.getFormattedMapFilePath()
+                + format.getFormattedMapFilePath(false, true, false,
+                true, true, false) // Relative file path in project
+                + format.getFormattedCrashSignature();
     }
 
     /**
      * Generates a log overview in CSV format based on the iteration results.
      * Each unique combination of error codes and message outputs is one row in the csv.
      * The iteration numbers where this combination occurred are given, and counted.
+     * Crashes (exit code 1) are not split by output message but by crash bucket (see CrashTriage): one row per stack
+     * signature, with the map of the smallest reproducer of that bucket.
      * Writes the log overview to a CSV file specified in the FileHandler.
      */
     public void generateLogOverview() {
@@ -232,45 +329,65 @@ public class LogFileHandler {
             header.add(getFullVariableName("outputMessages", false));
             header.add(getFullVariableName("exitCount", false));
             header.add(getFullVariableName("exitIterations", false));
+            header.add(getFullVariableName("crashSignature", false));
+            header.add(getFullVariableName("crashReproducer", false));
             csvWriter.append(String.join(",", header)).append("\n");
 
             /* Sort error codes in descending order of occurrence */
-            // sortedErrorCodes is a list here that contains each occurred error code, sorted by occurrence
-            // errorCodeResults is a list of results with the current error code
-            List<Integer> sortedErrorCodes = new ArrayList<>(iterationResultsByErrorCode.keySet());
+            // sortedErrorCodes contains each occurred error code, sorted by occurrence, equal counts in matrix order
+            ResultCountMatrix countMatrix = aggregator.getCountMatrix();
+            List<Integer> sortedErrorCodes = new ArrayList<>();
+            for (int errorCode : ResultCountMatrix.EXIT_CODES) {
+                if (countMatrix.getExitCodeCount(errorCode) > 0) {
+                    sortedErrorCodes.add(errorCode);
+                }
+            }
             sortedErrorCodes.sort((errorCode1, errorCode2) ->
-                    iterationResultsByErrorCode.get(errorCode2).size() - iterationResultsByErrorCode.get(errorCode1).size());
+                    countMatrix.getExitCodeCount(errorCode2) - countMatrix.getExitCodeCount(errorCode1));
+
+            /* Sort output messages in descending order of occurrence */
+            // in loop -> first sort on error, than on output message. Equal counts in the order the messages were seen.
+            StringDictionary outputMessages = aggregator.getOutputMessageDictionary();
+            int[] messageCounts = new int[countMatrix.getMessageIdCount()];
+            List<Integer> sortedMessageIds = new ArrayList<>();
+            for (int messageId = 0; messageId < messageCounts.length; messageId++) {
+                messageCounts[messageId] = countMatrix.getMessageCount(messageId);
+                sortedMessageIds.add(messageId);
+            }
+            sortedMessageIds.sort((id1, id2) -> messageCounts[id2] - messageCounts[id1]);
+            // The iteration numbers of every combination, from one pass over the result store
+            int[][] iterationNumbersByCell = aggregator.getIterationNumbersByCell();
             for (int errorCode : sortedErrorCodes) {
-                List<IterationResult> errorCodeResults = iterationResultsByErrorCode.get(errorCode);
-
-                /* Sort output messages in descending order of occurrence for the current error code */
-                // outputMessageResults is a list of results with the output message
-                // sortedOutputMessages is a list of output messages, sorted by occurrence
-                // in loop -> first sort on error, than on output message.
-                List<String> sortedOutputMessages = new ArrayList<>(iterationResultsByOutputMessage.keySet());
-                sortedOutputMessages.sort((msg1, msg2) ->
-                        iterationResultsByOutputMessage.get(msg2).size() - iterationResultsByOutputMessage.get(msg1).size());
-                for (String outputMessage : sortedOutputMessages) {
-                    List<IterationResult> outputMessageResults = iterationResultsByOutputMessage.get(outputMessage);
-                    ArrayList<IterationResult> filteredResults = new ArrayList<>();
-
-                    /* Get the iteration results of the current error code and output message.*/
-                    // filteredResults will contain only the results with the current error code and output message
-                    for (IterationResult result : outputMessageResults) {
-                        if (result.getErrorCode() == errorCode) {
-                            filteredResults.add(result);
-                        }
+                if (errorCode == 1) { // Crashes per bucket, in the order the buckets were found
+                    for (CrashTriage.CrashBucket bucket : aggregator.getCrashBuckets()) {
+                        IterationResult dummy = new IterationResult(0, "", "", errorCode, bucket.getOutputMessages(), "");
+                        IterationResultFormatter dummyForm = new IterationResultFormatter(dummy);
+                        csvWriter.append(dummyForm.getFormattedErrorCode());
+                        csvWriter.append(dummyForm.getFormattedOutputMessages());
+                        csvWriter.append(getFormattedExitCount(errorCode, bucket.getCount()));
+                        csvWriter.append(IterationResultsFormatter
+                                .getFormattedIterationNumbersString(bucket.getIterationNumbers(), false, true, true, false));
+                        csvWriter.append(IterationResultFormatter.getFormattedCrashSignature(bucket.getSignature(),
+                                false, true, true, false));
+                        csvWriter.append(IterationResultFormatter.getFormattedMapFilePath(bucket.getReproducerMapFilePath(),
+                                false, false, false, true, false, true));
                     }
+                    continue;
+                }
+                for (int messageId : sortedMessageIds) {
+                    /* Get the iteration numbers of the current error code and output message.*/
+                    int[] iterationNumbers = iterationNumbersByCell[countMatrix.cell(errorCode, messageId)];
 
                     /* If combination has actually occurred, write row for the current error code and output message */
-                    if (!(filteredResults.size() == 0)) { // Combination actually occurred
-                        // Write row for the current error code and output message
-                        // Static methods made for filtered results that only have one error code or one output-message
-                        csvWriter.append(IterationResultFormatter.getFormattedErrorCode(filteredResults));
-                        csvWriter.append(IterationResultFormatter.getFormattedOutputMessages(filteredResults));
-                        csvWriter.append(IterationResultsFormatter.getFormattedExitCount(filteredResults));
+                    if (iterationNumbers.length != 0) { // Combination actually occurred
+                        IterationResult dummy = new IterationResult(0, "", "", errorCode, outputMessages.get(messageId), "");
+                        IterationResultFormatter dummyForm = new IterationResultFormatter(dummy);
+                        csvWriter.append(dummyForm.getFormattedErrorCode());
+                        csvWriter.append(dummyForm.getFormattedOutputMessages());
+                        csvWriter.append(getFormattedExitCount(errorCode, iterationNumbers.length));
                         csvWriter.append(IterationResultsFormatter
-                                .getFormattedIterationNumbersString(filteredResults, false, true, false, true));
+                                .getFormattedIterationNumbersString(iterationNumbers, false, true, true, false));
+                        csvWriter.append("None,None\n"); // No crash signature and reproducer
                     }
 
                 }
@@ -310,17 +427,20 @@ public class LogFileHandler {
                 csvWriter.append(String.join(",", header)).append("\n");
             }
 
-            for (Map.Entry<Integer, List<IterationResult>> entry : iterationResultsByErrorCode.entrySet()) {
-                List<IterationResult> results = entry.getValue(); // Get only the results for this error code
-                IterationResultsFormatter forms = new IterationResultsFormatter(results); // Make new one -> not total iterations
+            for (int errorCode : ResultCountMatrix.SORTED_EXIT_CODES) { // Only count the results for this error code
+                int count = aggregator.getExitCodeCount(errorCode);
+                if (count == 0) {
+                    continue;
+                }
 
                 csvWriter.append(getFormattedFuzzAttemptNr()); // FuzzAttemptNr
                 csvWriter.append(getFormattedTimeStamp()); // TimeStamp
                 csvWriter.append(getFormattedExecutionTime((elapsedTime))); // Elapsed time
-                csvWriter.append(forms.getFormattedExitCount(0));
-                csvWriter.append(forms.getFormattedExitCount(1));
-                csvWriter.append(forms.getFormattedExitCount(10));
-                csvWriter.append(forms.getFormattedExitCount(-1, false, false, true, false, true)); // Exit codes, true, false, true, false, true, false, true); // Other exit codes
+                csvWriter.append(getFormattedExitCount(0, errorCode == 0 ? count : 0));
+                csvWriter.append(getFormattedExitCount(1, errorCode == 1 ? count : 0));
+                csvWriter.append(getFormattedExitCount(10, errorCode == 10 ? count : 0));
+                boolean otherCode = errorCode != 0 && errorCode != 1 && errorCode != 10;
+                csvWriter.append(getFormattedExitCount(-1, otherCode ? count : 0, false, false, true, false, true)); // Other exit codes
             }
             csvWriter.flush();
             csvWriter.close();
@@ -354,27 +474,21 @@ public class LogFileHandler {
                 header.add(getFullVariableName("Count", false));
                 csvWriter.append(String.join(",", header)).append("\n");
             }
-            // sortedOutputMessages contains unique output messages alphabetically
-            List<String> sortedOutputMessages = new ArrayList<>(iterationResultsByOutputMessage.keySet());
-            sortedOutputMessages.sort(Comparator.naturalOrder()); // Alphabetically
-
-            // Get a filtered table per output message.
-            for (String outputMessage : sortedOutputMessages) {
-                List<IterationResult> results = iterationResultsByOutputMessage.get(outputMessage);
-                Map<Integer, Integer> errorCodeCounts = new HashMap<>();
-
-                // errorCodeCounts is a map of error codes and their counts.
-                // for each error code the values of the counts in this filtered table.
-                for (IterationResult result : results) {
-                    int errorCode = result.getErrorCode();
-                    errorCodeCounts.put(errorCode, errorCodeCounts.getOrDefault(errorCode, 0) + 1);
-                }
-
-                // sortedErrorCodes is a list with unique error codes for this message, sorted in ascending order.
-                List<Integer> sortedErrorCodes = new ArrayList<>(errorCodeCounts.keySet());
-                sortedErrorCodes.sort(Comparator.naturalOrder());
-                int index = 0;
-                for (int errorCode : sortedErrorCodes) {
+            // Output messages alphabetically, and for each message the error codes in ascending order.
+            ResultCountMatrix countMatrix = aggregator.getCountMatrix();
+            StringDictionary outputMessages = aggregator.getOutputMessageDictionary();
+            List<Integer> sortedMessageIds = new ArrayList<>();
+            for (int messageId = 0; messageId < countMatrix.getMessageIdCount(); messageId++) {
+                sortedMessageIds.add(messageId);
+            }
+            sortedMessageIds.sort(Comparator.comparing(outputMessages::get));
+            for (int messageId : sortedMessageIds) {
+                String outputMessage = outputMessages.get(messageId);
+                for (int errorCode : ResultCountMatrix.SORTED_EXIT_CODES) {
+                    int count = countMatrix.getCount(errorCode, messageId); // with this message and this error code
+                    if (count == 0) {
+                        continue;
+                    }
                     // Leave this like it was, too complicated to change it with Formatters.
                     // Same result.
                     csvWriter.append(getFormattedFuzzAttemptNr()); // Same for each combo
@@ -384,18 +498,8 @@ public class LogFileHandler {
                     IterationResultFormatter dummyForm = new IterationResultFormatter(dummy);
                     csvWriter.append(dummyForm.getFormattedErrorCode());
 
-                    int code = sortedErrorCodes.get(index); // with this message and this error code
-                    List<IterationResult> resultsFiltered = new ArrayList<>();
-                    for (IterationResult result : results) {
-                        if (result.getErrorCode() == errorCode) {
-                            resultsFiltered.add(result);
-                        }
-                    }
-                    int count = resultsFiltered.size();
                     csvWriter.append(dummyForm.getFormattedOutputMessages());
                     csvWriter.append(getFormattedExitCount(errorCode, count, false, false, true, false, true));
-
-                    index++;
                 }
             }
             csvWriter.flush();
@@ -406,12 +510,14 @@ public class LogFileHandler {
     }
 
     /**
-     * Generates a full log history CSV file based on the provided iteration results.
+     * Generates a full log history CSV file based on the rows of this run, that were written during the run.
      * If the log history file is empty, it appends the header to the file.
      * For subsequent runs, it modifies the "Map File Path" column for previous attempts.
      *
+     * @param fullLogHistoryRowsPath
+     *         File with the rows of this run, without fuzz attempt number and timestamp.
      */
-    public void generateFullLogHistory() {
+    public void generateFullLogHistory(String fullLogHistoryRowsPath) {
         try {
             if (fuzzAttemptNr > 1) {
                 // For previous attempts, change the column Map file path type value
@@ -435,23 +541,17 @@ public class LogFileHandler {
                 header.add(getFullVariableName("customAttribute", false));
                 header.add(getFullVariableName("mapFilePath", false));
                 header.add(getFullVariableName("mapFileRelativePath", false));
+                header.add(getFullVariableName("crashSignature", false));
                 csvWriter.append(String.join(",", header)).append("\n");
             }
-            for (IterationResult iterationResult : results) {
-                IterationResultFormatter format = new IterationResultFormatter(iterationResult);
-                csvWriter.append(getFormattedFuzzAttemptNr());
-                csvWriter.append(getFormattedTimeStamp());
-                csvWriter.append(format.getFormattedIterationNumber());
-                csvWriter.append(format.getFormattedErrorCode());
-                csvWriter.append(format.getFormattedOutputMessages());
-                csvWriter.append(format.getFormattedStringSequence());
-                csvWriter.append(format.getFormattedMapFileName());
-                csvWriter.append(format.getFormattedMapFileType());
-                csvWriter.append(format.getFormattedMapFileCustomAttribute());
-                csvWriter.append(format.getFormattedMapFilePath());
-                csvWriter.append(format.getFormattedMapFilePath(false, true, false,
-                        true, false, true)); // Relative file path in project
+            // Prefix the rows of this run with the fuzz attempt number and timestamp, one row at a time
+            String rowPrefix = getFormattedFuzzAttemptNr() + getFormattedTimeStamp();
+            BufferedReader rowReader = new BufferedReader(new FileReader(fullLogHistoryRowsPath));
+            String row;
+            while ((row = rowReader.readLine()) != null) {
+                csvWriter.append(rowPrefix).append(row).append("\n");
             }
+            rowReader.close();
             csvWriter.flush();
             csvWriter.close();
         } catch (IOException e) {
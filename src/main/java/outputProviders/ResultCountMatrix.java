@@ -0,0 +1,163 @@
+package outputProviders;
+
+import java.util.Arrays;
+
+/**
+ * Dense counts of the iterations per exit code and output message. The output messages are the ids of a
+ * StringDictionary, so counting an iteration is one array increment, without hashing the message. Every message id
+ * has one cell per exit code that IterationResult keeps: 0, 1, 10 and -1 (every other exit code).
+ * <p>
+ * The counts per exit code and per message come from the same cells, so the overview logs are made by going over the
+ * matrix once.
+ * </p>
+ */
+public class ResultCountMatrix {
+
+    /**
+     * The exit codes of the matrix, in the order of their cells. Also the order the log overview lists equally often
+     * occurring exit codes in.
+     */
+    public static final int[] EXIT_CODES = {0, 1, 10, -1};
+
+    /**
+     * The exit codes of the matrix in ascending order.
+     */
+    public static final int[] SORTED_EXIT_CODES = {-1, 0, 1, 10};
+
+    /**
+     * The counts, EXIT_CODES.length cells per message id: the count of a message id and exit code is at
+     * cell(exitCode, messageId).
+     */
+    private int[] counts = new int[EXIT_CODES.length * 16];
+
+    /**
+     * Number of iterations per exit code, in the order of EXIT_CODES.
+     */
+    private final int[] exitCodeCounts = new int[EXIT_CODES.length];
+
+    /**
+     * The highest message id that was counted, plus one.
+     */
+    private int messageIdCount;
+
+    /**
+     * Total number of iterations that were counted.
+     */
+    private int total;
+
+    /**
+     * Gives the index of an exit code in EXIT_CODES.
+     *
+     * @param exitCode The exit code.
+     * @return The index, the one of -1 for every exit code other than 0, 1 and 10.
+     */
+    private static int exitCodeIndex(int exitCode) {
+        return switch (exitCode) {
+            case 0 -> 0;
+            case 1 -> 1;
+            case 10 -> 2;
+            default -> 3;
+        };
+    }
+
+    /**
+     * Counts one iteration.
+     *
+     * @param exitCode  The exit code of the iteration.
+     * @param messageId The id of its output messages.
+     */
+    public void increment(int exitCode, int messageId) {
+        int cell = cell(exitCode, messageId);
+        if (cell >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length * 2, cell + EXIT_CODES.length));
+        }
+        counts[cell]++;
+        exitCodeCounts[exitCodeIndex(exitCode)]++;
+        messageIdCount = Math.max(messageIdCount, messageId + 1);
+        total++;
+    }
+
+    /**
+     * Gives the cell of an exit code and message id, a number from 0 to getCellCount() - 1 once the message id was
+     * counted. Lets others keep something per cell in a plain array.
+     *
+     * @param exitCode  The exit code.
+     * @param messageId The id of the output messages.
+     * @return The cell.
+     */
+    public int cell(int exitCode, int messageId) {
+        return messageId * EXIT_CODES.length + exitCodeIndex(exitCode);
+    }
+
+    /**
+     * Gives the number of cells.
+     *
+     * @return The number of message ids times the number of exit codes.
+     */
+    public int getCellCount() {
+        return messageIdCount * EXIT_CODES.length;
+    }
+
+    /**
+     * Gives the count of a cell.
+     *
+     * @param cell The cell.
+     * @return The number of iterations with the exit code and message id of the cell.
+     */
+    public int getCountOfCell(int cell) {
+        return cell < counts.length ? counts[cell] : 0;
+    }
+
+    /**
+     * Gives the number of iterations with an exit code and output message.
+     *
+     * @param exitCode  The exit code. Can be 0 1 10 or -1, where -1 counts all other exit codes.
+     * @param messageId The id of the output messages.
+     * @return The number of iterations.
+     */
+    public int getCount(int exitCode, int messageId) {
+        return getCountOfCell(cell(exitCode, messageId));
+    }
+
+    /**
+     * Gives the number of iterations with an exit code.
+     *
+     * @param exitCode The exit code. Can be 0 1 10 or -1, where -1 counts all other exit codes.
+     * @return The number of iterations.
+     */
+    public int getExitCodeCount(int exitCode) {
+        return exitCodeCounts[exitCodeIndex(exitCode)];
+    }
+
+    /**
+     * Gives the number of iterations with an output message, over all exit codes.
+     *
+     * @param messageId The id of the output messages.
+     * @return The number of iterations.
+     */
+    public int getMessageCount(int messageId) {
+        int count = 0;
+        for (int exitCode : EXIT_CODES) {
+            count += getCount(exitCode, messageId);
+        }
+        return count;
+    }
+
+    /**
+     * Gives the number of message ids, the highest message id that was counted plus one.
+     *
+     * @return The number of message ids.
+     */
+    public int getMessageIdCount() {
+        return messageIdCount;
+    }
+
+    /**
+     * Gives the total number of iterations.
+     *
+     * @return The number of iterations that were counted.
+     */
+    public int getTotal() {
+        return total;
+    }
+}
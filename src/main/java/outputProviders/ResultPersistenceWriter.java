@@ -0,0 +1,338 @@
+package outputProviders;
+
+import dataProviders.ConfigFileReader;
+import enums.SimulatorMode;
+import managers.FileReaderManager;
+import organizers.DirectoryHandler;
+import organizers.FileHandler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static organizers.FileHandler.logAnomaliesCSVPath;
+import static organizers.FileHandler.logFileCSVPath;
+import static organizers.FileHandler.logFilePath;
+import static organizers.FileHandler.logStressCSVPath;
+
+/**
+ * Background stage that persists the iteration results while the fuzzer keeps running. The fuzzer only puts finished
+ * results in a queue; a separate thread takes them in batches, moves their maps to the directory of their exit code
+ * and appends their entries to the log text file, the log CSV file and, if the log history is kept, a temporary file
+ * with the rows for the full log history. In stress mode, the map size and JPacman time of every iteration are also
+ * appended to the stress log CSV file, and if the JPacmanSimulator is used as oracle, the anomalies are appended to
+ * the anomalies log CSV file. These measurements are read from the row of the result in the IterationResultStore.
+ * The summaries are appended by the LogFileHandler at the end of the run.
+ * <p>
+ * A batch is written when it holds the configured number of results or when the configured time has passed since
+ * the last write, whichever comes first. So the execution loop never waits on the disk, and a fuzzer that is killed
+ * halfway still leaves the rows and maps of all but the last batch.
+ * </p>
+ */
+public class ResultPersistenceWriter {
+
+    /**
+     * Max number of results that are written together.
+     */
+    private final int batchSize;
+
+    /**
+     * Max time in milliseconds a result waits in the queue before its batch is written.
+     */
+    private final long flushInterval;
+
+    /**
+     * The results that are not persisted yet, in iteration order.
+     */
+    private final BlockingQueue<PendingResult> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The store with the rows of the results.
+     */
+    private final IterationResultStore resultStore;
+
+    /**
+     * The thread that persists the results.
+     */
+    private final Thread thread;
+
+    /**
+     * Writer of the log text file, kept open during the whole run.
+     */
+    private final BufferedWriter txtWriter;
+
+    /**
+     * Writer of the log CSV file, kept open during the whole run.
+     */
+    private final BufferedWriter csvWriter;
+
+    /**
+     * Temporary file with the rows of this run for the full log history, or null if the log history is not kept.
+     */
+    private final File fullLogHistoryRowsFile;
+
+    /**
+     * Writer of the temporary full log history rows file, or null if the log history is not kept.
+     */
+    private final BufferedWriter fullLogHistoryWriter;
+
+    /**
+     * Writer of the stress log CSV file, or null if the fuzzer is not in stress mode.
+     */
+    private final BufferedWriter stressWriter;
+
+    /**
+     * Writer of the anomalies log CSV file, or null if the JPacmanSimulator is not used as oracle.
+     */
+    private final BufferedWriter anomaliesWriter;
+
+    /**
+     * True when no more results will be submitted.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ResultPersistenceWriter. Creates the log text file, the log CSV file with its header and the
+     * temporary full log history rows file, and starts the writing thread. The directories of the run must be
+     * initialized already.
+     *
+     * @param resultStore The store the results are appended to before they are submitted.
+     */
+    public ResultPersistenceWriter(IterationResultStore resultStore) {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        this.resultStore = resultStore;
+        this.batchSize = configFileReader.getPersistenceBatchSize();
+        this.flushInterval = configFileReader.getPersistenceFlushInterval();
+        try {
+            this.txtWriter = new BufferedWriter(new FileWriter(logFilePath));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open log file: " + logFilePath);
+        }
+        try {
+            this.csvWriter = new BufferedWriter(new FileWriter(logFileCSVPath));
+            csvWriter.append(LogFileHandler.getLogCSVHeader());
+            csvWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open log csv file: " + logFileCSVPath);
+        }
+        if (FileHandler.logHistory) {
+            try {
+                this.fullLogHistoryRowsFile = File.createTempFile("fullHistoryRows", ".csv");
+                fullLogHistoryRowsFile.deleteOnExit();
+                this.fullLogHistoryWriter = new BufferedWriter(new FileWriter(fullLogHistoryRowsFile));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open temporary log history file.");
+            }
+        } else {
+            this.fullLogHistoryRowsFile = null;
+            this.fullLogHistoryWriter = null;
+        }
+        if (configFileReader.getStressMode()) {
+            try {
+                this.stressWriter = new BufferedWriter(new FileWriter(logStressCSVPath));
+                stressWriter.append(LogFileHandler.getStressCSVHeader());
+                stressWriter.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open stress log csv file: " + logStressCSVPath);
+            }
+        } else {
+            this.stressWriter = null;
+        }
+        if (configFileReader.getSimulatorMode() != SimulatorMode.OFF) {
+            try {
+                this.anomaliesWriter = new BufferedWriter(new FileWriter(logAnomaliesCSVPath));
+                anomaliesWriter.append(LogFileHandler.getAnomaliesCSVHeader());
+                anomaliesWriter.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open anomalies log csv file: " + logAnomaliesCSVPath);
+            }
+        } else {
+            this.anomaliesWriter = null;
+        }
+        this.thread = new Thread(this::run, "result-persistence");
+        this.thread.start();
+    }
+
+    /**
+     * Hands a finished result to the writing thread. Never blocks.
+     *
+     * @param iterationResult The result to persist. Results must be submitted in iteration order.
+     * @param row             The row of the result in the result store.
+     */
+    public void submit(IterationResult iterationResult, int row) {
+        queue.add(new PendingResult(iterationResult, row));
+    }
+
+    /**
+     * Writes the results that are still in the queue and stops the writing thread.
+     */
+    public void close() {
+        closed = true;
+        try {
+            thread.join();
+            txtWriter.close();
+            csvWriter.close();
+            if (fullLogHistoryWriter != null) {
+                fullLogHistoryWriter.close();
+            }
+            if (stressWriter != null) {
+                stressWriter.close();
+            }
+            if (anomaliesWriter != null) {
+                anomaliesWriter.close();
+            }
+        } catch (InterruptedException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gives the temporary file with the rows of this run for the full log history. Complete after close.
+     *
+     * @return The path of the file, or null if the log history is not kept.
+     */
+    public String getFullLogHistoryRowsPath() {
+        return fullLogHistoryRowsFile == null ? null : fullLogHistoryRowsFile.getPath();
+    }
+
+    /**
+     * Collects batches from the queue and persists them, until the writer is closed and the queue is empty.
+     */
+    private void run() {
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+        long nextFlush = System.currentTimeMillis() + flushInterval;
+        while (true) {
+            long waitTime = Math.max(0, nextFlush - System.currentTimeMillis());
+            try {
+                PendingResult pendingResult = queue.poll(closed ? 0 : waitTime, TimeUnit.MILLISECONDS);
+                if (pendingResult != null) {
+                    batch.add(pendingResult);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+            boolean drained = closed && queue.isEmpty();
+            if (batch.size() >= batchSize || System.currentTimeMillis() >= nextFlush || drained) {
+                persist(batch);
+                batch.clear();
+                nextFlush = System.currentTimeMillis() + flushInterval;
+            }
+            if (drained) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the maps of a batch to the directories of their exit codes, and appends their entries to the log files.
+     * The maps of crashes that are not the smallest reproducer of their bucket are deleted instead, when crash
+     * deduplication is enabled. A result that fails to persist does not stop the rest of the batch, and the log files
+     * are flushed in any case.
+     *
+     * @param batch The results to persist.
+     */
+    private void persist(List<PendingResult> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (PendingResult pendingResult : batch) {
+                try {
+                    persist(pendingResult.iterationResult, pendingResult.row);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Could not persist the result of iteration "
+                            + pendingResult.iterationResult.getIterationNumber() + ".");
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            flush(txtWriter);
+            flush(csvWriter);
+            flush(fullLogHistoryWriter);
+            flush(stressWriter);
+            flush(anomaliesWriter);
+        }
+    }
+
+    /**
+     * Moves the map of one result to the directory of its exit code, and appends its entries to the log files.
+     *
+     * @param iterationResult The result to persist.
+     * @param row             The row of the result in the result store.
+     * @throws IOException If an entry cannot be appended.
+     */
+    private void persist(IterationResult iterationResult, int row) throws IOException {
+        // Do not use get path method cuz already changed
+        if (iterationResult.isDiscardMap()) { // a smaller input gives the same crash
+            DirectoryHandler.deleteMapFile(iterationResult.getExecutedMapFilePath());
+        } else {
+            DirectoryHandler.moveMapFileToErrorDirectory(iterationResult.getExecutedMapFilePath(),
+                    iterationResult.getErrorCode(), iterationResult.isNewCoverage() || iterationResult.isAnomaly());
+        }
+        if (iterationResult.getReplacedReproducerMapFilePath() != null) { // moved in this or an earlier batch
+            DirectoryHandler.deleteMapFile(iterationResult.getReplacedReproducerMapFilePath());
+        }
+        txtWriter.append(LogFileHandler.getLogTXTEntry(iterationResult));
+        csvWriter.append(LogFileHandler.getLogCSVRow(iterationResult));
+        if (fullLogHistoryWriter != null) {
+            fullLogHistoryWriter.append(LogFileHandler.getFullLogHistoryRow(iterationResult));
+        }
+        if (stressWriter != null && resultStore.getMapHeight(row) > 0) {
+            stressWriter.append(LogFileHandler.getStressCSVRow(resultStore, row));
+        }
+        if (anomaliesWriter != null && iterationResult.isAnomaly()) {
+            anomaliesWriter.append(LogFileHandler.getAnomaliesCSVRow(iterationResult, resultStore, row));
+        }
+    }
+
+    /**
+     * Flushes a log file, if it is written.
+     *
+     * @param writer The writer of the log file, or null if it is not written.
+     */
+    private static void flush(Writer writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A result in the queue, with its row in the result store.
+     */
+    private static final class PendingResult {
+
+        /**
+         * The result to persist.
+         */
+        private final IterationResult iterationResult;
+
+        /**
+         * The row of the result in the result store.
+         */
+        private final int row;
+
+        /**
+         * Constructs a PendingResult.
+         *
+         * @param iterationResult The result to persist.
+         * @param row             The row of the result in the result store.
+         */
+        private PendingResult(IterationResult iterationResult, int row) {
+            this.iterationResult = iterationResult;
+            this.row = row;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package outputProviders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of Strings that repeat a lot, like output messages and map file types: every distinct String
+ * gets a small int id, in the order the Strings were first seen. A column of ids then takes 4 bytes or less per value,
+ * instead of a reference to a String.
+ * <p>
+ * Looking up a String that is already known takes no lock, so the dictionary can be shared by the iteration workers.
+ * </p>
+ */
+public class StringDictionary {
+
+    /**
+     * The id of every known String.
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * The known Strings, each at the index of its id.
+     */
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Gives the id of a String, and gives it the next id if it was not seen before.
+     *
+     * @param value The String.
+     * @return The id, from 0 to size() - 1.
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (values) {
+            id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                ids.put(value, id); // after the value, so get(id) works as soon as the id can be seen
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Gives the id of a String, without adding it.
+     *
+     * @param value The String.
+     * @return The id, or -1 if the String was not seen.
+     */
+    public int idOf(String value) {
+        return ids.getOrDefault(value, -1);
+    }
+
+    /**
+     * Gives the String of an id.
+     *
+     * @param id The id.
+     * @return The String.
+     */
+    public String get(int id) {
+        synchronized (values) {
+            return values.get(id);
+        }
+    }
+
+    /**
+     * Gives the number of distinct Strings.
+     *
+     * @return The number of ids that were given out.
+     */
+    public int size() {
+        synchronized (values) {
+            return values.size();
+        }
+    }
+}
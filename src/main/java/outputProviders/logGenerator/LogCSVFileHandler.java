@@ -1,6 +1,8 @@
 package outputProviders.logGenerator;
 
 import organizers.FileHandler;
+import outputProviders.CrashTriage;
+import outputProviders.logInputter.LogFileCalculator;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -17,6 +19,8 @@ public class LogCSVFileHandler {
 
     /**
      * Modifies the "Map File Path" columns in the CSV file to reflect the previous run attempt.
+     * A log history of a version of the fuzzer without the "Crash Signature" column gets the column: the header is
+     * extended, and the rows of the previous run attempts get the signature None, so all rows have the same columns.
      * Precondition: not called in a first run attempt
      */
      public static void modifyMapFilePathColumn() {
@@ -27,6 +31,11 @@ public class LogCSVFileHandler {
             BufferedReader reader = new BufferedReader(new FileReader(csvFilePath));
             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
             String header = reader.readLine(); // read first line of CSV file already stored, and write it in the new one
+            String crashSignatureColumn = LogFileCalculator.getFullVariableName("crashSignature", false);
+            boolean addCrashSignatureColumn = !parseCSVLine(header).contains(crashSignatureColumn);
+            if (addCrashSignatureColumn) {
+                header += "," + crashSignatureColumn;
+            }
             writer.write(header);
             writer.newLine();
             String line;
@@ -44,6 +53,9 @@ public class LogCSVFileHandler {
                         }
                     }
                 }
+                if (addCrashSignatureColumn) {
+                    values.add(CrashTriage.NO_SIGNATURE);
+                }
                 writer.write(String.join(",", values)); // write new values away to temporary files
                 writer.newLine();
             }
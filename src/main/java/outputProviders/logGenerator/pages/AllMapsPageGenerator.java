@@ -4,6 +4,7 @@ import organizers.FileHandler;
 import outputProviders.logGenerator.LogHTMLFileHandler;
 import outputProviders.logInputter.IterationResultFormatter;
 
+import java.io.File;
 import java.util.*;
 
 /**
@@ -90,12 +91,12 @@ public class AllMapsPageGenerator extends LogHTMLFileHandler implements PageGene
         String cards0 = buildCards(0, exitCode0Rows, exitCode0CountExactPercentage);
         template = template.replace("{{Cards0}}", cards0);
 
-        // * Step 4.3: Replace Exit Code 1 Section (Idem)
+        // * Step 4.3: Replace Exit Code 1 Section (Sorted per crash bucket)
         // * Replace the progress bar
         String progressBar1 = "<progress  id=\"ProgressBar1\" class=\"progress is-small is-info\" value=" + exitCode1CountPercentage + " max=\"100\">" + exitCode1CountPercentage + "%</progress>";
         template = template.replace("{{ProgressBar1}}", progressBar1);
-        // * Replace the cards
-        String cards1 = buildCards(1, exitCode1Rows, exitCode1CountExactPercentage);
+        // * Replace the cards and titles
+        String cards1 = buildCardsPerCrashSignature(exitCode1Rows, exitCode1CountExactPercentage);
         template = template.replace("{{Cards1}}", cards1);
 
         // * Step 4.4 Replace Exit Code 10 Section (Also sorted per output message)
@@ -280,6 +281,97 @@ public class AllMapsPageGenerator extends LogHTMLFileHandler implements PageGene
         return cards;
     }
 
+    /**
+     * Builds the cards for each different row with exit code 1, sorted per crash bucket: the rows with the same stack
+     * signature (see CrashTriage). Each bucket gets a title with its signature, a progress bar and the map of its
+     * smallest reproducer that is still on disk; the maps of the other crashes of a bucket can be deleted by the crash
+     * deduplication. Also builds the no cards message (hidden or displayed, depending on the amount of other cards).
+     *
+     * @param exitCodeRows
+     *         All the rows with exit code 1.
+     * @param exitCodeCountExactPercentage
+     *         The exact percentage that represents the amount of rows with exit code 1 in comparison to all the rows.
+     *
+     * @return String with HTML code for the cards, progressbars and titles.
+     */
+    private String buildCardsPerCrashSignature(List<List<String>> exitCodeRows, double exitCodeCountExactPercentage) {
+        if (exitCodeCountExactPercentage <= 0) {
+            return buildNoCardsMessage(true, 1);
+        }
+        Map<String, List<List<String>>> signaturesMap = new LinkedHashMap<>(); // Buckets in the order they were found
+        for (List<String> row : exitCodeRows) {
+            String signature = row.get(11);
+            signaturesMap.computeIfAbsent(signature, key -> new ArrayList<>()).add(row);
+        }
+        StringBuilder cardsBuilder = new StringBuilder();
+        // * Add hidden no cards message
+        cardsBuilder.append(buildNoCardsMessage(false, 1));
+        // * Per crash bucket: title + progress bar and add cards
+        int bucketNr = 0;
+        for (Map.Entry<String, List<List<String>>> bucket : signaturesMap.entrySet()) {
+            bucketNr++;
+            List<List<String>> rowsWithSignature = bucket.getValue();
+            String idBucket = "CrashBucket" + bucketNr;
+            cardsBuilder.append("<div id=\"Total").append(idBucket).append("\" class=\"field\">");
+            // Subtitle and progress bar
+            cardsBuilder.append("<br>");
+            cardsBuilder.append("<section id=\"").append(idBucket).append("\" class=\"section\">");
+            int count = rowsWithSignature.size();
+            int percentage = (int) Math.round((double) count / sum * 100);
+            cardsBuilder.append("<progress id=\"ProgressBar").append(idBucket).append("\" class=\"progress is-small is-link\" value=")
+                    .append(percentage).append(" max=\"100\">").append(percentage).append("%</progress>");
+            cardsBuilder.append("<h2 class=\"subtitle\">").append(count).append(" inputs crashed with stack signature <a class=\"has-text-weight-bold\">")
+                    .append(escapeHTML(bucket.getKey())).append("</a>");
+            List<String> reproducer = getSmallestReproducer(rowsWithSignature);
+            if (reproducer != null) {
+                cardsBuilder.append(", smallest reproducer: fuzz attempt ").append(reproducer.get(0)).append(", ")
+                        .append(reproducer.get(6));
+            }
+            cardsBuilder.append(":</h2>");
+            cardsBuilder.append("</section>");
+            // Add Cards
+            for (List<String> row : rowsWithSignature) {
+                cardsBuilder.append(buildCard(row));
+            }
+            cardsBuilder.append("</div>");
+        }
+        return cardsBuilder.toString();
+    }
+
+    /**
+     * Gives the row of the smallest input of a crash bucket whose map is still on disk: the least bytes of map and
+     * action sequence.
+     *
+     * @param bucketRows
+     *         The rows of the crash bucket.
+     *
+     * @return The row of the smallest reproducer, or null if none of the maps is on disk.
+     */
+    private List<String> getSmallestReproducer(List<List<String>> bucketRows) {
+        List<String> reproducer = null;
+        long reproducerSize = Long.MAX_VALUE;
+        for (List<String> row : bucketRows) {
+            File mapFile = new File(FileHandler.normalizeFilePath(row.get(9)));
+            if (mapFile.isFile() && mapFile.length() + row.get(5).length() < reproducerSize) {
+                reproducer = row;
+                reproducerSize = mapFile.length() + row.get(5).length();
+            }
+        }
+        return reproducer;
+    }
+
+    /**
+     * Escapes the characters of a text that have a meaning in HTML, such as the angle brackets of &lt;init&gt; frames.
+     *
+     * @param text
+     *         The text to escape.
+     *
+     * @return The escaped text.
+     */
+    private static String escapeHTML(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
     /**
      * Generates a card from a row
      *
@@ -956,6 +956,70 @@ public class IterationResultFormatter {
         return getFormattedMapFileText(false, false, false,
                 false, true, false);
     }
+
+    /* * Crash Signature */
+    /**
+     * Returns the given stack signature of a crash (see CrashTriage) as a string.
+     *
+     * @param crashSignature
+     *         The signature that should be formatted. Is "None" if the iteration did not crash.
+     * @param titlePrefix
+     *         - True if the variable name and a : should be appended in front. (E.g., Crash Signature: )
+     * @param CSVReplacement
+     *         - True if the comma's and line breaks in the signature should be replaced by an empty string.
+     * @param commaSuffix
+     *         - True if the signature should have comma at the end.
+     * @param newLineSuffix
+     *         - True if the signature should have a newline at the end.
+     *
+     * @return String The formatted crash signature.
+     */
+    public static String getFormattedCrashSignature(String crashSignature, boolean titlePrefix, boolean CSVReplacement,
+                                                    boolean commaSuffix, boolean newLineSuffix) {
+        if (titlePrefix) {
+            crashSignature = LogFileCalculator.getFullVariableName("crashSignature", true) + crashSignature;
+        }
+        if (CSVReplacement) {
+            crashSignature = CSVReplacement(crashSignature);
+        }
+        if (commaSuffix) {
+            crashSignature = crashSignature + ",";
+        }
+        if (newLineSuffix) {
+            crashSignature = crashSignature + "\n";
+        }
+        return crashSignature;
+    }
+
+    /**
+     * Returns the stack signature of the crash of the iteration result that the formatter has been initialized with.
+     *
+     * @param titlePrefix
+     *         - True if the variable name and a : should be appended in front. (E.g., Crash Signature: )
+     * @param CSVReplacement
+     *         - True if the comma's and line breaks in the signature should be replaced by an empty string.
+     * @param commaSuffix
+     *         - True if the signature should have comma at the end.
+     * @param newLineSuffix
+     *         - True if the signature should have a newline at the end.
+     *
+     * @return String The formatted crash signature.
+     */
+    public String getFormattedCrashSignature(boolean titlePrefix, boolean CSVReplacement, boolean commaSuffix,
+                                             boolean newLineSuffix) {
+        return getFormattedCrashSignature(iterationResult.getCrashSignature(), titlePrefix, CSVReplacement, commaSuffix,
+                newLineSuffix);
+    }
+
+    /**
+     * Default values of getFormatted crash signature.
+     *
+     * @return Crash signature of the iteration result the formatter has been initialized with, with comma and newline
+     * removed and a newline appended, as the last column of a CSV row.
+     */
+    public String getFormattedCrashSignature() {
+        return getFormattedCrashSignature(false, true, false, true);
+    }
 }
 
 
@@ -47,13 +47,39 @@ public class IterationResultsFormatter {
      * @return A string containing the iteration numbers separated by hyphens.
      */
     public String getIterationNumbersString(boolean titlePrefix, boolean CSVReplacement, boolean appendComma, boolean appendNewLine) {
-        StringBuilder iterationNumbers = new StringBuilder();
+        int[] iterationNumbers = new int[iterationResults.size()];
         for (int i = 0; i < iterationResults.size(); i++) {
+            iterationNumbers[i] = iterationResults.get(i).getIterationNumber();
+        }
+        return getFormattedIterationNumbersString(iterationNumbers, titlePrefix, CSVReplacement, appendComma, appendNewLine);
+    }
+
+    /**
+     * Static version of the getIterationNumbersString, for iteration numbers that are counted without keeping the
+     * iteration results.
+     * e.g., [1, 2, 3] becomes "1-2-3"
+     *
+     * @param givenIterationNumbers
+     *         - the iteration numbers that need formatting.
+     * @param titlePrefix
+     *         - if true, the variable name will be prefixed with "All Iteration Numbers: "
+     * @param CSVReplacement
+     *         -if true,  comma's and line breaks in the name will be removed.
+     * @param appendComma
+     *         - if true, a comma will be appended
+     * @param appendNewLine
+     *         - if true, a newline will be appended
+     *
+     * @return A string containing the iteration numbers separated by hyphens.
+     */
+    public static String getFormattedIterationNumbersString(int[] givenIterationNumbers, boolean titlePrefix, boolean CSVReplacement,
+                                                            boolean appendComma, boolean appendNewLine) {
+        StringBuilder iterationNumbers = new StringBuilder();
+        for (int i = 0; i < givenIterationNumbers.length; i++) {
             if (i > 0) {
                 iterationNumbers.append("-");
             }
-            IterationResultFormatter form = new IterationResultFormatter(iterationResults.get(i));
-            iterationNumbers.append(form.getFormattedIterationNumber());
+            iterationNumbers.append(IterationResultFormatter.getFormattedIterationNumber(givenIterationNumbers[i]));
         }
         if (titlePrefix) {
             iterationNumbers = new StringBuilder(LogFileCalculator.getFullVariableName("allIterations", true) + iterationNumbers);
@@ -185,6 +211,40 @@ public class IterationResultsFormatter {
         return getFormattedFuzzAttemptNr(false, true, true, false);
     }
 
+    /* * Seed */
+    /**
+     * Gets the seed of the random generators formatted properly. Is always static because is same for whole application run.
+     *
+     * @param seed
+     *         - the seed of the run.
+     * @param titlePrefix
+     *         - if true, the variable name will be prefixed with "Seed: "
+     * @param CSVReplacement
+     *         - if true, comma's and line breaks in the name will be removed.
+     * @param appendComma
+     *         - if true, a comma will be appended
+     * @param appendNewLine
+     *         - if true, a newline will be appended
+     *
+     * @return String Seed as a string and formatted as required
+     */
+    public static String getFormattedSeed(long seed, boolean titlePrefix, boolean CSVReplacement, boolean appendComma, boolean appendNewLine) {
+        String seedString = Long.toString(seed);
+        if (titlePrefix) {
+            seedString = LogFileCalculator.getFullVariableName("seed", true) + seedString;
+        }
+        if (CSVReplacement) {
+            seedString = CSVReplacement(seedString);
+        }
+        if (appendComma) {
+            seedString = seedString + ",";
+        }
+        if (appendNewLine) {
+            seedString = seedString + "\n";
+        }
+        return seedString;
+    }
+
     /* * Exit Code Counts */
     /**
      * Should only be used carefully, if one is completely sure of count. Defers from the getExitCount method
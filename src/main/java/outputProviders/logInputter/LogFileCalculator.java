@@ -100,6 +100,7 @@ public class LogFileCalculator {
             case "fuzzAttemptNumber" -> fullName = "Fuzz Attempt Nr.";
             case "timeStamp" -> fullName = "Date and Time";
             case "executedTime" -> fullName = "Execution Time";
+            case "seed" -> fullName = "Seed";
             case "iterationNumber" -> fullName = "Iteration Nr.";
             case "mapFileType" -> fullName = "Map File Type";
             case "mapFileName" -> fullName = "Map File Name";
@@ -112,6 +113,15 @@ public class LogFileCalculator {
             case "customAttribute" -> fullName = "Map File Custom Attribute";
             case "totalIterations" -> fullName = "Total Number of Iterations";
             case "allIterations" -> fullName = "All Iteration Numbers";
+            case "crashSignature" -> fullName = "Crash Signature";
+            case "crashReproducer" -> fullName = "Smallest Reproducer";
+            case "mapHeight" -> fullName = "Map Height";
+            case "mapWidth" -> fullName = "Map Width";
+            case "mapBytes" -> fullName = "Map Size (bytes)";
+            case "jpacmanTime" -> fullName = "JPacman Time (ms)";
+            case "predictedErrorCode" -> fullName = "Predicted Exit Code";
+            case "predictedOutputMessages" -> fullName = "Predicted Output Messages";
+            case "predictedGameState" -> fullName = "Predicted Game State";
             default -> fullName = variableName;
         }
         if (variableName.startsWith("exitCount")){
@@ -0,0 +1,447 @@
+package randomGenerators;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * An action sequence as a packed value: every action is a code of 3 bits (E, Q, S, W, U, L, D, R are 0 to 7, the
+ * counting order of the ActionSequenceSpliterator), 21 actions to a long. So a sequence of 20 actions is one long
+ * instead of a String with a char array, equality and hashing compare a few longs, and mutations shift bits instead
+ * of copying strings. A String is only made with toString, where the sequence leaves the fuzzer: the executors, the
+ * logs and the persistent corpus.
+ * <p>
+ * JPacman ignores every character that is not one of the eight actions, so a sequence that is read from text leaves
+ * those characters out: it behaves the same in JPacman. The bits after the last action are always zero, so equal
+ * sequences have equal words.
+ * </p>
+ * ActionSequence is immutable. A Builder appends actions without a copy per action.
+ */
+public final class ActionSequence implements CharSequence {
+
+    /**
+     * The characters of the actions, each at the index of its code.
+     */
+    public static final String ACTIONS = "EQSWULDR";
+
+    /**
+     * Number of different actions.
+     */
+    public static final int ACTION_COUNT = 8;
+
+    /**
+     * Code of the exit action.
+     */
+    public static final int EXIT = 0;
+
+    /**
+     * Code of the quit action.
+     */
+    public static final int QUIT = 1;
+
+    /**
+     * Code of the start action.
+     */
+    public static final int START = 2;
+
+    /**
+     * Code of the wait action.
+     */
+    public static final int WAIT = 3;
+
+    /**
+     * Code of the up action.
+     */
+    public static final int UP = 4;
+
+    /**
+     * Code of the left action.
+     */
+    public static final int LEFT = 5;
+
+    /**
+     * Code of the down action.
+     */
+    public static final int DOWN = 6;
+
+    /**
+     * Code of the right action.
+     */
+    public static final int RIGHT = 7;
+
+    /**
+     * The sequence without actions.
+     */
+    public static final ActionSequence EMPTY = new ActionSequence(new long[0], 0);
+
+    /**
+     * Number of bits of an action.
+     */
+    private static final int BITS = 3;
+
+    /**
+     * Mask of the bits of one action.
+     */
+    private static final long MASK = (1L << BITS) - 1;
+
+    /**
+     * Number of actions in one long.
+     */
+    private static final int ACTIONS_PER_WORD = Long.SIZE / BITS;
+
+    /**
+     * The code of every ASCII character, -1 if it is not an action.
+     */
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for (int code = 0; code < ACTION_COUNT; code++) {
+            CODES[ACTIONS.charAt(code)] = (byte) code;
+        }
+    }
+
+    /**
+     * The actions, ACTIONS_PER_WORD to a long, the first action in the lowest bits.
+     */
+    private final long[] words;
+
+    /**
+     * Number of actions.
+     */
+    private final int length;
+
+    /**
+     * The hash code, 0 if it is not computed yet.
+     */
+    private int hash;
+
+    /**
+     * Constructs an ActionSequence of packed words. The words are not copied.
+     *
+     * @param words  The actions, with zero bits after the last action.
+     * @param length Number of actions.
+     */
+    private ActionSequence(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Gives the code of an action character.
+     *
+     * @param action The character.
+     * @return The code, or -1 if the character is not an action.
+     */
+    public static int codeOf(char action) {
+        return action < CODES.length ? CODES[action] : -1;
+    }
+
+    /**
+     * Makes the action sequence of a text. Characters that are not actions are left out, JPacman ignores them.
+     *
+     * @param text The text, for instance a String.
+     * @return The action sequence.
+     */
+    public static ActionSequence of(CharSequence text) {
+        if (text instanceof ActionSequence) {
+            return (ActionSequence) text;
+        }
+        Builder builder = new Builder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            int code = codeOf(text.charAt(i));
+            if (code >= 0) {
+                builder.append(code);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Makes the action sequence of action codes.
+     *
+     * @param actions The codes, each from 0 to ACTION_COUNT - 1.
+     * @param length  Number of codes to take, from the start.
+     * @return The action sequence.
+     */
+    public static ActionSequence ofActions(int[] actions, int length) {
+        Builder builder = new Builder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(actions[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Makes a sequence of random actions. Every action is equally likely; 21 actions come from one random long.
+     *
+     * @param length Number of actions.
+     * @param random The random generator.
+     * @return The action sequence.
+     */
+    public static ActionSequence random(int length, SplittableRandom random) {
+        long[] words = new long[wordCount(length)];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = random.nextLong() >>> (Long.SIZE - ACTIONS_PER_WORD * BITS);
+        }
+        int used = length % ACTIONS_PER_WORD;
+        if (used != 0) { // clear the bits after the last action
+            words[words.length - 1] &= (1L << (used * BITS)) - 1;
+        }
+        return new ActionSequence(words, length);
+    }
+
+    /**
+     * Gives the number of longs that hold a number of actions.
+     *
+     * @param length Number of actions.
+     * @return Number of longs.
+     */
+    private static int wordCount(int length) {
+        return (length + ACTIONS_PER_WORD - 1) / ACTIONS_PER_WORD;
+    }
+
+    /**
+     * Gives the number of actions.
+     *
+     * @return The length.
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Monitors if the sequence has no actions.
+     *
+     * @return true if the length is 0, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Gives the code of an action.
+     *
+     * @param index The index of the action.
+     * @return The code, from 0 to ACTION_COUNT - 1.
+     */
+    public int actionAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return (int) (words[index / ACTIONS_PER_WORD] >>> (index % ACTIONS_PER_WORD * BITS) & MASK);
+    }
+
+    /**
+     * Gives the character of an action.
+     *
+     * @param index The index of the action.
+     * @return The character, one of ACTIONS.
+     */
+    @Override
+    public char charAt(int index) {
+        return ACTIONS.charAt(actionAt(index));
+    }
+
+    /**
+     * Gives a part of the sequence.
+     *
+     * @param start The index of the first action, inclusive.
+     * @param end   The index after the last action, exclusive.
+     * @return The part.
+     */
+    @Override
+    public ActionSequence subSequence(int start, int end) {
+        checkRange(start, end);
+        return new Builder(end - start).append(this, start, end).build();
+    }
+
+    /**
+     * Gives the sequence with one action replaced.
+     *
+     * @param index  The index of the action.
+     * @param action The code of the new action.
+     * @return The new sequence.
+     */
+    public ActionSequence withAction(int index, int action) {
+        actionAt(index); // checks the index
+        long[] replaced = words.clone();
+        int shift = index % ACTIONS_PER_WORD * BITS;
+        replaced[index / ACTIONS_PER_WORD] = replaced[index / ACTIONS_PER_WORD] & ~(MASK << shift)
+                | ((long) action & MASK) << shift;
+        return new ActionSequence(replaced, length);
+    }
+
+    /**
+     * Gives the sequence with another sequence inserted.
+     *
+     * @param index The index to insert at, from 0 to the length.
+     * @param chunk The sequence to insert.
+     * @return The new sequence.
+     */
+    public ActionSequence insert(int index, ActionSequence chunk) {
+        checkRange(index, index);
+        return new Builder(length + chunk.length)
+                .append(this, 0, index)
+                .append(chunk, 0, chunk.length)
+                .append(this, index, length)
+                .build();
+    }
+
+    /**
+     * Gives the sequence with a part left out.
+     *
+     * @param start The index of the first action to leave out, inclusive.
+     * @param end   The index after the last action to leave out, exclusive.
+     * @return The new sequence.
+     */
+    public ActionSequence delete(int start, int end) {
+        checkRange(start, end);
+        return new Builder(length - (end - start)).append(this, 0, start).append(this, end, length).build();
+    }
+
+    /**
+     * Checks that a range is within the sequence.
+     *
+     * @param start The start of the range, inclusive.
+     * @param end   The end of the range, exclusive.
+     */
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+    }
+
+    /**
+     * Gives the actions as ASCII bytes, the same bytes as the UTF-8 of toString, without making the String.
+     *
+     * @return The bytes.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ACTIONS.charAt(actionAt(i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Compares the actions of two sequences, word by word.
+     *
+     * @param other The other object.
+     * @return true if the other object is an ActionSequence with the same actions, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ActionSequence)) {
+            return false;
+        }
+        ActionSequence sequence = (ActionSequence) other;
+        return length == sequence.length && Arrays.equals(words, sequence.words);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * Arrays.hashCode(words) + length;
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Gives the actions as a String, for the executors and the logs.
+     *
+     * @return The action characters.
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ACTIONS.charAt(actionAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Appends actions to a growing array of words, and makes an ActionSequence of them.
+     */
+    public static final class Builder {
+
+        /**
+         * The actions that were appended, packed like in ActionSequence.
+         */
+        private long[] words;
+
+        /**
+         * Number of actions that were appended.
+         */
+        private int length;
+
+        /**
+         * Constructs an empty Builder.
+         *
+         * @param capacity Number of actions to make room for.
+         */
+        public Builder(int capacity) {
+            this.words = new long[Math.max(1, wordCount(capacity))];
+        }
+
+        /**
+         * Appends one action.
+         *
+         * @param action The code of the action.
+         * @return This builder.
+         */
+        public Builder append(int action) {
+            int word = length / ACTIONS_PER_WORD;
+            if (word == words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            words[word] |= ((long) action & MASK) << (length % ACTIONS_PER_WORD * BITS);
+            length++;
+            return this;
+        }
+
+        /**
+         * Appends a part of a sequence.
+         *
+         * @param sequence The sequence.
+         * @param start    The index of the first action, inclusive.
+         * @param end      The index after the last action, exclusive.
+         * @return This builder.
+         */
+        public Builder append(ActionSequence sequence, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(sequence.actionAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Gives the number of actions that were appended.
+         *
+         * @return The length.
+         */
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Makes the ActionSequence of the appended actions. The builder can be used on after this.
+         *
+         * @return The action sequence.
+         */
+        public ActionSequence build() {
+            if (length == 0) {
+                return EMPTY;
+            }
+            return new ActionSequence(Arrays.copyOf(words, wordCount(length)), length);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package randomGenerators;
+
+/**
+ * Small automaton that checks the constraints on action sequences character by character: "contains at least one E"
+ * and "every S is followed by an E (or a Q) somewhere after it". The state after a prefix only remembers if an S is
+ * still waiting for its E and if an E was seen, so four states are enough.
+ * <p>
+ * Because the state of a prefix is known, the number of valid completions of any length can be counted from it
+ * without building them. The ActionSequenceSpliterator uses these counts to skip prefixes that cannot become valid,
+ * and countValidSequences uses them to give the number of valid sequences of a length directly.
+ * </p>
+ */
+public class ActionSequenceAutomaton {
+
+    /**
+     * State bit: an S was seen that is not followed by an E (or Q) yet.
+     */
+    private static final int OPEN_START = 1;
+
+    /**
+     * State bit: an E was seen.
+     */
+    private static final int EXIT_SEEN = 2;
+
+    /**
+     * Number of states.
+     */
+    static final int STATE_COUNT = 4;
+
+    /**
+     * The state of the empty sequence.
+     */
+    static final int INITIAL_STATE = 0;
+
+    /**
+     * If true, a valid sequence contains at least one E.
+     */
+    private final boolean atLeastOneExit;
+
+    /**
+     * If true, every S of a valid sequence is followed by an E (or Q) somewhere after it.
+     */
+    private final boolean startWithExitCheck;
+
+    /**
+     * If true, a Q after an S is as good as an E.
+     */
+    private final boolean quitClosesStart;
+
+    /**
+     * completions[length][state] is the number of sequences of that length over the valid characters that lead from
+     * the state to an accepting state. Extended when a longer length is asked.
+     */
+    private long[][] completions = new long[0][];
+
+    /**
+     * Constructs an automaton for the given constraints.
+     *
+     * @param atLeastOneExit     If true, a valid sequence contains at least one E.
+     * @param startWithExitCheck If true, every S of a valid sequence is followed by an E (or Q) somewhere after it.
+     * @param quitClosesStart    If true, a Q after an S is as good as an E.
+     */
+    public ActionSequenceAutomaton(boolean atLeastOneExit, boolean startWithExitCheck, boolean quitClosesStart) {
+        this.atLeastOneExit = atLeastOneExit;
+        this.startWithExitCheck = startWithExitCheck;
+        this.quitClosesStart = quitClosesStart;
+    }
+
+    /**
+     * Gives the state after one more action.
+     *
+     * @param state  The state before the action.
+     * @param action The code of the action, see ActionSequence. Actions other than E, Q and S do not change the state,
+     *               and neither does -1 (a character that is not an action).
+     * @return The state after the action.
+     */
+    int next(int state, int action) {
+        switch (action) {
+            case ActionSequence.EXIT -> {
+                return EXIT_SEEN;
+            }
+            case ActionSequence.QUIT -> {
+                return quitClosesStart ? state & ~OPEN_START : state;
+            }
+            case ActionSequence.START -> {
+                return state | OPEN_START;
+            }
+            default -> {
+                return state;
+            }
+        }
+    }
+
+    /**
+     * Checks if a sequence that ends in the given state is valid.
+     *
+     * @param state The state after the whole sequence.
+     * @return True if the sequence passes the constraints.
+     */
+    boolean isAccepting(int state) {
+        return !(startWithExitCheck && (state & OPEN_START) != 0) && !(atLeastOneExit && (state & EXIT_SEEN) == 0);
+    }
+
+    /**
+     * Checks if a whole action sequence passes the constraints.
+     *
+     * @param actionSequence The action sequence.
+     * @return True if the sequence is valid.
+     */
+    public boolean accepts(CharSequence actionSequence) {
+        if (actionSequence instanceof ActionSequence) {
+            return accepts((ActionSequence) actionSequence);
+        }
+        int state = INITIAL_STATE;
+        for (int i = 0; i < actionSequence.length(); i++) {
+            state = next(state, ActionSequence.codeOf(actionSequence.charAt(i)));
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * Checks if a whole packed action sequence passes the constraints, without decoding it to characters.
+     *
+     * @param actionSequence The action sequence.
+     * @return True if the sequence is valid.
+     */
+    public boolean accepts(ActionSequence actionSequence) {
+        int state = INITIAL_STATE;
+        for (int i = 0; i < actionSequence.length(); i++) {
+            state = next(state, actionSequence.actionAt(i));
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * Gives the number of sequences of the given length over the valid characters that, appended to a prefix in the
+     * given state, make a valid sequence.
+     *
+     * @param length The length of the completions, at most ActionSequenceSpliterator.MAX_LENGTH.
+     * @param state  The state of the prefix.
+     * @return The number of valid completions.
+     */
+    long countCompletions(int length, int state) {
+        if (length >= completions.length) {
+            extendCompletions(length);
+        }
+        return completions[length][state];
+    }
+
+    /**
+     * Gives the number of valid sequences of the given length over the valid characters, without building them.
+     *
+     * @param length The length of the sequences, at most ActionSequenceSpliterator.MAX_LENGTH.
+     * @return The number of valid sequences.
+     */
+    public long countValidSequences(int length) {
+        ActionSequenceSpliterator.combinationCount(length); // checks the length
+        return countCompletions(length, INITIAL_STATE);
+    }
+
+    /**
+     * Fills the completion counts up to the given length, each length from the one before.
+     *
+     * @param length The longest length that is needed.
+     */
+    private void extendCompletions(int length) {
+        long[][] extended = new long[length + 1][];
+        System.arraycopy(completions, 0, extended, 0, completions.length);
+        for (int currentLength = completions.length; currentLength <= length; currentLength++) {
+            long[] counts = new long[STATE_COUNT];
+            for (int state = 0; state < STATE_COUNT; state++) {
+                if (currentLength == 0) {
+                    counts[state] = isAccepting(state) ? 1 : 0;
+                } else {
+                    for (int action = 0; action < ActionSequence.ACTION_COUNT; action++) {
+                        counts[state] += extended[currentLength - 1][next(state, action)];
+                    }
+                }
+            }
+            extended[currentLength] = counts;
+        }
+        completions = extended;
+    }
+}
@@ -0,0 +1,241 @@
+package randomGenerators;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates all action sequences of one length lazily, in the same order as the recursive
+ * RandomActionSequenceGenerator.generateAllPossibleCombinations did: as a base-8 counter over the valid characters
+ * (E, Q, S, W, U, L, D, R), where the first character is the most significant digit. The digits are the codes of
+ * ActionSequence.
+ * <p>
+ * Only one digit buffer is updated from one combination to the next, and a packed ActionSequence is only made for a
+ * combination that passes the filters. The filters are checked with an ActionSequenceAutomaton while the prefix is
+ * built: the state of every prefix is kept, and a prefix without any valid completion is skipped with all its
+ * combinations at once, instead of building and rejecting each of them. The range of counter values can be split in
+ * halves, so a parallel stream can enumerate the parts on different threads.
+ * </p>
+ * <p>
+ * Usage:
+ * StreamSupport.stream(new ActionSequenceSpliterator(5, true, true), false).limit(100).forEach(...);
+ * </p>
+ */
+public class ActionSequenceSpliterator implements Spliterator<ActionSequence> {
+
+    /**
+     * Number of valid characters, the base of the counter.
+     */
+    private static final int BASE = ActionSequence.ACTION_COUNT;
+
+    /**
+     * Max length of the sequences, so that the number of combinations (8^length) still fits in a long.
+     */
+    public static final int MAX_LENGTH = 20;
+
+    /**
+     * Length of the sequences.
+     */
+    private final int length;
+
+    /**
+     * The automaton of the filters, shared by the spliterators of one enumeration. Its completion counts are filled
+     * up to the length before it is shared.
+     */
+    private final ActionSequenceAutomaton automaton;
+
+    /**
+     * Counter value of the current combination.
+     */
+    private long index;
+
+    /**
+     * Counter value after the last combination of this spliterator.
+     */
+    private long end;
+
+    /**
+     * Digits of the current combination, most significant first.
+     */
+    private final int[] digits;
+
+    /**
+     * states[p] is the automaton state after the first p characters of the current combination.
+     */
+    private final int[] states;
+
+    /**
+     * Constructs a spliterator over all combinations of the given length.
+     *
+     * @param length             The length of the action sequences, at most MAX_LENGTH.
+     * @param atLeastOneExit     If true, only sequences with at least one exit action are given.
+     * @param startWithExitCheck If true, only sequences where every S is followed by an E are given.
+     */
+    public ActionSequenceSpliterator(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
+        this(length, fillCompletions(new ActionSequenceAutomaton(atLeastOneExit, startWithExitCheck, false), length),
+                0, combinationCount(length));
+    }
+
+    /**
+     * Constructs a spliterator over a range of counter values.
+     *
+     * @param length    The length of the action sequences.
+     * @param automaton The automaton of the filters, with its completion counts filled up to the length.
+     * @param index     Counter value of the first combination.
+     * @param end       Counter value after the last combination.
+     */
+    private ActionSequenceSpliterator(int length, ActionSequenceAutomaton automaton, long index, long end) {
+        this.length = length;
+        this.automaton = automaton;
+        this.end = end;
+        this.digits = new int[length];
+        this.states = new int[length + 1];
+        moveTo(index);
+    }
+
+    /**
+     * Fills the completion counts of an automaton up to a length, so that spliterators on other threads only read them.
+     *
+     * @param automaton The automaton.
+     * @param length    The length of the action sequences.
+     * @return The same automaton.
+     */
+    private static ActionSequenceAutomaton fillCompletions(ActionSequenceAutomaton automaton, int length) {
+        automaton.countValidSequences(length);
+        return automaton;
+    }
+
+    /**
+     * Makes the first valid combination at or after the given counter value the current combination.
+     *
+     * @param index The counter value.
+     */
+    private void moveTo(long index) {
+        long value = index;
+        for (int position = length - 1; position >= 0; position--) {
+            digits[position] = (int) (value % BASE);
+            value /= BASE;
+        }
+        states[0] = ActionSequenceAutomaton.INITIAL_STATE;
+        if (index >= end || automaton.countCompletions(length, states[0]) == 0) {
+            this.index = end;
+            return;
+        }
+        settle(0);
+    }
+
+    /**
+     * Moves from the digits of the current combination to the first valid combination at or after them. The digits
+     * before the given position are a prefix with valid completions, and their states are known. From the position
+     * on, every digit is raised until its prefix has valid completions; if no digit is left at a position, the
+     * previous digit is raised instead. So each prefix without valid completions is skipped as a whole.
+     *
+     * @param position The first position that may have to change.
+     */
+    private void settle(int position) {
+        int p = position;
+        while (p < length) {
+            int digit = digits[p];
+            while (digit < BASE && automaton.countCompletions(length - p - 1, automaton.next(states[p], digit)) == 0) {
+                digit++;
+            }
+            if (digit == BASE) { // no valid combination with this prefix, carry over to the previous position
+                if (p == 0) {
+                    index = end;
+                    return;
+                }
+                for (int next = p; next < length; next++) {
+                    digits[next] = 0;
+                }
+                p--;
+                digits[p]++;
+                continue;
+            }
+            if (digit != digits[p]) { // skipped forward, the next positions start over
+                digits[p] = digit;
+                for (int next = p + 1; next < length; next++) {
+                    digits[next] = 0;
+                }
+            }
+            states[p + 1] = automaton.next(states[p], digit);
+            p++;
+        }
+        long value = 0;
+        for (int digit : digits) {
+            value = value * BASE + digit;
+        }
+        index = Math.min(value, end);
+    }
+
+    /**
+     * Gives the number of combinations of the given length, without any filter.
+     *
+     * @param length The length of the action sequences.
+     * @return 8 to the power length.
+     */
+    public static long combinationCount(int length) {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Action sequence length must be between 0 and " + MAX_LENGTH + ": " + length);
+        }
+        return 1L << (3 * length);
+    }
+
+    /**
+     * Gives the next combination that passes the filters, if there is one.
+     *
+     * @param action The consumer of the combination.
+     * @return true if a combination was given, false if there are no more.
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super ActionSequence> action) {
+        if (index >= end) {
+            return false;
+        }
+        ActionSequence sequence = ActionSequence.ofActions(digits, length);
+        if (length == 0) {
+            index = end;
+        } else { // next digit of the last position, settle carries over if needed
+            digits[length - 1]++;
+            settle(length - 1);
+        }
+        action.accept(sequence);
+        return true;
+    }
+
+    /**
+     * Gives the first half of the remaining counter values to a new spliterator, this one keeps the second half.
+     * The first half has to be given away, because the combinations are ordered.
+     *
+     * @return The spliterator of the first half, or null if too few combinations are left.
+     */
+    @Override
+    public Spliterator<ActionSequence> trySplit() {
+        long remaining = end - index;
+        if (remaining < 2 * BASE) {
+            return null;
+        }
+        long middle = index + remaining / 2;
+        ActionSequenceSpliterator firstHalf = new ActionSequenceSpliterator(length, automaton, index, middle);
+        moveTo(middle);
+        return firstHalf;
+    }
+
+    /**
+     * Gives the number of remaining counter values, an upper bound of the remaining valid combinations.
+     *
+     * @return The number of remaining counter values.
+     */
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    /**
+     * The combinations are ordered, distinct and never null.
+     *
+     * @return The characteristics of this spliterator.
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+}
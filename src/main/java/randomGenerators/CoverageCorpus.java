@@ -0,0 +1,244 @@
+package randomGenerators;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import organizers.InMemoryMapStore;
+import randomGenerators.map.MapGenerator;
+import randomGenerators.mutation.ActionSequenceMutators;
+import randomGenerators.mutation.HavocMutationEngine;
+import randomGenerators.mutation.MapMutators;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The corpus of the coverage-guided mode: the inputs (map and action sequence) of the iterations that reached
+ * coverage no earlier iteration reached. Every input that is added gets a number of havoc mutants: the
+ * HavocMutationEngine stacks random mutators of MapMutators on the map (rows inserted, deleted, duplicated, spliced
+ * with another map of the corpus, transposed, cells substituted, or bits flipped for binary maps) and of
+ * ActionSequenceMutators on the action sequence (chunks inserted, deleted, repeated, actions substituted).
+ * <p>
+ * The mutants are made lazily, one per pollMap, and only in memory: only the map of the mutant that is executed next
+ * is stored, so a mutant that is never executed costs no file. The fuzzer executes these pending mutants, in the order
+ * their inputs were added, before it generates new random inputs. So the search stays close to the inputs that found
+ * new code, and only falls back to random inputs when all their mutants are executed.
+ * </p>
+ */
+public class CoverageCorpus {
+
+    /**
+     * The engine that mutates text maps.
+     */
+    private final HavocMutationEngine<byte[]> textMapEngine;
+
+    /**
+     * The engine that mutates maps that are not text maps.
+     */
+    private final HavocMutationEngine<byte[]> binaryMapEngine;
+
+    /**
+     * The engine that mutates action sequences.
+     */
+    private final HavocMutationEngine<ActionSequence> sequenceEngine;
+
+    /**
+     * Number of mutants that are made of every input in the corpus.
+     */
+    private final int mutantsPerInput;
+
+    /**
+     * The text maps of the corpus, to splice with.
+     */
+    private final List<byte[]> textMaps = new ArrayList<>();
+
+    /**
+     * The inputs of the corpus that have mutants that are not executed yet, in the order they were added.
+     */
+    private final Deque<CorpusInput> pendingInputs = new ArrayDeque<>();
+
+    /**
+     * The random generator of the mutations of the current iteration.
+     */
+    private SplittableRandom random = new SplittableRandom();
+
+    /**
+     * The action sequence of the mutant of the last pollMap.
+     */
+    private ActionSequence polledSequence;
+
+    /**
+     * Number of inputs that reached new coverage.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty CoverageCorpus.
+     */
+    public CoverageCorpus() {
+        ConfigFileReader configFileReader = FileReaderManager.getInstance().getConfigReader();
+        int stackedMutations = configFileReader.getHavocStackedMutations();
+        this.textMapEngine = MapMutators.textMapEngine(stackedMutations, configFileReader.getMaxTextMapHeight(),
+                configFileReader.getMaxTextMapWidth(), this::getSpliceMap);
+        this.binaryMapEngine = MapMutators.binaryMapEngine(stackedMutations);
+        this.sequenceEngine = ActionSequenceMutators.engine(stackedMutations,
+                configFileReader.getMaxActionSequenceLength());
+        this.mutantsPerInput = configFileReader.getHavocMutantsPerInput();
+    }
+
+    /**
+     * Sets the random generator of the mutations of the next pollMap. Set it every iteration, so a seeded run makes
+     * the same mutants.
+     *
+     * @param random The random generator.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Adds the input of an iteration that reached new coverage. Its mutants are made when they are polled. Must be
+     * called before the map is moved to the directory of its exit code.
+     *
+     * @param mapFilePath    The file path of the map, as it was executed.
+     * @param actionSequence The action sequence.
+     */
+    public void add(String mapFilePath, String actionSequence) {
+        byte[] mapContent = InMemoryMapStore.readAllBytes(mapFilePath);
+        if (mapContent == null) {
+            return;
+        }
+        size++;
+        int extensionStart = mapFilePath.lastIndexOf('.');
+        String extension = extensionStart < 0 ? "" : mapFilePath.substring(extensionStart);
+        if (extension.equals(".txt")) {
+            textMaps.add(mapContent);
+        }
+        if (mutantsPerInput > 0) {
+            pendingInputs.add(new CorpusInput(mapContent, extension, ActionSequence.of(actionSequence),
+                    mutantsPerInput));
+        }
+    }
+
+    /**
+     * Monitors if there are mutants that are not executed yet.
+     *
+     * @return true if pollMap and pollSequence give an input, false otherwise
+     */
+    public boolean hasPendingInputs() {
+        return !pendingInputs.isEmpty();
+    }
+
+    /**
+     * Makes the next mutant and stores its map. The map, the action sequence, or both are mutated. Call pollSequence
+     * for its action sequence.
+     *
+     * @return The file path of the map, or null if there are no pending inputs.
+     */
+    public String pollMap() {
+        CorpusInput input = pendingInputs.peek();
+        if (input == null) {
+            return null;
+        }
+        if (--input.remainingMutants == 0) {
+            pendingInputs.poll();
+        }
+        int mutated = random.nextInt(3); // 0: the map, 1: the action sequence, 2: both
+        byte[] mapContent = input.mapContent;
+        if (mutated != 1) {
+            mapContent = (input.extension.equals(".txt") ? textMapEngine : binaryMapEngine).mutate(mapContent, random);
+        }
+        polledSequence = mutated != 0 ? sequenceEngine.mutate(input.actionSequence, random) : input.actionSequence;
+        // Every executed map gets moved, so also an unchanged map is stored as its own copy
+        return MapGenerator.storeMap(MapGenerator.generateRandomMapCopyFileName(input.extension), mapContent);
+    }
+
+    /**
+     * Takes the action sequence of the mutant of the last pollMap, as the String it is executed with.
+     *
+     * @return The action sequence.
+     */
+    public String pollSequence() {
+        String sequence = polledSequence.toString();
+        polledSequence = null;
+        return sequence;
+    }
+
+    /**
+     * Gives the number of inputs that reached new coverage.
+     *
+     * @return The size of the corpus.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the number of mutants that are not executed yet.
+     *
+     * @return The number of pending mutants.
+     */
+    public int getPendingCount() {
+        int pendingCount = 0;
+        for (CorpusInput input : pendingInputs) {
+            pendingCount += input.remainingMutants;
+        }
+        return pendingCount;
+    }
+
+    /**
+     * Gives a random text map of the corpus to splice with.
+     *
+     * @param random The random generator of the mutation.
+     * @return The map, or null if the corpus has less than two text maps.
+     */
+    private byte[] getSpliceMap(SplittableRandom random) {
+        if (textMaps.size() < 2) {
+            return null;
+        }
+        return textMaps.get(random.nextInt(textMaps.size()));
+    }
+
+    /**
+     * An input of the corpus with the number of its mutants that are not made yet.
+     */
+    private static class CorpusInput {
+
+        /**
+         * The content of the map.
+         */
+        private final byte[] mapContent;
+
+        /**
+         * The extension of the map file, with the dot.
+         */
+        private final String extension;
+
+        /**
+         * The action sequence, packed.
+         */
+        private final ActionSequence actionSequence;
+
+        /**
+         * Number of mutants that are not made yet.
+         */
+        private int remainingMutants;
+
+        /**
+         * Constructs a CorpusInput.
+         *
+         * @param mapContent       The content of the map.
+         * @param extension        The extension of the map file, with the dot.
+         * @param actionSequence   The action sequence.
+         * @param remainingMutants Number of mutants to make.
+         */
+        private CorpusInput(byte[] mapContent, String extension, ActionSequence actionSequence, int remainingMutants) {
+            this.mapContent = mapContent;
+            this.extension = extension;
+            this.actionSequence = actionSequence;
+            this.remainingMutants = remainingMutants;
+        }
+    }
+}
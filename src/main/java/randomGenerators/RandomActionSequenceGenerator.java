@@ -4,14 +4,17 @@ import dataProviders.ConfigFileReader;
 import managers.FileReaderManager;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The RandomActionSequenceGenerator class is responsible for generating random action sequences
  * based on predefined actions. It utilizes a pseudo-random number generator to select actions
- * from a set of available options and constructs a sequence string.
+ * from a set of available options and constructs a packed ActionSequence, that is only turned into a String
+ * where it is executed.
  * <p>
  * The class provides the following functionality:
  * Reading the maximum action sequence length from a configuration file.
@@ -27,17 +30,13 @@ import java.util.Random;
  * <p>
  * Example:
  * RandomActionSequenceGenerator generator = new RandomActionSequenceGenerator();
- * String actionSequence = generator.generateRandomActionSequence();
+ * ActionSequence actionSequence = generator.generateRandomActionSequence();
  * <p>
  * This class is part of the randomGenerators package, which provides utilities for generating random data
  * or sequences in a controlled manner.
  */
 public class RandomActionSequenceGenerator {
 
-    /**
-     * Specifies the list of valid actions in the action sequence string
-     */
-    private static List<Character> validChar;
     /**
      * The ConfigFileReader instance used for reading configuration properties.
      */
@@ -48,69 +47,57 @@ public class RandomActionSequenceGenerator {
      */
     private int maxLength;
 
+    /**
+     * The random generator of the current iteration. Set by the fuzzer before each iteration.
+     */
+    private SplittableRandom random = new SplittableRandom();
+
     /**
      * Constructs a RandomActionSequenceGenerator object.
      * It initializes the maximum length of the action sequence from the configuration file.
      */
     public RandomActionSequenceGenerator() {
         this.maxLength = configFileReader.getMaxActionSequenceLength();
-        validChar = new ArrayList<>();
-        validChar.add('E'); // Exit
-        validChar.add('Q'); // Quit
-        validChar.add('S'); // Start
-        validChar.add('W'); // Sleep
-        validChar.add('U'); // Up
-        validChar.add('L'); // Left
-        validChar.add('D'); // Down
-        validChar.add('R'); // Right
     }
 
     /**
-     * Add random valid character to the action sequence string builder.
+     * Sets the random generator that is used for the next action sequences.
      *
-     * @param actionSequenceBuilder
-     *         The action sequence string builder.
+     * @param random
+     *         The random generator, see RandomSource.
      */
-    private static void addRandomValidAction(StringBuilder actionSequenceBuilder) {
-        Random rand = new Random();
-        int rand_randomInt = rand.nextInt(8);
-        actionSequenceBuilder.append(validChar.get(rand_randomInt));
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
     }
 
     /**
      * Generates a random action sequence string based on predefined actions.
      * The length of the action sequence is randomly, but the maximum is determined by the maxLength parameter.
      *
-     * @return The generated random action sequence string.
+     * @param random
+     *         The random generator, see RandomSource.
+     *
+     * @return The generated random action sequence.
      */
-    public static String generateRandomActionSequenceValidCharRandomLength() {
-        StringBuilder actionSequenceBuilder = new StringBuilder();
-        Random random = new Random();
+    public static ActionSequence generateRandomActionSequenceValidCharRandomLength(SplittableRandom random) {
         // Generate a random length for the action sequence
         int length = random.nextInt(FileReaderManager.getInstance().getConfigReader().getMaxActionSequenceLength() + 1);
-        for (int i = 0; i < length; i++) {
-            addRandomValidAction(actionSequenceBuilder);
-        }
-        return actionSequenceBuilder.toString();
+        return ActionSequence.random(length, random);
     }
 
     /**
      * Generates a random action sequence string based on predefined actions,
      * with the length of the action sequence is determined by the configuration file.
      *
-     * @return The generated random action sequence string.
+     * @return The generated random action sequence.
      */
-    public String generateRandomActionSequence() {
-        StringBuilder actionSequenceBuilder = new StringBuilder();
-        // Generate a random action sequence
-        for (int i = 0; i < maxLength + 1; i++) {
-            addRandomValidAction(actionSequenceBuilder);
-        }
-        return actionSequenceBuilder.toString();
+    public ActionSequence generateRandomActionSequence() {
+        return ActionSequence.random(maxLength + 1, random);
     }
 
     /**
      * Generates a list of all possible combination of the given characters with the inputted length.
+     * Builds the whole list, so only use it for short lengths. Use streamAllPossibleCombinations otherwise.
      *
      * @param length
      *         The length of the action sequence.
@@ -122,37 +109,44 @@ public class RandomActionSequenceGenerator {
      *
      * @return A list of all possible combination of the given characters with the inputted length.
      */
-    public static List<String> generateAllPossibleCombinations(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
-        List<String> combinations = new ArrayList<>();
-        generateCombinationsHelper("", length, combinations, atLeastOneExit, startWithExitCheck);
-        return combinations;
+    public static List<ActionSequence> generateAllPossibleCombinations(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
+        return streamAllPossibleCombinations(length, atLeastOneExit, startWithExitCheck).collect(Collectors.toList());
     }
 
     /**
-     * The generateCombinationsHelper method is a recursive helper function that appends each character from the
-     * validChar array to the current string and continues the recursion until the desired length is reached.
+     * Gives all possible combination of the given characters with the inputted length as a lazy stream, in the same
+     * order as generateAllPossibleCombinations. A combination is only made when the stream gets to it, so with a
+     * limit only that many combinations are made. The stream can be made parallel.
      *
-     * @param currentString
-     *         The current string that is being appended to.
      * @param length
-     *         The length of the action sequence.
-     * @param combinations
-     *         The list of all possible combination of the given characters with the inputted length.
+     *         The length of the action sequence, at most 20.
      * @param atLeastOneExit
-     *         If true, the list will contain at least one exit action.
+     *         If true, the stream will contain at least one exit action.
+     * @param startWithExitCheck
+     *         If true, if an S is present, one of the following characters in the string (that are after an S) will
+     *         be an E.
+     *
+     * @return A sequential stream of all possible combination of the given characters with the inputted length.
      */
-    private static void generateCombinationsHelper(String currentString, int length, List<String> combinations, boolean atLeastOneExit, boolean startWithExitCheck) {
-        if (currentString.length() == length) { // if the current string is long enough
-            if (!atLeastOneExit || (currentString.contains("E"))) {
-                if (!startWithExitCheck || checkStartWithExit(currentString)) {
-                    combinations.add(currentString); // add it to the list of combinations
-                }
-            }
-            return; // and return it
-        }
-        for (Character character : validChar) { // if it is not long enough, take one of the characters from the validChar array
-            generateCombinationsHelper(currentString + character, length, combinations, atLeastOneExit, startWithExitCheck); // and do again
-        }
+    public static Stream<ActionSequence> streamAllPossibleCombinations(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
+        return StreamSupport.stream(new ActionSequenceSpliterator(length, atLeastOneExit, startWithExitCheck), false);
+    }
+
+    /**
+     * Counts all possible combinations that generateAllPossibleCombinations would give, without building them.
+     * Fast for any length, so it can be used to size a time budget before an exhaustive run.
+     *
+     * @param length
+     *         The length of the action sequence, at most 20.
+     * @param atLeastOneExit
+     *         If true, only combinations with at least one exit action are counted.
+     * @param startWithExitCheck
+     *         If true, only combinations where every S is followed by an E are counted.
+     *
+     * @return The number of combinations.
+     */
+    public static long countAllPossibleCombinations(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
+        return new ActionSequenceAutomaton(atLeastOneExit, startWithExitCheck, false).countValidSequences(length);
     }
 
     /**
@@ -168,49 +162,26 @@ public class RandomActionSequenceGenerator {
      * @param startWithExitCheck
      *         If true, the following will always be true for the result: If an S is present,
      *         one of the following characters in the string (that are after an S) will be an E.
+     * @param random
+     *         The random generator, see RandomSource.
      *
-     * @return A random possible combination as String.
+     * @return A random possible combination.
+     * @throws IllegalArgumentException If no combination of the length passes the checks, e.g. length 0 with
+     *                                  atLeastOneExit.
      */
-    public static String generateRandomCombination(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
-        // Shuffle the characters in a random order first
-        List<Character> shuffledChar = new ArrayList<>(validChar);
-        Collections.shuffle(shuffledChar);
-        // Add a random character of this shuffled list to the String until the maximum length is reached
-        StringBuilder randomCombination = new StringBuilder();
-        Random random = new Random();
-        for (int i = 0; i < length; i++) {
-            char randomChar = shuffledChar.get(random.nextInt(shuffledChar.size()));
-            randomCombination.append(randomChar);
+    public static ActionSequence generateRandomCombination(int length, boolean atLeastOneExit, boolean startWithExitCheck, SplittableRandom random) {
+        ActionSequenceAutomaton automaton = new ActionSequenceAutomaton(atLeastOneExit, startWithExitCheck, false);
+        // A valid combination stays valid with a W in front, so if none of MAX_LENGTH exists, none longer exists either
+        if (automaton.countValidSequences(Math.min(length, ActionSequenceSpliterator.MAX_LENGTH)) == 0) {
+            throw new IllegalArgumentException("No possible combination of length " + length + ".");
         }
-        String currentString = randomCombination.toString();
-        // Do the checks if needed. If they fail the checks, start over.
-        if (!atLeastOneExit || (currentString.contains("E"))) {
-            if (!startWithExitCheck || checkStartWithExit(currentString)) {
-                return currentString;
-            }
-        }
-        return generateRandomCombination(length, atLeastOneExit, startWithExitCheck);
-    }
-
-    /**
-     * Checks if the following condition is met: if there is an S in the string, an E is followed somewhere after that.
-     *
-     * @param currentString
-     *         The current string to check.
-     *
-     * @return True if there is no S without an E that follows.
-     */
-    private static boolean checkStartWithExit(String currentString) {
-        int indexS = -1; // assume there is no s present
-        // find next S in the sting. As long as there is one, keep checking.
-        // The next S is found by taking the previous index, and searching from the character after that.
-        while ((indexS = currentString.indexOf("S", indexS + 1)) != -1) {// if one or more s is present, check if there is an e after it. If there is, return false. Otherwise, return true.
-            int indexE = currentString.indexOf("E", indexS + 1); // look for and E from the character after that S.
-            if (indexE == -1) { // this current s does not have an e after it. no need to check other s.
-                return false;
+        // Draw random actions of the length. If they fail the checks, start over.
+        while (true) {
+            ActionSequence combination = ActionSequence.random(length, random);
+            if (automaton.accepts(combination)) {
+                return combination;
             }
         }
-        return true; // no s present, no problem
     }
 
     /**
@@ -232,7 +203,7 @@ public class RandomActionSequenceGenerator {
         // check every one of them
         for (int charIndex = 0; charIndex < actionSequence.length(); charIndex++) {
             char initialChar = actionSequence.charAt(charIndex);
-            for (char newChar : validChar) {
+            for (char newChar : ActionSequence.ACTIONS.toCharArray()) {
                 if (newChar != initialChar) {
                     // * Get new action sequence
                     // copy old action sequence and replace the char at the given index
@@ -264,28 +235,7 @@ public class RandomActionSequenceGenerator {
      * @return True if the action sequence is valid, for the performed checks.
      */
     private static boolean checkActionSequence(String alteredActionSequence, boolean atLeastOneExitCheck, boolean startWithExitOrQuitCheck) {
-        // check if it contains at least one exit
-        boolean atLeastOneExit = true;
-        if (atLeastOneExitCheck) { // if we have to check
-            if (!alteredActionSequence.contains("E")) { // does not contain one
-                atLeastOneExit = false;
-            }
-        }
-
-        // check pairs
-        boolean startWithExitOrQuit = true;
-        if (startWithExitOrQuitCheck) { // if we have to check
-            int indexS = -1; // assume there is no s present, then stays true
-            while ((indexS = alteredActionSequence.indexOf("S", indexS + 1)) != -1) {// if one or more s is present, check if there is an e after it. If there is, return false. Otherwise, return true.
-                int indexE = alteredActionSequence.indexOf("E", indexS + 1); // look for and E from the character after that S.
-                int indexQ = alteredActionSequence.indexOf("Q", indexS + 1); // look for an Q from the character after that S.
-                if ((indexQ == -1) && (indexE == -1)) { // this current s does not have an e or q after it. no need to check other s.
-                    startWithExitOrQuit = false;
-                }
-            }
-        }
-
-        return atLeastOneExit && startWithExitOrQuit;
+        return new ActionSequenceAutomaton(atLeastOneExitCheck, startWithExitOrQuitCheck, true).accepts(alteredActionSequence);
     }
 
 }
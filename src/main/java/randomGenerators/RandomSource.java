@@ -0,0 +1,73 @@
+package randomGenerators;
+
+import java.util.SplittableRandom;
+
+/**
+ * The root of all randomness in a run. One seed determines every generated map and action sequence, so a run can be
+ * repeated exactly by putting its seed in the configuration file.
+ * <p>
+ * Every iteration gets its own SplittableRandom that only depends on the seed and the iteration number, not on the
+ * iterations before it. The map and action sequence of a crashing iteration can therefore be generated again from
+ * the seed in the log, without storing the map itself. The custom inputs that are generated before the first
+ * iteration use the generator of iteration 0. When the persistent corpus skips inputs that were executed before, the
+ * generators are numbered by input instead, so a skipped input does not make the next iteration draw the same one.
+ * </p>
+ * <p>
+ * Usage:
+ * RandomSource randomSource = new RandomSource(configFileReader.getSeed());
+ * SplittableRandom iterationRandom = randomSource.forIteration(iterationNumber);
+ * mapGenerator.setRandom(iterationRandom.split());
+ * </p>
+ */
+public class RandomSource {
+
+    /**
+     * Odd constant of SplittableRandom, used to spread the iteration numbers over the seeds.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The seed of this run.
+     */
+    private final long seed;
+
+    /**
+     * Constructs a RandomSource with the given seed, or with a new random seed if none is given.
+     *
+     * @param seed The seed of the run, or null to draw one.
+     */
+    public RandomSource(Long seed) {
+        this.seed = seed != null ? seed : new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Gives the seed of this run, to be logged.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gives the generator of one iteration. Calling it again with the same iteration number gives a generator with
+     * exactly the same values.
+     *
+     * @param iterationNumber The number of the iteration, 0 for the custom inputs.
+     * @return A new generator for the iteration.
+     */
+    public SplittableRandom forIteration(int iterationNumber) {
+        // The mixed first value of a generator is the seed of the iteration, so neighbouring iterations do not share values
+        long iterationSeed = new SplittableRandom(seed + iterationNumber * GOLDEN_GAMMA).nextLong();
+        return new SplittableRandom(iterationSeed);
+    }
+
+    /**
+     * Gives the generator of the custom inputs, that are generated before the first iteration.
+     *
+     * @return A new generator for the custom inputs.
+     */
+    public SplittableRandom forCustomInputs() {
+        return forIteration(0);
+    }
+}
@@ -0,0 +1,470 @@
+package randomGenerators.map;
+
+import organizers.InMemoryMapStore;
+import randomGenerators.ActionSequence;
+
+import java.util.Arrays;
+
+/**
+ * In-memory model of a text map, parsed once from the bytes of the map file into a compact grid: one byte per cell,
+ * row after row with a stride of the map width. Rows that are shorter than the widest row are padded with spaces, the
+ * way IterationResult.isValidMove always looked at a map.
+ * <p>
+ * While parsing, the positions of the player, the food and the monsters are collected, and for every cell it is
+ * precomputed which moves are blocked by a wall or the bounds of the map. A flood fill from the player marks the cells
+ * the player can reach without walking through walls or monsters. So checking an action sequence against the map, or
+ * whether the player can reach food, is a lookup per action, without reading the map again.
+ * </p>
+ * A position is the index of a cell in the grid: row * width + column.
+ */
+public final class BoardModel {
+
+    /**
+     * Flag of a cell: moving up leaves the map or enters a wall.
+     */
+    private static final byte BLOCKED_UP = 1;
+
+    /**
+     * Flag of a cell: moving down leaves the map or enters a wall.
+     */
+    private static final byte BLOCKED_DOWN = 2;
+
+    /**
+     * Flag of a cell: moving left leaves the map or enters a wall.
+     */
+    private static final byte BLOCKED_LEFT = 4;
+
+    /**
+     * Flag of a cell: moving right leaves the map or enters a wall.
+     */
+    private static final byte BLOCKED_RIGHT = 8;
+
+    /**
+     * Flag of a cell: the player can reach the cell without walking through walls or monsters.
+     */
+    private static final byte REACHABLE = 16;
+
+    /**
+     * The cell of the padding of rows that are shorter than the widest row.
+     */
+    private static final byte PADDING = ' ';
+
+    /**
+     * Number of rows.
+     */
+    private final int height;
+
+    /**
+     * Number of columns of the widest row, and the stride of the grid.
+     */
+    private final int width;
+
+    /**
+     * The characters of the cells, row after row.
+     */
+    private final byte[] cells;
+
+    /**
+     * The blocked moves and the reachability of the cells, by position.
+     */
+    private final byte[] flags;
+
+    /**
+     * True if all rows have the same length.
+     */
+    private final boolean rectangular;
+
+    /**
+     * Number of players on the map.
+     */
+    private int playerCount;
+
+    /**
+     * Position of the first player, in row-major order, or -1 if the map has no player.
+     */
+    private int playerPosition = -1;
+
+    /**
+     * Positions of the food, in row-major order.
+     */
+    private final int[] foodPositions;
+
+    /**
+     * Positions of the monsters, in row-major order.
+     */
+    private final int[] monsterPositions;
+
+    /**
+     * True if the player can reach food without walking through walls or monsters.
+     */
+    private boolean foodReachable;
+
+    /**
+     * Constructs a BoardModel from the rows of a map. Use parse or of.
+     *
+     * @param content   The bytes of the map file.
+     * @param rowStarts The index of the first byte of every row.
+     * @param rowEnds   The index after the last byte of every row, without line separator.
+     * @param height    The number of rows.
+     */
+    private BoardModel(byte[] content, int[] rowStarts, int[] rowEnds, int height) {
+        int width = 0;
+        boolean rectangular = true;
+        for (int row = 0; row < height; row++) {
+            int rowLength = rowEnds[row] - rowStarts[row];
+            rectangular &= row == 0 || rowLength == width;
+            width = Math.max(width, rowLength);
+        }
+        this.height = height;
+        this.width = width;
+        this.rectangular = rectangular;
+        this.cells = new byte[height * width];
+        this.flags = new byte[cells.length];
+
+        // The grid, and the positions of the player, the food and the monsters
+        int foodCount = 0;
+        int monsterCount = 0;
+        int[] foodPositions = new int[8];
+        int[] monsterPositions = new int[8];
+        for (int row = 0; row < height; row++) {
+            int rowStart = row * width;
+            int rowLength = rowEnds[row] - rowStarts[row];
+            System.arraycopy(content, rowStarts[row], cells, rowStart, rowLength);
+            Arrays.fill(cells, rowStart + rowLength, rowStart + width, PADDING);
+            for (int position = rowStart; position < rowStart + rowLength; position++) {
+                switch (cells[position]) {
+                    case 'P' -> {
+                        if (playerCount++ == 0) {
+                            playerPosition = position;
+                        }
+                    }
+                    case 'F' -> {
+                        if (foodCount == foodPositions.length) {
+                            foodPositions = Arrays.copyOf(foodPositions, 2 * foodCount);
+                        }
+                        foodPositions[foodCount++] = position;
+                    }
+                    case 'M' -> {
+                        if (monsterCount == monsterPositions.length) {
+                            monsterPositions = Arrays.copyOf(monsterPositions, 2 * monsterCount);
+                        }
+                        monsterPositions[monsterCount++] = position;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        this.foodPositions = Arrays.copyOf(foodPositions, foodCount);
+        this.monsterPositions = Arrays.copyOf(monsterPositions, monsterCount);
+
+        // The moves that leave the map or enter a wall
+        for (int position = 0; position < cells.length; position++) {
+            int row = position / width;
+            int column = position % width;
+            byte blocked = 0;
+            if (row == 0 || cells[position - width] == 'W') {
+                blocked |= BLOCKED_UP;
+            }
+            if (row == height - 1 || cells[position + width] == 'W') {
+                blocked |= BLOCKED_DOWN;
+            }
+            if (column == 0 || cells[position - 1] == 'W') {
+                blocked |= BLOCKED_LEFT;
+            }
+            if (column == width - 1 || cells[position + 1] == 'W') {
+                blocked |= BLOCKED_RIGHT;
+            }
+            flags[position] = blocked;
+        }
+        floodFill();
+    }
+
+    /**
+     * Parses the bytes of a text map. Rows end with \n, \r\n or \r, like BufferedReader.readLine splits them.
+     *
+     * @param content The bytes of the map file.
+     * @return The model of the map.
+     */
+    public static BoardModel parse(byte[] content) {
+        int[] rowStarts = new int[16];
+        int[] rowEnds = new int[16];
+        int height = 0;
+        int rowStart = 0;
+        for (int i = 0; i <= content.length; i++) {
+            boolean endOfContent = i == content.length;
+            if (!endOfContent && content[i] != '\n' && content[i] != '\r') {
+                continue;
+            }
+            if (endOfContent && rowStart == content.length) {
+                break; // no row after the last line separator
+            }
+            if (height == rowStarts.length) {
+                rowStarts = Arrays.copyOf(rowStarts, 2 * height);
+                rowEnds = Arrays.copyOf(rowEnds, 2 * height);
+            }
+            rowStarts[height] = rowStart;
+            rowEnds[height] = i;
+            height++;
+            if (!endOfContent && content[i] == '\r' && i + 1 < content.length && content[i + 1] == '\n') {
+                i++;
+            }
+            rowStart = i + 1;
+        }
+        return new BoardModel(content, rowStarts, rowEnds, height);
+    }
+
+    /**
+     * Reads and parses a text map, from memory if it is stored there and from disk otherwise.
+     *
+     * @param mapFilePath The file path of the map.
+     * @return The model of the map, or an empty model if the map cannot be read.
+     */
+    public static BoardModel of(String mapFilePath) {
+        byte[] content = InMemoryMapStore.readAllBytes(mapFilePath);
+        return parse(content == null ? new byte[0] : content);
+    }
+
+    /**
+     * Marks the cells the player can reach without walking through walls, monsters or padding, breadth first.
+     */
+    private void floodFill() {
+        if (playerPosition < 0) {
+            return;
+        }
+        int[] queue = new int[cells.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = playerPosition;
+        flags[playerPosition] |= REACHABLE;
+        while (head < tail) {
+            int position = queue[head++];
+            if (cells[position] == 'F') {
+                foodReachable = true;
+            }
+            byte blocked = flags[position];
+            if ((blocked & BLOCKED_UP) == 0) {
+                tail = visit(position - width, queue, tail);
+            }
+            if ((blocked & BLOCKED_DOWN) == 0) {
+                tail = visit(position + width, queue, tail);
+            }
+            if ((blocked & BLOCKED_LEFT) == 0) {
+                tail = visit(position - 1, queue, tail);
+            }
+            if ((blocked & BLOCKED_RIGHT) == 0) {
+                tail = visit(position + 1, queue, tail);
+            }
+        }
+    }
+
+    /**
+     * Adds a neighbour that is not a wall to the queue of the flood fill, if it is not visited yet and the player can
+     * walk on it.
+     *
+     * @param position The position of the neighbour.
+     * @param queue    The queue of the flood fill.
+     * @param tail     The end of the queue.
+     * @return The new end of the queue.
+     */
+    private int visit(int position, int[] queue, int tail) {
+        if ((flags[position] & REACHABLE) != 0 || cells[position] == 'M' || cells[position] == PADDING) {
+            return tail;
+        }
+        flags[position] |= REACHABLE;
+        queue[tail] = position;
+        return tail + 1;
+    }
+
+    /**
+     * Gives the number of rows.
+     *
+     * @return The height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gives the number of columns of the widest row.
+     *
+     * @return The width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gives the character of a cell.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @return The character, a space for the padding of a short row.
+     */
+    public char getCell(int row, int column) {
+        return (char) (cells[row * width + column] & 0xFF);
+    }
+
+    /**
+     * Monitors if all rows of the map have the same length.
+     *
+     * @return true if the map is rectangular, false otherwise
+     */
+    public boolean isRectangular() {
+        return rectangular;
+    }
+
+    /**
+     * Gives the number of players on the map.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gives the position of the player, the first one in row-major order if there are more.
+     *
+     * @return The position, or -1 if the map has no player.
+     */
+    public int getPlayerPosition() {
+        return playerPosition;
+    }
+
+    /**
+     * Gives the positions of the food.
+     *
+     * @return The positions, in row-major order.
+     */
+    public int[] getFoodPositions() {
+        return foodPositions.clone();
+    }
+
+    /**
+     * Gives the positions of the monsters.
+     *
+     * @return The positions, in row-major order.
+     */
+    public int[] getMonsterPositions() {
+        return monsterPositions.clone();
+    }
+
+    /**
+     * Monitors if the map is a valid board: not empty, rectangular, exactly one player and at least one food.
+     *
+     * @return true if the map is a valid board, false otherwise
+     */
+    public boolean isValidBoard() {
+        return height > 0 && width > 0 && rectangular && playerCount == 1 && foodPositions.length > 0;
+    }
+
+    /**
+     * Monitors if the player can reach a cell without walking through walls or monsters.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @return true if the cell is reachable, false otherwise
+     */
+    public boolean isReachable(int row, int column) {
+        return (flags[row * width + column] & REACHABLE) != 0;
+    }
+
+    /**
+     * Monitors if the player can reach food without walking through walls or monsters.
+     *
+     * @return true if food is reachable, false otherwise
+     */
+    public boolean isFoodReachable() {
+        return foodReachable;
+    }
+
+    /**
+     * Gives the index of the first action in an action sequence that moves the player to a wall cell or outside the
+     * bounds of the map, with the rules of IterationResult.isValidMove: only the actions of games that are started
+     * (S) and ended (E, or Q if games can end with quit) are checked, and the player keeps its position between games.
+     * Every action of a game is a lookup in the precomputed blocked moves of the cell of the player.
+     *
+     * @param actionSequence The full action sequence, packed.
+     * @param canEndWithQuit True if a Q ends a game, false if a Q is part of a game.
+     * @return The index of the first invalid action, or -1 if all checked actions are valid.
+     */
+    private int getFirstInvalidMove(ActionSequence actionSequence, boolean canEndWithQuit) {
+        int position = playerPosition;
+        boolean gameActive = false;
+        int firstInvalidMove = -1; // of the current game, only counts when the game ends
+        for (int i = 0; i < actionSequence.length(); i++) {
+            int action = actionSequence.actionAt(i);
+            boolean endsGame = false;
+            if (action == ActionSequence.START) {
+                gameActive = true;
+            } else if (action == ActionSequence.EXIT) {
+                if (!gameActive) {
+                    continue;
+                }
+                endsGame = true;
+            } else if (action == ActionSequence.QUIT) {
+                if (gameActive && canEndWithQuit) {
+                    endsGame = true;
+                } else {
+                    gameActive = !canEndWithQuit; // without quit as end, a Q starts a game like IterationResult does
+                    if (!gameActive) {
+                        continue;
+                    }
+                }
+            } else if (!gameActive) {
+                continue;
+            }
+            if (firstInvalidMove < 0) {
+                if (position < 0) { // no player, so it is outside the map
+                    firstInvalidMove = i;
+                } else {
+                    int moved = move(position, action);
+                    if (moved < 0) {
+                        firstInvalidMove = i;
+                    } else {
+                        position = moved;
+                    }
+                }
+            }
+            if (endsGame) {
+                if (firstInvalidMove >= 0) {
+                    return firstInvalidMove;
+                }
+                gameActive = false;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if all actions of the started and ended games of an action sequence keep the player within the bounds of
+     * the map and out of walls. See getFirstInvalidMove. Characters that are not actions are left out, they do not
+     * move the player.
+     *
+     * @param actionSequence The full action sequence, as text or packed.
+     * @param canEndWithQuit True if a Q ends a game, false if a Q is part of a game.
+     * @return true if all checked actions are valid moves, false otherwise
+     */
+    public boolean isValidMove(CharSequence actionSequence, boolean canEndWithQuit) {
+        return getFirstInvalidMove(ActionSequence.of(actionSequence), canEndWithQuit) < 0;
+    }
+
+    /**
+     * Gives the position of the player after an action.
+     *
+     * @param position The position of the player.
+     * @param action   The code of the action. Only U, D, L and R move the player.
+     * @return The new position, or -1 if the player would leave the map or enter a wall.
+     */
+    private int move(int position, int action) {
+        byte blocked = flags[position];
+        return switch (action) {
+            case ActionSequence.UP -> (blocked & BLOCKED_UP) == 0 ? position - width : -1;
+            case ActionSequence.DOWN -> (blocked & BLOCKED_DOWN) == 0 ? position + width : -1;
+            case ActionSequence.LEFT -> (blocked & BLOCKED_LEFT) == 0 ? position - 1 : -1;
+            case ActionSequence.RIGHT -> (blocked & BLOCKED_RIGHT) == 0 ? position + 1 : -1;
+            default -> position;
+        };
+    }
+}
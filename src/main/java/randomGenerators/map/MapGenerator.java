@@ -1,5 +1,11 @@
 package randomGenerators.map;
 
+import organizers.FileHandler;
+import organizers.InMemoryMapStore;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
 
 /**
  * This abstract class serves as the base class for map generators.
@@ -14,6 +20,21 @@ public abstract class MapGenerator {
      */
     public abstract String generateRandomMap();
 
+    /**
+     * The random generator of the current iteration. Set by the fuzzer before each iteration, so a map only depends
+     * on the seed of the run and the iteration number.
+     */
+    protected SplittableRandom random = new SplittableRandom();
+
+    /**
+     * Sets the random generator that is used for the next maps.
+     *
+     * @param random The random generator, see RandomSource.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
     /**
      * The number of generated maps. Used for generating unique map file names.
      */
@@ -35,6 +56,28 @@ public abstract class MapGenerator {
         return fileName;
     }
 
+    /**
+     * Stores a generated map under the given name in the actual maps directory. If maps are kept in memory, the
+     * content is only stored in the InMemoryMapStore and no file is written.
+     *
+     * @param fileName The name of the map file, with extension.
+     * @param content  The bytes of the map file.
+     * @return String File path of the map.
+     */
+    public static String storeMap(String fileName, byte[] content) {
+        String filePath = FileHandler.actualMapsDirectoryPath + '\\' + fileName;
+        if (InMemoryMapStore.isEnabled()) {
+            InMemoryMapStore.put(filePath, content);
+            return filePath;
+        }
+        try (FileOutputStream fos = new FileOutputStream(filePath)) {
+            fos.write(content);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return filePath;
+    }
+
     /**
      * Generates the name of the map copy, with the number and the correct extension.
      *
@@ -1,11 +1,5 @@
 package randomGenerators.map;
 
-import organizers.FileHandler;
-
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.Random;
-
 /**
  * This class generates random binary maps based on the RandomMapGenerator class.
  * It provides functionality to generate binary maps with random content.
@@ -34,22 +28,11 @@ public class RandomBinaryMapGenerator extends MapGenerator {
      */
     @Override
     public String generateRandomMap() {
-        Random random = new Random();
-
         int binarySize = random.nextInt(maxBinarySize);
         byte[] bytes = new byte[binarySize];
         random.nextBytes(bytes);
 
-        String fileName = generateRandomMapFileName(".bin");
-        String filePath = FileHandler.actualMapsDirectoryPath + "\\" + fileName;
-
-        try (FileOutputStream fos = new FileOutputStream(filePath)) {
-            fos.write(bytes);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return filePath;
+        return storeMap(generateRandomMapFileName(".bin"), bytes);
     }
 
     /**
@@ -68,17 +51,8 @@ public class RandomBinaryMapGenerator extends MapGenerator {
             binaryData[i] = (byte) encodedline.charAt(i);
         }
 
-        String fileName = generateRandomMapFileName(".bin");
-        String filePath = FileHandler.actualMapsDirectoryPath + "\\" + fileName;
-
         // Write the byte array to a binary file
-        try (FileOutputStream fos = new FileOutputStream(filePath)) {
-            fos.write(binaryData);
-            fos.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return filePath;
+        return storeMap(generateRandomMapFileName(".bin"), binaryData);
     }
 
 }
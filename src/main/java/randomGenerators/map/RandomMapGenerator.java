@@ -4,11 +4,11 @@ import dataProviders.ConfigFileReader;
 import enums.MapFileType;
 import managers.FileReaderManager;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class generates random maps based on the MapGenerator abstract class.
- * It provides functionality to generate both text-based and binary maps.
+ * It provides functionality to generate both text-based and binary maps, and text-based maps that are valid boards.
  */
 public class RandomMapGenerator extends MapGenerator {
 
@@ -27,6 +27,11 @@ public class RandomMapGenerator extends MapGenerator {
      */
     private RandomTextMapGenerator randomTextMapGenerator;
 
+    /**
+     * The ValidTextMapGenerator instance used for generating valid text files. Only made if the file type asks for it.
+     */
+    private ValidTextMapGenerator validTextMapGenerator;
+
     /**
      * File type used in this run (not for this particular map file) - more only text, only binary, of combination.
      * Specified in configuration settings.
@@ -41,6 +46,27 @@ public class RandomMapGenerator extends MapGenerator {
         configFileReader = FileReaderManager.getInstance().getConfigReader();
         this.randomBinaryMapGenerator = new RandomBinaryMapGenerator(configFileReader.getMaxBinaryMapSize());
         this.randomTextMapGenerator = new RandomTextMapGenerator(configFileReader.getMaxTextMapHeight() + 1, configFileReader.getMaxTextMapWidth() + 1);
+        if (fileType == MapFileType.VALID_TEXT) {
+            this.validTextMapGenerator = new ValidTextMapGenerator(configFileReader.getMaxTextMapHeight(),
+                    configFileReader.getMaxTextMapWidth(), configFileReader.getWallDensity(),
+                    configFileReader.getMonsterDensity(), configFileReader.getFoodDensity(),
+                    configFileReader.getReachableFood());
+        }
+    }
+
+    /**
+     * Sets the random generator of this generator and of the text and binary generators it uses.
+     *
+     * @param random The random generator, see RandomSource.
+     */
+    @Override
+    public void setRandom(SplittableRandom random) {
+        super.setRandom(random);
+        randomBinaryMapGenerator.setRandom(random);
+        randomTextMapGenerator.setRandom(random);
+        if (validTextMapGenerator != null) {
+            validTextMapGenerator.setRandom(random);
+        }
     }
 
     /**
@@ -56,8 +82,8 @@ public class RandomMapGenerator extends MapGenerator {
         switch (fileType) {
             case TEXT -> filePath = randomTextMapGenerator.generateRandomMap();
             case BINARY -> filePath = randomBinaryMapGenerator.generateRandomMap();
+            case VALID_TEXT -> filePath = validTextMapGenerator.generateRandomMap();
             case ALL -> {
-                Random random = new Random();
                 boolean isTextType = random.nextBoolean();
                 if (isTextType) {
                     filePath = randomTextMapGenerator.generateRandomMap();
@@ -2,13 +2,16 @@ package randomGenerators.map;
 
 import organizers.FileHandler;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.IntStream;
 
 import static java.lang.String.valueOf;
@@ -35,6 +38,22 @@ public class RandomTextMapGenerator extends MapGenerator {
      */
     private static List<Character> validChar;
 
+    /**
+     * True if the player of a checked rectangular map or a mutated map must be able to reach food without walking
+     * through walls or monsters.
+     */
+    private boolean reachableFood;
+
+    /**
+     * The characters of the cells of a stress map, besides the one player: monster, wall, empty and food.
+     */
+    private static final byte[] STRESS_MAP_CHARACTERS = {'M', 'W', '0', 'F'};
+
+    /**
+     * Max number of bytes of a stress map that are mapped in memory at once.
+     */
+    private static final int STRESS_MAP_CHUNK_SIZE = 64 * 1024 * 1024;
+
     /**
      * Constructs a RandomTextMapGenerator with the specified maximum height and width.
      *
@@ -53,26 +72,31 @@ public class RandomTextMapGenerator extends MapGenerator {
         this.validChar = validChar;
     }
 
+    /**
+     * Sets if the player of the maps of generateRandomValidCharRectangularTextMap (with the player and food check) and
+     * of the mutated maps of mutateMap must be able to reach food. The reachability is a flood fill of the BoardModel of
+     * the map. Default: false.
+     *
+     * @param reachableFood True if food must be reachable, see the reachableFood configuration.
+     */
+    public void setReachableFood(boolean reachableFood) {
+        this.reachableFood = reachableFood;
+    }
+
     /**
      * Creates a new .txt document in the actual maps directory with the map name, and stores the file path of
-     * that document in a string.
+     * that document in a string. Each line ends with the line separator of the system, as a BufferedWriter writes it.
+     * If maps are kept in memory, the document is only created in memory.
      * @param fileName  The name of the file that will be created, with extension.
      * @param lines A list of strings, where each string is a row in the map.
      * @return A string, that is the file path of the newly generated .txt file that has those lines as text.
      */
     public static String writeMapAway(List<String> lines, String fileName) {
-        String filePath = FileHandler.actualMapsDirectoryPath + '\\' + fileName;
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
         }
-
-        return filePath;
+        return storeMap(fileName, text.toString().getBytes(Charset.defaultCharset())); // FileWriter uses default charset
     }
 
     /**
@@ -85,7 +109,6 @@ public class RandomTextMapGenerator extends MapGenerator {
         List<String> lines = new ArrayList<>();
 
         // map size
-        Random random = new Random();
         int mapHeight = random.nextInt(maxHeight);
         int mapWidth = random.nextInt(maxWidth);
 
@@ -104,6 +127,62 @@ public class RandomTextMapGenerator extends MapGenerator {
         return filePath;
     }
 
+    /**
+     * Generates a large map for the stress mode, that probes how the time of JPacman scales with the size of the board.
+     * The map is rectangular with exactly one player and at least one food; the other cells are random monsters,
+     * walls, empty cells and food. The map is streamed row by row into a memory-mapped file, in chunks of at most
+     * 64 MB, so a 10000x10000 map never exists as strings or as one array. A stress map is always written to disk, also
+     * when maps are kept in memory.
+     *
+     * @param height The number of rows.
+     * @param width  The number of columns.
+     * @return The file path of the generated text-based map file.
+     */
+    public String generateStressMap(int height, int width) {
+        byte[] lineSeparator = System.lineSeparator().getBytes(Charset.defaultCharset());
+        long stride = (long) width + lineSeparator.length;
+        if (height < 1 || width < 1 || stride > STRESS_MAP_CHUNK_SIZE || (long) height * width < 2) {
+            throw new IllegalArgumentException("Invalid stress map size " + height + "x" + width + ".");
+        }
+        // The player and one food on two different cells, the other cells are random
+        long cellCount = (long) height * width;
+        long player = random.nextLong(cellCount);
+        long food = random.nextLong(cellCount - 1);
+        if (food >= player) {
+            food++;
+        }
+
+        String filePath = FileHandler.actualMapsDirectoryPath + '\\' + generateRandomMapFileName(".txt");
+        byte[] row = new byte[(int) stride];
+        System.arraycopy(lineSeparator, 0, row, width, lineSeparator.length);
+        int rowsPerChunk = (int) (STRESS_MAP_CHUNK_SIZE / stride);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int chunkStart = 0; chunkStart < height; chunkStart += rowsPerChunk) {
+                int chunkRows = Math.min(rowsPerChunk, height - chunkStart);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart * stride,
+                        chunkRows * stride);
+                for (int rowNumber = chunkStart; rowNumber < chunkStart + chunkRows; rowNumber++) {
+                    for (int column = 0; column < width; column++) {
+                        row[column] = STRESS_MAP_CHARACTERS[random.nextInt(STRESS_MAP_CHARACTERS.length)];
+                    }
+                    long rowStart = (long) rowNumber * width;
+                    if (player >= rowStart && player < rowStart + width) {
+                        row[(int) (player - rowStart)] = 'P';
+                    }
+                    if (food >= rowStart && food < rowStart + width) {
+                        row[(int) (food - rowStart)] = 'F';
+                    }
+                    buffer.put(row);
+                }
+                buffer.force();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return filePath;
+    }
+
     /**
      * Get a one-line text map, with the characters specified in the string.
      *
@@ -131,7 +210,6 @@ public class RandomTextMapGenerator extends MapGenerator {
      */
     public String generateRandomValidCharRandomSizeTextMap() {
         List<String> lines = new ArrayList<>();
-        Random random = new Random();
 
         // Randomly pick content
         int mapHeight = random.nextInt(maxHeight); // Random number of rows
@@ -155,6 +233,7 @@ public class RandomTextMapGenerator extends MapGenerator {
      * The number of columns is the same for each row and is randomly chosen.
      * If justOnePlayerCheck is true, the P can only occur in the map once.
      * If foodPresentCheck is true, the F can only occur in the map one or more.
+     * If both checks are on and reachable food is set, the player must be able to reach food as well.
      * Else, the number of times that each valid character occurs in the map is also randomly chosen.
      * This method does not use the checkMap() method because it will alter the map until it passes all checks.
      *
@@ -174,7 +253,6 @@ public class RandomTextMapGenerator extends MapGenerator {
 
         while (invalidMap) {
             lines = new ArrayList<>(); // Reset lines to empty list each time we try to make valid map.
-            Random random = new Random();
 
             /* Pick random size */
             int mapHeight;
@@ -263,6 +341,9 @@ public class RandomTextMapGenerator extends MapGenerator {
                 }
             }
             invalidMap = (justOnePlayerCheck && !justOnePlayer) || (foodPresentCheck && !foodPresent); // If we need to check, check if the map is valid.
+            if (!invalidMap && reachableFood && justOnePlayerCheck && foodPresentCheck) {
+                invalidMap = !isFoodReachable(lines);
+            }
         }
 
         /* Write valid map away */
@@ -274,8 +355,8 @@ public class RandomTextMapGenerator extends MapGenerator {
      * This method mutates a map and writes the original and all mutated maps away. The mutating is done by
      * taking each separate character in the map and replacing it with other each valid character. Thus, for each character
      * in the map, there are  mutated versions of the map where, in that exact position, the map contains any other
-     * valid character ('P', 'F', 'W', 'E', 'M') that was not there originally. If the map is still valid, the map is
-     * written away.
+     * valid character ('P', 'F', 'W', 'E', 'M') that was not there originally. If the map is still valid, and the player
+     * can still reach food if reachable food is set, the map is written away.
      *
      * @param originalFilePath
      *         FilePath of original map file to mutate, relative to the project.
@@ -319,7 +400,8 @@ public class RandomTextMapGenerator extends MapGenerator {
                         // replace altered row with original
                         mutatedMapLines.set(rowIndex, alteredRow);
                         // * Check new map. If check is passed, write away
-                        if (checkMap(mutatedMapLines, false, true, true)) {
+                        if (checkMap(mutatedMapLines, false, true, true)
+                                && (!reachableFood || isFoodReachable(mutatedMapLines))) {
                             String filePath = writeMapAway(mutatedMapLines, generateRandomMapFileName(".txt"));
                             validFilePaths.add(filePath);
                         }
@@ -330,6 +412,31 @@ public class RandomTextMapGenerator extends MapGenerator {
         return validFilePaths;
     }
 
+    /**
+     * Checks if a map can be mutated by mutateMap: it is rectangular and not empty, holds one player and holds food.
+     *
+     * @param mapContent
+     *         The text of the map.
+     *
+     * @return True if mutateMap would mutate the map, false if it would give an empty list.
+     */
+    public boolean isMutable(String mapContent) {
+        List<String> mapLines = Arrays.asList(mapContent.split("\\n"));
+        return !mapLines.isEmpty() && checkMap(mapLines, true, true, true);
+    }
+
+    /**
+     * Checks if the player of a map can reach food without walking through walls or monsters.
+     *
+     * @param mapLines
+     *         The lines representing the map.
+     *
+     * @return True if food is reachable from the (first) player.
+     */
+    private static boolean isFoodReachable(List<String> mapLines) {
+        return BoardModel.parse(String.join("\n", mapLines).getBytes(StandardCharsets.US_ASCII)).isFoodReachable();
+    }
+
     /**
      * Checks if a map meets the specified conditions.
      *
@@ -0,0 +1,209 @@
+package randomGenerators.map;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This class generates random text-based maps that are valid boards: rectangular, not empty, exactly one player and at
+ * least one food. Unlike RandomTextMapGenerator.generateRandomValidCharRectangularTextMap, it never generates a map
+ * that has to be fixed or thrown away: every cell gets its character in one pass, with the configured densities of
+ * walls, monsters and food, and then the player and the food are placed directly.
+ * <p>
+ * Optionally the player always has a path to food: a path of empty cells, without walls and monsters, is carved from
+ * the player to a food cell. The map is written straight into a reused byte buffer, in the layout of the map file
+ * (each row followed by the line separator of the system), so a map costs no boxing, no strings and no extra copies
+ * besides the stored file content.
+ * </p>
+ */
+public class ValidTextMapGenerator extends MapGenerator {
+
+    /**
+     * The bytes of the line separator of the system, as RandomTextMapGenerator.writeMapAway writes it.
+     */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    /**
+     * Maximum height the map can have.
+     */
+    private final int maxHeight;
+
+    /**
+     * Maximum width the map can have.
+     */
+    private final int maxWidth;
+
+    /**
+     * Fraction of the cells that is a wall.
+     */
+    private final double wallDensity;
+
+    /**
+     * Fraction of the cells that is a monster.
+     */
+    private final double monsterDensity;
+
+    /**
+     * Fraction of the cells that is food.
+     */
+    private final double foodDensity;
+
+    /**
+     * True if the player must have a path to food.
+     */
+    private final boolean reachableFood;
+
+    /**
+     * The map that is generated, in the layout of the map file. Reused for every map.
+     */
+    private final byte[] board;
+
+    /**
+     * Constructs a ValidTextMapGenerator.
+     *
+     * @param maxHeight      The maximum height of the generated maps.
+     * @param maxWidth       The maximum width of the generated maps.
+     * @param wallDensity    The fraction of the cells that is a wall.
+     * @param monsterDensity The fraction of the cells that is a monster.
+     * @param foodDensity    The fraction of the cells that is food. At least one cell is food.
+     * @param reachableFood  True if the player must have a path to food.
+     * @throws IllegalArgumentException If the maximum size has no room for a player and food.
+     */
+    public ValidTextMapGenerator(int maxHeight, int maxWidth, double wallDensity, double monsterDensity,
+                                 double foodDensity, boolean reachableFood) {
+        if (maxHeight < 1 || maxWidth < 1 || maxHeight * maxWidth < 2) {
+            throw new IllegalArgumentException("A valid map needs at least two cells, for the player and food. Max size is "
+                    + maxHeight + "x" + maxWidth + ".");
+        }
+        this.maxHeight = maxHeight;
+        this.maxWidth = maxWidth;
+        this.wallDensity = wallDensity;
+        this.monsterDensity = monsterDensity;
+        this.foodDensity = foodDensity;
+        this.reachableFood = reachableFood;
+        this.board = new byte[maxHeight * (maxWidth + LINE_SEPARATOR.length)];
+    }
+
+    /**
+     * Generates a valid text-based map file.
+     *
+     * @return The file path of the generated text-based map file.
+     */
+    @Override
+    public String generateRandomMap() {
+        return storeMap(generateRandomMapFileName(".txt"), generateBoard());
+    }
+
+    /**
+     * Generates the content of a valid map, without storing it.
+     *
+     * @return The bytes of the map file.
+     */
+    public byte[] generateBoard() {
+        // map size, with room for the player and food
+        int height = random.nextInt(maxHeight) + 1;
+        int width = random.nextInt(maxWidth) + 1;
+        if (height * width < 2) {
+            if (maxWidth >= 2) {
+                width = 2;
+            } else {
+                height = 2;
+            }
+        }
+        int stride = width + LINE_SEPARATOR.length;
+
+        // map content, in one pass, with the densities as thresholds
+        double wallThreshold = wallDensity;
+        double monsterThreshold = wallThreshold + monsterDensity;
+        double foodThreshold = monsterThreshold + foodDensity;
+        int foodCount = 0;
+        for (int row = 0; row < height; row++) {
+            int rowStart = row * stride;
+            for (int column = 0; column < width; column++) {
+                double value = random.nextDouble();
+                byte cell;
+                if (value < wallThreshold) {
+                    cell = 'W';
+                } else if (value < monsterThreshold) {
+                    cell = 'M';
+                } else if (value < foodThreshold) {
+                    cell = 'F';
+                    foodCount++;
+                } else {
+                    cell = '0';
+                }
+                board[rowStart + column] = cell;
+            }
+            System.arraycopy(LINE_SEPARATOR, 0, board, rowStart + width, LINE_SEPARATOR.length);
+        }
+
+        // exactly one player, the fill never gives one
+        int cellCount = height * width;
+        int player = random.nextInt(cellCount);
+        int playerIndex = (player / width) * stride + player % width;
+        if (board[playerIndex] == 'F') {
+            foodCount--;
+        }
+        board[playerIndex] = 'P';
+
+        // at least one food, on another cell than the player
+        if (reachableFood || foodCount == 0) {
+            int food = random.nextInt(cellCount - 1);
+            if (food >= player) {
+                food++;
+            }
+            if (reachableFood) {
+                carvePath(player / width, player % width, food / width, food % width, stride);
+            }
+            board[(food / width) * stride + food % width] = 'F';
+        }
+        return Arrays.copyOf(board, height * stride);
+    }
+
+    /**
+     * Carves a path without walls and monsters from the player to the food: first along the row of the player and then
+     * along the column of the food, or the other way around. Walls and monsters on the path become empty cells.
+     *
+     * @param playerRow    The row of the player.
+     * @param playerColumn The column of the player.
+     * @param foodRow      The row of the food.
+     * @param foodColumn   The column of the food.
+     * @param stride       The number of bytes of a row, with its line separator.
+     */
+    private void carvePath(int playerRow, int playerColumn, int foodRow, int foodColumn, int stride) {
+        int cornerRow = playerRow;
+        int cornerColumn = foodColumn;
+        if (random.nextBoolean()) {
+            cornerRow = foodRow;
+            cornerColumn = playerColumn;
+        }
+        clearLine(playerRow, playerColumn, cornerRow, cornerColumn, stride);
+        clearLine(cornerRow, cornerColumn, foodRow, foodColumn, stride);
+    }
+
+    /**
+     * Replaces the walls and monsters on a horizontal or vertical line of cells with empty cells.
+     *
+     * @param fromRow    The row of the start of the line.
+     * @param fromColumn The column of the start of the line.
+     * @param toRow      The row of the end of the line.
+     * @param toColumn   The column of the end of the line.
+     * @param stride     The number of bytes of a row, with its line separator.
+     */
+    private void clearLine(int fromRow, int fromColumn, int toRow, int toColumn, int stride) {
+        int rowStep = Integer.signum(toRow - fromRow);
+        int columnStep = Integer.signum(toColumn - fromColumn);
+        int row = fromRow;
+        int column = fromColumn;
+        while (true) {
+            int index = row * stride + column;
+            if (board[index] == 'W' || board[index] == 'M') {
+                board[index] = '0';
+            }
+            if (row == toRow && column == toColumn) {
+                return;
+            }
+            row += rowStep;
+            column += columnStep;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package randomGenerators.mutation;
+
+import randomGenerators.ActionSequence;
+
+/**
+ * Mutators of action sequences. They insert, delete and repeat chunks of actions and substitute single actions, with
+ * the valid actions of JPacman. The sequences are packed ActionSequences, so a mutation shifts action codes instead of
+ * copying strings.
+ */
+public final class ActionSequenceMutators {
+
+    /**
+     * Max number of actions in an inserted, deleted or repeated chunk.
+     */
+    private static final int MAX_CHUNK_LENGTH = 8;
+
+    /**
+     * Not instantiable, only static factories.
+     */
+    private ActionSequenceMutators() {
+    }
+
+    /**
+     * Makes a havoc engine with all action sequence mutators.
+     *
+     * @param maxStackedMutations Max number of mutators that are applied after each other for one mutant.
+     * @param maxLength           Max number of actions that inserting and repeating chunks make.
+     * @return The engine.
+     */
+    public static HavocMutationEngine<ActionSequence> engine(int maxStackedMutations, int maxLength) {
+        return new HavocMutationEngine<ActionSequence>(maxStackedMutations)
+                .addMutator(substituteAction())
+                .addMutator(insertChunk(maxLength))
+                .addMutator(deleteChunk())
+                .addMutator(repeatChunk(maxLength));
+    }
+
+    /**
+     * Replaces a random action with another valid action.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<ActionSequence> substituteAction() {
+        return (sequence, random) -> {
+            if (sequence.isEmpty()) {
+                return sequence;
+            }
+            int index = random.nextInt(sequence.length());
+            // one of the other actions, each as likely
+            int action = (sequence.actionAt(index) + 1 + random.nextInt(ActionSequence.ACTION_COUNT - 1))
+                    % ActionSequence.ACTION_COUNT;
+            return sequence.withAction(index, action);
+        };
+    }
+
+    /**
+     * Inserts a chunk of random valid actions at a random place.
+     *
+     * @param maxLength Max number of actions of the mutant.
+     * @return The mutator.
+     */
+    public static Mutator<ActionSequence> insertChunk(int maxLength) {
+        return (sequence, random) -> {
+            int chunkLength = Math.min(1 + random.nextInt(MAX_CHUNK_LENGTH), maxLength - sequence.length());
+            if (chunkLength <= 0) {
+                return sequence;
+            }
+            ActionSequence chunk = ActionSequence.random(chunkLength, random);
+            int index = random.nextInt(sequence.length() + 1);
+            return sequence.insert(index, chunk);
+        };
+    }
+
+    /**
+     * Deletes a chunk of actions at a random place.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<ActionSequence> deleteChunk() {
+        return (sequence, random) -> {
+            if (sequence.isEmpty()) {
+                return sequence;
+            }
+            int chunkLength = 1 + random.nextInt(Math.min(MAX_CHUNK_LENGTH, sequence.length()));
+            int index = random.nextInt(sequence.length() - chunkLength + 1);
+            return sequence.delete(index, index + chunkLength);
+        };
+    }
+
+    /**
+     * Repeats a chunk of actions at a random place, right after itself, a random number of times.
+     *
+     * @param maxLength Max number of actions of the mutant.
+     * @return The mutator.
+     */
+    public static Mutator<ActionSequence> repeatChunk(int maxLength) {
+        return (sequence, random) -> {
+            if (sequence.isEmpty()) {
+                return sequence;
+            }
+            int chunkLength = 1 + random.nextInt(Math.min(MAX_CHUNK_LENGTH, sequence.length()));
+            int index = random.nextInt(sequence.length() - chunkLength + 1);
+            int repetitions = Math.min(1 + random.nextInt(MAX_CHUNK_LENGTH),
+                    (maxLength - sequence.length()) / chunkLength);
+            if (repetitions <= 0) {
+                return sequence;
+            }
+            int chunkEnd = index + chunkLength;
+            ActionSequence.Builder builder = new ActionSequence.Builder(sequence.length() + repetitions * chunkLength)
+                    .append(sequence, 0, chunkEnd);
+            for (int i = 0; i < repetitions; i++) {
+                builder.append(sequence, index, chunkEnd);
+            }
+            return builder.append(sequence, chunkEnd, sequence.length()).build();
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package randomGenerators.mutation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Havoc mutation engine: makes a mutant by applying a random number of randomly chosen mutators after each other, so
+ * small and large changes of an input are both tried. The mutators are pluggable: any Mutator can be added, and the
+ * factories in MapMutators and ActionSequenceMutators give the mutators for maps and action sequences.
+ * <p>
+ * Mutants are only made when they are asked for, by mutate or by the lazy stream of mutants, and only in memory. The
+ * caller decides which mutants are stored and executed.
+ * </p>
+ *
+ * @param <T> The type of the input: byte[] for maps, String for action sequences.
+ */
+public class HavocMutationEngine<T> {
+
+    /**
+     * The mutators to choose from.
+     */
+    private final List<Mutator<T>> mutators = new ArrayList<>();
+
+    /**
+     * Max number of mutators that are applied after each other for one mutant.
+     */
+    private final int maxStackedMutations;
+
+    /**
+     * Constructs a HavocMutationEngine without mutators.
+     *
+     * @param maxStackedMutations Max number of mutators that are applied after each other for one mutant.
+     */
+    public HavocMutationEngine(int maxStackedMutations) {
+        this.maxStackedMutations = Math.max(1, maxStackedMutations);
+    }
+
+    /**
+     * Adds a mutator the engine can choose.
+     *
+     * @param mutator The mutator.
+     * @return This engine, to add more mutators.
+     */
+    public HavocMutationEngine<T> addMutator(Mutator<T> mutator) {
+        mutators.add(mutator);
+        return this;
+    }
+
+    /**
+     * Makes one mutant of the input, by applying between 1 and maxStackedMutations random mutators after each other.
+     *
+     * @param input  The input to mutate, not changed.
+     * @param random The random generator that chooses the mutators and their mutations.
+     * @return The mutant. Can be equal to the input if none of the chosen mutators could be applied.
+     */
+    public T mutate(T input, SplittableRandom random) {
+        if (mutators.isEmpty()) {
+            return input;
+        }
+        T mutant = input;
+        int stackedMutations = 1 + random.nextInt(maxStackedMutations);
+        for (int i = 0; i < stackedMutations; i++) {
+            mutant = mutators.get(random.nextInt(mutators.size())).mutate(mutant, random);
+        }
+        return mutant;
+    }
+
+    /**
+     * Gives an endless lazy stream of mutants of the input. A mutant is only made when the stream asks for it, so
+     * limit the stream before it is collected.
+     *
+     * @param input  The input to mutate, not changed.
+     * @param random The random generator that chooses the mutators and their mutations.
+     * @return The stream of mutants.
+     */
+    public Stream<T> mutants(T input, SplittableRandom random) {
+        return Stream.generate(() -> mutate(input, random));
+    }
+}
@@ -0,0 +1,351 @@
+package randomGenerators.mutation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Mutators of the bytes of map files. The text map mutators work on rows: they insert, delete, duplicate and splice
+ * rows, transpose the map and substitute cells, with the valid characters of a map. The line separator of the map,
+ * and whether it ends with one, are kept. The binary map mutators flip bits and bytes.
+ */
+public final class MapMutators {
+
+    /**
+     * The valid characters of a text map: monster, wall, player, empty and food.
+     */
+    private static final byte[] MAP_CHARACTERS = {'M', 'W', 'P', '0', 'F'};
+
+    /**
+     * Not instantiable, only static factories.
+     */
+    private MapMutators() {
+    }
+
+    /**
+     * Makes a havoc engine with all text map mutators.
+     *
+     * @param maxStackedMutations Max number of mutators that are applied after each other for one mutant.
+     * @param maxHeight           Max number of rows that inserting, duplicating and splicing rows make.
+     * @param maxWidth            Max number of columns of an inserted row of a map without rows.
+     * @param spliceSource        Gives another map to splice with, or null to not splice.
+     * @return The engine.
+     */
+    public static HavocMutationEngine<byte[]> textMapEngine(int maxStackedMutations, int maxHeight, int maxWidth,
+                                                            Function<SplittableRandom, byte[]> spliceSource) {
+        HavocMutationEngine<byte[]> engine = new HavocMutationEngine<byte[]>(maxStackedMutations)
+                .addMutator(substituteCell())
+                .addMutator(insertRow(maxHeight, maxWidth))
+                .addMutator(deleteRow())
+                .addMutator(duplicateRow(maxHeight))
+                .addMutator(transpose());
+        if (spliceSource != null) {
+            engine.addMutator(spliceRows(spliceSource, maxHeight));
+        }
+        return engine;
+    }
+
+    /**
+     * Makes a havoc engine with all binary map mutators.
+     *
+     * @param maxStackedMutations Max number of mutators that are applied after each other for one mutant.
+     * @return The engine.
+     */
+    public static HavocMutationEngine<byte[]> binaryMapEngine(int maxStackedMutations) {
+        return new HavocMutationEngine<byte[]>(maxStackedMutations)
+                .addMutator(flipBit())
+                .addMutator(flipByte())
+                .addMutator(randomByte());
+    }
+
+    /**
+     * Replaces a random cell of a text map with another valid character.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> substituteCell() {
+        return (map, random) -> {
+            TextMap textMap = TextMap.parse(map);
+            if (textMap.rows.isEmpty()) {
+                return map;
+            }
+            int rowIndex = random.nextInt(textMap.rows.size());
+            byte[] row = textMap.rows.get(rowIndex).clone();
+            if (row.length == 0) {
+                return map;
+            }
+            int column = random.nextInt(row.length);
+            row[column] = randomCharacterOtherThan(row[column], random);
+            textMap.rows.set(rowIndex, row);
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Inserts a row of random valid characters at a random place of a text map, as wide as a random row of the map.
+     *
+     * @param maxHeight Max number of rows of the mutant.
+     * @param maxWidth  Max width of the new row, if the map has no rows.
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> insertRow(int maxHeight, int maxWidth) {
+        return (map, random) -> {
+            TextMap textMap = TextMap.parse(map);
+            if (textMap.rows.size() >= maxHeight) {
+                return map;
+            }
+            int width = textMap.rows.isEmpty() ? 1 + random.nextInt(Math.max(1, maxWidth))
+                    : textMap.rows.get(random.nextInt(textMap.rows.size())).length;
+            byte[] row = new byte[width];
+            for (int column = 0; column < width; column++) {
+                row[column] = MAP_CHARACTERS[random.nextInt(MAP_CHARACTERS.length)];
+            }
+            textMap.rows.add(random.nextInt(textMap.rows.size() + 1), row);
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Deletes a random row of a text map with more than one row.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> deleteRow() {
+        return (map, random) -> {
+            TextMap textMap = TextMap.parse(map);
+            if (textMap.rows.size() <= 1) {
+                return map;
+            }
+            textMap.rows.remove(random.nextInt(textMap.rows.size()));
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Copies a random row of a text map to a random place.
+     *
+     * @param maxHeight Max number of rows of the mutant.
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> duplicateRow(int maxHeight) {
+        return (map, random) -> {
+            TextMap textMap = TextMap.parse(map);
+            if (textMap.rows.isEmpty() || textMap.rows.size() >= maxHeight) {
+                return map;
+            }
+            byte[] row = textMap.rows.get(random.nextInt(textMap.rows.size()));
+            textMap.rows.add(random.nextInt(textMap.rows.size() + 1), row);
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Transposes a text map: the rows become the columns. The columns of a row that is shorter than others are left
+     * out of the transposed map.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> transpose() {
+        return (map, random) -> {
+            TextMap textMap = TextMap.parse(map);
+            int width = 0;
+            for (byte[] row : textMap.rows) {
+                width = Math.max(width, row.length);
+            }
+            List<byte[]> columns = new ArrayList<>(width);
+            for (int column = 0; column < width; column++) {
+                byte[] transposedRow = new byte[textMap.rows.size()];
+                int length = 0;
+                for (byte[] row : textMap.rows) {
+                    if (column < row.length) {
+                        transposedRow[length++] = row[column];
+                    }
+                }
+                columns.add(length == transposedRow.length ? transposedRow : Arrays.copyOf(transposedRow, length));
+            }
+            textMap.rows.clear();
+            textMap.rows.addAll(columns);
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Splices two text maps: the first rows of the map, up to a random row, followed by the rows of another map from
+     * a random row on.
+     *
+     * @param spliceSource Gives the other map.
+     * @param maxHeight    Max number of rows of the mutant.
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> spliceRows(Function<SplittableRandom, byte[]> spliceSource, int maxHeight) {
+        return (map, random) -> {
+            byte[] otherMap = spliceSource.apply(random);
+            if (otherMap == null) {
+                return map;
+            }
+            TextMap textMap = TextMap.parse(map);
+            TextMap otherTextMap = TextMap.parse(otherMap);
+            List<byte[]> rows = new ArrayList<>(textMap.rows.subList(0, random.nextInt(textMap.rows.size() + 1)));
+            List<byte[]> otherRows = otherTextMap.rows;
+            rows.addAll(otherRows.subList(random.nextInt(otherRows.size() + 1), otherRows.size()));
+            if (rows.isEmpty() || rows.size() > maxHeight) {
+                return map;
+            }
+            textMap.rows.clear();
+            textMap.rows.addAll(rows);
+            return textMap.toBytes();
+        };
+    }
+
+    /**
+     * Flips a random bit of a map.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> flipBit() {
+        return (map, random) -> {
+            if (map.length == 0) {
+                return map;
+            }
+            byte[] mutant = map.clone();
+            int bit = random.nextInt(map.length * 8);
+            mutant[bit >>> 3] ^= (byte) (1 << (bit & 7));
+            return mutant;
+        };
+    }
+
+    /**
+     * Flips all bits of a random byte of a map.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> flipByte() {
+        return (map, random) -> {
+            if (map.length == 0) {
+                return map;
+            }
+            byte[] mutant = map.clone();
+            mutant[random.nextInt(map.length)] ^= (byte) 0xFF;
+            return mutant;
+        };
+    }
+
+    /**
+     * Replaces a random byte of a map with a random value.
+     *
+     * @return The mutator.
+     */
+    public static Mutator<byte[]> randomByte() {
+        return (map, random) -> {
+            if (map.length == 0) {
+                return map;
+            }
+            byte[] mutant = map.clone();
+            mutant[random.nextInt(map.length)] = (byte) random.nextInt(256);
+            return mutant;
+        };
+    }
+
+    /**
+     * Gives a random valid map character that differs from the given one.
+     *
+     * @param character The character to replace.
+     * @param random    The random generator.
+     * @return The other character.
+     */
+    private static byte randomCharacterOtherThan(byte character, SplittableRandom random) {
+        byte other;
+        do {
+            other = MAP_CHARACTERS[random.nextInt(MAP_CHARACTERS.length)];
+        } while (other == character);
+        return other;
+    }
+
+    /**
+     * The rows of a text map, without line separators.
+     */
+    private static class TextMap {
+
+        /**
+         * The rows, without line separator.
+         */
+        private final List<byte[]> rows;
+
+        /**
+         * The line separator of the map: \r\n if the map has one, \n otherwise.
+         */
+        private final byte[] lineSeparator;
+
+        /**
+         * True if the last row ends with a line separator.
+         */
+        private final boolean trailingSeparator;
+
+        /**
+         * Constructs a TextMap.
+         *
+         * @param rows              The rows.
+         * @param lineSeparator     The line separator.
+         * @param trailingSeparator True if the last row ends with a line separator.
+         */
+        private TextMap(List<byte[]> rows, byte[] lineSeparator, boolean trailingSeparator) {
+            this.rows = rows;
+            this.lineSeparator = lineSeparator;
+            this.trailingSeparator = trailingSeparator;
+        }
+
+        /**
+         * Splits the bytes of a text map in rows.
+         *
+         * @param map The bytes of the map.
+         * @return The rows of the map.
+         */
+        private static TextMap parse(byte[] map) {
+            List<byte[]> rows = new ArrayList<>();
+            boolean carriageReturn = false;
+            int rowStart = 0;
+            for (int i = 0; i < map.length; i++) {
+                if (map[i] == '\n') {
+                    int rowEnd = i > rowStart && map[i - 1] == '\r' ? i - 1 : i;
+                    carriageReturn |= rowEnd < i;
+                    rows.add(Arrays.copyOfRange(map, rowStart, rowEnd));
+                    rowStart = i + 1;
+                }
+            }
+            boolean trailingSeparator = rowStart == map.length && map.length > 0;
+            if (!trailingSeparator && map.length > 0) {
+                rows.add(Arrays.copyOfRange(map, rowStart, map.length));
+            }
+            return new TextMap(rows, carriageReturn ? new byte[]{'\r', '\n'} : new byte[]{'\n'}, trailingSeparator);
+        }
+
+        /**
+         * Joins the rows to the bytes of a text map.
+         *
+         * @return The bytes of the map.
+         */
+        private byte[] toBytes() {
+            int length = 0;
+            for (byte[] row : rows) {
+                length += row.length + lineSeparator.length;
+            }
+            if (!trailingSeparator && !rows.isEmpty()) {
+                length -= lineSeparator.length;
+            }
+            byte[] map = new byte[length];
+            int position = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                byte[] row = rows.get(i);
+                System.arraycopy(row, 0, map, position, row.length);
+                position += row.length;
+                if (trailingSeparator || i < rows.size() - 1) {
+                    System.arraycopy(lineSeparator, 0, map, position, lineSeparator.length);
+                    position += lineSeparator.length;
+                }
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package randomGenerators.mutation;
+
+import java.util.SplittableRandom;
+
+/**
+ * One kind of mutation of an input, such as deleting a row of a map or repeating a chunk of an action sequence. A
+ * mutator never changes the input it gets, and does no file I/O.
+ *
+ * @param <T> The type of the input: byte[] for maps, String for action sequences.
+ */
+@FunctionalInterface
+public interface Mutator<T> {
+
+    /**
+     * Makes a mutant of the input.
+     *
+     * @param input  The input to mutate, not changed.
+     * @param random The random generator that chooses where and how the input is mutated.
+     * @return The mutant, or the input itself if this mutation cannot be applied to it.
+     */
+    T mutate(T input, SplittableRandom random);
+}
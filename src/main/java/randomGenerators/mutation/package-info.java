@@ -0,0 +1,5 @@
+/**
+ * The randomGenerators.mutation package contains the havoc mutation engine and its mutators for maps and action
+ * sequences. Mutants are made in memory, one at a time when they are asked for.
+ */
+package randomGenerators.mutation;
@@ -0,0 +1,106 @@
+package executors;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests the ClassFileRedirector on a compiled class that calls System.exit.
+ */
+public class ClassFileRedirectorTest {
+
+    /**
+     * Calls System.exit, the call that has to be redirected.
+     */
+    public static class Exiting {
+        public static void run() {
+            System.exit(42);
+        }
+    }
+
+    /**
+     * Does not refer to System.exit.
+     */
+    public static class NotExiting {
+        public static int run() {
+            return Math.abs(-1);
+        }
+    }
+
+    /**
+     * Receives the redirected exit calls.
+     */
+    public static class RecordingExit {
+        static int status = -1;
+
+        public static void exit(int status) {
+            RecordingExit.status = status;
+        }
+    }
+
+    /**
+     * Defines one class from given bytes, and leaves all other classes to its parent.
+     */
+    private static class SingleClassLoader extends ClassLoader {
+        private final String name;
+        private final byte[] classFile;
+
+        SingleClassLoader(String name, byte[] classFile) {
+            super(ClassFileRedirectorTest.class.getClassLoader());
+            this.name = name;
+            this.classFile = classFile;
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            if (className.equals(name)) {
+                synchronized (getClassLoadingLock(className)) {
+                    Class<?> loaded = findLoadedClass(className);
+                    return loaded != null ? loaded : defineClass(className, classFile, 0, classFile.length);
+                }
+            }
+            return super.loadClass(className, resolve);
+        }
+    }
+
+    private static byte[] classFileOf(Class<?> type) throws IOException {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static ClassFileRedirector exitRedirector() {
+        return new ClassFileRedirector(RecordingExit.class.getName()).redirect("java/lang/System", "exit", "(I)V");
+    }
+
+    @Test
+    public void redirectsSystemExit() throws Exception {
+        byte[] original = classFileOf(Exiting.class);
+        byte[] rewritten = exitRedirector().rewrite(original);
+        assertFalse(Arrays.equals(original, rewritten));
+
+        Class<?> exiting = new SingleClassLoader(Exiting.class.getName(), rewritten).loadClass(Exiting.class.getName());
+        RecordingExit.status = -1;
+        exiting.getMethod("run").invoke(null); // would end the test JVM if the call was not redirected
+        assertEquals(42, RecordingExit.status);
+    }
+
+    @Test
+    public void keepsClassWithoutMatchingReferences() throws IOException {
+        byte[] original = classFileOf(NotExiting.class);
+        byte[] rewritten = exitRedirector().rewrite(original);
+        assertArrayEquals(original, rewritten);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsBytesThatAreNoClassFile() throws IOException {
+        exitRedirector().rewrite(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+    }
+}
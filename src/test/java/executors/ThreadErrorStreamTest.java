@@ -0,0 +1,45 @@
+package executors;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the ThreadErrorStream gives the stack traces of printStackTrace() to the stream of the thread that
+ * printed them, the way JPacman prints them on the game thread.
+ */
+public class ThreadErrorStreamTest {
+
+    @Test
+    public void printStackTraceGoesToTheStreamOfTheThread() throws InterruptedException {
+        ThreadErrorStream.install();
+        PrintStream installed = System.err;
+        ThreadErrorStream.install();
+        assertSame(installed, System.err);
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        ThreadErrorStream.setTarget(errors);
+        try {
+            new IOException("map of the game thread").printStackTrace();
+            Thread other = new Thread(() -> System.err.println("line of another thread"));
+            other.start();
+            other.join();
+        } finally {
+            ThreadErrorStream.clearTarget();
+        }
+        System.err.println("line after the execution");
+
+        String captured = errors.toString(StandardCharsets.UTF_8);
+        assertTrue(captured, captured.contains("java.io.IOException: map of the game thread"));
+        assertTrue(captured, captured.contains("at executors.ThreadErrorStreamTest.printStackTraceGoesToTheStreamOfTheThread"));
+        assertFalse(captured, captured.contains("line of another thread"));
+        assertFalse(captured, captured.contains("line after the execution"));
+    }
+}
@@ -0,0 +1,139 @@
+package organizers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests that the ResultCache keeps its results when the table grows and when it is reopened, and that it is emptied
+ * when the jar changes.
+ */
+public class ResultCacheTest {
+
+    /**
+     * More than half of the initial capacity of 1 << 14 slots, so the table grows at least once.
+     */
+    private static final int ENTRY_COUNT = 20_000;
+
+    private Path directory;
+
+    private Path jarPath;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("resultCacheTest");
+        jarPath = directory.resolve("jpacman.jar");
+        Files.write(jarPath, "first jar".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private ResultCache open() {
+        return new ResultCache(directory.resolve("cache").toString(), jarPath.toString());
+    }
+
+    private static ContentHash hash(int i) {
+        // every pair of entries has the same low bits, so they probe into each other's slots
+        return new ContentHash(0xC2B2_AE3D_27D4_EB4FL * (i + 1), 0x9E37_79B9_7F4A_7C15L * (i / 2));
+    }
+
+    private static void put(ResultCache cache, int i) {
+        cache.put(hash(i), i % 3 == 0 ? 0 : 1, "message " + (i % 5));
+    }
+
+    private static void assertCached(ResultCache cache, int i) {
+        ResultCache.CachedResult result = cache.get(hash(i));
+        assertNotNull("entry " + i, result);
+        assertEquals(i % 3 == 0 ? 0 : 1, result.getExitCode());
+        assertEquals("message " + (i % 5), result.getOutputMessages());
+    }
+
+    @Test
+    public void keepsEntriesWhenGrowing() {
+        try (ResultCache cache = open()) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                put(cache, i);
+            }
+            assertEquals(ENTRY_COUNT, cache.size());
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                assertCached(cache, i);
+            }
+            assertNull(cache.get(hash(ENTRY_COUNT)));
+        }
+    }
+
+    @Test
+    public void keepsFirstResult() {
+        try (ResultCache cache = open()) {
+            put(cache, 3);
+            cache.put(hash(3), 10, "other message");
+            assertEquals(1, cache.size());
+            assertCached(cache, 3);
+        }
+    }
+
+    @Test
+    public void keepsEntriesWhenReopened() {
+        try (ResultCache cache = open()) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                put(cache, i);
+            }
+        }
+        try (ResultCache cache = open()) {
+            assertEquals(ENTRY_COUNT, cache.size());
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                assertCached(cache, i);
+            }
+            // the reopened cache can still grow and store new messages
+            for (int i = ENTRY_COUNT; i < 2 * ENTRY_COUNT; i++) {
+                put(cache, i);
+            }
+            cache.put(hash(-1), 10, "new message");
+        }
+        try (ResultCache cache = open()) {
+            assertEquals(2 * ENTRY_COUNT + 1, cache.size());
+            for (int i = 0; i < 2 * ENTRY_COUNT; i++) {
+                assertCached(cache, i);
+            }
+            assertEquals("new message", cache.get(hash(-1)).getOutputMessages());
+        }
+    }
+
+    @Test
+    public void emptiesWhenJarChanges() throws IOException {
+        try (ResultCache cache = open()) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                put(cache, i);
+            }
+        }
+        Files.write(jarPath, "second jar".getBytes(StandardCharsets.UTF_8));
+        try (ResultCache cache = open()) {
+            assertEquals(0, cache.size());
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                assertNull(cache.get(hash(i)));
+            }
+            put(cache, 1);
+            assertCached(cache, 1);
+        }
+        try (ResultCache cache = open()) {
+            assertEquals(1, cache.size());
+            assertCached(cache, 1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package outputProviders;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the normalization of stack traces into crash signatures.
+ */
+public class CrashTriageTest {
+
+    @Test
+    public void leavesOutLineNumbersAndOtherPackages() {
+        String errorMessages = """
+                Exception in thread "main" java.lang.ArrayIndexOutOfBoundsException: Index 5 out of bounds for length 5
+                \tat jpacman.model.Board.getCell(Board.java:88)
+                \tat jpacman.model.Game.move(Game.java:120)
+                \tat java.base/java.lang.Thread.run(Thread.java:833)
+                """;
+        assertEquals("java.lang.ArrayIndexOutOfBoundsException in jpacman.model.Board.getCell; jpacman.model.Game.move",
+                CrashTriage.getSignature(errorMessages, 5));
+    }
+
+    @Test
+    public void sameBugGivesSameSignature() {
+        String inProcess = """
+                java.lang.NullPointerException: Cannot read field "x" because "p" is null
+                \tat jpacman.model.Engine.step(Engine.java:40)
+                \tat jpacman.controller.Pacman.main(Pacman.java:12)
+                \tat executors.InProcessJPacmanExecutor.execute(InProcessJPacmanExecutor.java:70)
+                """;
+        String forked = """
+                Exception in thread "main" java.lang.NullPointerException: Cannot read field "y" because "q" is null
+                \tat app//jpacman.model.Engine.step(Engine.java:41)
+                \tat app//jpacman.controller.Pacman.main(Pacman.java:13)
+                """;
+        assertEquals(CrashTriage.getSignature(inProcess, 5), CrashTriage.getSignature(forked, 5));
+    }
+
+    @Test
+    public void collapsesRepeatedFrames() {
+        String errorMessages = """
+                java.lang.StackOverflowError
+                \tat jpacman.model.Level.fill(Level.java:10)
+                \tat jpacman.model.Level.fill(Level.java:12)
+                \tat jpacman.model.Level.fill(Level.java:12)
+                \tat jpacman.model.Level.<init>(Level.java:5)
+                \tat jpacman.model.Level.<init>(Level.java:3)
+                """;
+        assertEquals("java.lang.StackOverflowError in jpacman.model.Level.fill; jpacman.model.Level.<init>",
+                CrashTriage.getSignature(errorMessages, 5));
+    }
+
+    @Test
+    public void usesTheRootCause() {
+        String errorMessages = """
+                java.lang.RuntimeException: Could not load map
+                \tat jpacman.controller.Pacman.mainFuzzing(Pacman.java:50)
+                Caused by: java.io.IOException: Bad map
+                \tat jpacman.factory.MapParser.parseMap(MapParser.java:77)
+                \t... 3 more
+                """;
+        assertEquals("java.io.IOException in jpacman.factory.MapParser.parseMap",
+                CrashTriage.getSignature(errorMessages, 5));
+    }
+
+    @Test
+    public void keepsAtMostFrameCountFrames() {
+        String errorMessages = """
+                java.lang.IllegalStateException: state
+                \tat jpacman.a.A.a(A.java:1)
+                \tat jpacman.b.B.b(B.java:2)
+                \tat jpacman.c.C.c(C.java:3)
+                """;
+        assertEquals("java.lang.IllegalStateException in jpacman.a.A.a; jpacman.b.B.b",
+                CrashTriage.getSignature(errorMessages, 2));
+    }
+
+    @Test
+    public void findsExceptionOfMessageOverMoreLines() {
+        String errorMessages = """
+                jpacman.factory.FactoryException: Invalid character in map:
+                line 1: XYZ
+                \tat jpacman.factory.MapParser.parseMap(MapParser.java:77)
+                """;
+        assertEquals("jpacman.factory.FactoryException in jpacman.factory.MapParser.parseMap",
+                CrashTriage.getSignature(errorMessages, 5));
+    }
+
+    @Test
+    public void withoutJPacmanFramesOnlyException() {
+        String errorMessages = """
+                java.awt.HeadlessException
+                \tat java.desktop/java.awt.GraphicsEnvironment.checkHeadless(GraphicsEnvironment.java:166)
+                """;
+        assertEquals("java.awt.HeadlessException", CrashTriage.getSignature(errorMessages, 5));
+    }
+
+    @Test
+    public void withoutStackTraceNoSignature() {
+        assertEquals(CrashTriage.NO_SIGNATURE, CrashTriage.getSignature("", 5));
+        assertEquals(CrashTriage.NO_SIGNATURE, CrashTriage.getSignature("Map is not valid\n", 5));
+    }
+}
@@ -0,0 +1,156 @@
+package outputProviders;
+
+import executors.JPacmanSimulator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the columns of the IterationResultStore give back what was appended.
+ */
+public class IterationResultStoreTest {
+
+    private static IterationResult result(int iterationNumber, int exitCode, String outputMessages) {
+        return new IterationResult(iterationNumber, "maps/map_" + iterationNumber + ".txt", "SUDE" + iterationNumber,
+                exitCode, outputMessages, "");
+    }
+
+    @Test
+    public void givesBackTheFieldsOfEveryRow() {
+        StringDictionary outputMessages = new StringDictionary();
+        try (IterationResultStore store = new IterationResultStore(outputMessages)) {
+            int[] exitCodes = {0, 1, 10, -1, 255, 0xC0000005};
+            for (int i = 0; i < exitCodes.length; i++) {
+                IterationResult iterationResult = result(i + 1, exitCodes[i], "message " + (i % 2));
+                int row = store.append(iterationResult, outputMessages.intern(iterationResult.getOutputMessages()),
+                        100L * i, 0, 0, null, false);
+                assertEquals(i, row);
+            }
+            assertEquals(exitCodes.length, store.size());
+            for (int row = 0; row < exitCodes.length; row++) {
+                assertEquals(row + 1, store.getIterationNumber(row));
+                // IterationResult keeps -1 for every exit code other than 0, 1 and 10
+                int exitCode = exitCodes[row] == 0 || exitCodes[row] == 1 || exitCodes[row] == 10 ? exitCodes[row] : -1;
+                assertEquals(exitCode, store.getExitCode(row));
+                assertEquals("message " + (row % 2), store.getOutputMessages(row));
+                assertEquals("TXT", store.getMapFileType(row));
+                assertEquals("SUDE" + (row + 1), store.getStringSequence(row));
+                assertEquals(100L * row, store.getExecutionTime(row));
+                assertEquals(0, store.getMapHeight(row));
+                assertFalse(store.hasPrediction(row));
+                assertFalse(store.isSimulated(row));
+            }
+            assertArrayEquals(new int[]{4, 6}, store.getIterationNumbers(-1, "message 1"));
+            assertArrayEquals(new int[0], store.getIterationNumbers(0, "unknown message"));
+        }
+    }
+
+    @Test
+    public void keepsStressMapSizeAndPrediction() {
+        StringDictionary outputMessages = new StringDictionary();
+        try (IterationResultStore store = new IterationResultStore(outputMessages)) {
+            JPacmanSimulator.Prediction rejected =
+                    JPacmanSimulator.predict("X".getBytes(StandardCharsets.UTF_8), "SE");
+            JPacmanSimulator.Prediction played =
+                    JPacmanSimulator.predict("PF0".getBytes(StandardCharsets.UTF_8), "SRE");
+            store.append(result(1, 10, "rejected"), outputMessages.intern("rejected"), 5, 300, 200, rejected, true);
+            store.append(result(2, 0, "None"), outputMessages.intern("None"), 7, 0, 0, played, false);
+
+            assertEquals(300, store.getMapHeight(0));
+            assertEquals(200, store.getMapWidth(0));
+            assertTrue(store.isSimulated(0));
+            assertTrue(store.hasPrediction(0));
+            assertEquals(rejected.getExitCode(), store.getPredictedExitCode(0));
+            assertEquals(rejected.getOutputMessages(), store.getPredictedOutputMessages(0));
+            assertNull(store.getPredictedGameState(0));
+
+            assertEquals(0, store.getMapHeight(1));
+            assertFalse(store.isSimulated(1));
+            assertEquals(played.getExitCode(), store.getPredictedExitCode(1));
+            assertEquals(played.getOutputMessages(), store.getPredictedOutputMessages(1));
+            assertEquals(played.getGameState(), store.getPredictedGameState(1));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rowWithoutPredictionHasNoPredictedExitCode() {
+        StringDictionary outputMessages = new StringDictionary();
+        try (IterationResultStore store = new IterationResultStore(outputMessages)) {
+            store.append(result(1, 0, "None"), outputMessages.intern("None"), 0, 0, 0, null, false);
+            store.getPredictedExitCode(0);
+        }
+    }
+
+    @Test
+    public void sequencesCanSpanChunks() {
+        StringDictionary outputMessages = new StringDictionary();
+        try (IterationResultStore store = new IterationResultStore(outputMessages)) {
+            String longSequence = "U".repeat(3 << 20); // two of them do not fit in one chunk of the sequence arena
+            for (int i = 1; i <= 3; i++) {
+                IterationResult iterationResult = new IterationResult(i, "maps/map_" + i + ".txt", longSequence + i,
+                        0, "None", "");
+                store.append(iterationResult, outputMessages.intern("None"), 0, 0, 0, null, false);
+            }
+            for (int row = 0; row < 3; row++) {
+                assertEquals(longSequence.length() + 1, store.getSequenceLength(row));
+                assertEquals(longSequence + (row + 1), store.getStringSequence(row));
+            }
+        }
+    }
+
+    @Test
+    public void threadsReachingANewChunkTogetherMapItOnce() throws Exception {
+        int chunkCount = 32;
+        int threadCount = 4;
+        Path file = Files.createTempFile("mappedColumn", ".col");
+        Files.delete(file); // the column creates its file
+        ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+        try (IterationResultStore.MappedColumn column = new IterationResultStore.MappedColumn(file)) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                long position = (long) chunk * IterationResultStore.MappedColumn.CHUNK_SIZE;
+                CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                List<Future<Integer>> reads = new ArrayList<>();
+                for (int thread = 0; thread < threadCount; thread++) {
+                    reads.add(threads.submit(() -> {
+                        barrier.await();
+                        return column.getInt(position); // the first reads of a chunk map it
+                    }));
+                }
+                for (Future<Integer> read : reads) {
+                    assertEquals(0, (int) read.get());
+                }
+            }
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                column.putInt((long) chunk * IterationResultStore.MappedColumn.CHUNK_SIZE + Integer.BYTES, chunk + 1);
+            }
+            // every chunk maps its own part of the file
+            try (FileChannel channel = FileChannel.open(file)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    buffer.clear();
+                    channel.read(buffer, (long) chunk * IterationResultStore.MappedColumn.CHUNK_SIZE + Integer.BYTES);
+                    buffer.flip();
+                    assertEquals(chunk + 1, buffer.getInt());
+                }
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
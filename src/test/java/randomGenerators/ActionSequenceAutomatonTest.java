@@ -0,0 +1,148 @@
+package randomGenerators;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the counts of the ActionSequenceAutomaton and the combinations of the ActionSequenceSpliterator with a
+ * brute-force enumeration of all sequences of small lengths.
+ */
+public class ActionSequenceAutomatonTest {
+
+    private static final int MAX_TESTED_LENGTH = 5;
+
+    /**
+     * Checks the constraints directly on the characters, independent of the automaton.
+     */
+    private static boolean isValid(String sequence, boolean atLeastOneExit, boolean startWithExitCheck,
+                                   boolean quitClosesStart) {
+        if (atLeastOneExit && sequence.indexOf('E') < 0) {
+            return false;
+        }
+        if (startWithExitCheck) {
+            for (int i = 0; i < sequence.length(); i++) {
+                if (sequence.charAt(i) != 'S') {
+                    continue;
+                }
+                String after = sequence.substring(i + 1);
+                if (after.indexOf('E') < 0 && !(quitClosesStart && after.indexOf('Q') >= 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * All sequences of a length over the actions, in counting order (E, Q, S, W, U, L, D, R).
+     */
+    private static List<String> allSequences(int length) {
+        List<String> sequences = new ArrayList<>();
+        sequences.add("");
+        for (int position = 0; position < length; position++) {
+            List<String> longer = new ArrayList<>();
+            for (String prefix : sequences) {
+                for (char action : ActionSequence.ACTIONS.toCharArray()) {
+                    longer.add(prefix + action);
+                }
+            }
+            sequences = longer;
+        }
+        return sequences;
+    }
+
+    private static List<String> validSequences(int length, boolean atLeastOneExit, boolean startWithExitCheck) {
+        return allSequences(length).stream()
+                .filter(sequence -> isValid(sequence, atLeastOneExit, startWithExitCheck, false))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void countsMatchBruteForce() {
+        for (int flags = 0; flags < 8; flags++) {
+            boolean atLeastOneExit = (flags & 1) != 0;
+            boolean startWithExitCheck = (flags & 2) != 0;
+            boolean quitClosesStart = (flags & 4) != 0;
+            ActionSequenceAutomaton automaton =
+                    new ActionSequenceAutomaton(atLeastOneExit, startWithExitCheck, quitClosesStart);
+            for (int length = 0; length <= MAX_TESTED_LENGTH; length++) {
+                long expected = allSequences(length).stream()
+                        .filter(sequence -> isValid(sequence, atLeastOneExit, startWithExitCheck, quitClosesStart))
+                        .count();
+                assertEquals("flags " + flags + ", length " + length, expected, automaton.countValidSequences(length));
+            }
+        }
+    }
+
+    @Test
+    public void acceptsMatchesBruteForce() {
+        ActionSequenceAutomaton automaton = new ActionSequenceAutomaton(true, true, true);
+        for (String sequence : allSequences(4)) {
+            assertEquals(sequence, isValid(sequence, true, true, true), automaton.accepts(sequence));
+            assertEquals(sequence, isValid(sequence, true, true, true), automaton.accepts(ActionSequence.of(sequence)));
+        }
+    }
+
+    @Test
+    public void spliteratorGivesValidSequencesInCountingOrder() {
+        for (int flags = 0; flags < 4; flags++) {
+            boolean atLeastOneExit = (flags & 1) != 0;
+            boolean startWithExitCheck = (flags & 2) != 0;
+            for (int length = 0; length <= MAX_TESTED_LENGTH; length++) {
+                List<String> enumerated = RandomActionSequenceGenerator
+                        .streamAllPossibleCombinations(length, atLeastOneExit, startWithExitCheck)
+                        .map(ActionSequence::toString)
+                        .collect(Collectors.toList());
+                assertEquals("flags " + flags + ", length " + length,
+                        validSequences(length, atLeastOneExit, startWithExitCheck), enumerated);
+            }
+        }
+    }
+
+    @Test
+    public void splitHalvesKeepTheOrder() {
+        for (int length = 1; length <= MAX_TESTED_LENGTH; length++) {
+            List<String> expected = validSequences(length, true, true);
+            Spliterator<ActionSequence> suffix = new ActionSequenceSpliterator(length, true, true);
+            Spliterator<ActionSequence> prefix = suffix.trySplit();
+            List<String> split = new ArrayList<>();
+            if (prefix != null) {
+                prefix.forEachRemaining(sequence -> split.add(sequence.toString()));
+            }
+            suffix.forEachRemaining(sequence -> split.add(sequence.toString()));
+            assertEquals("length " + length, expected, split);
+
+            List<String> parallel = StreamSupport.stream(new ActionSequenceSpliterator(length, true, true), true)
+                    .map(ActionSequence::toString)
+                    .collect(Collectors.toList());
+            assertEquals("length " + length, expected, parallel);
+        }
+    }
+
+    @Test
+    public void randomCombinationPassesTheChecks() {
+        SplittableRandom random = new SplittableRandom(1);
+        ActionSequenceAutomaton automaton = new ActionSequenceAutomaton(true, true, false);
+        for (int length = 1; length <= 30; length++) {
+            ActionSequence combination = RandomActionSequenceGenerator.generateRandomCombination(length, true, true, random);
+            assertNotNull(combination);
+            assertEquals(length, combination.length());
+            assertTrue(combination.toString(), automaton.accepts(combination));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void randomCombinationWithoutValidCombinationFails() {
+        RandomActionSequenceGenerator.generateRandomCombination(0, true, false, new SplittableRandom(1));
+    }
+}
@@ -0,0 +1,137 @@
+package randomGenerators;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the packed ActionSequence with the plain String it stands for, around the lengths where the actions no
+ * longer fit in one word.
+ */
+public class ActionSequenceTest {
+
+    private static final int[] LENGTHS = {0, 1, 20, 21, 22, 42, 43, 64};
+
+    private static String randomString(int length, SplittableRandom random) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ActionSequence.ACTIONS.charAt(random.nextInt(ActionSequence.ACTION_COUNT)));
+        }
+        return builder.toString();
+    }
+
+    private static void assertSequence(String expected, ActionSequence sequence) {
+        assertEquals(expected, sequence.toString());
+        assertEquals(expected.length(), sequence.length());
+        assertEquals(expected.isEmpty(), sequence.isEmpty());
+        assertArrayEquals(expected.getBytes(StandardCharsets.US_ASCII), sequence.toBytes());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), sequence.charAt(i));
+            assertEquals(ActionSequence.codeOf(expected.charAt(i)), sequence.actionAt(i));
+        }
+        ActionSequence parsed = ActionSequence.of(expected);
+        assertEquals(parsed, sequence);
+        assertEquals(parsed.hashCode(), sequence.hashCode());
+    }
+
+    @Test
+    public void testRoundTrips() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int length : LENGTHS) {
+            for (int repetition = 0; repetition < 20; repetition++) {
+                String text = randomString(length, random);
+                ActionSequence sequence = ActionSequence.of(text);
+                assertSequence(text, sequence);
+                assertSequence(text, ActionSequence.of(new String(sequence.toBytes(), StandardCharsets.US_ASCII)));
+
+                int[] actions = new int[length + 3];
+                for (int i = 0; i < length; i++) {
+                    actions[i] = sequence.actionAt(i);
+                }
+                assertSequence(text, ActionSequence.ofActions(actions, length));
+
+                ActionSequence.Builder builder = new ActionSequence.Builder(1);
+                for (int i = 0; i < length; i++) {
+                    builder.append(sequence.actionAt(i));
+                }
+                assertEquals(length, builder.length());
+                assertSequence(text, builder.build());
+            }
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        for (int length : LENGTHS) {
+            ActionSequence sequence = ActionSequence.random(length, new SplittableRandom(length));
+            assertSequence(sequence.toString(), sequence);
+            assertEquals(sequence, ActionSequence.random(length, new SplittableRandom(length)));
+        }
+    }
+
+    @Test
+    public void testEditsMatchStrings() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int length : LENGTHS) {
+            String text = randomString(length, random);
+            ActionSequence sequence = ActionSequence.of(text);
+            for (int start = 0; start <= length; start++) {
+                int end = start + random.nextInt(length - start + 1);
+                assertSequence(text.substring(start, end), sequence.subSequence(start, end));
+                assertSequence(text.substring(0, start) + text.substring(end), sequence.delete(start, end));
+                assertSequence(text.substring(start, end),
+                        new ActionSequence.Builder(0).append(sequence, start, end).build());
+
+                String chunk = randomString(random.nextInt(45), random);
+                assertSequence(text.substring(0, start) + chunk + text.substring(start),
+                        sequence.insert(start, ActionSequence.of(chunk)));
+
+                if (start < length) {
+                    int action = random.nextInt(ActionSequence.ACTION_COUNT);
+                    String replaced = text.substring(0, start) + ActionSequence.ACTIONS.charAt(action)
+                            + text.substring(start + 1);
+                    assertSequence(replaced, sequence.withAction(start, action));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSequencesOfDifferentLengthsDiffer() {
+        ActionSequence twentyOne = ActionSequence.of("E".repeat(21));
+        ActionSequence twentyTwo = ActionSequence.of("E".repeat(22));
+        assertNotEquals(twentyOne, twentyTwo);
+        assertNotEquals(ActionSequence.EMPTY, ActionSequence.of("E"));
+        assertEquals(twentyOne, twentyTwo.subSequence(1, 22));
+    }
+
+    @Test
+    public void testNonActionCharactersAreDropped() {
+        assertEquals("SUDE", ActionSequence.of("SxU D\nE").toString());
+        assertEquals("SUDE", ActionSequence.of("éSU☃DE").toString());
+        assertSame(ActionSequence.EMPTY, ActionSequence.of(""));
+        assertEquals(ActionSequence.EMPTY, ActionSequence.of("xyz 123"));
+        assertTrue(ActionSequence.of("eqswuldr").isEmpty());
+        assertEquals(-1, ActionSequence.codeOf('x'));
+        assertEquals(-1, ActionSequence.codeOf('☃'));
+        for (int code = 0; code < ActionSequence.ACTION_COUNT; code++) {
+            assertEquals(code, ActionSequence.codeOf(ActionSequence.ACTIONS.charAt(code)));
+        }
+
+        String text = " S" + "U".repeat(21) + "?" + "L".repeat(21) + "\tE";
+        assertSequence("S" + "U".repeat(21) + "L".repeat(21) + "E", ActionSequence.of(text));
+    }
+
+    @Test
+    public void testOfReturnsSameSequence() {
+        ActionSequence sequence = ActionSequence.of("SUDE");
+        assertSame(sequence, ActionSequence.of(sequence));
+    }
+}
@@ -0,0 +1,262 @@
+package randomGenerators.map;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares BoardModel.isValidMove with the check IterationResult.isValidMove did before it used a BoardModel, on
+ * random maps and action sequences, and checks the flood fill of the reachable cells and food.
+ */
+public class BoardModelTest {
+
+    /**
+     * The check of IterationResult.isValidMove before the BoardModel, on the content of a map.
+     */
+    private static boolean isValidMoveOnContent(String content, String actionSequence, boolean canEndWithQuit)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        int height = lines.size();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, line.length());
+        }
+        char[][] map = new char[height][width];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                map[i][j] = j < lines.get(i).length() ? lines.get(i).charAt(j) : ' ';
+            }
+        }
+        int[] playerCoordinates = {-1, -1};
+        search:
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                if (map[i][j] == 'P') {
+                    playerCoordinates = new int[]{i, j};
+                    break search;
+                }
+            }
+        }
+        boolean isValidMove = true;
+        for (String s : extractSubstrings(actionSequence, canEndWithQuit)) {
+            for (char c : s.toCharArray()) {
+                switch (c) {
+                    case 'U' -> playerCoordinates[0]--;
+                    case 'D' -> playerCoordinates[0]++;
+                    case 'L' -> playerCoordinates[1]--;
+                    case 'R' -> playerCoordinates[1]++;
+                    default -> {
+                    }
+                }
+                if (playerCoordinates[0] < 0 || playerCoordinates[0] >= map.length || playerCoordinates[1] < 0
+                        || playerCoordinates[1] >= map[0].length) {
+                    isValidMove = false;
+                    break;
+                }
+                if (map[playerCoordinates[0]][playerCoordinates[1]] == 'W') {
+                    isValidMove = false;
+                    break;
+                }
+            }
+        }
+        return isValidMove;
+    }
+
+    /**
+     * IterationResult.extractSubstrings, with the customSequencesNr check as a parameter.
+     */
+    private static List<String> extractSubstrings(String input, boolean canEndWithQuit) {
+        List<String> executedActionSequences = new ArrayList<>();
+        StringBuilder currentActionSequence = new StringBuilder();
+        boolean gameActive = false;
+        for (char action : input.toCharArray()) {
+            if (action == 'S') {
+                gameActive = true;
+                currentActionSequence.append(action);
+            } else if (action == 'E') {
+                if (gameActive) {
+                    gameActive = false;
+                    currentActionSequence.append(action);
+                    executedActionSequences.add(currentActionSequence.toString());
+                    currentActionSequence.setLength(0);
+                }
+            } else if (action == 'Q') {
+                if (gameActive && canEndWithQuit) {
+                    gameActive = false;
+                    currentActionSequence.append(action);
+                    executedActionSequences.add(currentActionSequence.toString());
+                    currentActionSequence.setLength(0);
+                } else if (!canEndWithQuit) {
+                    gameActive = true;
+                    currentActionSequence.append(action);
+                }
+            } else if (gameActive) {
+                currentActionSequence.append(action);
+            }
+        }
+        return executedActionSequences;
+    }
+
+    private static List<String> randomLines(SplittableRandom random) {
+        List<String> lines = new ArrayList<>();
+        int height = random.nextInt(1, 6);
+        int width = random.nextInt(1, 6);
+        boolean ragged = random.nextInt(4) == 0;
+        for (int row = 0; row < height; row++) {
+            StringBuilder line = new StringBuilder();
+            int rowWidth = ragged ? random.nextInt(0, width + 1) : width;
+            for (int column = 0; column < rowWidth; column++) {
+                line.append("0000WWMF".charAt(random.nextInt(8)));
+            }
+            lines.add(line.toString());
+        }
+        int players = random.nextInt(4) == 0 ? random.nextInt(3) : 1;
+        for (int i = 0; i < players; i++) {
+            int row = random.nextInt(height);
+            if (!lines.get(row).isEmpty()) {
+                StringBuilder line = new StringBuilder(lines.get(row));
+                line.setCharAt(random.nextInt(line.length()), 'P');
+                lines.set(row, line.toString());
+            }
+        }
+        return lines;
+    }
+
+    private static String randomSequence(SplittableRandom random) {
+        StringBuilder sequence = new StringBuilder();
+        int length = random.nextInt(0, 16);
+        for (int i = 0; i < length; i++) {
+            sequence.append("EQSWULDRSULDRx".charAt(random.nextInt(14)));
+        }
+        return sequence.toString();
+    }
+
+    @Test
+    public void isValidMoveMatchesTheOldCheck() throws IOException {
+        SplittableRandom random = new SplittableRandom(21);
+        for (int map = 0; map < 1000; map++) {
+            List<String> lines = randomLines(random);
+            String separator = random.nextBoolean() ? "\n" : "\r\n";
+            String content = String.join(separator, lines) + (random.nextBoolean() ? separator : "");
+            BoardModel board = BoardModel.parse(content.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 50; i++) {
+                String actionSequence = randomSequence(random);
+                for (boolean canEndWithQuit : new boolean[]{false, true}) {
+                    assertEquals(content + " " + actionSequence + " " + canEndWithQuit,
+                            isValidMoveOnContent(content, actionSequence, canEndWithQuit),
+                            board.isValidMove(actionSequence, canEndWithQuit));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void onlyEndedGamesAreChecked() {
+        BoardModel board = BoardModel.parse("W0\n0P\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(board.isValidMove("SLE", false));
+        assertFalse(board.isValidMove("SULE", false));
+        assertTrue(board.isValidMove("SUL", false));
+        assertFalse(board.isValidMove("SRE", false));
+        assertTrue(board.isValidMove("SUQLE", true));
+        assertFalse(board.isValidMove("SUQLE", false));
+    }
+
+    @Test
+    public void mapWithoutPlayerHasNoValidGame() {
+        BoardModel board = BoardModel.parse("00\n00".getBytes(StandardCharsets.UTF_8));
+        assertTrue(board.isValidMove("UDLR", false));
+        assertFalse(board.isValidMove("SE", false));
+    }
+
+    @Test
+    public void floodFillStopsAtWallsMonstersAndPadding() {
+        BoardModel board = BoardModel.parse("P0W0F\n0MW00\n00W\n0F".getBytes(StandardCharsets.UTF_8));
+        assertEquals(4, board.getHeight());
+        assertEquals(5, board.getWidth());
+        assertFalse(board.isRectangular());
+        assertEquals(0, board.getPlayerPosition());
+        assertArrayEquals(new int[]{4, 16}, board.getFoodPositions());
+        assertArrayEquals(new int[]{6}, board.getMonsterPositions());
+        assertTrue(board.isReachable(0, 1));
+        assertTrue(board.isReachable(3, 1));
+        assertFalse(board.isReachable(1, 1)); // monster
+        assertFalse(board.isReachable(0, 2)); // wall
+        assertFalse(board.isReachable(0, 4)); // behind the wall
+        assertFalse(board.isReachable(2, 3)); // padding
+        assertTrue(board.isFoodReachable());
+        assertFalse(board.isValidBoard());
+
+        BoardModel walledIn = BoardModel.parse("P0W\nMWF\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(walledIn.isRectangular());
+        assertFalse(walledIn.isFoodReachable());
+        assertTrue(walledIn.isValidBoard());
+        assertFalse(BoardModel.parse("0F\nF0".getBytes(StandardCharsets.UTF_8)).isFoodReachable());
+    }
+
+    @Test
+    public void foodReachabilityMatchesDepthFirstSearch() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int map = 0; map < 1000; map++) {
+            int height = 1 + random.nextInt(6);
+            int width = 1 + random.nextInt(6);
+            char[][] cells = new char[height][width];
+            for (char[] row : cells) {
+                for (int column = 0; column < width; column++) {
+                    row[column] = "0000WWMF".charAt(random.nextInt(8));
+                }
+            }
+            int playerRow = random.nextInt(height);
+            int playerColumn = random.nextInt(width);
+            cells[playerRow][playerColumn] = 'P';
+            StringBuilder content = new StringBuilder();
+            for (char[] row : cells) {
+                content.append(row).append('\n');
+            }
+            BoardModel board = BoardModel.parse(content.toString().getBytes(StandardCharsets.UTF_8));
+            boolean[][] visited = new boolean[height][width];
+            boolean foodReachable = search(cells, visited, playerRow, playerColumn);
+            assertEquals(content.toString(), foodReachable, board.isFoodReachable());
+            for (int row = 0; row < height; row++) {
+                for (int column = 0; column < width; column++) {
+                    assertEquals(content.toString(), visited[row][column], board.isReachable(row, column));
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the cells around a cell that are not walls or monsters, depth first.
+     *
+     * @return true if food was visited.
+     */
+    private static boolean search(char[][] cells, boolean[][] visited, int row, int column) {
+        if (row < 0 || row >= cells.length || column < 0 || column >= cells[row].length || visited[row][column]
+                || cells[row][column] == 'W' || cells[row][column] == 'M') {
+            return false;
+        }
+        visited[row][column] = true;
+        boolean food = cells[row][column] == 'F';
+        food |= search(cells, visited, row - 1, column);
+        food |= search(cells, visited, row + 1, column);
+        food |= search(cells, visited, row, column - 1);
+        food |= search(cells, visited, row, column + 1);
+        return food;
+    }
+}